@@ -0,0 +1,371 @@
+package com.javalens;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.List;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.ArrayList;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.DeflaterOutputStream;
+
+import com.javalens.Utils.PacketRow;
+
+//Wire format between a CaptureAgent and the AgentServer in a central JavaLens. The agent has already decoded each
+//packet, so a record carries the row's fields rather than the frame, plus the first `snap` bytes of the frame
+//for the details dialog.
+//
+//On connect the server sends CHALLENGE_BYTES random bytes, uncompressed; that is the only thing it ever sends.
+//The agent proves it knows the shared secret by answering with HMAC-SHA256(SHA-256(secret), challenge + name) in
+//its hello, so the secret never crosses the wire and a recorded hello can't be replayed. The secret comes from
+//JAVALENS_AGENT_SECRET (see secret()); with none set, both sides use the empty secret, which the server only
+//accepts while bound to loopback.
+//
+//Everything the agent sends is one deflate stream, sync-flushed after every batch, so the compressor's window
+//spans batches and repeated headers compress away. Inside it (all integers are unsigned LEB128 varints):
+//  hello    MAGIC (long), VERSION (int), agent name (UTF), the HMAC (HMAC_BYTES)
+//  batch    row count, then the agent's packets / shed / dropped totals, then that many records. A batch with no
+//           rows is a heartbeat.
+//  record   capture-time delta from the previous record (zigzag), iface, source, destination, protocol, DNS name,
+//           info, the numeric fields, raw frame, payload, then the payload's length on the wire. The snap cuts the
+//           bytes but not that length, so central rules that look at payload size (big pings) still see the real one.
+//
+//Strings use a per-connection dictionary: the first use defines an id, later uses send only the id. It stops
+//growing at MAX_STRINGS so a scan across millions of addresses can't grow it forever; past that, strings go as
+//literals, and the decoder rejects a stream that tries to define more. Nullable numbers are sent as value + 1, with 0 meaning null.
+final class AgentLink {
+    private AgentLink() {}
+
+    static final long MAGIC = 0x4a4c4147454e5400L; // "JLAGENT\0"
+    static final int VERSION = 3;
+    static final int DEFAULT_PORT = 7390;
+    static final int CHALLENGE_BYTES = 16;
+    private static final int HMAC_BYTES = 32;
+
+    private static final int MAX_STRINGS = 65_536;
+    private static final int MAX_INFO_CHARS = 16_384;
+    private static final int MAX_BATCH = 1 << 16;
+    private static final int MAX_BYTES = 1 << 20;
+    private static final int STREAM_BUFFER = 1 << 16;
+
+    private static final int STR_NULL = 0, STR_LITERAL = 1, STR_DEFINE = 2, STR_REF = 3;
+    private static final int PAYLOAD_NONE = 0, PAYLOAD_INLINE = 1, PAYLOAD_IN_FRAME = 2;
+    private static final int F_MINE = 1, F_BROADCAST = 2;
+    private static final int TCP_FLAGS_SHIFT = 2;
+    private static final String[] TCP_FLAG_NAMES = {"FIN", "SYN", "RST", "PSH", "ACK", "URG"};
+
+    // ────────────────────── Authentication ─────────────────────────────────────────────────── //
+    //`explicit` if given (a -D property or --secret), else JAVALENS_AGENT_SECRET, else the empty secret.
+    //The environment is preferred: command lines are visible to every user on the machine.
+    static String secret(String explicit) {
+        if (explicit != null) return explicit;
+        String env = System.getenv("JAVALENS_AGENT_SECRET");
+        return env != null ? env : "";
+    }
+
+    //Server side: a fresh challenge, written to the agent's socket before anything is read from it
+    static byte[] challenge(OutputStream socket) throws IOException {
+        byte[] c = new byte[CHALLENGE_BYTES];
+        new SecureRandom().nextBytes(c);
+        socket.write(c);
+        socket.flush();
+        return c;
+    }
+
+    //Agent side: the server's challenge
+    static byte[] readChallenge(InputStream socket) throws IOException {
+        byte[] c = socket.readNBytes(CHALLENGE_BYTES);
+        if (c.length != CHALLENGE_BYTES) throw new IOException("Server closed the connection before its challenge");
+        return c;
+    }
+
+    static byte[] proof(String secret, byte[] challenge, String name) {
+        try {
+            byte[] key = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            mac.update(challenge);
+            return mac.doFinal(name.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e); // required of every JRE
+        }
+    }
+
+    // ────────────────────── Encoder ─────────────────────────────────────────────────── //
+    //One per connection, used by the agent's sender thread only
+    static final class Encoder {
+        private final DataOutputStream out;
+        private final String name;
+        private final int snap;
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final Map<String, String> labels = new HashMap<>();
+        private long lastTs;
+
+        //`snap` caps how many frame bytes each record carries; 0 sends whole frames. `challenge` is what the server
+        //sent on connect (see readChallenge).
+        Encoder(OutputStream socket, String name, int snap, String secret, byte[] challenge) throws IOException {
+            this.name = name;
+            this.snap = snap;
+            out = new DataOutputStream(new BufferedOutputStream(
+                new DeflaterOutputStream(socket, new Deflater(Deflater.BEST_SPEED), STREAM_BUFFER, true), STREAM_BUFFER));
+            out.writeLong(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(name);
+            out.write(proof(secret, challenge, name));
+            out.flush();
+        }
+
+        //Writes one batch and flushes it to the socket. Blocks while the central instance isn't reading.
+        void writeBatch(List<PacketRow> rows, long packets, long shed, long dropped) throws IOException {
+            putVar(rows.size());
+            putVar(packets);
+            putVar(shed);
+            putVar(dropped);
+            for (PacketRow r : rows) putRow(r);
+            out.flush();
+        }
+
+        private void putRow(PacketRow r) throws IOException {
+            long ts = r.getTimestampNanos();
+            long delta = ts - lastTs;
+            putVar((delta << 1) ^ (delta >> 63));
+            lastTs = ts;
+
+            putString(label(r.getIface()), true);
+            putString(r.getSource(), true);
+            putString(r.getDestination(), true);
+            putString(r.getProtocol(), true);
+            putString(r.getDnsQueryName(), true);
+            String info = r.getInfo();
+            putString(info != null && info.length() > MAX_INFO_CHARS ? info.substring(0, MAX_INFO_CHARS) : info, false);
+
+            putVar(r.getLinkType());
+            putVar(r.getSampleWeight());
+            putVar(r.getEtherType() + 1L);
+            putVar(r.getIpProtocol() + 1L);
+            putVar(r.getWireLength());
+            putVar((r.isMine() ? F_MINE : 0) | (r.isBroadcastOrMulticast() ? F_BROADCAST : 0) | r.getTcpFlagBits() << TCP_FLAGS_SHIFT);
+            putVar(r.getTcpAnalysis());
+            putNullable(r.getSrcPort());
+            putNullable(r.getDstPort());
+            putNullable(r.getWindowSize());
+            putNullable(r.getIcmpType());
+            putNullable(r.getIcmpCode());
+
+            byte[] raw = r.getRawData();
+            int rawLen = raw == null ? -1 : snap > 0 ? Math.min(snap, raw.length) : raw.length;
+            putVar(rawLen + 1L);
+            if (rawLen > 0) out.write(raw, 0, rawLen);
+
+            //The payload is nearly always the tail of the frame: send where it starts if it survived the snap
+            byte[] payload = r.getPayload();
+            if (payload == null) {
+                putVar(PAYLOAD_NONE);
+                return;
+            }
+            int at = r.getPayloadOffset();
+            if (at >= 0 && at + payload.length <= rawLen) {
+                putVar(PAYLOAD_IN_FRAME);
+                putVar(at);
+                putVar(payload.length);
+            } else {
+                int len = snap > 0 ? Math.min(snap, payload.length) : payload.length;
+                putVar(PAYLOAD_INLINE);
+                putVar(len);
+                out.write(payload, 0, len);
+            }
+            putVar(Math.max(payload.length, r.getOriginalPayloadLength()));
+        }
+
+        //Interfaces are shown as agent/iface on the central side so sensors with the same NIC names stay apart
+        private String label(String iface) {
+            if (iface == null) return name;
+            return labels.computeIfAbsent(iface, i -> name + "/" + i);
+        }
+
+        private void putString(String s, boolean intern) throws IOException {
+            if (s == null) {
+                putVar(STR_NULL);
+                return;
+            }
+            Integer id = intern ? ids.get(s) : null;
+            if (id != null) {
+                putVar(STR_REF + (long) id);
+                return;
+            }
+            if (intern && ids.size() < MAX_STRINGS) {
+                ids.put(s, ids.size());
+                putVar(STR_DEFINE);
+            } else {
+                putVar(STR_LITERAL);
+            }
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            putVar(b.length);
+            out.write(b);
+        }
+
+        private void putNullable(Integer v) throws IOException { putVar(v == null ? 0 : v + 1L); }
+
+        private void putVar(long v) throws IOException {
+            while ((v & ~0x7FL) != 0) {
+                out.write((int) (v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            out.write((int) v);
+        }
+    }
+
+    // ────────────────────── Decoder ─────────────────────────────────────────────────── //
+    //One per connection, used by the server's reader thread for that agent
+    static final class Decoder {
+        private final DataInputStream in;
+        private final String agentName;
+        private final List<String> strings = new ArrayList<>();
+        private final List<Set<String>> tcpFlagSets = new ArrayList<>(64);
+        private long lastTs;
+        private long packets, shed, dropped;
+
+        //Reads and checks the hello; throws if the peer isn't a JavaLens agent of this version that knows `secret`.
+        //`challenge` is what the server sent this connection.
+        Decoder(InputStream socket, String secret, byte[] challenge) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(socket, new Inflater(), STREAM_BUFFER), STREAM_BUFFER));
+            if (in.readLong() != MAGIC) throw new IOException("Peer is not a JavaLens agent");
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("Unsupported agent protocol version " + version);
+            agentName = in.readUTF();
+            byte[] proof = new byte[HMAC_BYTES];
+            in.readFully(proof);
+            if (!MessageDigest.isEqual(proof, proof(secret, challenge, agentName))) {
+                throw new IOException("Agent " + agentName + " did not prove the shared secret");
+            }
+
+            for (int bits = 0; bits < 64; bits++) {
+                Set<String> s = new HashSet<>();
+                for (int b = 0; b < TCP_FLAG_NAMES.length; b++) if ((bits & (1 << b)) != 0) s.add(TCP_FLAG_NAMES[b]);
+                tcpFlagSets.add(Set.copyOf(s));
+            }
+        }
+
+        String getAgentName() { return agentName; }
+
+        //Agent-side totals as of the last batch read
+        long getPackets() { return packets; }
+        long getShed() { return shed; }
+        long getDropped() { return dropped; }
+
+        //Next batch, possibly empty (a heartbeat). Throws EOFException when the agent disconnects.
+        List<PacketRow> readBatch() throws IOException {
+            int n = (int) bounded(MAX_BATCH);
+            packets = getVar();
+            shed = getVar();
+            dropped = getVar();
+            List<PacketRow> rows = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) rows.add(getRow());
+            return rows;
+        }
+
+        private PacketRow getRow() throws IOException {
+            long z = getVar();
+            lastTs += (z >>> 1) ^ -(z & 1);
+
+            String iface = getString(), src = getString(), dst = getString(), proto = getString(), dns = getString();
+            String info = getString();
+
+            int linkType = (int) getVar(), weight = (int) getVar();
+            int etherType = (int) getVar() - 1, ipProto = (int) getVar() - 1;
+            int wireLength = (int) getVar(), flags = (int) getVar(), tcpAnalysis = (int) getVar();
+            Integer srcPort = getNullable(), dstPort = getNullable(), window = getNullable();
+            Integer icmpType = getNullable(), icmpCode = getNullable();
+
+            int rawLen = (int) bounded(MAX_BYTES + 1) - 1;
+            byte[] raw = rawLen < 0 ? null : new byte[rawLen];
+            if (raw != null) in.readFully(raw);
+
+            byte[] payload = null;
+            int payloadAt = -1;
+            int mode = (int) getVar();
+            if (mode == PAYLOAD_IN_FRAME) {
+                int at = (int) getVar(), len = (int) getVar();
+                if (raw == null || at + len > raw.length) throw new IOException("Payload outside the frame");
+                payload = new byte[len];
+                System.arraycopy(raw, at, payload, 0, len);
+                payloadAt = at;
+            } else if (mode == PAYLOAD_INLINE) {
+                payload = new byte[(int) bounded(MAX_BYTES)];
+                in.readFully(payload);
+            }
+            int originalPayloadLen = payload == null ? -1 : (int) bounded(Integer.MAX_VALUE);
+
+            PacketRow row = PacketRow.builder()
+                .timestampNanos(lastTs).iface(iface).linkType(linkType).sampleWeight(weight)
+                .source(src).destination(dst).protocol(proto).etherType(etherType).ipProtocol(ipProto)
+                .wireLength(wireLength).info(info).mine((flags & F_MINE) != 0).broadcastOrMulticast((flags & F_BROADCAST) != 0)
+                .srcPort(srcPort).dstPort(dstPort).windowSize(window)
+                .tcpFlags(tcpFlagSets.get((flags >>> TCP_FLAGS_SHIFT) & 0x3f)).dnsQueryName(dns)
+                .icmpType(icmpType).icmpCode(icmpCode).payload(payload).payloadOffset(payloadAt).rawData(raw).originalPayloadLength(originalPayloadLen)
+                .build();
+            row.setTcpAnalysis(tcpAnalysis);
+            return row;
+        }
+
+        private String getString() throws IOException {
+            int code = (int) getVar();
+            switch (code) {
+                case STR_NULL: return null;
+                case STR_LITERAL:
+                case STR_DEFINE: {
+                    byte[] b = new byte[(int) bounded(MAX_BYTES)];
+                    in.readFully(b);
+                    String s = new String(b, StandardCharsets.UTF_8);
+                    if (code == STR_DEFINE) {
+                        if (strings.size() >= MAX_STRINGS) throw new IOException("Corrupt agent stream (string dictionary past " + MAX_STRINGS + ")");
+                        strings.add(s);
+                    }
+                    return s;
+                }
+                default: {
+                    int id = code - STR_REF;
+                    if (id >= strings.size()) throw new IOException("Unknown string id " + id);
+                    return strings.get(id);
+                }
+            }
+        }
+
+        private Integer getNullable() throws IOException {
+            long v = getVar();
+            return v == 0 ? null : (int) (v - 1);
+        }
+
+        //A length or count from the peer, rejected if it is past `max` rather than allocated
+        private long bounded(long max) throws IOException {
+            long v = getVar();
+            if (v > max) throw new IOException("Corrupt agent stream (" + v + " > " + max + ")");
+            return v;
+        }
+
+        private long getVar() throws IOException {
+            long v = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = in.readUnsignedByte();
+                v |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return v;
+            }
+            throw new IOException("Corrupt agent stream (varint too long)");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.javalens;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.net.Socket;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.SocketException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.function.BiConsumer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+import com.javalens.Utils.PacketRow;
+
+//Accepts CaptureAgent connections and feeds their rows into the same output queue the local CaptureEngine fills,
+//so each agent shows up as one more source. Rows arrive already decoded; here they only get the central
+//bookkeeping (timing, top talkers, incidents) and a lane for the status bar.
+//
+//Backpressure: while the UI is more than MAX_BACKLOG rows behind, a reader stops reading its socket. TCP flow
+//control then blocks the agent's sender, its queue grows, and the agent's own LoadShedder starts sampling,
+//so overload is shed at the sensor instead of piling up here.
+//
+//Rows from an agent end up in the table and in the database, so the server listens on loopback unless told
+//otherwise, and only reads batches from agents that answered its challenge with the shared secret (see
+//AgentLink). It refuses to listen anywhere else with the empty secret.
+public class AgentServer {
+    private static final Logger logger = LoggerFactory.getLogger(AgentServer.class);
+
+    private static final int MAX_BACKLOG = Integer.getInteger("javalens.agent.maxBacklog", 50_000);
+    private static final int HELLO_TIMEOUT_MILLIS = 10_000;
+
+    private final int port;
+    private final String bind, secret;
+    private final PacketParser parser;
+    private final TimingStats timing;
+    private final BlockingQueue<PacketRow> output;
+    private final BiConsumer<String, String> onError;
+    private final List<CaptureEngine.Lane> lanes = new CopyOnWriteArrayList<>();
+    private final List<Socket> clients = new CopyOnWriteArrayList<>();
+    private volatile ServerSocket server;
+
+    //`bind` is the address to listen on (a host name or literal); `secret` is the shared secret, "" for none
+    public AgentServer(int port, String bind, String secret, PacketParser parser, TimingStats timing,
+                       BlockingQueue<PacketRow> output, BiConsumer<String, String> onError) {
+        this.port = port;
+        this.bind = bind;
+        this.secret = secret;
+        this.parser = parser;
+        this.timing = timing;
+        this.output = output;
+        this.onError = onError;
+    }
+
+    //One lane per agent that has connected since start, including ones that have since gone away
+    public List<CaptureEngine.Lane> getLanes() { return lanes; }
+    public boolean isListening() { return server != null; }
+
+    //The bound port; differs from the requested one when that was 0
+    public int getPort() { return server != null ? server.getLocalPort() : port; }
+    public String getBind() { return bind; }
+
+    // ────────────────────── Start / Stop ─────────────────────────────────────────────────── //
+    public synchronized void start() throws IOException {
+        if (server != null) return;
+        InetAddress address = InetAddress.getByName(bind);
+        if (secret.isEmpty() && !address.isLoopbackAddress()) {
+            throw new IOException("Listening on " + bind + " needs a shared secret; set JAVALENS_AGENT_SECRET for JavaLens and its agents");
+        }
+        server = new ServerSocket(port, 50, address);
+        lanes.clear();
+        logger.info("Listening for capture agents on {}:{}", address.getHostAddress(), server.getLocalPort());
+
+        ServerSocket ss = server;
+        Thread acceptor = new Thread(() -> acceptLoop(ss), "javalens-agent-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public synchronized void stop() {
+        if (server == null) return;
+        try {
+            server.close();
+        } catch (IOException e) {
+            logger.debug("Closing agent listener: {}", e.getMessage());
+        }
+        server = null;
+        for (Socket s : clients) {
+            try {
+                s.close();
+            } catch (IOException e) {
+                logger.debug("Closing agent connection: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void acceptLoop(ServerSocket ss) {
+        while (!ss.isClosed()) {
+            try {
+                Socket s = ss.accept();
+                clients.add(s);
+                Thread.ofVirtual().name("javalens-agent-" + s.getRemoteSocketAddress()).start(() -> readLoop(s));
+            } catch (IOException e) {
+                if (!ss.isClosed()) logger.warn("Accepting agent connection failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    // ────────────────────── Per-Agent Reader ─────────────────────────────────────────────────── //
+    private void readLoop(Socket s) {
+        CaptureEngine.Lane lane = null;
+        try (s) {
+            //A peer that never sends its hello mustn't hold a reader forever
+            s.setSoTimeout(HELLO_TIMEOUT_MILLIS);
+            byte[] challenge = AgentLink.challenge(s.getOutputStream());
+            AgentLink.Decoder in = new AgentLink.Decoder(s.getInputStream(), secret, challenge);
+            s.setSoTimeout(0);
+            lane = new CaptureEngine.Lane(in.getAgentName());
+            lanes.add(lane);
+            logger.info("Capture agent {} connected from {}", in.getAgentName(), s.getRemoteSocketAddress());
+
+            while (true) {
+                while (output.size() > MAX_BACKLOG && !s.isClosed()) LockSupport.parkNanos(1_000_000);
+                List<PacketRow> batch = in.readBatch();
+                for (PacketRow row : batch) {
+                    parser.observe(row);
+                    timing.record(row);
+                    lane.count(row);
+                    output.offer(row);
+                }
+                lane.reportRemote(in.getShed(), in.getDropped());
+                lane.tickRate(System.nanoTime());
+            }
+        } catch (EOFException | SocketException e) {
+            if (lane != null) logger.info("Capture agent {} disconnected", lane.getName());
+        } catch (IOException | RuntimeException e) {
+            //Before the hello checks out it's just a peer that reached the port; don't let it raise alerts
+            if (lane == null) {
+                logger.warn("Rejected connection from {}: {}", s.getRemoteSocketAddress(), e.toString());
+                return;
+            }
+            logger.error("Dropping capture agent {}: {}", lane.getName(), e.toString());
+            onError.accept("Capture agent " + lane.getName() + " disconnected", String.valueOf(e.getMessage()));
+        } finally {
+            clients.remove(s);
+            if (lane != null) lane.close();
+        }
+    }
+}
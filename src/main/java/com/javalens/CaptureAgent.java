@@ -0,0 +1,209 @@
+package com.javalens;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.pcap4j.core.PcapNetworkInterface;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.List;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.net.Socket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.javalens.Utils.PacketRow;
+
+//Headless sensor process: captures and decodes with its own CaptureEngine, then streams the rows to a central
+//JavaLens (see AgentServer) in compressed batches (see AgentLink). Reconnects on its own if the link drops.
+//
+//  mvn -Pagent compile exec:java -Dexec.args="--central=10.0.0.2:7390 --ifaces=eth0"
+//
+//On one machine, start JavaLens with -Djavalens.agentPort=7390 (or use its Agents toggle) and run agents with
+//--synthetic=20000 to exercise the whole path over loopback without capture privileges. The central instance
+//only listens on loopback unless -Djavalens.agentBind says otherwise, and then needs a shared secret: set
+//JAVALENS_AGENT_SECRET to the same value for both (see AgentLink).
+//
+//Options (all --name=value): central (host:port), name (defaults to the host name), ifaces (comma separated,
+//defaults to every interface with an address), synthetic (pps; generate traffic instead of capturing),
+//profile, snap (frame bytes sent per packet, 0 = all), batch (rows per batch), lingerMillis (longest a row
+//waits for its batch to fill), secret (overrides JAVALENS_AGENT_SECRET; visible to other users in ps).
+public class CaptureAgent {
+    private static final Logger logger = LoggerFactory.getLogger(CaptureAgent.class);
+
+    //Rows waiting to be sent. When the central instance is slow this fills and the engine's LoadShedder samples.
+    private static final int QUEUE_CAPACITY = 200_000;
+
+    // ────────────────────── Sender ─────────────────────────────────────────────────── //
+    //Drains the row queue into batches over one connection at a time, reconnecting after failures.
+    //A batch goes out when it is full or its first row has waited `lingerNanos`; a heartbeat goes out after a
+    //quiet second so the central side keeps the agent's counters current.
+    static final class Sender implements Runnable {
+        private static final long HEARTBEAT_NANOS = TimeUnit.SECONDS.toNanos(1);
+        private static final long RETRY_MILLIS = 2_000;
+
+        private final String name, host, secret;
+        private final int port, snap, batchSize;
+        private final long lingerNanos;
+        private final BlockingQueue<PacketRow> queue;
+        private final CaptureEngine engine; // for the counters sent with each batch; null in tests
+        private volatile boolean stopped;
+        private volatile long sent, lost;
+
+        Sender(String name, String host, int port, String secret, BlockingQueue<PacketRow> queue, CaptureEngine engine,
+               int snap, int batchSize, long lingerNanos) {
+            this.name = name;
+            this.host = host;
+            this.secret = secret;
+            this.port = port;
+            this.queue = queue;
+            this.engine = engine;
+            this.snap = snap;
+            this.batchSize = batchSize;
+            this.lingerNanos = lingerNanos;
+        }
+
+        long getSent() { return sent; }
+        //Rows that were in a batch when its connection failed
+        long getLost() { return lost; }
+        void stop() { stopped = true; }
+
+        @Override public void run() {
+            while (!stopped) {
+                try (Socket s = new Socket()) {
+                    s.connect(new InetSocketAddress(host, port), 5_000);
+                    s.setTcpNoDelay(true); // batches are already as big as they'll get
+                    logger.info("Agent {} connected to {}:{}", name, host, port);
+                    byte[] challenge = AgentLink.readChallenge(s.getInputStream());
+                    pump(new AgentLink.Encoder(s.getOutputStream(), name, snap, secret, challenge));
+                } catch (IOException e) {
+                    logger.warn("Link to {}:{} failed ({}), retrying in {} s", host, port, e.getMessage(), RETRY_MILLIS / 1000);
+                    try {
+                        Thread.sleep(RETRY_MILLIS);
+                    } catch (InterruptedException ie) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        private void pump(AgentLink.Encoder out) throws IOException, InterruptedException {
+            List<PacketRow> batch = new ArrayList<>(batchSize);
+            long lastSent = System.nanoTime();
+            while (!stopped) {
+                PacketRow first = queue.poll(Math.min(lingerNanos, HEARTBEAT_NANOS), TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    long deadline = System.nanoTime() + lingerNanos;
+                    while (batch.size() < batchSize) {
+                        if (queue.drainTo(batch, batchSize - batch.size()) > 0) continue;
+                        PacketRow r = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                        if (r == null) break;
+                        batch.add(r);
+                    }
+                }
+                long now = System.nanoTime();
+                if (batch.isEmpty() && now - lastSent < HEARTBEAT_NANOS) continue;
+
+                int n = batch.size();
+                try {
+                    long packets = 0, shed = 0, dropped = 0;
+                    if (engine != null) {
+                        for (CaptureEngine.Lane lane : engine.getLanes()) {
+                            packets += lane.getPackets();
+                            shed += lane.getShed();
+                            dropped += lane.getKernelDropped() + lane.getIfaceDropped();
+                        }
+                    }
+                    out.writeBatch(batch, packets, shed, dropped); // blocks while central is behind
+                } catch (IOException e) {
+                    lost += n;
+                    throw e;
+                } finally {
+                    batch.clear();
+                }
+                sent += n;
+                lastSent = now;
+            }
+        }
+    }
+
+    // ────────────────────── Main ─────────────────────────────────────────────────── //
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = new HashMap<>();
+        for (String a : args) {
+            if (!a.startsWith("--") || !a.contains("=")) {
+                System.err.println("Ignoring argument " + a + " (expected --name=value)");
+                continue;
+            }
+            opts.put(a.substring(2, a.indexOf('=')), a.substring(a.indexOf('=') + 1));
+        }
+
+        String central = opts.getOrDefault("central", "localhost:" + AgentLink.DEFAULT_PORT);
+        int colon = central.lastIndexOf(':');
+        String host = colon < 0 ? central : central.substring(0, colon);
+        int port = colon < 0 ? AgentLink.DEFAULT_PORT : Integer.parseInt(central.substring(colon + 1));
+        String name = opts.getOrDefault("name", InetAddress.getLocalHost().getHostName());
+
+        //The central instance groups incidents for everything it receives; the sensor must not write them too
+        Database.disable();
+
+        Set<String> localIPs = ConcurrentHashMap.newKeySet(), localMACs = ConcurrentHashMap.newKeySet();
+        PacketParser parser = new PacketParser(localIPs, localMACs);
+        BlockingQueue<PacketRow> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+        CaptureEngine engine = new CaptureEngine(parser, new TimingStats(), queue,
+            (title, msg) -> logger.error("{}: {}", title, msg));
+        engine.setProfile(CaptureProfile.valueOf(opts.getOrDefault("profile", CaptureProfile.HIGH_THROUGHPUT.name()).toUpperCase()));
+
+        Sender sender = new Sender(name, host, port, AgentLink.secret(opts.get("secret")), queue, engine,
+            Integer.parseInt(opts.getOrDefault("snap", "256")),
+            Integer.parseInt(opts.getOrDefault("batch", "512")),
+            TimeUnit.MILLISECONDS.toNanos(Long.parseLong(opts.getOrDefault("lingerMillis", "50"))));
+        Thread senderThread = new Thread(sender, "javalens-agent-sender");
+        senderThread.start();
+
+        if (opts.containsKey("synthetic")) {
+            double pps = Double.parseDouble(opts.get("synthetic"));
+            engine.startSources(List.of(new SyntheticTraffic("synth", pps, 2_000, SyntheticTraffic.Attack.MIXED, 0.01, name.hashCode())));
+        } else {
+            localIPs.addAll(Utils.getLocalIPAddresses());
+            localMACs.addAll(Utils.getLocalMACAddresses());
+            List<PcapNetworkInterface> nifs = pickInterfaces(opts.get("ifaces"));
+            if (nifs.isEmpty()) {
+                System.err.println("No capture interfaces found; pass --ifaces=name[,name] or --synthetic=pps");
+                System.exit(1);
+            }
+            engine.start(nifs);
+        }
+        logger.info("Agent {} capturing on {}, sending to {}:{}", name,
+            engine.getLanes().stream().map(CaptureEngine.Lane::getName).toList(), host, port);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            engine.stop();
+            sender.stop();
+            logger.info("Agent {} stopped: {} rows sent, {} lost with failed connections", name, sender.getSent(), sender.getLost());
+        }));
+        senderThread.join();
+    }
+
+    private static List<PcapNetworkInterface> pickInterfaces(String wanted) {
+        List<PcapNetworkInterface> out = new ArrayList<>();
+        for (PcapNetworkInterface nif : Utils.findAllDevs()) {
+            if (wanted != null) {
+                if (List.of(wanted.split(",")).contains(nif.getName())) out.add(nif);
+            } else if (!nif.isLoopBack() && !nif.getAddresses().isEmpty()) {
+                out.add(nif);
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,423 @@
+package com.javalens;
+
+//PCap4j - Packet Capturing and Networking Classes
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.pcap4j.core.PcapStat;
+import org.pcap4j.packet.Packet;
+import org.pcap4j.core.PcapHandle;
+import org.pcap4j.core.NotOpenException;
+import org.pcap4j.core.PcapNativeException;
+import org.pcap4j.core.PcapNetworkInterface;
+import org.pcap4j.packet.factory.PacketFactory;
+import org.pcap4j.packet.factory.PacketFactories;
+import org.pcap4j.packet.namednumber.DataLinkType;
+
+//Java Standard Library Imports
+import java.util.List;
+import java.util.ArrayList;
+import java.io.EOFException;
+import java.util.function.BiConsumer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executors;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.javalens.Utils.PacketRow;
+
+//Captures on any number of interfaces at once. Each interface gets its own capture thread and its own lane;
+//a merger thread interleaves the lanes by capture timestamp into the single output queue the UI drains.
+public class CaptureEngine {
+    private static final Logger logger = LoggerFactory.getLogger(CaptureEngine.class);
+
+    //How long the merger waits for a quiet lane before assuming nothing older is coming from it
+    private static final long HOLD_BACK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long STATS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    //Minimum time between kernel buffer escalations on one interface; each reopen loses a few packets itself
+    private static final long ESCALATION_COOLDOWN_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    //One capture source and its counters. Counters are written by the capture thread and read by the UI.
+    public static final class Lane {
+        private final String name;
+        private final BlockingQueue<PacketRow> queue = new LinkedBlockingQueue<>();
+        private final AtomicLong packets = new AtomicLong();
+        private final AtomicLong shed = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private volatile long kernelDropped, ifaceDropped;
+        private long droppedBeforeReopen, ifaceDroppedBeforeReopen; // libpcap counters restart with each handle
+        private volatile int bufferBytes;
+        private volatile boolean reopen;
+        private long lastEscalation;
+        private volatile double packetsPerSecond;
+        private volatile boolean open = true;
+        private volatile Thread merger; // woken on every offer and on close; null for lanes nobody merges
+
+        //Capture time and wall time of the last row offered, used by the merger's watermark
+        private volatile long lastOfferedNanos = Long.MIN_VALUE;
+        private volatile long lastOfferedWall;
+
+        private long windowStartWall, windowStartPackets;
+
+        Lane(String name) { this.name = name; }
+
+        void offer(PacketRow row) {
+            count(row);
+            lastOfferedNanos = row.getTimestampNanos();
+            lastOfferedWall = System.nanoTime();
+            queue.offer(row);
+            wakeMerger();
+        }
+
+        private void wakeMerger() {
+            Thread m = merger;
+            if (m != null) LockSupport.unpark(m);
+        }
+
+        //Counters only, for lanes whose rows bypass the merger (remote agents, see AgentServer)
+        void count(PacketRow row) {
+            packets.incrementAndGet();
+            bytes.addAndGet(row.getWireLength());
+        }
+
+        //A remote agent's own shed and drop totals, as reported with each batch
+        void reportRemote(long shedTotal, long droppedTotal) {
+            shed.set(shedTotal);
+            kernelDropped = droppedTotal;
+        }
+
+        void close() {
+            open = false;
+            wakeMerger();
+        }
+
+        //Returns true when a stats interval has elapsed so the caller can refresh kernel counters
+        boolean tickRate(long nowWall) {
+            if (windowStartWall == 0) {
+                windowStartWall = nowWall;
+                return false;
+            }
+            long elapsed = nowWall - windowStartWall;
+            if (elapsed < STATS_INTERVAL_NANOS) return false;
+            long n = packets.get();
+            packetsPerSecond = (n - windowStartPackets) * 1e9 / elapsed;
+            windowStartPackets = n;
+            windowStartWall = nowWall;
+            return true;
+        }
+
+        public String getName() { return name; }
+        public long getPackets() { return packets.get(); }
+        public long getBytes() { return bytes.get(); }
+        public long getShed() { return shed.get(); }
+        public long getKernelDropped() { return kernelDropped; }
+        public long getIfaceDropped() { return ifaceDropped; }
+        public double getPacketsPerSecond() { return packetsPerSecond; }
+        public boolean isOpen() { return open; }
+        public int getBacklog() { return queue.size(); }
+        public int getBufferBytes() { return bufferBytes; }
+    }
+
+    private final PacketParser parser;
+    private final TimingStats timing;
+    private final BlockingQueue<PacketRow> output;
+    private final BiConsumer<String, String> onError; // (title, message), e.g. to raise an alert
+    private final LoadShedder shedder = new LoadShedder();
+    private final PacketFactory<Packet, DataLinkType> packetFactory = PacketFactories.getFactory(Packet.class, DataLinkType.class);
+
+    //Optional per-stage timing hook for the load test; null in normal use so the hot path pays one null check
+    public interface StageProbe {
+        void frameProcessed(long decodeNanos, long parseNanos);
+    }
+    private volatile StageProbe probe;
+
+    //One start() .. stop() cycle. Every loop checks its own run rather than a shared flag, so a quick stop → start
+    //cannot revive the previous run's threads before they have noticed the stop.
+    private static final class Run {
+        final List<Lane> lanes;
+        final ExecutorService capturePool;
+        Thread merger;
+        volatile boolean live = true;
+
+        Run(List<Lane> lanes) {
+            this.lanes = lanes;
+            //Capture threads sit in blocking native calls, so they're platform threads; the merger only coordinates
+            this.capturePool = Executors.newFixedThreadPool(lanes.size(), r -> {
+                Thread t = new Thread(r, "javalens-capture");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    private volatile CaptureProfile profile = CaptureProfile.HIGH_THROUGHPUT;
+    private volatile List<Lane> lanes = List.of();
+    private volatile Run run;
+
+    public CaptureEngine(PacketParser parser, TimingStats timing, BlockingQueue<PacketRow> output,
+                         BiConsumer<String, String> onError) {
+        this.parser = parser;
+        this.timing = timing;
+        this.output = output;
+        this.onError = onError;
+    }
+
+    public boolean isRunning() {
+        Run r = run;
+        return r != null && r.live;
+    }
+    public List<Lane> getLanes() { return lanes; }
+    public LoadShedder getShedder() { return shedder; }
+    public CaptureProfile getProfile() { return profile; }
+
+    //Takes effect the next time capture starts
+    public void setProfile(CaptureProfile profile) { this.profile = profile; }
+    public void setProbe(StageProbe probe) { this.probe = probe; }
+
+    // ────────────────────── Start / Stop ─────────────────────────────────────────────────── //
+    public synchronized void start(List<PcapNetworkInterface> nifs) {
+        if (nifs.isEmpty() || isRunning()) return;
+
+        List<Lane> newLanes = new ArrayList<>();
+        for (PcapNetworkInterface nif : nifs) newLanes.add(new Lane(nif.getName()));
+        Run r = startLanes(newLanes);
+        for (int i = 0; i < nifs.size(); i++) {
+            PcapNetworkInterface nif = nifs.get(i);
+            Lane lane = newLanes.get(i);
+            r.capturePool.submit(() -> sniffLoop(r, nif, lane));
+        }
+    }
+
+    //Same pipeline, fed from non-pcap sources (synthetic traffic, replays) instead of live interfaces
+    public synchronized void startSources(List<? extends FrameSource> sources) {
+        if (sources.isEmpty() || isRunning()) return;
+
+        List<Lane> newLanes = new ArrayList<>();
+        for (FrameSource src : sources) newLanes.add(new Lane(src.name()));
+        Run r = startLanes(newLanes);
+        for (int i = 0; i < sources.size(); i++) {
+            FrameSource src = sources.get(i);
+            Lane lane = newLanes.get(i);
+            r.capturePool.submit(() -> sourceLoop(r, src, lane));
+        }
+    }
+
+    private Run startLanes(List<Lane> newLanes) {
+        Run r = new Run(List.copyOf(newLanes));
+        lanes = r.lanes;
+        run = r;
+        r.merger = Thread.ofVirtual().name("javalens-merge").unstarted(() -> mergeLoop(r));
+        for (Lane lane : r.lanes) lane.merger = r.merger;
+        r.merger.start();
+        return r;
+    }
+
+    public synchronized void stop() {
+        Run r = run;
+        if (r == null || !r.live) return;
+        r.live = false;
+        r.capturePool.shutdownNow();
+        LockSupport.unpark(r.merger);
+    }
+
+    // ────────────────────── Per-Interface Capture ─────────────────────────────────────────────────── //
+    //Open the network interface in PROMISCUOUS MODE to capture all the traffic. Keep capturing as long as we're running.
+    //The handle is reopened with a bigger kernel buffer whenever refreshKernelStats asks for it.
+    private void sniffLoop(Run run, PcapNetworkInterface nif, Lane lane) {
+        CaptureProfile prof = profile;
+        lane.bufferBytes = prof.getBufferBytes();
+        logger.info("Initializing packet capture on interface: {} ({} profile)", nif.getName(), prof);
+
+        try {
+            while (run.live) {
+                PcapHandle h = openHandle(nif, prof, lane.bufferBytes);
+                try (h) {
+                    logger.info("Successfully opened interface {} for live capture (buffer {} MiB, snaplen {}, immediate {}).",
+                        nif.getName(), lane.bufferBytes >> 20, prof.getSnaplen(), prof.isImmediate());
+                    if (!captureFrom(run, h, lane)) break;
+                }
+                lane.reopen = false;
+                lane.droppedBeforeReopen = lane.kernelDropped;
+                lane.ifaceDroppedBeforeReopen = lane.ifaceDropped;
+            }
+        } catch (PcapNativeException ex) {
+            logger.error("Failed to start capture on {}: {}", nif.getName(), ex.getMessage());
+            onError.accept("Capture stopped on " + nif.getName(), ex.getMessage());
+        } finally {
+            lane.close();
+        }
+    }
+
+    //Read from one open handle until capture stops or the lane asks for a reopen. Returns true to reopen.
+    private boolean captureFrom(Run run, PcapHandle h, Lane lane) {
+        DataLinkType dlt = h.getDlt();
+
+        while (run.live && !lane.reopen) {
+            try {
+                //Read the raw frame first so shed packets never pay for pcap4j decoding
+                byte[] raw = h.getNextRawPacketEx();
+                if (raw != null) {
+                    //With a short snaplen the frame is truncated; the row still reports the length on the wire
+                    Integer wire = h.getOriginalLength();
+                    handleFrame(lane, dlt, raw, Utils.toEpochNanos(h.getTimestamp()), wire != null ? wire : raw.length);
+                }
+            } catch (TimeoutException e) {
+                logger.debug("Capture timeout: {}", e.getMessage());
+            } catch (EOFException e) {
+                logger.warn("Capture reached EOF unexpectedly: {}", e.getMessage());
+            } catch (NotOpenException e) {
+                logger.error("Capture handle was closed unexpectedly: {}", e.getMessage());
+                return false;
+            } catch (Exception e) {
+                logger.error("Unexpected error during capture: {}", e.toString());
+            }
+
+            long now = System.nanoTime();
+            if (lane.tickRate(now)) refreshKernelStats(h, lane, now);
+        }
+        return lane.reopen;
+    }
+
+    //Shed, decode, parse and queue one raw frame. Shared by live capture and FrameSource lanes.
+    private void handleFrame(Lane lane, DataLinkType dlt, byte[] raw, long ts, int wireLength) {
+        int weight = shedder.admit(raw, dlt, wireLength);
+        if (weight == 0) {
+            lane.shed.incrementAndGet();
+            return;
+        }
+        StageProbe pr = probe;
+        long t0 = pr != null ? System.nanoTime() : 0;
+        Packet p = packetFactory.newInstance(raw, 0, raw.length, dlt);
+        long t1 = pr != null ? System.nanoTime() : 0;
+        PacketRow row = parser.parsePacket(p, ts, lane.getName(), dlt, weight, wireLength);
+        timing.record(row);
+        if (pr != null) pr.frameProcessed(t1 - t0, System.nanoTime() - t1);
+        lane.offer(row);
+        logger.debug("Captured packet: {}", row.getInfo());
+    }
+
+    private void sourceLoop(Run run, FrameSource src, Lane lane) {
+        DataLinkType dlt = src.dataLinkType();
+        try (src) {
+            while (run.live) {
+                FrameSource.Frame f = src.next();
+                try {
+                    if (f != null) handleFrame(lane, dlt, f.data(), f.timestampNanos(), f.wireLength());
+                } catch (RuntimeException e) {
+                    logger.error("Unexpected error processing frame from {}: {}", src.name(), e.toString());
+                }
+                lane.tickRate(System.nanoTime());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.error("Frame source {} failed: {}", src.name(), e.toString());
+            onError.accept("Capture stopped on " + src.name(), String.valueOf(e.getMessage()));
+        } finally {
+            lane.close();
+        }
+    }
+
+    //Update the lane's drop counters; if the kernel is still dropping, ask for a reopen with a bigger buffer
+    private static void refreshKernelStats(PcapHandle h, Lane lane, long now) {
+        try {
+            PcapStat st = h.getStats();
+            long before = lane.kernelDropped + lane.ifaceDropped;
+            lane.kernelDropped = lane.droppedBeforeReopen + st.getNumPacketsDropped();
+            lane.ifaceDropped = lane.ifaceDroppedBeforeReopen + st.getNumPacketsDroppedByIf();
+
+            boolean dropping = lane.kernelDropped + lane.ifaceDropped > before;
+            if (dropping && lane.bufferBytes < CaptureProfile.MAX_BUFFER_BYTES
+                    && now - lane.lastEscalation >= ESCALATION_COOLDOWN_NANOS) {
+                lane.lastEscalation = now;
+                lane.bufferBytes = Math.min(CaptureProfile.MAX_BUFFER_BYTES, lane.bufferBytes * 2);
+                lane.reopen = true;
+                logger.warn("{} is dropping packets, reopening with a {} MiB kernel buffer", lane.getName(), lane.bufferBytes >> 20);
+            }
+        } catch (PcapNativeException | NotOpenException e) {
+            logger.debug("Could not read capture stats for {}: {}", lane.getName(), e.getMessage());
+        }
+    }
+
+    //Not every platform/driver supports nanosecond timestamps, so fall back to microseconds
+    private static PcapHandle openHandle(PcapNetworkInterface nif, CaptureProfile prof, int bufferBytes) throws PcapNativeException {
+        try {
+            return prof.builder(nif.getName(), bufferBytes).build();
+        } catch (PcapNativeException e) {
+            if (prof.getPrecision() != PcapHandle.TimestampPrecision.NANO) throw e;
+            logger.info("Nanosecond timestamps unavailable on {} ({}), using microseconds", nif.getName(), e.getMessage());
+            return prof.builder(nif.getName(), bufferBytes).timestampPrecision(PcapHandle.TimestampPrecision.MICRO).build();
+        }
+    }
+
+    // ────────────────────── Timestamp Merge ─────────────────────────────────────────────────── //
+    //Repeatedly emit the oldest head across all lanes. Before emitting, make sure no other lane could still deliver
+    //something older: a lane is safe if it has a head of its own, has already moved past this timestamp,
+    //or has been quiet for HOLD_BACK_NANOS. Lanes unpark the merger on every offer and on close, so it parks
+    //until there is something new or the oldest hold-back runs out rather than polling.
+    private void mergeLoop(Run run) {
+        List<Lane> ls = run.lanes;
+        //After stop, keep going until every capture thread has exited: one may still be finishing a frame
+        while (run.live || anyBacklog(ls) || anyOpen(ls)) {
+            updateShedder(ls);
+
+            Lane best = null;
+            long bestTs = Long.MAX_VALUE;
+            for (Lane lane : ls) {
+                PacketRow head = lane.queue.peek();
+                if (head != null && head.getTimestampNanos() < bestTs) {
+                    best = lane;
+                    bestTs = head.getTimestampNanos();
+                }
+            }
+
+            if (best == null) {
+                //Still wake once per stats interval so the shedder sees the backlog drain while idle
+                LockSupport.parkNanos(STATS_INTERVAL_NANOS);
+                continue;
+            }
+
+            long wait = run.live ? holdBackRemaining(ls, best, bestTs) : 0;
+            if (wait <= 0) {
+                output.offer(best.queue.poll());
+            } else {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+
+    //Nanoseconds until the head of best may be emitted, or 0 if it may go now
+    private static long holdBackRemaining(List<Lane> ls, Lane best, long ts) {
+        long now = System.nanoTime(), wait = 0;
+        for (Lane lane : ls) {
+            if (lane == best || !lane.isOpen() || !lane.queue.isEmpty()) continue;
+            if (lane.lastOfferedNanos >= ts) continue;
+            wait = Math.max(wait, lane.lastOfferedWall + HOLD_BACK_NANOS - now);
+        }
+        return wait;
+    }
+
+    //Feed the overload detector with the backlog between capture and UI, and the kernel's drop counters
+    private void updateShedder(List<Lane> ls) {
+        long backlog = output.size(), drops = 0;
+        for (Lane lane : ls) {
+            backlog += lane.queue.size();
+            drops += lane.kernelDropped + lane.ifaceDropped;
+        }
+        shedder.update(System.nanoTime(), backlog, drops);
+    }
+
+    private static boolean anyBacklog(List<Lane> ls) {
+        for (Lane lane : ls) if (!lane.queue.isEmpty()) return true;
+        return false;
+    }
+
+    private static boolean anyOpen(List<Lane> ls) {
+        for (Lane lane : ls) if (lane.isOpen()) return true;
+        return false;
+    }
+}
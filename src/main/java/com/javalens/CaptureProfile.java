@@ -0,0 +1,53 @@
+package com.javalens;
+
+import org.pcap4j.core.PcapHandle;
+import org.pcap4j.core.PcapNetworkInterface;
+
+//Named libpcap handle settings. The kernel buffer size is only the starting point: CaptureEngine doubles it
+//(up to MAX_BUFFER_BYTES) and reopens the handle when the drop counters keep rising.
+public enum CaptureProfile {
+    //Big kernel buffer, packets delivered in batches: survives bursts, adds a little display latency
+    HIGH_THROUGHPUT("High throughput", 64 << 20, 65_536, false, 1_000, PcapHandle.TimestampPrecision.NANO),
+    //Every packet handed over as soon as it arrives, for watching traffic live
+    LOW_LATENCY("Low latency", 8 << 20, 65_536, true, 100, PcapHandle.TimestampPrecision.NANO),
+    //Only the first 128 bytes of each frame (Ethernet + IP + TCP/UDP headers and a bit of payload)
+    HEADERS_ONLY("Headers only", 32 << 20, 128, false, 1_000, PcapHandle.TimestampPrecision.NANO);
+
+    static final int MAX_BUFFER_BYTES = 256 << 20;
+
+    private final String label;
+    private final int bufferBytes;
+    private final int snaplen;
+    private final boolean immediate;
+    private final int timeoutMillis;
+    private final PcapHandle.TimestampPrecision precision;
+
+    CaptureProfile(String label, int bufferBytes, int snaplen, boolean immediate, int timeoutMillis,
+                   PcapHandle.TimestampPrecision precision) {
+        this.label = label;
+        this.bufferBytes = bufferBytes;
+        this.snaplen = snaplen;
+        this.immediate = immediate;
+        this.timeoutMillis = timeoutMillis;
+        this.precision = precision;
+    }
+
+    public int getBufferBytes() { return bufferBytes; }
+    public int getSnaplen() { return snaplen; }
+    public boolean isImmediate() { return immediate; }
+    public int getTimeoutMillis() { return timeoutMillis; }
+    public PcapHandle.TimestampPrecision getPrecision() { return precision; }
+
+    //Handle builder for this profile, with the given (possibly escalated) kernel buffer size
+    public PcapHandle.Builder builder(String ifaceName, int bufferBytes) {
+        return new PcapHandle.Builder(ifaceName)
+            .snaplen(snaplen)
+            .promiscuousMode(PcapNetworkInterface.PromiscuousMode.PROMISCUOUS)
+            .timeoutMillis(timeoutMillis)
+            .bufferSize(bufferBytes)
+            .immediateMode(immediate)
+            .timestampPrecision(precision);
+    }
+
+    @Override public String toString() { return label; }
+}
@@ -3,39 +3,628 @@ package com.javalens;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import java.util.List;
+import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.javalens.Utils.PacketRow;
+import com.javalens.IncidentAggregator.Incident;
 
 import io.github.cdimascio.dotenv.Dotenv;
 
 public class Database {
-    private static final Dotenv dotenv = Dotenv.load();
+    private static final Logger logger = LoggerFactory.getLogger(Database.class);
+
+    //Settings are read on first use, not when the class loads, so a missing .env never slows or breaks startup.
+    //Values in .env win; otherwise the process environment is used (dotenv falls back to it).
+    private static final class Config {
+        private static final Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+
+        static final String URL = dotenv.get("DB_URL");
+        static final String USER = dotenv.get("DB_USER");
+        static final String PASSWORD = dotenv.get("DB_PASSWORD");
+
+        // How many days of partitions we keep around. Older day partitions are dropped whole, which is far cheaper than DELETE.
+        static final int RETENTION_DAYS = Integer.parseInt(dotenv.get("DB_RETENTION_DAYS", "30"));
+    }
+
+    public static boolean isConfigured() { return Config.URL != null && !Config.URL.isBlank(); }
+    private static final int PARTITIONS_AHEAD = 2; // always have today + the next two days ready
+    private static final long MAINTENANCE_INTERVAL_MS = TimeUnit.HOURS.toMillis(1);
+
+    // ────────────────────── Batched Writer ─────────────────────────────────────────────────── //
+    //Suspicious packets are grouped into incidents first; closed incidents are queued here and written by a single
+    //background thread in JDBC batches over one connection, each with its few sample packets.
+    private static final int BATCH_SIZE = 200;
+    private static final int MAX_PENDING = 20_000;
+    private static final BlockingQueue<Incident> pending = new LinkedBlockingQueue<>(MAX_PENDING);
+    private static final AtomicLong droppedIncidents = new AtomicLong();
+    //Queued plus in the batch being written; only drops once a batch is stored or discarded
+    private static final AtomicInteger unwritten = new AtomicInteger();
 
-    private static final String URL = dotenv.get("DB_URL");
-    private static final String USER = dotenv.get("DB_USER");
-    private static final String PASSWORD = dotenv.get("DB_PASSWORD");
+    //An incident closes after this long without a matching packet. Override with -Djavalens.incidents.windowSeconds=N
+    private static final long INCIDENT_WINDOW_NANOS =
+        TimeUnit.SECONDS.toNanos(Integer.getInteger("javalens.incidents.windowSeconds", 60));
+    //New incidents per rule per minute before further sources/targets are folded together. -Djavalens.incidents.perRuleLimit=N
+    private static final int INCIDENTS_PER_RULE = Integer.getInteger("javalens.incidents.perRuleLimit", 120);
+    private static final IncidentAggregator incidents =
+        new IncidentAggregator(INCIDENT_WINDOW_NANOS, INCIDENTS_PER_RULE, Database::enqueue);
+    private static Thread writer;
+
+    //Partitions we already know exist, keyed by UTC day
+    private static final Set<LocalDate> knownPartitions = new HashSet<>();
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
 
     public static Connection connect() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        if (!isConfigured()) throw new SQLException("DB_URL is not set (.env or environment)");
+        Properties props = new Properties();
+        if (Config.USER != null) props.setProperty("user", Config.USER);
+        if (Config.PASSWORD != null) props.setProperty("password", Config.PASSWORD);
+        props.setProperty("reWriteBatchedInserts", "true"); // collapse a batch into multi-row INSERTs on the wire
+        return DriverManager.getConnection(Config.URL, props);
     }
 
-    public static void insertPacket(PacketRow packet) {
-    String sql = "INSERT INTO captured_packets(time, source, destination, protocol, length, info, is_mine, is_broadcast_or_multicast) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    //Connect and prepare the schema in the background so the first suspicious packet doesn't pay for it.
+    //Safe to call at startup: it returns immediately and only logs if Postgres isn't reachable.
+    public static void warmUp() {
+        if (!isConfigured()) {
+            logger.info("DB_URL not set; suspicious packets won't be persisted");
+            return;
+        }
+        ensureWriter();
+    }
 
-    try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-        pstmt.setString(1, packet.getTime());
-        pstmt.setString(2, packet.getSource());
-        pstmt.setString(3, packet.getDestination());
-        pstmt.setString(4, packet.getProtocol());
-        pstmt.setInt(5, Integer.parseInt(packet.getLength()));
-        pstmt.setString(6, packet.getInfo());
-        pstmt.setBoolean(7, packet.isMine());
-        pstmt.setBoolean(8, packet.isBroadcastOrMulticast());
-        pstmt.executeUpdate();
-    } catch (SQLException e) {
-        e.printStackTrace();
+    //Stand-in for Postgres (e.g. the offline load test): when set, batches go here instead of over JDBC.
+    //Must be installed before the first report call.
+    public interface BatchSink {
+        void write(List<Incident> batch) throws SQLException;
     }
-}
+    private static volatile BatchSink sink;
+
+    public static void useSink(BatchSink s) { sink = s; }
+
+    //For processes that must never write even if a .env is present, e.g. a CaptureAgent, whose central
+    //instance reports the incidents for the rows it receives
+    private static volatile boolean disabled;
+    public static void disable() { disabled = true; }
+
+    //Count a packet that tripped `rule` towards its incident. Never blocks the capture thread.
+    public static void report(PacketRow packet, String rule) {
+        if (disabled || (sink == null && !isConfigured())) return;
+        ensureWriter();
+        incidents.record(packet, rule);
+    }
+
+    //Closed incidents land here from the aggregator; if Postgres can't keep up they are counted and dropped
+    private static void enqueue(Incident incident) {
+        unwritten.incrementAndGet();
+        if (!pending.offer(incident)) {
+            unwritten.decrementAndGet();
+            long n = droppedIncidents.incrementAndGet();
+            if (n % 1_000 == 1) logger.warn("Database writer is behind, {} incidents dropped so far", n);
+        }
+    }
+
+    public static long getDroppedIncidents() { return droppedIncidents.get(); }
+    public static IncidentAggregator getIncidents() { return incidents; }
+
+    //Close every open incident now so it gets written, e.g. before a load test step ends or the app exits
+    public static void flushIncidents() {
+        incidents.flush(incidents.captureNow());
+    }
+
+    //Flush open incidents and give the writer a moment to store them, including a batch it is already writing.
+    //Called when the app exits.
+    public static void shutdown() {
+        if (writer == null) return;
+        flushIncidents();
+        long deadline = System.currentTimeMillis() + 3_000;
+        while (unwritten.get() > 0 && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static synchronized void ensureWriter() {
+        if (writer != null) return;
+        writer = new Thread(Database::writeLoop, "javalens-db-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private static void writeLoop() {
+        List<Incident> batch = new ArrayList<>(BATCH_SIZE);
+        long nextMaintenance = 0;
+
+        if (sink != null) {
+            sinkLoop(batch);
+            return;
+        }
+
+        while (!Thread.currentThread().isInterrupted()) {
+            try (Connection conn = connect()) {
+                ensureSchema(conn);
+
+                while (!Thread.currentThread().isInterrupted()) {
+                    if (System.currentTimeMillis() >= nextMaintenance) {
+                        maintainPartitions(conn);
+                        nextMaintenance = System.currentTimeMillis() + MAINTENANCE_INTERVAL_MS;
+                    }
+
+                    incidents.expire();
+                    Incident first = pending.poll(1, TimeUnit.SECONDS);
+                    if (first == null) continue;
+                    batch.add(first);
+                    pending.drainTo(batch, BATCH_SIZE - 1);
+
+                    writeBatch(conn, batch);
+                    done(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (SQLException e) {
+                logger.error("Database writer failed, {} incidents discarded: {}", batch.size(), e.getMessage());
+                done(batch);
+                knownPartitions.clear();
+                try {
+                    Thread.sleep(5_000); // back off before reconnecting
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    //Same batching as the JDBC path, minus the connection and partition upkeep
+    private static void sinkLoop(List<Incident> batch) {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                incidents.expire();
+                Incident first = pending.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                pending.drainTo(batch, BATCH_SIZE - 1);
+                sink.write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (SQLException e) {
+                logger.error("Batch sink failed, {} incidents discarded: {}", batch.size(), e.getMessage());
+            }
+            done(batch);
+        }
+    }
+
+    //The batch has been stored or given up on either way
+    private static void done(List<Incident> batch) {
+        unwritten.addAndGet(-batch.size());
+        batch.clear();
+    }
+
+    public static int getPendingIncidents() { return pending.size(); }
+
+    //Insert the incidents, then their sample packets pointing back at them, in one transaction: if anything fails,
+    //including getting fewer incident ids back than rows sent, none of the batch is kept
+    private static void writeBatch(Connection conn, List<Incident> batch) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            insertBatch(conn, batch);
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static void insertBatch(Connection conn, List<Incident> batch) throws SQLException {
+        //Make sure every day touched by this batch has a partition before we insert into it
+        for (Incident inc : batch) {
+            for (PacketRow r : inc.getSamples()) {
+                LocalDate day = utcDay(r.getTimestampNanos());
+                if (!knownPartitions.contains(day)) createPartition(conn, day);
+            }
+        }
+
+        String incidentSql = "INSERT INTO incidents(rule, source, target, first_seen, last_seen, packets, bytes, aggregated) "
+                           + "VALUES (?, ?::inet, ?::inet, ?, ?, ?, ?, ?)";
+        long[] ids = new long[batch.size()];
+        try (PreparedStatement ps = conn.prepareStatement(incidentSql, new String[] {"id"})) {
+            for (Incident inc : batch) {
+                ps.setString(1, inc.getRule());
+                ps.setString(2, inetOrNull(inc.getSource()));
+                ps.setString(3, inetOrNull(inc.getTarget()));
+                ps.setTimestamp(4, toTimestamp(inc.getFirstSeen()));
+                ps.setTimestamp(5, toTimestamp(inc.getLastSeen()));
+                ps.setLong(6, inc.getPackets());
+                ps.setLong(7, inc.getBytes());
+                ps.setBoolean(8, inc.isAggregated());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            int n = 0;
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                while (n < ids.length && keys.next()) ids[n++] = keys.getLong(1);
+            }
+            //Samples would otherwise be linked to incident 0
+            if (n < ids.length) throw new SQLException("Got " + n + " incident ids back for " + ids.length + " rows");
+        }
+
+        String sql = "INSERT INTO captured_packets(captured_at, source, destination, src_port, dst_port, protocol, length, "
+                   + "tcp_flags, window_size, dns_qname, icmp_type, icmp_code, info, is_mine, is_broadcast_or_multicast, incident_id) "
+                   + "VALUES (?, ?::inet, ?::inet, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < batch.size(); i++) {
+                for (PacketRow packet : batch.get(i).getSamples()) {
+                    pstmt.setTimestamp(1, toTimestamp(packet.getTimestampNanos()));
+                    pstmt.setString(2, inetOrNull(packet.getSource()));
+                    pstmt.setString(3, inetOrNull(packet.getDestination()));
+                    setNullableInt(pstmt, 4, packet.getSrcPort());
+                    setNullableInt(pstmt, 5, packet.getDstPort());
+                    pstmt.setString(6, packet.getProtocol());
+                    pstmt.setInt(7, packet.getWireLength());
+                    setNullableShort(pstmt, 8, packet.getProtocol().equals("TCP") ? Integer.valueOf(packet.getTcpFlagBits()) : null);
+                    setNullableInt(pstmt, 9, packet.getWindowSize());
+                    pstmt.setString(10, packet.getDnsQueryName());
+                    setNullableShort(pstmt, 11, packet.getIcmpType());
+                    setNullableShort(pstmt, 12, packet.getIcmpCode());
+                    pstmt.setString(13, packet.getInfo());
+                    pstmt.setBoolean(14, packet.isMine());
+                    pstmt.setBoolean(15, packet.isBroadcastOrMulticast());
+                    pstmt.setLong(16, ids[i]);
+                    pstmt.addBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    // ────────────────────── Schema Management ─────────────────────────────────────────────────── //
+    //captured_packets is range-partitioned by UTC day on captured_at. The primary key has to include the partition key.
+    private static final String CREATE_TABLE =
+        "CREATE TABLE IF NOT EXISTS captured_packets ("
+      + "  id                        bigint      NOT NULL DEFAULT nextval('captured_packets_id_seq'),"
+      + "  captured_at               timestamptz NOT NULL,"
+      + "  source                    inet,"
+      + "  destination               inet,"
+      + "  src_port                  integer,"
+      + "  dst_port                  integer,"
+      + "  protocol                  text        NOT NULL,"
+      + "  length                    integer     NOT NULL,"
+      + "  tcp_flags                 smallint,"
+      + "  window_size               integer,"
+      + "  dns_qname                 text,"
+      + "  icmp_type                 smallint,"
+      + "  icmp_code                 smallint,"
+      + "  info                      text,"
+      + "  is_mine                   boolean     NOT NULL,"
+      + "  is_broadcast_or_multicast boolean     NOT NULL,"
+      + "  incident_id               bigint,"
+      + "  PRIMARY KEY (captured_at, id)"
+      + ") PARTITION BY RANGE (captured_at)";
+
+    //One row per incident; captured_packets keeps only a few sample packets per incident, linked by incident_id.
+    //An aggregated incident (source and target NULL) stands for everything a rule saw past its rate limit.
+    private static final String CREATE_INCIDENTS =
+        "CREATE TABLE IF NOT EXISTS incidents ("
+      + "  id         bigserial   PRIMARY KEY,"
+      + "  rule       text        NOT NULL,"
+      + "  source     inet,"
+      + "  target     inet,"
+      + "  first_seen timestamptz NOT NULL,"
+      + "  last_seen  timestamptz NOT NULL,"
+      + "  packets    bigint      NOT NULL,"
+      + "  bytes      bigint      NOT NULL,"
+      + "  aggregated boolean     NOT NULL"
+      + ")";
+
+    public static void ensureSchema(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            //The original table was a plain heap with text timestamps. Keep its data, but move it out of the way.
+            String kind = null;
+            try (ResultSet rs = st.executeQuery(
+                    "SELECT c.relkind FROM pg_class c WHERE c.relname = 'captured_packets' "
+                  + "AND c.relnamespace = current_schema()::regnamespace")) {
+                if (rs.next()) kind = rs.getString(1);
+            }
+            if ("r".equals(kind)) {
+                logger.warn("Found unpartitioned captured_packets table, renaming it to captured_packets_legacy");
+                st.execute("ALTER TABLE captured_packets RENAME TO captured_packets_legacy");
+                st.execute("ALTER SEQUENCE IF EXISTS captured_packets_id_seq RENAME TO captured_packets_legacy_id_seq");
+            }
 
+            st.execute("CREATE SEQUENCE IF NOT EXISTS captured_packets_id_seq");
+            st.execute(CREATE_TABLE);
+            st.execute("CREATE INDEX IF NOT EXISTS captured_packets_source_idx ON captured_packets (source, captured_at)");
+            st.execute("CREATE INDEX IF NOT EXISTS captured_packets_destination_idx ON captured_packets (destination, captured_at)");
+            st.execute("CREATE INDEX IF NOT EXISTS captured_packets_protocol_idx ON captured_packets (protocol, captured_at)");
+            //Tables created before incidents existed
+            st.execute("ALTER TABLE captured_packets ADD COLUMN IF NOT EXISTS incident_id bigint");
+            st.execute("CREATE INDEX IF NOT EXISTS captured_packets_incident_idx ON captured_packets (incident_id)");
+
+            st.execute(CREATE_INCIDENTS);
+            st.execute("CREATE INDEX IF NOT EXISTS incidents_last_seen_idx ON incidents (last_seen)");
+            st.execute("CREATE INDEX IF NOT EXISTS incidents_rule_idx ON incidents (rule, last_seen)");
+        }
+        knownPartitions.clear();
+    }
+
+    //Create the upcoming day partitions and drop the ones that fell out of the retention window
+    public static void maintainPartitions(Connection conn) throws SQLException {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        for (int i = 0; i <= PARTITIONS_AHEAD; i++) {
+            createPartition(conn, today.plusDays(i));
+        }
+        int dropped = dropPartitionsBefore(conn, today.minusDays(Config.RETENTION_DAYS));
+        if (dropped > 0) logger.info("Dropped {} expired captured_packets partitions", dropped);
+
+        //Incidents are few enough that a plain DELETE keeps up
+        try (PreparedStatement ps = conn.prepareStatement("DELETE FROM incidents WHERE last_seen < ?")) {
+            ps.setTimestamp(1, Timestamp.from(today.minusDays(Config.RETENTION_DAYS).atStartOfDay(ZoneOffset.UTC).toInstant()));
+            int n = ps.executeUpdate();
+            if (n > 0) logger.info("Deleted {} expired incidents", n);
+        }
+    }
+
+    private static void createPartition(Connection conn, LocalDate day) throws SQLException {
+        String sql = "CREATE TABLE IF NOT EXISTS " + partitionName(day)
+                   + " PARTITION OF captured_packets FOR VALUES FROM ('" + day + " 00:00:00+00') TO ('"
+                   + day.plusDays(1) + " 00:00:00+00')";
+        try (Statement st = conn.createStatement()) {
+            st.execute(sql);
+        }
+        knownPartitions.add(day);
+    }
+
+    private static int dropPartitionsBefore(Connection conn, LocalDate cutoff) throws SQLException {
+        List<String> expired = new ArrayList<>();
+        String sql = "SELECT c.relname FROM pg_inherits i "
+                   + "JOIN pg_class c ON c.oid = i.inhrelid "
+                   + "JOIN pg_class p ON p.oid = i.inhparent "
+                   + "WHERE p.relname = 'captured_packets' AND p.relnamespace = current_schema()::regnamespace";
+
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next()) {
+                String name = rs.getString(1);
+                LocalDate day = partitionDay(name);
+                if (day != null && day.isBefore(cutoff)) expired.add(name);
+            }
+        }
+
+        try (Statement st = conn.createStatement()) {
+            for (String name : expired) {
+                st.execute("DROP TABLE IF EXISTS " + name);
+                knownPartitions.remove(partitionDay(name));
+            }
+        }
+        return expired.size();
+    }
+
+    static String partitionName(LocalDate day) {
+        return "captured_packets_p" + day.format(PARTITION_SUFFIX);
+    }
+
+    static LocalDate partitionDay(String partitionName) {
+        String prefix = "captured_packets_p";
+        if (!partitionName.startsWith(prefix)) return null;
+        try {
+            return LocalDate.parse(partitionName.substring(prefix.length()), PARTITION_SUFFIX);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // ────────────────────── History Read Path ─────────────────────────────────────────────────── //
+    //A persisted packet as read back for the History view
+    public record StoredPacket(
+        long id, Instant capturedAt, String source, String destination,
+        Integer srcPort, Integer dstPort, String protocol, int length,
+        String dnsQueryName, String info, boolean isMine
+    ) {}
+
+    //Server-side filter for history queries. Any field may be null to mean "no restriction".
+    public record HistoryFilter(Instant from, Instant to, String host, String protocol) {}
+
+    public record Count(String key, long packets, long bytes) {}
+
+    //A persisted incident; source and target are null for a rule's aggregated (rate-limited) incident
+    public record StoredIncident(
+        long id, String rule, String source, String target,
+        Instant firstSeen, Instant lastSeen, long packets, long bytes, boolean aggregated
+    ) {}
+
+    //Fetch one page of packets, newest first. Pass the last row of the previous page as `after` to get the next page.
+    //Keyset pagination on (captured_at, id) walks the primary key index, so page N costs the same as page 1.
+    public static List<StoredPacket> queryHistory(HistoryFilter filter, StoredPacket after, int limit) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(
+            "SELECT id, captured_at, host(source), host(destination), src_port, dst_port, protocol, length, dns_qname, info, is_mine "
+          + "FROM captured_packets WHERE TRUE");
+        appendFilter(sql, params, filter);
+        if (after != null) {
+            sql.append(" AND (captured_at, id) < (?, ?)");
+            params.add(Timestamp.from(after.capturedAt()));
+            params.add(after.id());
+        }
+        sql.append(" ORDER BY captured_at DESC, id DESC LIMIT ?");
+        params.add(limit);
+
+        List<StoredPacket> page = new ArrayList<>(limit);
+        try (Connection conn = connect(); PreparedStatement ps = prepare(conn, sql.toString(), params);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                page.add(new StoredPacket(
+                    rs.getLong(1), rs.getTimestamp(2).toInstant(),
+                    rs.getString(3), rs.getString(4),
+                    (Integer) rs.getObject(5), (Integer) rs.getObject(6),
+                    rs.getString(7), rs.getInt(8), rs.getString(9), rs.getString(10), rs.getBoolean(11)
+                ));
+            }
+        }
+        return page;
+    }
+
+    //Newest incidents overlapping the filter's time range. The host filter matches source or target; protocol doesn't apply.
+    public static List<StoredIncident> queryIncidents(HistoryFilter f, int limit) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(
+            "SELECT id, rule, host(source), host(target), first_seen, last_seen, packets, bytes, aggregated "
+          + "FROM incidents WHERE TRUE");
+        appendIncidentFilter(sql, params, f);
+        sql.append(" ORDER BY last_seen DESC LIMIT ?");
+        params.add(limit);
+
+        List<StoredIncident> out = new ArrayList<>();
+        try (Connection conn = connect(); PreparedStatement ps = prepare(conn, sql.toString(), params);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                out.add(new StoredIncident(
+                    rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                    rs.getTimestamp(5).toInstant(), rs.getTimestamp(6).toInstant(),
+                    rs.getLong(7), rs.getLong(8), rs.getBoolean(9)
+                ));
+            }
+        }
+        return out;
+    }
+
+    //Top incident sources by packet count, aggregated in Postgres. Counted from the incidents' totals:
+    //captured_packets only keeps a few sample rows per incident. Like queryIncidents, protocol doesn't apply.
+    public static List<Count> topSources(HistoryFilter filter, int limit) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(
+            "SELECT host(source), sum(packets), sum(bytes) FROM incidents WHERE source IS NOT NULL");
+        appendIncidentFilter(sql, params, filter);
+        sql.append(" GROUP BY source ORDER BY 2 DESC LIMIT ?");
+        params.add(limit);
+        return queryCounts(sql.toString(), params);
+    }
+
+    //Suspicious packets per hour bucket (in the session time zone), from the incidents' totals. An incident that
+    //spans several hours is spread evenly over them; hours outside the filter's range are left out.
+    public static List<Count> countsPerHour(HistoryFilter filter) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(
+            "SELECT to_char(h, 'YYYY-MM-DD HH24:00'), round(sum(packets / n))::bigint, round(sum(bytes / n))::bigint "
+          + "FROM (SELECT packets::numeric AS packets, bytes::numeric AS bytes, "
+          + "             date_trunc('hour', first_seen) AS a, date_trunc('hour', last_seen) AS b "
+          + "      FROM incidents WHERE TRUE");
+        appendIncidentFilter(sql, params, filter);
+        sql.append(") i, LATERAL generate_series(a, b, interval '1 hour') h, "
+                 + "LATERAL (SELECT extract(epoch FROM b - a) / 3600 + 1 AS n) k WHERE TRUE");
+        if (filter != null && filter.from() != null) {
+            sql.append(" AND h >= date_trunc('hour', ?::timestamptz)");
+            params.add(Timestamp.from(filter.from()));
+        }
+        if (filter != null && filter.to() != null) {
+            sql.append(" AND h < ?");
+            params.add(Timestamp.from(filter.to()));
+        }
+        sql.append(" GROUP BY 1 ORDER BY 1");
+        return queryCounts(sql.toString(), params);
+    }
+
+    private static List<Count> queryCounts(String sql, List<Object> params) throws SQLException {
+        List<Count> counts = new ArrayList<>();
+        try (Connection conn = connect(); PreparedStatement ps = prepare(conn, sql, params);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) counts.add(new Count(rs.getString(1), rs.getLong(2), rs.getLong(3)));
+        }
+        return counts;
+    }
+
+    private static void appendFilter(StringBuilder sql, List<Object> params, HistoryFilter f) {
+        if (f == null) return;
+        if (f.from() != null) {
+            sql.append(" AND captured_at >= ?");
+            params.add(Timestamp.from(f.from()));
+        }
+        if (f.to() != null) {
+            sql.append(" AND captured_at < ?");
+            params.add(Timestamp.from(f.to()));
+        }
+        if (f.host() != null && !f.host().isBlank()) {
+            sql.append(" AND (source = ?::inet OR destination = ?::inet)");
+            params.add(f.host().trim());
+            params.add(f.host().trim());
+        }
+        if (f.protocol() != null && !f.protocol().isBlank()) {
+            sql.append(" AND protocol = ?");
+            params.add(f.protocol().trim());
+        }
+    }
+
+    //Incidents overlapping the time range whose source or target is the host
+    private static void appendIncidentFilter(StringBuilder sql, List<Object> params, HistoryFilter f) {
+        if (f == null) return;
+        if (f.from() != null) {
+            sql.append(" AND last_seen >= ?");
+            params.add(Timestamp.from(f.from()));
+        }
+        if (f.to() != null) {
+            sql.append(" AND first_seen < ?");
+            params.add(Timestamp.from(f.to()));
+        }
+        if (f.host() != null && !f.host().isBlank()) {
+            sql.append(" AND (source = ?::inet OR target = ?::inet)");
+            params.add(f.host().trim());
+            params.add(f.host().trim());
+        }
+    }
+
+    private static PreparedStatement prepare(Connection conn, String sql, List<Object> params) throws SQLException {
+        PreparedStatement ps = conn.prepareStatement(sql);
+        for (int i = 0; i < params.size(); i++) ps.setObject(i + 1, params.get(i));
+        return ps;
+    }
+
+    // ────────────────────── Helpers ─────────────────────────────────────────────────── //
+    static LocalDate utcDay(long epochNanos) {
+        return Instant.ofEpochSecond(0, epochNanos).atZone(ZoneOffset.UTC).toLocalDate();
+    }
+
+    private static Timestamp toTimestamp(long epochNanos) {
+        return Timestamp.from(Instant.ofEpochSecond(0, epochNanos));
+    }
+
+    //ARP and other non-IP rows carry "?" as their address, which Postgres can't cast to inet
+    private static String inetOrNull(String addr) {
+        return addr == null || addr.isEmpty() || addr.equals("?") ? null : addr;
+    }
+
+    private static void setNullableInt(PreparedStatement ps, int idx, Integer v) throws SQLException {
+        if (v == null) ps.setNull(idx, Types.INTEGER);
+        else ps.setInt(idx, v);
+    }
+
+    private static void setNullableShort(PreparedStatement ps, int idx, Integer v) throws SQLException {
+        if (v == null) ps.setNull(idx, Types.SMALLINT);
+        else ps.setShort(idx, v.shortValue());
+    }
 }
@@ -0,0 +1,29 @@
+package com.javalens;
+
+import com.javalens.Utils.PacketRow;
+
+//Service interface for protocol dissectors. A dissector claims ethertypes, IP protocol numbers and/or TCP/UDP ports,
+//and the DissectorRegistry dispatches to it through array lookups instead of string matching.
+//
+//Third-party dissectors are picked up with java.util.ServiceLoader: put the implementation on the classpath and list
+//its class name in META-INF/services/com.javalens.Dissector. A later registration for the same key wins.
+public interface Dissector {
+    int[] NONE = new int[0];
+
+    //Short protocol name shown in the App column and matched by the filter box, e.g. "HTTP"
+    String name();
+
+    //One-paragraph description used by the "Explanation of Type" column
+    String explanation();
+
+    default int[] etherTypes() { return NONE; }
+    default int[] ipProtocols() { return NONE; }
+    //Ports claimed on both transports; override tcpPorts/udpPorts to claim a port on only one of them
+    default int[] ports() { return NONE; }
+    default int[] tcpPorts() { return ports(); }
+    default int[] udpPorts() { return ports(); }
+
+    //Deeper, per-packet decode (e.g. a request line or a query name). Only called when a view or filter
+    //actually needs it, so it may look at the payload. Return null when there's nothing useful to add.
+    default String summarize(PacketRow row) { return null; }
+}
@@ -0,0 +1,199 @@
+package com.javalens;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.List;
+import java.util.HashMap;
+import java.util.ServiceLoader;
+import java.util.ServiceConfigurationError;
+import java.util.function.Function;
+import java.nio.charset.StandardCharsets;
+
+import com.javalens.Utils.PacketRow;
+
+//Dispatch table from ethertype / IP protocol / TCP or UDP port to Dissector. Lookups are plain array or hash probes,
+//so resolving a row's protocol costs the same no matter how many dissectors are registered.
+public class DissectorRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(DissectorRegistry.class);
+
+    private final Dissector[] byTcpPort = new Dissector[65_536];
+    private final Dissector[] byUdpPort = new Dissector[65_536];
+    private final Dissector[] byIpProtocol = new Dissector[256];
+    private final Map<Integer, Dissector> byEtherType = new HashMap<>();
+
+    private static volatile DissectorRegistry defaultRegistry;
+
+    //Built-ins first, then anything found via ServiceLoader, which may override them
+    public static DissectorRegistry getDefault() {
+        DissectorRegistry r = defaultRegistry;
+        if (r == null) {
+            synchronized (DissectorRegistry.class) {
+                r = defaultRegistry;
+                if (r == null) {
+                    r = new DissectorRegistry();
+                    for (Dissector d : BUILTINS) r.register(d);
+                    r.loadServices();
+                    defaultRegistry = r;
+                }
+            }
+        }
+        return r;
+    }
+
+    public void register(Dissector d) {
+        for (int t : d.etherTypes()) byEtherType.put(t & 0xFFFF, d);
+        for (int p : d.ipProtocols()) byIpProtocol[p & 0xFF] = d;
+        for (int p : d.tcpPorts()) byTcpPort[p & 0xFFFF] = d;
+        for (int p : d.udpPorts()) byUdpPort[p & 0xFFFF] = d;
+    }
+
+    private void loadServices() {
+        try {
+            for (Dissector d : ServiceLoader.load(Dissector.class)) {
+                register(d);
+                logger.info("Loaded dissector {} ({})", d.name(), d.getClass().getName());
+            }
+        } catch (ServiceConfigurationError e) {
+            logger.error("Failed to load a third-party dissector: {}", e.getMessage());
+        }
+    }
+
+    //Most specific match wins: application port (lower port first, as it's usually the service), then IP protocol,
+    //then ethertype. Ports are looked up in the table for the row's transport. Never returns null.
+    public Dissector lookup(PacketRow r) {
+        Integer sp = r.getSrcPort(), dp = r.getDstPort();
+        Dissector[] byPort = r.getIpProtocol() == 6 ? byTcpPort : r.getIpProtocol() == 17 ? byUdpPort : null;
+        if (byPort != null && sp != null && dp != null) {
+            int lo = Math.min(sp, dp), hi = Math.max(sp, dp);
+            if (byPort[lo] != null) return byPort[lo];
+            if (byPort[hi] != null) return byPort[hi];
+        }
+        if (r.getIpProtocol() >= 0 && byIpProtocol[r.getIpProtocol()] != null) return byIpProtocol[r.getIpProtocol()];
+        Dissector d = byEtherType.get(r.getEtherType());
+        return d != null ? d : OTHER;
+    }
+
+    // ────────────────────── Built-in Dissectors ─────────────────────────────────────────────────── //
+    private static final class Builtin implements Dissector {
+        private final String name, explanation;
+        private final int[] etherTypes, ipProtocols, tcpPorts, udpPorts;
+        private final Function<PacketRow, String> summarizer;
+
+        Builtin(String name, int[] etherTypes, int[] ipProtocols, int[] tcpPorts, int[] udpPorts,
+                Function<PacketRow, String> summarizer, String explanation) {
+            this.name = name;
+            this.etherTypes = etherTypes;
+            this.ipProtocols = ipProtocols;
+            this.tcpPorts = tcpPorts;
+            this.udpPorts = udpPorts;
+            this.summarizer = summarizer;
+            this.explanation = explanation;
+        }
+
+        @Override public String name() { return name; }
+        @Override public String explanation() { return explanation; }
+        @Override public int[] etherTypes() { return etherTypes; }
+        @Override public int[] ipProtocols() { return ipProtocols; }
+        @Override public int[] tcpPorts() { return tcpPorts; }
+        @Override public int[] udpPorts() { return udpPorts; }
+        @Override public String summarize(PacketRow row) { return summarizer != null ? summarizer.apply(row) : null; }
+    }
+
+    private static int[] of(int... v) { return v; }
+    private static final int[] NONE = Dissector.NONE;
+
+    static final Dissector OTHER = new Builtin("OTHER", NONE, NONE, NONE, NONE, null,
+        "Unknown or unsupported protocol. Could be a custom, experimental, or proprietary traffic type not recognized by this tool.");
+
+    private static final List<Dissector> BUILTINS = List.of(
+        new Builtin("ARP", of(0x0806), NONE, NONE, NONE, null,
+            "ARP – Address Resolution Protocol. Maps an IPv4 address to a device's MAC address inside a local Ethernet network. Uses broadcast frames (ff:ff:ff:ff:ff:ff) to find the MAC address for a given IP."),
+        new Builtin("TCP", NONE, of(6), NONE, NONE, null,
+            "TCP – Transmission Control Protocol. Reliable, connection-oriented transport layer protocol using a 3-way handshake, acknowledgments, retransmissions, and congestion control. Used for web browsing (HTTP/HTTPS), email (SMTP), file transfers (FTP)."),
+        new Builtin("UDP", NONE, of(17), NONE, NONE, null,
+            "UDP – User Datagram Protocol. Lightweight, connectionless transport layer protocol with no guarantee of delivery, ordering, or duplicate protection. Used for streaming (video, voice), DNS queries, and gaming."),
+        new Builtin("ICMP", NONE, of(1, 58), NONE, NONE, DissectorRegistry::icmpSummary,
+            "ICMP – Internet Control Message Protocol. Used for diagnostic and error messages like 'ping' (echo request/reply) and 'destination unreachable'. Operates directly over IP (not TCP/UDP)."),
+        new Builtin("DNS", NONE, NONE, of(53), of(53, 5353), r -> r.getDnsQueryName() != null ? "Query " + r.getDnsQueryName() : null,
+            "DNS – Domain Name System. Resolves human-readable domain names like 'google.com' into IP addresses. Typically uses UDP port 53, but can use TCP for larger responses like zone transfers."),
+        new Builtin("DHCP", NONE, NONE, NONE, of(67, 68), null,
+            "DHCP – Dynamic Host Configuration Protocol. Automatically assigns IP addresses, subnet masks, default gateways, and DNS servers to devices on a network. Operates over UDP ports 67 (server) and 68 (client)."),
+        new Builtin("HTTP", NONE, NONE, of(80, 8000, 8080), NONE, DissectorRegistry::httpSummary,
+            "HTTP – HyperText Transfer Protocol. Application layer protocol used for web traffic (port 80). It defines how browsers and web servers communicate, requesting and transmitting web pages, images, and resources."),
+        new Builtin("HTTPS", NONE, NONE, of(443, 8443), NONE, DissectorRegistry::tlsSummary,
+            "HTTPS – Secure version of HTTP (over TLS/SSL). Encrypts data between browser and server to ensure privacy, authenticity, and integrity. Commonly runs over TCP port 443."),
+        new Builtin("FTP", NONE, NONE, of(20, 21), NONE, DissectorRegistry::firstLine,
+            "FTP – File Transfer Protocol. Transfers files between client and server over TCP, using ports 20 (data) and 21 (control). Unencrypted by default; sensitive to firewalls due to separate control and data connections."),
+        new Builtin("SSH", NONE, NONE, of(22), NONE, r -> startsWith(r.getPayload(), "SSH-") ? firstLine(r) : null,
+            "SSH – Secure Shell. Provides encrypted remote login and command execution between computers. Runs over TCP port 22, replacing older, insecure protocols like Telnet and Rlogin."),
+        new Builtin("TLS", NONE, NONE, of(853, 990, 5061), NONE, DissectorRegistry::tlsSummary,
+            "TLS – Transport Layer Security. Cryptographic protocol providing privacy and data integrity between two communicating applications. Commonly used to secure HTTPS, SMTP, and VPN traffic."),
+        new Builtin("NTP", NONE, NONE, NONE, of(123), null,
+            "NTP – Network Time Protocol. Synchronizes clocks of computer systems over packet-switched, variable-latency networks. Uses UDP port 123."),
+        new Builtin("SMTP", NONE, NONE, of(25, 465, 587), NONE, DissectorRegistry::firstLine,
+            "SMTP – Simple Mail Transfer Protocol. Protocol for sending emails across networks. Typically uses TCP port 25 (unencrypted) or ports 465/587 (encrypted with SSL/TLS)."),
+        new Builtin("POP3", NONE, NONE, of(110, 995), NONE, DissectorRegistry::firstLine,
+            "POP3 – Post Office Protocol version 3. Email retrieval protocol that downloads messages from a server to a local client, usually TCP port 110 (unencrypted) or 995 (encrypted)."),
+        new Builtin("IMAP", NONE, NONE, of(143, 993), NONE, DissectorRegistry::firstLine,
+            "IMAP – Internet Message Access Protocol. Email retrieval protocol that allows syncing and managing mail on the server. Typically TCP port 143 (unencrypted) or 993 (encrypted).")
+    );
+
+    // ────────────────────── Summaries ─────────────────────────────────────────────────── //
+    private static String icmpSummary(PacketRow r) {
+        Integer type = r.getIcmpType();
+        if (type == null) return null;
+        switch (type) {
+            case 0: return "Echo reply";
+            case 3: return "Destination unreachable (code " + r.getIcmpCode() + ")";
+            case 4: return "Source quench";
+            case 5: return "Redirect";
+            case 8: return "Echo request";
+            case 11: return "Time exceeded";
+            default: return null;
+        }
+    }
+
+    private static final String[] HTTP_STARTS = { "GET ", "POST ", "PUT ", "DELETE ", "HEAD ", "OPTIONS ", "PATCH ", "CONNECT ", "TRACE ", "HTTP/1." };
+
+    private static String httpSummary(PacketRow r) {
+        byte[] p = r.getPayload();
+        for (String s : HTTP_STARTS) {
+            if (startsWith(p, s)) return firstLine(r);
+        }
+        return null;
+    }
+
+    private static String tlsSummary(PacketRow r) {
+        byte[] p = r.getPayload();
+        if (p == null || p.length < 5 || p[1] != 0x03) return null;
+        switch (p[0]) {
+            case 0x14: return "TLS change cipher spec";
+            case 0x15: return "TLS alert";
+            case 0x16: return p.length > 5 && p[5] == 0x01 ? "TLS ClientHello" : p.length > 5 && p[5] == 0x02 ? "TLS ServerHello" : "TLS handshake";
+            case 0x17: return "TLS application data";
+            default: return null;
+        }
+    }
+
+    //First text line of the payload, for line-oriented protocols (HTTP, FTP, SMTP, ...)
+    private static String firstLine(PacketRow r) {
+        byte[] p = r.getPayload();
+        if (p == null || p.length == 0) return null;
+        int end = 0, max = Math.min(p.length, 200);
+        while (end < max && p[end] != '\r' && p[end] != '\n') {
+            if (p[end] < 0x20 && p[end] != '\t') return null; // binary, not a text protocol line
+            end++;
+        }
+        return end == 0 ? null : new String(p, 0, end, StandardCharsets.ISO_8859_1);
+    }
+
+    private static boolean startsWith(byte[] p, String prefix) {
+        if (p == null || p.length < prefix.length()) return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (p[i] != prefix.charAt(i)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,134 @@
+package com.javalens;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.function.IntFunction;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+//Off-heap ring for captured frame bytes, so a long capture keeps its frames outside the Java heap and the GC
+//never has to trace or copy them. Rows hold a position into the ring instead of byte arrays.
+//
+//The ring is `budget` bytes of direct buffers (equal slabs, allocated as they are first reached). If the JVM
+//runs out of direct memory for a slab, the arena stops taking new frames and rows keep them on the heap
+//instead (raise -XX:MaxDirectMemorySize or lower the budget). Positions grow for
+//ever and wrap over the slabs, so once the budget is full each new frame overwrites the oldest: the data of old
+//rows is evicted first and those rows report no frame, while their decoded columns stay. A record never
+//straddles two slabs; if it doesn't fit in the rest of one, the rest is skipped.
+//
+//Appends only take a lock to reserve their space, and copy the bytes in after releasing it, so capture threads
+//copy in parallel. The first append into a slab on a new lap waits for any append still copying into it from
+//the lap before. Reads take no lock: a reader copies the bytes, then checks that no append has reached its
+//record since (the same idea as a seqlock), and treats it as evicted if one has.
+public final class FrameArena {
+    private static final Logger logger = LoggerFactory.getLogger(FrameArena.class);
+
+    private static final long MAX_SLAB = 64L << 20;
+
+    //Size it with -Djavalens.arenaMiB=N; 0 keeps frames on the heap as before
+    private static final class Holder {
+        static final FrameArena DEFAULT = create(Long.getLong("javalens.arenaMiB", 512) << 20);
+    }
+
+    public static FrameArena getDefault() { return Holder.DEFAULT; }
+
+    //Null when `budget` is 0, meaning frames stay on the heap
+    static FrameArena create(long budget) {
+        if (budget <= 0) return null;
+        return new FrameArena(budget, MAX_SLAB);
+    }
+
+    private final long slabSize;
+    private final ByteBuffer[] slabs;
+    private final AtomicIntegerArray copying; // appends still copying into each slab
+    private final long capacity;
+    private final IntFunction<ByteBuffer> allocator;
+    private volatile long head; // end of the last reserved record; everything below head - capacity is gone
+    private boolean outOfMemory; // a slab couldn't be allocated; guarded by this
+
+    FrameArena(long budget, long maxSlab) {
+        this(budget, maxSlab, ByteBuffer::allocateDirect);
+    }
+
+    //The budget is split into as few slabs of at most `maxSlab` as it takes, all the same size, so it is used
+    //whole rather than rounded down to a multiple of `maxSlab`
+    FrameArena(long budget, long maxSlab, IntFunction<ByteBuffer> allocator) {
+        int n = (int) Math.max(1, (budget + maxSlab - 1) / maxSlab);
+        slabSize = budget / n;
+        slabs = new ByteBuffer[n];
+        copying = new AtomicIntegerArray(n);
+        capacity = slabSize * n;
+        this.allocator = allocator;
+        logger.info("Frame arena: {} MiB off-heap in {} slabs of {} KiB", capacity >> 20, n, slabSize >> 10);
+    }
+
+    public long getCapacity() { return capacity; }
+    public long getHead() { return head; }
+    //Bytes of old records that have been overwritten so far
+    public long getEvictedBytes() { return Math.max(0, head - capacity); }
+
+    // ────────────────────── Write ─────────────────────────────────────────────────── //
+    //Copies b[off, off + len) in and returns its position, or -1 if it is bigger than a slab or the arena
+    //couldn't get the memory
+    public long append(byte[] b, int off, int len) {
+        if (len > slabSize) return -1;
+        long pos;
+        int k;
+        ByteBuffer s;
+        synchronized (this) {
+            if (outOfMemory) return -1;
+            pos = head;
+            long inSlab = pos % slabSize;
+            if (inSlab + len > slabSize) pos += slabSize - inSlab; // don't straddle; skip to the next slab
+            k = slabIndex(pos);
+            s = slabs[k];
+            if (s == null) {
+                try {
+                    slabs[k] = s = allocator.apply((int) slabSize);
+                } catch (OutOfMemoryError e) {
+                    outOfMemory = true;
+                    logger.warn("Frame arena stopped at {} MiB: {}. New frames stay on the heap; raise -XX:MaxDirectMemorySize "
+                        + "or lower -Djavalens.arenaMiB.", k * slabSize >> 20, e.getMessage()); // slabs are first reached in order
+                    return -1;
+                }
+            }
+            //Starting a slab on a new lap: a slow append from the lap before may still be copying into it
+            if (pos % slabSize == 0) while (copying.get(k) > 0) Thread.onSpinWait();
+            copying.incrementAndGet(k);
+
+            //Publish the reservation before the bytes move, so a reader of what is underneath sees it's gone.
+            //The volatile write also publishes a newly allocated slab to lock-free readers.
+            head = pos + len;
+        }
+        VarHandle.storeStoreFence();
+        s.put((int) (pos % slabSize), b, off, len);
+        copying.decrementAndGet(k);
+        return pos;
+    }
+
+    // ────────────────────── Read ─────────────────────────────────────────────────── //
+    //True while the record at `pos` hasn't been overwritten: nothing has been reserved a full lap past it
+    public boolean isRetained(long pos) {
+        return pos >= 0 && head <= pos + capacity;
+    }
+
+    //A copy of the record, or null if it has been evicted (also if it is evicted while being copied)
+    public byte[] copy(long pos, int len) {
+        if (!isRetained(pos)) return null;
+        byte[] out = new byte[len];
+        slab(pos).get((int) (pos % slabSize), out, 0, len);
+        VarHandle.acquireFence(); // the copy above must finish before head is re-read
+        return isRetained(pos) ? out : null;
+    }
+
+    //Readers only ask for positions below head, whose slab was stored before head was written
+    private ByteBuffer slab(long pos) {
+        return slabs[slabIndex(pos)];
+    }
+
+    private int slabIndex(long pos) {
+        return (int) ((pos / slabSize) % slabs.length);
+    }
+}
@@ -0,0 +1,20 @@
+package com.javalens;
+
+import org.pcap4j.packet.namednumber.DataLinkType;
+
+//Anything that can feed raw frames into a CaptureEngine lane in place of a live pcap handle,
+//e.g. the SyntheticTraffic generator used by the load test. Each source is read by its own capture thread.
+public interface FrameSource extends AutoCloseable {
+
+    //One captured frame. wireLength is the original length, which may exceed data.length when truncated.
+    record Frame(byte[] data, long timestampNanos, int wireLength) {}
+
+    String name();
+
+    DataLinkType dataLinkType();
+
+    //Next frame, or null if none arrived within the source's own timeout. Called from one thread only.
+    Frame next() throws InterruptedException;
+
+    @Override default void close() {}
+}
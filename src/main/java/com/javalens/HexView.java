@@ -0,0 +1,283 @@
+package com.javalens;
+
+import javafx.scene.text.Text;
+import javafx.scene.control.*;
+import javafx.geometry.Insets;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.text.TextFlow;
+import javafx.scene.layout.BorderPane;
+import javafx.collections.FXCollections;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+
+//Hex/ASCII viewer over the raw frame bytes. Only the lines currently on screen are turned into text,
+//so a 9000-byte jumbo frame or a multi-megabyte reassembled payload opens as fast as a 60-byte ARP.
+public class HexView extends BorderPane {
+    private static final int BYTES_PER_LINE = 16;
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    //A highlighted header region inside the frame, [start, end)
+    public record Field(String name, int start, int end, String styleClass) {}
+
+    private final byte[] data;
+    private final List<Field> fields;
+    private final ListView<Integer> lines = new ListView<>();
+    private final Label status = new Label();
+
+    //Current search match / goto cursor, [matchStart, matchEnd)
+    private int matchStart = -1, matchEnd = -1;
+
+    public HexView(byte[] data) {
+        this.data = data != null ? data : new byte[0];
+        this.fields = fieldsOf(this.data);
+
+        getStylesheets().add(getClass().getResource("/css/hexview.css").toExternalForm());
+        getStyleClass().add("hex-view");
+
+        //The list items are just line numbers, generated on demand rather than materialized
+        int lineCount = (this.data.length + BYTES_PER_LINE - 1) / BYTES_PER_LINE;
+        lines.setItems(FXCollections.observableList(new AbstractList<Integer>() {
+            @Override public Integer get(int i) { return i; }
+            @Override public int size() { return lineCount; }
+        }));
+        lines.setCellFactory(lv -> new LineCell());
+        lines.setFixedCellSize(22);
+
+        setTop(buildToolbar());
+        setCenter(lines);
+        setBottom(buildLegend());
+        status.setText(this.data.length + " bytes");
+    }
+
+    // ────────────────────── Toolbar: Goto && Search ─────────────────────────────────────────────────── //
+    private HBox buildToolbar() {
+        TextField gotoField = new TextField();
+        gotoField.setPromptText("Offset (0x.. or decimal)");
+        gotoField.setPrefWidth(170);
+        gotoField.setOnAction(e -> gotoOffset(gotoField.getText()));
+
+        TextField searchField = new TextField();
+        searchField.setPromptText("Search bytes");
+        ChoiceBox<String> mode = new ChoiceBox<>(FXCollections.observableArrayList("ASCII", "Hex"));
+        mode.getSelectionModel().selectFirst();
+        Button next = new Button("Find Next");
+        next.setOnAction(e -> search(searchField.getText(), "Hex".equals(mode.getValue())));
+        searchField.setOnAction(e -> next.fire());
+
+        HBox spacer = new HBox(); HBox.setHgrow(spacer, Priority.ALWAYS);
+        HBox bar = new HBox(8, new Label("Go to"), gotoField, spacer, searchField, mode, next, status);
+        bar.setPadding(new Insets(0, 0, 6, 0));
+        return bar;
+    }
+
+    private HBox buildLegend() {
+        HBox legend = new HBox(12);
+        legend.setPadding(new Insets(6, 0, 0, 0));
+        for (Field f : fields) {
+            Label l = new Label(f.name() + " [" + f.start() + "–" + (f.end() - 1) + "]");
+            l.getStyleClass().addAll("hex-legend", f.styleClass());
+            legend.getChildren().add(l);
+        }
+        return legend;
+    }
+
+    private void gotoOffset(String text) {
+        int offset;
+        try {
+            String t = text.trim().toLowerCase();
+            offset = t.startsWith("0x") ? Integer.parseInt(t.substring(2), 16) : Integer.parseInt(t);
+        } catch (NumberFormatException e) {
+            status.setText("Invalid offset");
+            return;
+        }
+        if (offset < 0 || offset >= data.length) {
+            status.setText("Offset out of range");
+            return;
+        }
+        select(offset, offset + 1);
+    }
+
+    private void search(String query, boolean hex) {
+        byte[] needle = hex ? parseHex(query) : query.getBytes(StandardCharsets.ISO_8859_1);
+        if (needle == null || needle.length == 0) {
+            status.setText(hex ? "Invalid hex pattern" : "Nothing to search");
+            return;
+        }
+
+        //Continue after the current match, wrapping around once
+        int from = matchStart < 0 ? 0 : matchStart + 1;
+        int found = indexOf(data, needle, from);
+        if (found < 0 && from > 0) found = indexOf(data, needle, 0);
+
+        if (found < 0) {
+            status.setText("Not found");
+            return;
+        }
+        select(found, found + needle.length);
+    }
+
+    private void select(int start, int end) {
+        matchStart = start;
+        matchEnd = end;
+        int line = start / BYTES_PER_LINE;
+        lines.scrollTo(Math.max(0, line - 3));
+        lines.getSelectionModel().select(line);
+        lines.refresh();
+        status.setText(String.format("Offset 0x%X (%d)", start, start));
+    }
+
+    static int indexOf(byte[] haystack, byte[] needle, int from) {
+        outer:
+        for (int i = Math.max(0, from); i <= haystack.length - needle.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (haystack[i + j] != needle[j]) continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    //"de ad be ef", "DEADBEEF" and "0xdeadbeef" are all accepted
+    static byte[] parseHex(String s) {
+        String t = s.replaceAll("\\s+", "").toLowerCase();
+        if (t.startsWith("0x")) t = t.substring(2);
+        if (t.isEmpty() || t.length() % 2 != 0) return null;
+        byte[] out = new byte[t.length() / 2];
+        for (int i = 0; i < out.length; i++) {
+            int hi = Character.digit(t.charAt(2 * i), 16), lo = Character.digit(t.charAt(2 * i + 1), 16);
+            if (hi < 0 || lo < 0) return null;
+            out[i] = (byte) ((hi << 4) | lo);
+        }
+        return out;
+    }
+
+    // ────────────────────── Line Rendering ─────────────────────────────────────────────────── //
+    private final class LineCell extends ListCell<Integer> {
+        private final TextFlow flow = new TextFlow();
+
+        @Override protected void updateItem(Integer line, boolean empty) {
+            super.updateItem(line, empty);
+            setText(null);
+            if (empty || line == null) {
+                setGraphic(null);
+                return;
+            }
+
+            flow.getChildren().clear();
+            int start = line * BYTES_PER_LINE;
+            int end = Math.min(start + BYTES_PER_LINE, data.length);
+
+            char[] offset = new char[10];
+            for (int i = 0; i < 8; i++) offset[i] = HEX[(start >>> (28 - 4 * i)) & 0xF];
+            offset[8] = ' '; offset[9] = ' ';
+            add(new String(offset), "hex-offset");
+
+            //Hex column, one Text run per stretch of bytes that share a style
+            appendRuns(start, end, true);
+            if (end - start < BYTES_PER_LINE) add(" ".repeat((BYTES_PER_LINE - (end - start)) * 3), null);
+            add(" ", null);
+            //ASCII column
+            appendRuns(start, end, false);
+
+            setGraphic(flow);
+        }
+
+        private void appendRuns(int start, int end, boolean hex) {
+            StringBuilder sb = new StringBuilder(BYTES_PER_LINE * 3);
+            String runStyle = styleAt(start);
+            for (int i = start; i < end; i++) {
+                String style = styleAt(i);
+                if (!Objects.equals(style, runStyle)) {
+                    add(sb.toString(), runStyle);
+                    sb.setLength(0);
+                    runStyle = style;
+                }
+                int b = data[i] & 0xFF;
+                if (hex) {
+                    sb.append(HEX[b >>> 4]).append(HEX[b & 0xF]).append(' ');
+                } else {
+                    sb.append(b >= 0x20 && b < 0x7F ? (char) b : '.');
+                }
+            }
+            if (sb.length() > 0) add(sb.toString(), runStyle);
+        }
+
+        private void add(String s, String styleClass) {
+            Text t = new Text(s);
+            t.getStyleClass().add("hex-text");
+            if (styleClass != null) t.getStyleClass().add(styleClass);
+            flow.getChildren().add(t);
+        }
+    }
+
+    private String styleAt(int i) {
+        if (i >= matchStart && i < matchEnd) return "hex-match";
+        for (Field f : fields) {
+            if (i >= f.start() && i < f.end()) return f.styleClass();
+        }
+        return null;
+    }
+
+    // ────────────────────── Header Field Layout ─────────────────────────────────────────────────── //
+    //Work out where the Ethernet / IP / transport headers sit in the frame so they can be tinted.
+    //Header length fields below the protocol minimum (a malformed or zeroed IHL / data offset) are read as the minimum.
+    static List<Field> fieldsOf(byte[] d) {
+        List<Field> out = new ArrayList<>();
+        if (d.length < 14) return out;
+
+        int off = 12;
+        int etherType = u16(d, off);
+        off += 2;
+        while ((etherType == 0x8100 || etherType == 0x88A8) && d.length >= off + 4) { // VLAN tags
+            etherType = u16(d, off + 2);
+            off += 4;
+        }
+        out.add(new Field("Ethernet", 0, off, "hex-eth"));
+
+        int l4Proto = -1;
+        if (etherType == 0x0800 && d.length >= off + 20) {
+            int ihl = Math.max(20, (d[off] & 0x0F) * 4);
+            l4Proto = d[off + 9] & 0xFF;
+            out.add(new Field("IPv4", off, Math.min(d.length, off + ihl), "hex-ip"));
+            off += ihl;
+        } else if (etherType == 0x86DD && d.length >= off + 40) {
+            l4Proto = d[off + 6] & 0xFF;
+            out.add(new Field("IPv6", off, off + 40, "hex-ip"));
+            off += 40;
+        } else if (etherType == 0x0806) {
+            out.add(new Field("ARP", off, Math.min(d.length, off + 28), "hex-ip"));
+            return out;
+        } else {
+            return out;
+        }
+
+        int l4Len = switch (l4Proto) {
+            case 6 -> Math.max(20, d.length >= off + 13 ? ((d[off + 12] >>> 4) & 0x0F) * 4 : 0); // TCP data offset
+            case 17, 1, 58 -> 8; // UDP, ICMP, ICMPv6
+            default -> 0;
+        };
+        String l4Name = switch (l4Proto) {
+            case 6 -> "TCP";
+            case 17 -> "UDP";
+            case 1 -> "ICMP";
+            case 58 -> "ICMPv6";
+            default -> null;
+        };
+        if (l4Name != null && l4Len > 0 && off < d.length) {
+            int end = Math.min(d.length, off + l4Len);
+            out.add(new Field(l4Name, off, end, "hex-l4"));
+            off = end;
+        }
+        if (off < d.length) out.add(new Field("Payload", off, d.length, "hex-payload"));
+        return out;
+    }
+
+    private static int u16(byte[] d, int off) {
+        return ((d[off] & 0xFF) << 8) | (d[off + 1] & 0xFF);
+    }
+}
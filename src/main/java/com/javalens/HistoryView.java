@@ -0,0 +1,282 @@
+package com.javalens;
+
+import javafx.stage.Stage;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.geometry.Insets;
+import javafx.scene.layout.VBox;
+import javafx.scene.layout.HBox;
+import javafx.geometry.Orientation;
+import javafx.application.Platform;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.chart.XYChart;
+import javafx.scene.chart.BarChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.CategoryAxis;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.beans.property.SimpleStringProperty;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.time.ZoneId;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.javalens.Database.Count;
+import com.javalens.Database.HistoryFilter;
+import com.javalens.Database.StoredPacket;
+import com.javalens.Database.StoredIncident;
+
+//Window for browsing incidents and the sample packets persisted with them. Filtering and aggregation happen
+//server-side; packet pages are fetched with keyset pagination as the user scrolls towards the end of the table.
+public class HistoryView {
+    private static final Logger logger = LoggerFactory.getLogger(HistoryView.class);
+
+    private static final int PAGE_SIZE = 500;
+    private static final int TOP_SOURCES = 15;
+    private static final int MAX_INCIDENTS = 1_000;
+    private static final DateTimeFormatter TIME_FMT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private final ObservableList<StoredPacket> rows = FXCollections.observableArrayList();
+    private final TableView<StoredPacket> table = new TableView<>(rows);
+    private final TableView<StoredIncident> incidentTable = new TableView<>();
+    private final ListView<String> topSources = new ListView<>();
+    private final BarChart<String, Number> perHour = new BarChart<>(new CategoryAxis(), new NumberAxis());
+    private final Label status = new Label();
+
+    private final DatePicker fromDate = new DatePicker(LocalDate.now().minusDays(1));
+    private final DatePicker toDate = new DatePicker(LocalDate.now());
+    private final TextField hostField = new TextField();
+    private final ComboBox<String> protoBox = new ComboBox<>();
+
+    //All database work runs on this thread so the FX thread never waits on JDBC
+    private final ExecutorService dbThread = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "javalens-history");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private HistoryFilter filter;
+    private boolean loading;
+    private boolean scrollHooked;
+    private boolean exhausted;
+    private long generation; // bumped on every new search so late pages from an old search are ignored
+
+    public static void show() {
+        new HistoryView().open();
+    }
+
+    private void open() {
+        Stage stage = new Stage();
+        stage.setTitle("History – JavaLens");
+
+        BorderPane root = new BorderPane();
+        root.setPadding(new Insets(10));
+        root.setTop(buildFilterBar());
+        TabPane tabs = new TabPane(
+            new Tab("Incidents", buildIncidentTable()),
+            new Tab("Sample packets", buildTable()));
+        tabs.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
+        root.setCenter(tabs);
+        root.setRight(buildAggregates());
+        root.setBottom(status);
+        BorderPane.setMargin(status, new Insets(6, 0, 0, 0));
+
+        stage.setScene(new Scene(root, 1200, 700));
+        stage.setOnHidden(e -> dbThread.shutdownNow());
+        stage.show();
+
+        //The scrollbar only exists once the skin is built, so hook it after the first layout pass
+        Platform.runLater(this::hookScrollBar);
+        search();
+    }
+
+    // ────────────────────── Layout ─────────────────────────────────────────────────── //
+    private HBox buildFilterBar() {
+        hostField.setPromptText("Host IP");
+        protoBox.setEditable(true);
+        protoBox.getItems().addAll("", "TCP", "UDP", "ICMPv4", "ARP");
+        protoBox.setPromptText("Protocol");
+
+        Button searchBtn = new Button("🔍 Search");
+        searchBtn.setDefaultButton(true);
+        searchBtn.setOnAction(e -> search());
+
+        HBox bar = new HBox(8,
+            new Label("From"), fromDate, new Label("To"), toDate,
+            new Label("Host"), hostField, new Label("Proto"), protoBox, searchBtn);
+        bar.setPadding(new Insets(0, 0, 8, 0));
+        return bar;
+    }
+
+    private TableView<StoredPacket> buildTable() {
+        table.getColumns().addAll(List.of(
+            col("Time", 170, p -> TIME_FMT.format(p.capturedAt())),
+            col("Source", 160, p -> withPort(p.source(), p.srcPort())),
+            col("Destination", 160, p -> withPort(p.destination(), p.dstPort())),
+            col("Proto", 70, StoredPacket::protocol),
+            col("Len", 60, p -> String.valueOf(p.length())),
+            col("DNS", 180, p -> p.dnsQueryName() == null ? "" : p.dnsQueryName()),
+            col("Info", 250, StoredPacket::info)
+        ));
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+        table.setPlaceholder(new Label("No persisted packets match this filter"));
+        return table;
+    }
+
+    private TableView<StoredIncident> buildIncidentTable() {
+        incidentTable.getColumns().addAll(List.of(
+            col("Last seen", 170, i -> TIME_FMT.format(i.lastSeen())),
+            col("First seen", 170, i -> TIME_FMT.format(i.firstSeen())),
+            col("Rule", 150, StoredIncident::rule),
+            col("Source", 140, i -> i.aggregated() ? "(many – rate limited)" : orQuestion(i.source())),
+            col("Target", 140, i -> i.aggregated() ? "" : orQuestion(i.target())),
+            col("Packets", 80, i -> String.format("%,d", i.packets())),
+            col("Bytes", 90, i -> String.format("%,d", i.bytes()))
+        ));
+        incidentTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+        incidentTable.setPlaceholder(new Label("No incidents in this range"));
+        return incidentTable;
+    }
+
+    private static String orQuestion(String addr) {
+        return addr == null ? "?" : addr;
+    }
+
+    private VBox buildAggregates() {
+        perHour.setTitle("Suspicious packets per hour");
+        perHour.setLegendVisible(false);
+        perHour.setAnimated(false);
+        perHour.setPrefHeight(300);
+
+        topSources.setPrefHeight(300);
+        VBox box = new VBox(6, new Label("Top incident sources"), topSources, perHour);
+        box.setPrefWidth(360);
+        box.setPadding(new Insets(0, 0, 0, 10));
+        VBox.setVgrow(topSources, Priority.ALWAYS);
+        return box;
+    }
+
+    private static <T> TableColumn<T, String> col(String title, int min, Function<T, String> value) {
+        TableColumn<T, String> c = new TableColumn<>(title);
+        c.setMinWidth(min);
+        c.setSortable(false); // ordering is defined by the server-side keyset, not the client
+        c.setCellValueFactory(cd -> new SimpleStringProperty(value.apply(cd.getValue())));
+        return c;
+    }
+
+    private static String withPort(String addr, Integer port) {
+        if (addr == null) return "?";
+        if (port == null) return addr;
+        return addr.contains(":") ? "[" + addr + "]:" + port : addr + ":" + port;
+    }
+
+    private void hookScrollBar() {
+        if (scrollHooked) return;
+        for (var node : table.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar bar && bar.getOrientation() == Orientation.VERTICAL) {
+                scrollHooked = true;
+                bar.valueProperty().addListener((obs, o, v) -> {
+                    if (v.doubleValue() >= bar.getMax() * 0.9) loadNextPage();
+                });
+            }
+        }
+    }
+
+    // ────────────────────── Queries ─────────────────────────────────────────────────── //
+    private void search() {
+        ZoneId zone = ZoneId.systemDefault();
+        Instant from = fromDate.getValue() == null ? null : fromDate.getValue().atStartOfDay(zone).toInstant();
+        Instant to = toDate.getValue() == null ? null : toDate.getValue().plusDays(1).atStartOfDay(zone).toInstant();
+        filter = new HistoryFilter(from, to, hostField.getText(), protoBox.getValue());
+
+        generation++;
+        rows.clear();
+        exhausted = false;
+        loading = false;
+        loadNextPage();
+        loadIncidents();
+        loadAggregates();
+    }
+
+    private void loadIncidents() {
+        long gen = generation;
+        HistoryFilter f = filter;
+        run(gen, () -> Database.queryIncidents(f, MAX_INCIDENTS), list -> incidentTable.getItems().setAll(list), () -> { });
+    }
+
+    private void loadNextPage() {
+        if (loading || exhausted) return;
+        loading = true;
+
+        long gen = generation;
+        HistoryFilter f = filter;
+        StoredPacket after = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        status.setText("Loading…");
+
+        //A failed page may be retried by the next scroll; any other failure leaves `loading` alone, since this page
+        //may still be queued behind it
+        run(gen, () -> Database.queryHistory(f, after, PAGE_SIZE), page -> {
+            rows.addAll(page);
+            exhausted = page.size() < PAGE_SIZE;
+            loading = false;
+            status.setText(rows.size() + " packets loaded" + (exhausted ? "" : " – scroll for more"));
+
+            //The table may not have had a scrollbar before the first page arrived
+            Platform.runLater(this::hookScrollBar);
+        }, () -> loading = false);
+    }
+
+    private void loadAggregates() {
+        long gen = generation;
+        HistoryFilter f = filter;
+
+        run(gen, () -> Database.topSources(f, TOP_SOURCES), counts -> {
+            topSources.getItems().setAll(counts.stream()
+                .map(c -> c.key() + "  –  " + c.packets() + " pkts, " + c.bytes() + " bytes")
+                .toList());
+        }, () -> { });
+
+        run(gen, () -> Database.countsPerHour(f), counts -> {
+            XYChart.Series<String, Number> series = new XYChart.Series<>();
+            for (Count c : counts) series.getData().add(new XYChart.Data<>(c.key(), c.packets()));
+            perHour.getData().setAll(List.of(series));
+        }, () -> { });
+    }
+
+    private interface Query<T> { T run() throws Exception; }
+
+    //Runs `query` on the database thread and hands the result to `onFx`, or calls `onFailed` if it threw. Both run on
+    //the FX thread and are skipped if a new search has started since `gen`.
+    private <T> void run(long gen, Query<T> query, Consumer<T> onFx, Runnable onFailed) {
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return query.run();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }, dbThread).whenComplete((result, err) -> Platform.runLater(() -> {
+            Throwable cause = err == null ? null
+                : err.getCause() != null && err.getCause().getCause() != null ? err.getCause().getCause() : err;
+            if (cause != null) logger.error("History query failed: {}", cause.getMessage());
+            if (gen != generation) return;
+            if (cause == null) {
+                onFx.accept(result);
+                return;
+            }
+            onFailed.run();
+            status.setText("Query failed: " + cause.getMessage());
+        }));
+    }
+}
@@ -0,0 +1,130 @@
+package com.javalens;
+
+import java.nio.charset.StandardCharsets;
+
+//Minimal HTTP/1.x start-line and Host header parser that works directly on a TCP payload. It walks the bytes once,
+//allocates nothing for segments that aren't HTTP, and only materialises the method, path and host strings.
+//Headers that continue in a later segment are simply not seen; the start line is all pairing needs.
+public final class HttpParser {
+    private static final int MAX_SCAN = 8_192;
+
+    private HttpParser() {}
+
+    public record Request(String method, String path, String host) {}
+    public record Response(int status) {}
+
+    private static final byte[][] METHODS = {
+        ascii("GET"), ascii("POST"), ascii("PUT"), ascii("DELETE"), ascii("HEAD"),
+        ascii("OPTIONS"), ascii("PATCH"), ascii("CONNECT"), ascii("TRACE")
+    };
+    private static final byte[] HTTP_1 = ascii("HTTP/1.");
+    private static final byte[] HOST = ascii("host:");
+    private static final byte[] SCHEME_HTTP = ascii("http://");
+    private static final byte[] SCHEME_HTTPS = ascii("https://");
+
+    // ────────────────────── Requests ─────────────────────────────────────────────────── //
+    //"METHOD SP target SP HTTP/1.x CRLF", or null when the payload doesn't start with a request line
+    public static Request parseRequest(byte[] p) {
+        if (p == null || p.length < 16) return null;
+        int m = methodLength(p);
+        if (m < 0) return null;
+
+        int targetStart = m + 1;
+        int targetEnd = indexOf(p, (byte) ' ', targetStart, lineEnd(p, targetStart));
+        if (targetEnd <= targetStart || !regionMatches(p, targetEnd + 1, HTTP_1, false)) return null;
+
+        String method = new String(p, 0, m, StandardCharsets.US_ASCII);
+        String path = pathOf(p, targetStart, targetEnd);
+        String host = hostOf(p, lineEnd(p, targetEnd));
+        return new Request(method, path, host);
+    }
+
+    private static int methodLength(byte[] p) {
+        for (byte[] m : METHODS) {
+            if (regionMatches(p, 0, m, false) && p[m.length] == ' ') return m.length;
+        }
+        return -1;
+    }
+
+    //Strip the query string and, for absolute-form targets (proxies), the scheme and authority
+    private static String pathOf(byte[] p, int start, int end) {
+        int scheme = regionMatches(p, start, SCHEME_HTTP, true) ? SCHEME_HTTP.length
+                   : regionMatches(p, start, SCHEME_HTTPS, true) ? SCHEME_HTTPS.length : 0;
+        if (scheme > 0) {
+            int slash = indexOf(p, (byte) '/', start + scheme, end);
+            start = slash < 0 ? end : slash;
+        }
+        int q = indexOf(p, (byte) '?', start, end);
+        if (q >= 0) end = q;
+        return start == end ? "/" : new String(p, start, end - start, StandardCharsets.US_ASCII);
+    }
+
+    //Scan header lines for Host:, stopping at the blank line that ends the header block
+    private static String hostOf(byte[] p, int pos) {
+        int limit = Math.min(p.length, MAX_SCAN);
+        while (pos < limit) {
+            pos = skipEol(p, pos);
+            int end = lineEnd(p, pos);
+            if (end == pos) return null; // end of headers
+            if (regionMatches(p, pos, HOST, true)) {
+                int s = pos + HOST.length;
+                while (s < end && p[s] == ' ') s++;
+                int e = end;
+                while (e > s && p[e - 1] == ' ') e--;
+                int colon = indexOf(p, (byte) ':', s, e); // drop ":port"
+                if (colon > s && p[s] != '[') e = colon;
+                return new String(p, s, e - s, StandardCharsets.US_ASCII).toLowerCase();
+            }
+            pos = end;
+        }
+        return null;
+    }
+
+    // ────────────────────── Responses ─────────────────────────────────────────────────── //
+    //"HTTP/1.x SP 3DIGIT ...", or null
+    public static Response parseResponse(byte[] p) {
+        if (p == null || p.length < 12 || !regionMatches(p, 0, HTTP_1, false) || p[8] != ' ') return null;
+        int status = 0;
+        for (int i = 9; i < 12; i++) {
+            if (p[i] < '0' || p[i] > '9') return null;
+            status = status * 10 + (p[i] - '0');
+        }
+        return new Response(status);
+    }
+
+    // ────────────────────── Byte Helpers ─────────────────────────────────────────────────── //
+    private static int lineEnd(byte[] p, int from) {
+        int limit = Math.min(p.length, MAX_SCAN);
+        for (int i = from; i < limit; i++) {
+            if (p[i] == '\r' || p[i] == '\n') return i;
+        }
+        return limit;
+    }
+
+    private static int skipEol(byte[] p, int i) {
+        if (i < p.length && p[i] == '\r') i++;
+        if (i < p.length && p[i] == '\n') i++;
+        return i;
+    }
+
+    private static int indexOf(byte[] p, byte b, int from, int to) {
+        for (int i = Math.max(0, from); i < to; i++) {
+            if (p[i] == b) return i;
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(byte[] p, int off, byte[] s, boolean ignoreCase) {
+        if (off < 0 || off + s.length > p.length) return false;
+        for (int i = 0; i < s.length; i++) {
+            byte b = p[off + i];
+            if (ignoreCase && b >= 'A' && b <= 'Z') b += 32;
+            if (b != s[i]) return false;
+        }
+        return true;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
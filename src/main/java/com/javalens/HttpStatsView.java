@@ -0,0 +1,95 @@
+package com.javalens;
+
+import javafx.util.Duration;
+import javafx.stage.Stage;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.geometry.Insets;
+import javafx.animation.Timeline;
+import javafx.animation.KeyFrame;
+import javafx.animation.Animation;
+import javafx.scene.layout.BorderPane;
+import javafx.beans.property.SimpleStringProperty;
+
+import java.util.List;
+import java.util.function.Function;
+
+import com.javalens.HttpTracker.Endpoint;
+
+//Per-endpoint HTTP metrics (host + path): request rate, status classes and response-time percentiles.
+//Refreshed once a second from an HttpTracker snapshot while the window is open.
+public class HttpStatsView {
+    private final HttpTracker tracker;
+    private final TableView<Endpoint> table = new TableView<>();
+    private final Label status = new Label();
+
+    private HttpStatsView(HttpTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    public static void show(HttpTracker tracker) {
+        new HttpStatsView(tracker).open();
+    }
+
+    private void open() {
+        Stage stage = new Stage();
+        stage.setTitle("HTTP Endpoints – JavaLens");
+
+        table.setPlaceholder(new Label("No plaintext HTTP seen yet"));
+        table.getColumns().addAll(List.of(
+            col("Host", 180, e -> e.getKey().host()),
+            col("Path", 260, e -> e.getKey().path()),
+            col("Requests", 80, e -> String.format("%,d", e.getRequests())),
+            col("Req/s", 60, e -> String.format("%.1f", e.getRequestsPerSecond())),
+            col("2xx", 60, e -> count(e.getStatusClass(2))),
+            col("3xx", 60, e -> count(e.getStatusClass(3))),
+            col("4xx", 60, e -> count(e.getStatusClass(4))),
+            col("5xx", 60, e -> count(e.getStatusClass(5))),
+            col("No reply", 70, e -> count(e.getTimeouts())),
+            col("p50", 75, e -> millis(e, 0.50)),
+            col("p90", 75, e -> millis(e, 0.90)),
+            col("p99", 75, e -> millis(e, 0.99)),
+            col("Max", 75, e -> millis(e, 1.0))
+        ));
+
+        BorderPane root = new BorderPane(table);
+        root.setBottom(status);
+        root.setPadding(new Insets(10));
+        BorderPane.setMargin(status, new Insets(6, 0, 0, 0));
+
+        Timeline ticker = new Timeline(new KeyFrame(Duration.seconds(1), e -> refresh()));
+        ticker.setCycleCount(Animation.INDEFINITE);
+        stage.setOnHidden(e -> ticker.stop());
+
+        stage.setScene(new Scene(root, 1300, 600));
+        stage.show();
+        refresh();
+        ticker.play();
+    }
+
+    private void refresh() {
+        List<Endpoint> snap = tracker.snapshot();
+        table.getItems().setAll(snap);
+        long requests = snap.stream().mapToLong(Endpoint::getRequests).sum();
+        status.setText(snap.size() + " endpoints, " + requests + " requests. "
+            + "Response time is request to first response packet, measured at this capture point.");
+    }
+
+    private static TableColumn<Endpoint, String> col(String title, double width, Function<Endpoint, String> f) {
+        TableColumn<Endpoint, String> c = new TableColumn<>(title);
+        c.setPrefWidth(width);
+        c.setSortable(false);
+        c.setCellValueFactory(cd -> new SimpleStringProperty(f.apply(cd.getValue())));
+        return c;
+    }
+
+    private static String count(long n) {
+        return n == 0 ? "" : String.format("%,d", n);
+    }
+
+    private static String millis(Endpoint e, double q) {
+        LatencyHistogram h = e.getLatency();
+        if (h.getCount() == 0) return "";
+        return String.format("%.2f ms", (q >= 1.0 ? h.getMax() : h.percentile(q)) / 1e6);
+    }
+}
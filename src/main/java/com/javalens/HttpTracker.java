@@ -0,0 +1,185 @@
+package com.javalens;
+
+import java.io.Serial;
+import java.util.Map;
+import java.util.List;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.javalens.Utils.PacketRow;
+
+//Pairs plaintext HTTP/1.x requests with their responses per TCP connection and keeps per-endpoint metrics:
+//request count and rate, status classes, and time-to-first-response-byte percentiles.
+//Pipelined requests are answered in order, so each connection keeps a FIFO of outstanding requests.
+//
+//Capture threads don't share one lock: connections are split into stripes by connection key, each with its own lock,
+//and each endpoint's counters are guarded by the endpoint itself. Lock order is always stripe, then endpoint.
+public class HttpTracker {
+    private static final int STRIPES = 16;
+    private static final int MAX_CONNECTIONS = 10_000;
+    private static final int MAX_ENDPOINTS = 2_000;
+    private static final int MAX_PIPELINE = 32;
+    private static final long REQUEST_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+    static final String OTHER_PATHS = "(other)";
+
+    //Client side first, so both directions of a connection map to the same key
+    private record Conn(String clientIp, int clientPort, String serverIp, int serverPort) {}
+    private record Pending(Endpoint endpoint, long sentNanos) {}
+
+    public record EndpointKey(String host, String path) {}
+
+    //Metrics for one host + path. Updated under its own monitor; snapshot() hands out unshared copies.
+    public static final class Endpoint {
+        private final EndpointKey key;
+        private long requests, responses, timeouts;
+        private final long[] statusClasses = new long[6]; // index 1..5 = 1xx..5xx, 0 = anything else
+        private long firstNanos, lastNanos;
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        Endpoint(EndpointKey key) { this.key = key; }
+
+        public EndpointKey getKey() { return key; }
+        public long getRequests() { return requests; }
+        public long getResponses() { return responses; }
+        public long getTimeouts() { return timeouts; }
+        public long getStatusClass(int hundreds) { return statusClasses[hundreds]; }
+        public LatencyHistogram getLatency() { return latency; }
+        public double getRequestsPerSecond() {
+            long span = lastNanos - firstNanos;
+            return span > 0 ? (requests - 1) * 1e9 / span : 0;
+        }
+    }
+
+    //LRU per stripe, so abandoned keep-alive connections fall out once we're tracking too many
+    private static final class Stripe extends LinkedHashMap<Conn, ArrayDeque<Pending>> {
+        @Serial private static final long serialVersionUID = 1L;
+        Stripe() { super(64, 0.75f, true); }
+
+        @Override protected boolean removeEldestEntry(Map.Entry<Conn, ArrayDeque<Pending>> eldest) {
+            if (size() <= MAX_CONNECTIONS / STRIPES) return false;
+            for (Pending p : eldest.getValue()) timedOut(p);
+            return true;
+        }
+    }
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final Map<EndpointKey, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public HttpTracker() {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe();
+    }
+
+    private Stripe stripe(Conn c) {
+        int h = c.hashCode();
+        return stripes[(h ^ h >>> 16) & (STRIPES - 1)];
+    }
+
+    //Called from every capture thread with whatever PacketParser found at the start of the TCP payload
+    public void record(PacketRow r, HttpParser.Request req, HttpParser.Response resp) {
+        if (r.getSrcPort() == null || r.getDstPort() == null) return;
+        long ts = r.getTimestampNanos();
+
+        if (req != null) {
+            String host = req.host() != null ? req.host() : r.getDestination();
+            Endpoint ep = endpoint(new EndpointKey(host, req.path()));
+            synchronized (ep) {
+                if (ep.requests++ == 0) ep.firstNanos = ts;
+                ep.lastNanos = ts;
+            }
+
+            Conn c = new Conn(r.getSource(), r.getSrcPort(), r.getDestination(), r.getDstPort());
+            Stripe s = stripe(c);
+            synchronized (s) {
+                ArrayDeque<Pending> q = s.computeIfAbsent(c, k -> new ArrayDeque<>());
+                expire(q, ts);
+                if (q.size() >= MAX_PIPELINE) timedOut(q.pollFirst());
+                q.addLast(new Pending(ep, ts));
+            }
+            return;
+        }
+
+        if (resp == null) return;
+        Conn c = new Conn(r.getDestination(), r.getDstPort(), r.getSource(), r.getSrcPort());
+        Stripe s = stripe(c);
+        Pending p;
+        synchronized (s) {
+            ArrayDeque<Pending> q = s.get(c);
+            if (q == null) return; // we never saw the request
+            expire(q, ts);
+            //1xx responses are interim; the request is still waiting for its final answer
+            p = resp.status() < 200 ? q.peekFirst() : q.pollFirst();
+            if (p == null) return;
+            if (q.isEmpty()) s.remove(c);
+        }
+
+        Endpoint ep = p.endpoint();
+        int cls = resp.status() / 100;
+        synchronized (ep) {
+            ep.statusClasses[cls >= 1 && cls <= 5 ? cls : 0]++;
+            if (resp.status() >= 200) {
+                ep.responses++;
+                ep.latency.record(ts - p.sentNanos());
+            }
+        }
+    }
+
+    private static void expire(ArrayDeque<Pending> q, long now) {
+        while (!q.isEmpty() && now - q.peekFirst().sentNanos() > REQUEST_TIMEOUT_NANOS) {
+            timedOut(q.pollFirst());
+        }
+    }
+
+    private static void timedOut(Pending p) {
+        Endpoint ep = p.endpoint();
+        synchronized (ep) {
+            ep.timeouts++;
+        }
+    }
+
+    //Bounded: once MAX_ENDPOINTS exist, new paths go to the host's "(other)" bucket if it has one, else a global one.
+    //Threads racing past the size check can overshoot the bound by at most one endpoint each.
+    private Endpoint endpoint(EndpointKey key) {
+        Endpoint ep = endpoints.get(key);
+        if (ep != null) return ep;
+        if (endpoints.size() >= MAX_ENDPOINTS) {
+            ep = endpoints.get(new EndpointKey(key.host(), OTHER_PATHS));
+            if (ep != null) return ep;
+            key = new EndpointKey(OTHER_PATHS, OTHER_PATHS);
+        }
+        return endpoints.computeIfAbsent(key, Endpoint::new);
+    }
+
+    //Snapshot of endpoint metrics, busiest first. Each endpoint is copied under its own lock, histogram included,
+    //so callers can read the copies freely.
+    public List<Endpoint> snapshot() {
+        List<Endpoint> out = new ArrayList<>(endpoints.size());
+        for (Endpoint ep : endpoints.values()) {
+            Endpoint copy = new Endpoint(ep.key);
+            synchronized (ep) {
+                copy.requests = ep.requests;
+                copy.responses = ep.responses;
+                copy.timeouts = ep.timeouts;
+                System.arraycopy(ep.statusClasses, 0, copy.statusClasses, 0, ep.statusClasses.length);
+                copy.firstNanos = ep.firstNanos;
+                copy.lastNanos = ep.lastNanos;
+                copy.latency.add(ep.latency);
+            }
+            out.add(copy);
+        }
+        out.sort(Comparator.comparingLong(Endpoint::getRequests).reversed());
+        return out;
+    }
+
+    public void clear() {
+        for (Stripe s : stripes) {
+            synchronized (s) {
+                s.clear();
+            }
+        }
+        endpoints.clear();
+    }
+}
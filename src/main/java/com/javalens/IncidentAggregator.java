@@ -0,0 +1,237 @@
+package com.javalens;
+
+import java.util.Map;
+import java.util.List;
+import java.io.Serial;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.javalens.Utils.PacketRow;
+
+//Folds flagged packets into incidents keyed by (rule, source, target), so one port scan or tunnel session becomes
+//one database row with counts, first/last seen and a few sample packets instead of thousands of inserts.
+//
+//An incident closes once it has been quiet for the window, or after MAX_DURATION (a long-running attack is then
+//reported in slices). Each rule may open at most `perRuleLimit` incidents per minute; past that, new
+//source/target pairs for the rule are folded into one aggregated incident with no source or target, which bounds
+//write volume even under a spoofed-source flood. Times are capture timestamps in epoch nanos.
+//
+//Every suspicious packet comes through here on a capture thread, and the load shedder never drops those, so a
+//flood is all hot path. Open incidents are split into stripes by key, each its own lock; a rule's Budget is
+//guarded by itself. Closed incidents are handed to `onClosed` after the stripe lock is released.
+public class IncidentAggregator {
+    static final int SAMPLES = 3;
+    private static final int STRIPES = 16;
+    private static final long MAX_DURATION_NANOS = TimeUnit.MINUTES.toNanos(10);
+    private static final int MAX_OPEN = 10_000;
+
+    public static final class Incident {
+        private final String rule, source, target; // source and target are null for an aggregated incident
+        private final long firstSeen;
+        private long lastSeen, packets, bytes;
+        private final List<PacketRow> samples = new ArrayList<>(SAMPLES);
+        private long closedAt;
+
+        Incident(String rule, String source, String target, long firstSeen) {
+            this.rule = rule;
+            this.source = source;
+            this.target = target;
+            this.firstSeen = firstSeen;
+            this.lastSeen = firstSeen;
+        }
+
+        void add(PacketRow r, long ts) {
+            lastSeen = Math.max(lastSeen, ts);
+            packets += r.getSampleWeight();
+            bytes += (long) r.getSampleWeight() * r.getWireLength();
+            if (samples.size() < SAMPLES) samples.add(r);
+        }
+
+        public String getRule() { return rule; }
+        public String getSource() { return source; }
+        public String getTarget() { return target; }
+        public boolean isAggregated() { return source == null && target == null; }
+        public long getFirstSeen() { return firstSeen; }
+        public long getLastSeen() { return lastSeen; }
+        public long getPackets() { return packets; }
+        public long getBytes() { return bytes; }
+        public List<PacketRow> getSamples() { return samples; }
+        public long getClosedAt() { return closedAt; }
+
+        @Override public String toString() {
+            return rule + " " + (isAggregated() ? "(many)" : source + " → " + target) + ": " + packets + " packets";
+        }
+    }
+
+    private record Key(String rule, String source, String target) {}
+
+    //Token bucket per rule, refilled in capture time
+    private static final class Budget {
+        double tokens;
+        long refilledAt;
+    }
+
+    private final long windowNanos;
+    private final int perRuleLimit;
+    private final Consumer<Incident> onClosed;
+    private static final class Stripe extends HashMap<Key, Incident> {
+        @Serial private static final long serialVersionUID = 1L;
+    }
+
+    private final Stripe[] open = new Stripe[STRIPES];
+    private final AtomicInteger openCount = new AtomicInteger();
+    private final Map<String, Budget> budgets = new ConcurrentHashMap<>();
+    private final LongAdder opened = new LongAdder(), folded = new LongAdder();
+    //Newest capture timestamp recorded, and the System.nanoTime() when it arrived, for the capture clock. The two
+    //are written separately, so a racing pair can be a few microseconds apart; the clock only needs seconds.
+    private final AtomicLong latestSeen = new AtomicLong(Long.MIN_VALUE);
+    private volatile long latestSeenWall;
+
+    //`onClosed` receives each finished incident, on whichever thread closed it, with no lock held
+    public IncidentAggregator(long windowNanos, int perRuleLimit, Consumer<Incident> onClosed) {
+        this.windowNanos = windowNanos;
+        this.perRuleLimit = perRuleLimit;
+        this.onClosed = onClosed;
+        for (int i = 0; i < STRIPES; i++) open[i] = new Stripe();
+    }
+
+    public void record(PacketRow r, String rule) {
+        long ts = r.getTimestampNanos();
+        for (long seen = latestSeen.get(); ts > seen; seen = latestSeen.get()) {
+            if (latestSeen.compareAndSet(seen, ts)) {
+                latestSeenWall = System.nanoTime();
+                break;
+            }
+        }
+
+        Key key = new Key(rule, addr(r.getSource()), addr(r.getDestination()));
+        Stripe stripe = stripe(key);
+        Incident stale, staleAggregate = null;
+        boolean fold = false;
+        synchronized (stripe) {
+            stale = closeIfStale(stripe, key, ts);
+            Incident inc = stripe.get(key);
+            if (inc == null) {
+                fold = openCount.get() >= MAX_OPEN || !takeToken(rule, ts);
+                if (!fold) inc = open(stripe, key, ts);
+            }
+            if (inc != null) inc.add(r, ts);
+        }
+        if (fold) {
+            folded.increment();
+            Key many = new Key(rule, null, null);
+            Stripe s = stripe(many);
+            synchronized (s) {
+                staleAggregate = closeIfStale(s, many, ts);
+                Incident inc = s.get(many);
+                if (inc == null) inc = open(s, many, ts);
+                inc.add(r, ts);
+            }
+        }
+        if (stale != null) onClosed.accept(stale);
+        if (staleAggregate != null) onClosed.accept(staleAggregate);
+    }
+
+    private Stripe stripe(Key key) {
+        int h = key.hashCode();
+        return open[(h ^ h >>> 16) & (STRIPES - 1)];
+    }
+
+    //Callers hold the stripe's lock
+    private Incident open(Stripe stripe, Key key, long ts) {
+        Incident inc = new Incident(key.rule(), key.source(), key.target(), ts);
+        stripe.put(key, inc);
+        openCount.incrementAndGet();
+        opened.increment();
+        return inc;
+    }
+
+    //Removes the incident for `key` if it is stale or over-long, so the next slice starts fresh, and returns it for
+    //the caller to hand to onClosed once the lock is released. Callers hold the stripe's lock.
+    private Incident closeIfStale(Stripe stripe, Key key, long ts) {
+        Incident inc = stripe.get(key);
+        if (inc == null || (ts - inc.lastSeen <= windowNanos && ts - inc.firstSeen <= MAX_DURATION_NANOS)) return null;
+        stripe.remove(key);
+        openCount.decrementAndGet();
+        inc.closedAt = ts;
+        return inc;
+    }
+
+    //Close everything that has been quiet for the window as of `now`
+    public void expire(long now) {
+        close(now, false);
+    }
+
+    //The capture clock: the newest capture timestamp seen, moved on by the wall time since it arrived, so incidents
+    //still close while traffic is quiet. Capture timestamps of replayed or remote traffic can be far from the local
+    //wall clock, so comparing lastSeen with System.currentTimeMillis() would close them too early or never.
+    //Long.MIN_VALUE before the first packet.
+    public long captureNow() {
+        long seen = latestSeen.get();
+        return seen == Long.MIN_VALUE ? Long.MIN_VALUE : seen + (System.nanoTime() - latestSeenWall);
+    }
+
+    //expire(long) as of the capture clock
+    public void expire() {
+        long now = captureNow();
+        if (now != Long.MIN_VALUE) expire(now);
+    }
+
+    //Close all open incidents regardless of age, e.g. on shutdown
+    public void flush(long now) {
+        close(now, true);
+    }
+
+    private void close(long now, boolean all) {
+        List<Incident> closed = new ArrayList<>();
+        for (Stripe stripe : open) {
+            synchronized (stripe) {
+                for (Iterator<Map.Entry<Key, Incident>> it = stripe.entrySet().iterator(); it.hasNext(); ) {
+                    Incident inc = it.next().getValue();
+                    if (all || now - inc.lastSeen > windowNanos || now - inc.firstSeen > MAX_DURATION_NANOS) {
+                        it.remove();
+                        openCount.decrementAndGet();
+                        inc.closedAt = now;
+                        closed.add(inc);
+                    }
+                }
+            }
+        }
+        closed.forEach(onClosed);
+    }
+
+    public int getOpenCount() { return openCount.get(); }
+    public long getOpened() { return opened.sum(); }
+    //Packets that would have opened a new incident but were folded into the rule's aggregated one
+    public long getFolded() { return folded.sum(); }
+
+    private boolean takeToken(String rule, long ts) {
+        Budget b = budgets.computeIfAbsent(rule, k -> {
+            Budget nb = new Budget();
+            nb.tokens = perRuleLimit;
+            nb.refilledAt = ts;
+            return nb;
+        });
+        synchronized (b) {
+            if (ts > b.refilledAt) {
+                b.tokens = Math.min(perRuleLimit, b.tokens + (ts - b.refilledAt) * perRuleLimit / 60e9);
+                b.refilledAt = ts;
+            }
+            if (b.tokens < 1) return false;
+            b.tokens--;
+            return true;
+        }
+    }
+
+    //Non-IP rows carry "?" as their address
+    private static String addr(String a) {
+        return a == null || a.equals("?") ? "" : a;
+    }
+}
@@ -13,48 +13,39 @@ import javafx.scene.image.ImageView;
 import javafx.scene.layout.Priority;
 import javafx.application.Application;
 import javafx.scene.layout.BorderPane;
+import javafx.util.Duration;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.animation.AnimationTimer;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.SortedList;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.collections.transformation.FilteredList;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 
 //PCap4j - Packet Capturing and Networking Classes
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import org.pcap4j.packet.Packet;
-import org.pcap4j.packet.ArpPacket;
-import org.pcap4j.packet.DnsPacket;
-import org.pcap4j.packet.EthernetPacket;
-import org.pcap4j.packet.IcmpV4CommonPacket;
-import org.pcap4j.packet.IpPacket;
-import org.pcap4j.core.PcapHandle;
-import org.pcap4j.packet.UdpPacket;
-import org.pcap4j.packet.TcpPacket;
-import org.pcap4j.core.NotOpenException;
-import org.pcap4j.core.PcapNativeException;
 import org.pcap4j.core.PcapNetworkInterface;
-import org.pcap4j.packet.namednumber.IpNumber;
 
 //Java Standard Library Imports
 import java.util.Set;
+import java.util.Map;
 import java.util.List;
-import java.util.HashSet;
-import java.util.concurrent.Executors;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.function.Function;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-import java.time.LocalTime;
-import java.io.EOFException;
-import java.time.format.DateTimeFormatter;
-
 //Utility Functions and URL
 import java.net.URL;
+import java.io.IOException;
 import static com.javalens.Utils.*;
 import com.javalens.Utils.PacketRow;
 
@@ -68,6 +59,7 @@ public class JavaLensApp extends Application {
     private final ObservableList<PacketRow> rows = FXCollections.observableArrayList();
     private final FilteredList<PacketRow>  filteredRows = new FilteredList<>(rows, p -> true);
     private final TableView<PacketRow>     table = new TableView<>();
+    private final Map<TableColumn<PacketRow, ?>, Comparator<PacketRow>> columnOrders = new HashMap<>();
 
     //AtomicBoolean variable thats thread-safe to track whether user has the capturing button clicked or not
     private final AtomicBoolean capturing = new AtomicBoolean(false); 
@@ -75,11 +67,15 @@ public class JavaLensApp extends Application {
     //button for start/stop , autoscroll checkbox button, and a boolean to know if im at the bottom or not
     private Button startStop;
     private CheckBox autoscroll = new CheckBox("AutoScroll");
+    private CheckBox resolveNames = new CheckBox("Resolve names"); //shows names learned passively from DNS responses
     boolean stickToBottom = Utils.isAtBottom(table);
    
-    //sets that help me determine the ownership of my packets
-    private final Set<String> localIPs = Utils.getLocalIPAddresses();
-    private final Set<String> localMACs = Utils.getLocalMACAddresses();
+    //sets that help me determine the ownership of my packets. Filled in the background at startup (enumerating
+    //NICs can take a noticeable moment), so they're concurrent sets the parser already holds a reference to.
+    private final Set<String> localIPs = ConcurrentHashMap.newKeySet();
+    private final Set<String> localMACs = ConcurrentHashMap.newKeySet();
+    private final PacketParser parser = new PacketParser(localIPs, localMACs);
+    private final ThroughputSeries throughput = new ThroughputSeries(localIPs);
 
     //Scene buttons
     private ToggleButton themeToggle = new ToggleButton("🌙 Dark");
@@ -87,46 +83,107 @@ public class JavaLensApp extends Application {
     // ────────────────────── Capture Buffers && UI Flushers ─────────────────────────────────────────────────── //
     //Buffer is a thread-safe queue to temporarily hold captured packets. Main UI thread reads from this buffer.
     private final BlockingQueue<PacketRow> buffer = new LinkedBlockingQueue<>();
-    private final int MAX_ROWS_PER_FRAME = 500;
+
+    //Per-frame row budget adapts between these bounds depending on how long our work and the whole frame take
+    private static final int MIN_ROWS_PER_FRAME = 100;
+    private static final int MAX_ROWS_PER_FRAME = 20_000;
+    private static final long WORK_BUDGET_NANOS = 6_000_000L;   // our share of a 16.6ms (60 fps) frame
+    private static final long SLOW_FRAME_NANOS = 20_000_000L;   // pulse interval that means we're dropping below 60 fps
+    private int rowsPerFrame = 500;
+
+    //Oldest rows are trimmed past this many so memory and list operations stay bounded. Override with -Djavalens.maxRows=N
+    private final int maxRows = Integer.getInteger("javalens.maxRows", 200_000);
 
     //Pop Packets from background buffer queue to the visible table UI for the user
     private final AnimationTimer flusher = new AnimationTimer() {
+        private final List<PacketRow> batch = new ArrayList<>();
+        private long lastPulse;
+
         @Override public void handle(long now) {
-            for (int i = 0; i < MAX_ROWS_PER_FRAME; i++) {
-                PacketRow r = buffer.poll();
-                if (r == null) break;
-                rows.add(r);
-            }
+            long started = System.nanoTime();
+
+            //One addAll per pulse means one change event through FilteredList/MergeSortedList instead of one per row
+            buffer.drainTo(batch, rowsPerFrame);
+            if (!batch.isEmpty()) {
+                rows.addAll(batch);
+                throughput.record(batch);
+                batch.clear();
 
-            //Scroll if autoscroll is selected and rows isnt empty
-            if (autoscroll.isSelected() && !rows.isEmpty()) {
-                int last = rows.size() - 1;
-                Platform.runLater(() -> table.scrollTo(last));
+                int excess = rows.size() - maxRows;
+                if (excess > 0) rows.remove(0, excess);
+
+                //We're already on the FX thread; scroll once per pulse and only when something arrived
+                if (autoscroll.isSelected() && !table.getItems().isEmpty()) {
+                    table.scrollTo(table.getItems().size() - 1);
+                }
             }
+
+            long work = System.nanoTime() - started;
+            long frame = lastPulse == 0 ? 0 : now - lastPulse;
+            lastPulse = now;
+            adaptBudget(work, frame);
         }
     };
 
-    private ExecutorService capturePool; //My engine running the packet capture
-    private ComboBox<PcapNetworkInterface> ifaceBox; //drop down for the network interface the user picks
-    private TextField filterField; //textfield for search/filter
+    //Shrink the budget quickly when frames run long, grow it slowly while a backlog is waiting and we have headroom
+    private void adaptBudget(long workNanos, long frameNanos) {
+        if (workNanos > WORK_BUDGET_NANOS || frameNanos > SLOW_FRAME_NANOS) {
+            rowsPerFrame = Math.max(MIN_ROWS_PER_FRAME, rowsPerFrame * 3 / 4);
+        } else if (buffer.size() > rowsPerFrame && workNanos < WORK_BUDGET_NANOS / 2) {
+            rowsPerFrame = Math.min(MAX_ROWS_PER_FRAME, rowsPerFrame + rowsPerFrame / 4);
+        }
+    }
 
-    private static final DateTimeFormatter TIME_FMT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS"); // [Example: 13:42:11.653]
+    private MenuButton ifaceMenu; //drop down for the network interfaces the user picks (any number of them)
+    private final ChoiceBox<CaptureProfile> profileBox = new ChoiceBox<>();
+    private TextField filterField; //textfield for search/filter
+    private final Label laneStats = new Label(); //per-interface rate/drop counters under the table
+
+    //Per-interface and per-flow inter-arrival/jitter statistics, fed from the capture threads
+    private final TimingStats timing = new TimingStats();
+
+    //My engine running the packet capture: one thread per interface, merged by timestamp into `buffer`
+    private final CaptureEngine engine = new CaptureEngine(parser, timing, buffer,
+        (title, msg) -> Platform.runLater(() -> showAlert(title, msg)));
+    private final Timeline laneStatsTicker = new Timeline(new KeyFrame(Duration.seconds(1), e -> updateLaneStats()));
+
+    //Remote CaptureAgents stream decoded rows into the same `buffer`. Listens on -Djavalens.agentPort=N at startup, or via the Agents toggle.
+    //Loopback only unless -Djavalens.agentBind=address, which also needs JAVALENS_AGENT_SECRET (see AgentLink).
+    private final AgentServer agents = new AgentServer(Integer.getInteger("javalens.agentPort", AgentLink.DEFAULT_PORT),
+        System.getProperty("javalens.agentBind", "127.0.0.1"), AgentLink.secret(System.getProperty("javalens.agentSecret")),
+        parser, timing, buffer, (title, msg) -> Platform.runLater(() -> showAlert(title, msg)));
+    private final ToggleButton agentsToggle = new ToggleButton("📡 Agents");
     // ────────────────────── JavaFX Entry && Logic  ─────────────────────────────────────────────────── //
     @Override public void start(Stage stage) {
+        StartupTimer.mark("JavaFX start()");
         stage.setTitle("JavaLens");
         stage.getIcons().add(icon());
-        setMacDockIcon();
 
         BorderPane root = new BorderPane();
         root.setPadding(new Insets(10));
 
         root.setTop(buildToolbar());
         root.setCenter(buildTable());
+        root.setBottom(laneStats);
+        BorderPane.setMargin(laneStats, new Insets(6, 0, 0, 0));
+        laneStatsTicker.setCycleCount(Timeline.INDEFINITE);
 
         scene = new Scene(root, 1120, 680);
         scene.getStylesheets().add(getClass().getResource("/css/javalens-light.css").toExternalForm());
         stage.setScene(scene);
+        StartupTimer.mark("UI built");
+
+        //Log when the first frame is actually laid out, then stop listening
+        Runnable firstFrame = new Runnable() {
+            @Override public void run() {
+                StartupTimer.mark("first frame");
+                scene.removePostLayoutPulseListener(this);
+            }
+        };
+        scene.addPostLayoutPulseListener(firstFrame);
         stage.show();
+        initInBackground();
+        if (Integer.getInteger("javalens.agentPort") != null) agentsToggle.setSelected(true);
 
         //THEME TOGGLING LOGIC
         themeToggle.setOnAction(e -> {
@@ -155,7 +212,7 @@ public class JavaLensApp extends Application {
         scene.setOnKeyPressed(e -> {
             if (e.isMetaDown()) {
                 if (e.getCode() == KeyCode.R) toggleCapture(); // ⌘R = Start/Stop capture
-                else if (e.getCode() == KeyCode.L) rows.clear(); // ⌘L = Clear packets
+                else if (e.getCode() == KeyCode.L) clearRows(); // ⌘L = Clear packets
                 else if (e.getCode() == KeyCode.F) filterField.requestFocus(); // ⌘F = Focus search box
             }
         });
@@ -168,57 +225,78 @@ public class JavaLensApp extends Application {
         ImageView logo = new ImageView(icon());
         logo.setFitHeight(26); logo.setPreserveRatio(true);
         
-        //Dropdown ComoboBox - Initially set to e0 if found. Else it fallsback to the first device.
-        ifaceBox = new ComboBox<>();
-        List<PcapNetworkInterface> devices = findAllDevs();
-        ifaceBox.getItems().addAll(devices);
+        //Interface menu - filled in once the background device scan finishes (see populateInterfaces)
+        ifaceMenu = new MenuButton("Loading interfaces…");
+        ifaceMenu.setDisable(true);
+        ifaceMenu.setPrefWidth(240);
 
-        for (PcapNetworkInterface dev : devices) {
-            if (dev.getName().equals("en0")) {
-                ifaceBox.getSelectionModel().select(dev);
-                break;
-            }
-        }
-        if (ifaceBox.getSelectionModel().isEmpty() && !devices.isEmpty()) {
-            ifaceBox.getSelectionModel().selectFirst();
-        }
-        ifaceBox.setPrefWidth(240);
-
-        //Show friendly names for the network interfaces on Mac
-        ifaceBox.setCellFactory(cb -> new ListCell<>() {
-            @Override protected void updateItem(PcapNetworkInterface ni, boolean empty) {
-                super.updateItem(ni, empty);
-                setText(empty || ni == null
-                    ? ""
-                    : (ni.getDescription() != null ? ni.getDescription() : ni.getName()));
-            }
-        });
-        ifaceBox.setButtonCell(ifaceBox.getCellFactory().call(null));        
+        //Capture profile - handle settings used the next time capture starts
+        profileBox.getItems().setAll(CaptureProfile.values());
+        profileBox.setValue(engine.getProfile());
+        profileBox.valueProperty().addListener((obs, o, n) -> engine.setProfile(n));
+        profileBox.setTooltip(new Tooltip("Capture profile: kernel buffer, snaplen and immediate mode. Applies on the next Start."));
 
         //Control Buttons && their functionalities
         startStop = new Button("▶ Start");
         startStop.setOnAction(e -> toggleCapture());
+        startStop.setDisable(true);
 
         Button clear = new Button("🗑 Clear");
-        clear.setOnAction(e -> rows.clear());
+        clear.setOnAction(e -> clearRows());
 
         Button tcpFilter = new Button("TCP");
         Button udpFilter = new Button("UDP");
         Button httpFilter = new Button("HTTP");
         Button clearFilter = new Button ("🔄 Clear Filter");
         Button statsButton = new Button("Statistics");
+        Button throughputButton = new Button("Throughput");
+        Button historyButton = new Button("History");
+        Button timingButton = new Button("Timing");
+        Button talkersButton = new Button("Top Talkers");
+        Button httpStatsButton = new Button("HTTP Metrics");
+        Button tcpHealthButton = new Button("TCP Health");
+        Button payloadSearchButton = new Button("Payload Search");
+        MenuItem exportView = new MenuItem("Filtered view…");
+        MenuItem exportAll = new MenuItem("Whole session…");
+        MenuButton exportMenu = new MenuButton("Export", null, exportView, exportAll);
+        MenuItem saveSession = new MenuItem("Save session…");
+        MenuItem openSession = new MenuItem("Open session…");
+        MenuButton sessionMenu = new MenuButton("Session", null, saveSession, openSession);
+        agentsToggle.setTooltip(new Tooltip("Accept rows from remote capture agents on " + agents.getBind() + ":" + agents.getPort()));
+        agentsToggle.selectedProperty().addListener((obs, o, on) -> toggleAgents(on));
         
         tcpFilter.setOnAction(e -> filterField.setText("tcp"));
         udpFilter.setOnAction(e -> filterField.setText("udp"));
         httpFilter.setOnAction(e -> filterField.setText("http"));
-        clearFilter.setOnAction(e -> filterField.clear());
+        clearFilter.setOnAction(e -> {
+            filterField.clear();
+            filteredRows.setPredicate(r -> true); // also drops a payload-search selection (see showOnly)
+        });
         statsButton.setOnAction(e -> showProtocolStats(rows));
+        throughputButton.setOnAction(e -> ThroughputView.show(throughput));
+        historyButton.setOnAction(e -> HistoryView.show());
+        timingButton.setOnAction(e -> showTimingStats(timing));
+        talkersButton.setOnAction(e -> TopTalkersView.show(parser.getTopTalkers()));
+        httpStatsButton.setOnAction(e -> HttpStatsView.show(parser.getHttpTracker()));
+        tcpHealthButton.setOnAction(e -> TcpHealthView.show(parser.getTcpAnalyzer()));
+        payloadSearchButton.setOnAction(e -> PayloadSearchView.show(rows, this::showOnly));
+        exportView.setOnAction(e -> PacketExporter.exportWithDialog(table.getScene().getWindow(), table.getItems(), "filtered view"));
+        exportAll.setOnAction(e -> PacketExporter.exportWithDialog(table.getScene().getWindow(), rows, "whole session"));
+        saveSession.setOnAction(e -> SessionFile.saveWithDialog(table.getScene().getWindow(), rows));
+        openSession.setOnAction(e -> openSession());
         
         tcpFilter.setPrefWidth(60);
         udpFilter.setPrefWidth(60);
         httpFilter.setPrefWidth(60);
         clearFilter.setPrefWidth(100);
         statsButton.setPrefWidth(80);
+        throughputButton.setPrefWidth(90);
+        historyButton.setPrefWidth(70);
+        timingButton.setPrefWidth(70);
+        talkersButton.setPrefWidth(95);
+        httpStatsButton.setPrefWidth(100);
+        tcpHealthButton.setPrefWidth(90);
+        payloadSearchButton.setPrefWidth(110);
 
         //Search Box
         filterField = new TextField();
@@ -233,34 +311,122 @@ public class JavaLensApp extends Application {
         //build tool bar and return it
         ToolBar tb = new ToolBar(
             logo, new Separator(),
-            ifaceBox, new Separator(),
+            ifaceMenu, profileBox, new Separator(),
             startStop, clear,
-            tcpFilter, udpFilter, httpFilter, clearFilter, statsButton,
-            autoscroll, themeToggle,
+            tcpFilter, udpFilter, httpFilter, clearFilter, statsButton, throughputButton, historyButton, timingButton, talkersButton, httpStatsButton, tcpHealthButton, payloadSearchButton, exportMenu, sessionMenu, agentsToggle,
+            autoscroll, resolveNames, themeToggle,
             spacer,
             new Label("🔍"), filterField
         );        tb.setPadding(new Insets(6,0,6,0));
         return tb;
     }
 
+    //Narrow the table to exactly these rows (payload search hits); typing a filter or Clear Filter undoes it
+    private void showOnly(Set<PacketRow> keep) {
+        filterField.clear();
+        filteredRows.setPredicate(keep::contains);
+    }
+
+    //One check item per device. en0 is ticked initially if found, else the first device.
+    //Start stays disabled until local addresses are known too (see initInBackground).
+    private void populateInterfaces(List<PcapNetworkInterface> devices) {
+        for (PcapNetworkInterface dev : devices) {
+            //Show friendly names for the network interfaces on Mac
+            String label = dev.getDescription() != null ? dev.getName() + " – " + dev.getDescription() : dev.getName();
+            CheckMenuItem item = new CheckMenuItem(label);
+            item.setUserData(dev);
+            item.setSelected(dev.getName().equals("en0"));
+            item.selectedProperty().addListener((obs, o, n) -> updateIfaceMenuText());
+            ifaceMenu.getItems().add(item);
+        }
+        if (selectedInterfaces().isEmpty() && !ifaceMenu.getItems().isEmpty()) {
+            ((CheckMenuItem) ifaceMenu.getItems().get(0)).setSelected(true);
+        }
+        updateIfaceMenuText();
+        ifaceMenu.setDisable(devices.isEmpty());
+    }
+
+    // ────────────────────── Background Startup ─────────────────────────────────────────────────── //
+    //Everything slow that the first frame doesn't need runs here, in parallel, after the window is up.
+    //Start is enabled once both the devices and the local addresses are in: a packet captured before localIPs is
+    //filled would get the wrong isMine, and with it the wrong TCP remote host and throughput direction.
+    private void initInBackground() {
+        List<PcapNetworkInterface> devices = new ArrayList<>();
+        CompletableFuture<Void> devicesFound = startupThread("javalens-init-devices", () -> StartupTimer.timed("interface enumeration", () -> {
+            devices.addAll(findAllDevs());
+            Platform.runLater(() -> populateInterfaces(devices));
+        }));
+        CompletableFuture<Void> addressesFound = startupThread("javalens-init-addresses", () -> StartupTimer.timed("local address discovery", () -> {
+            localIPs.addAll(Utils.getLocalIPAddresses());
+            localMACs.addAll(Utils.getLocalMACAddresses());
+        }));
+        CompletableFuture.allOf(devicesFound, addressesFound)
+            .thenRun(() -> Platform.runLater(() -> startStop.setDisable(devices.isEmpty())));
+        startupThread("javalens-init-misc", () -> {
+            StartupTimer.timed("dissector registry", DissectorRegistry::getDefault);
+            StartupTimer.timed("database warm-up", Database::warmUp);
+            StartupTimer.timed("dock icon", Utils::setMacDockIcon);
+        });
+    }
+
+    //Completes when `work` has finished, also if it failed (that is logged here)
+    private static CompletableFuture<Void> startupThread(String name, Runnable work) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Thread t = new Thread(() -> {
+            try {
+                work.run();
+            } catch (RuntimeException e) {
+                logger.error("Startup task {} failed", name, e);
+            } finally {
+                done.complete(null);
+            }
+        }, name);
+        t.setDaemon(true);
+        t.start();
+        return done;
+    }
+
+    private void updateIfaceMenuText() {
+        List<String> names = selectedInterfaces().stream().map(PcapNetworkInterface::getName).toList();
+        ifaceMenu.setText(names.isEmpty() ? "Select interfaces" : String.join(", ", names));
+    }
+
    // ────────────────────── Table Logic ─────────────────────────────────────────────────── //
     private TableView<PacketRow> buildTable() {
-        //Take the filtered live search results and wrap them in a sorted list so when the user clicks a column header, the rows are actually sorted visually
-        SortedList<PacketRow> sorted = new SortedList<>(filteredRows);
-        sorted.comparatorProperty().bind(table.comparatorProperty());
+        //Take the filtered live search results and wrap them in a sorted list so when the user clicks a column header, the rows are actually sorted visually.
+        //The sort policy hands the list a comparator built from each column's typed order (see RowOrder) rather than
+        //TableView's default, which would read and compare every cell's display value.
+        MergeSortedList<PacketRow> sorted = new MergeSortedList<>(filteredRows);
+        table.setSortPolicy(tv -> {
+            sorted.setComparator(rowOrder(tv.getSortOrder()));
+            return true;
+        });
         table.setItems(sorted); //display them now
 
         //auto-size
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN );
 
-        // PACKET: [ TIME | SRC | DST | POROT | LEN | INFO ] 
-        List<TableColumn<PacketRow, String>> columns = List.of(
-            col("Time", 120, "time"),
-            col("Source", 200, "source"),
-            col("Destination", 200, "destination"),
-            col("Proto", 70,  "protocol"),
-            col("Len",   70,  "length"),
-            col("Info",  450, "info")
+        // PACKET: [ TIME | SRC | DST | PORTS | POROT | LEN | INFO ] 
+        TableColumn<PacketRow, Long> time = col("Time", 120, PacketRow::getTimestampNanos, RowOrder.TIME);
+        time.setCellFactory(tc -> new TableCell<>() {
+            @Override protected void updateItem(Long nanos, boolean empty) {
+                super.updateItem(nanos, empty);
+                setText(empty || nanos == null ? null : formatTime(nanos));
+            }
+        });
+        List<TableColumn<PacketRow, ?>> columns = List.of(
+            time,
+            col("Iface", 70, PacketRow::getIface, RowOrder.text(PacketRow::getIface)),
+            col("Source", 200, PacketRow::getSource, RowOrder.SOURCE),
+            col("Destination", 200, PacketRow::getDestination, RowOrder.DESTINATION),
+            col("Src Port", 70, PacketRow::getSrcPort, RowOrder.SRC_PORT),
+            col("Dst Port", 70, PacketRow::getDstPort, RowOrder.DST_PORT),
+            nameCol("Source Name", 180, PacketRow::getSource),
+            nameCol("Destination Name", 180, PacketRow::getDestination),
+            col("Proto", 70,  PacketRow::getProtocol, RowOrder.text(PacketRow::getProtocol)),
+            col("App",   70,  PacketRow::getApplication, RowOrder.text(PacketRow::getApplication)),
+            col("Len",   70,  PacketRow::getWireLength, RowOrder.LENGTH),
+            col("Info",  450, PacketRow::getInfo, RowOrder.text(PacketRow::getInfo))
         );
         table.getColumns().addAll(columns);
         table.getColumns().add(helpCol());
@@ -295,11 +461,41 @@ public class JavaLensApp extends Application {
         return table;
     }
 
-    //Helper for the table columns
-    private TableColumn<PacketRow,String> col(String title,int min,String prop){
-        TableColumn<PacketRow,String> c = new TableColumn<>(title);
+    //Helper for the table columns: `value` is what the cell shows, `order` is what clicking the header sorts by
+    private <T> TableColumn<PacketRow,T> col(String title, int min, Function<PacketRow,T> value, Comparator<PacketRow> order) {
+        TableColumn<PacketRow,T> c = new TableColumn<>(title);
         c.setMinWidth(min); 
-        c.setCellValueFactory(new PropertyValueFactory<>(prop));
+        c.setCellValueFactory(cd -> new ReadOnlyObjectWrapper<>(value.apply(cd.getValue())));
+        columnOrders.put(c, order);
+        return c;
+    }
+
+    //The table's sort order (shift-click adds columns) as one comparator over rows; null leaves capture order
+    private Comparator<PacketRow> rowOrder(List<TableColumn<PacketRow, ?>> sortOrder) {
+        Comparator<PacketRow> order = null;
+        for (TableColumn<PacketRow, ?> c : sortOrder) {
+            Comparator<PacketRow> o = columnOrders.get(c);
+            if (o == null) continue;
+            if (c.getSortType() == TableColumn.SortType.DESCENDING) o = o.reversed();
+            order = order == null ? o : order.thenComparing(o);
+        }
+        return order;
+    }
+
+    //Hostname columns, read from the passive DNS cache at render time, so they never trigger a lookup.
+    //Names are looked up as of the row's capture time, so old or reloaded rows don't depend on the wall clock.
+    //Not sortable: a row's name changes as DNS answers arrive, and the sorted list needs keys that hold still.
+    //Hidden until "Resolve names" is ticked.
+    private TableColumn<PacketRow,String> nameCol(String title, int min, Function<PacketRow,String> address) {
+        TableColumn<PacketRow,String> c = new TableColumn<>(title);
+        c.setMinWidth(min);
+        c.setSortable(false);
+        c.setCellValueFactory(cd -> {
+            PacketRow r = cd.getValue();
+            String n = parser.getDnsCache().lookup(address.apply(r), r.getTimestampNanos());
+            return new SimpleStringProperty(n != null ? n : "");
+        });
+        c.visibleProperty().bind(resolveNames.selectedProperty());
         return c;
     }
 
@@ -307,6 +503,7 @@ public class JavaLensApp extends Application {
     private TableColumn<PacketRow,Void> helpCol() {
         TableColumn<PacketRow,Void> c = new TableColumn<>("Explanation of Type");
         c.setMinWidth(35);
+        c.setSortable(false);
         c.setStyle("-fx-alignment:CENTER;");
     
         c.setCellFactory(tc -> new TableCell<>() {
@@ -330,6 +527,33 @@ public class JavaLensApp extends Application {
         return c;
     }
 
+    private void clearRows() {
+        rows.clear();
+        timing.clear();
+        throughput.clear();
+        parser.getTopTalkers().clear();
+        parser.getHttpTracker().clear();
+        parser.getTcpAnalyzer().clear();
+        parser.getDnsCache().clear();
+    }
+
+    //Replace the table with a saved session. Rows stream in while the file loads; per-row stats are rebuilt as they arrive.
+    //The current rows are only cleared once a file has been chosen and opened, so cancelling keeps them.
+    private void openSession() {
+        if (capturing.get() || agents.isListening()) {
+            showAlert("Capture running", "Stop the capture and agents before opening a saved session.");
+            return;
+        }
+        SessionFile.openWithDialog(table.getScene().getWindow(), maxRows, this::clearRows, chunk -> {
+            for (PacketRow r : chunk) {
+                timing.record(r);
+                parser.getTopTalkers().record(r);
+            }
+            throughput.record(chunk);
+            rows.addAll(chunk);
+        });
+    }
+
    // ────────────────────── Capture Control - Under the Hood Logic of JavaLens ─────────────────────────────────────────────────── //
     //Toggles the capture on/off button when the user clicks the button or does command+R
     private void toggleCapture() {
@@ -339,177 +563,103 @@ public class JavaLensApp extends Application {
 
     //starts flushing and capturing if and only if the atomicboolean is not already set to true
     private void startCapture() {
+        List<PcapNetworkInterface> selected = selectedInterfaces();
+        if (selected.isEmpty()) {
+            showAlert("No interface selected", "Pick at least one interface to capture on.");
+            return;
+        }
         if (capturing.getAndSet(true)) return;
 
         flusher.start();
+        laneStatsTicker.play();
+        profileBox.setDisable(true);
         startStop.setText("⏹ Capturing...");
-        logger.info("Packet capture started on interface: {}", ifaceBox.getValue().getName());
-        capturePool = Executors.newSingleThreadExecutor();
-        PcapNetworkInterface nif = ifaceBox.getValue();
-        capturePool.submit(() -> sniffLoop(nif));
+        logger.info("Packet capture started on interfaces: {}", selected.stream().map(PcapNetworkInterface::getName).toList());
+        engine.start(selected);
     }
 
-    //set atomic boolean to false, text to start, and shutdown the capturePool
+    //set atomic boolean to false, text to start, and stop every capture thread
     private void stopCapture() {
         capturing.set(false);
         startStop.setText("▶ Start");
         logger.info("Packet capture stopped.");
-        if (capturePool != null) capturePool.shutdownNow();
+        engine.stop();
+        if (!agents.isListening()) laneStatsTicker.stop();
+        profileBox.setDisable(false);
+        updateLaneStats();
     }
 
-    //Open the selected network interface in PROMISCUOUS MODE to capture all the traffic. Keep capturing as long as capturing is true. 
-    private void sniffLoop(PcapNetworkInterface nif) {
-        logger.info("Initializing packet capture on interface: {}", nif.getName());
-
+    //Agent rows go through the same buffer and flusher as local capture, so both run while we're listening
+    private void toggleAgents(boolean on) {
+        if (!on) {
+            agents.stop();
+            if (!capturing.get()) laneStatsTicker.stop();
+            updateLaneStats();
+            return;
+        }
         try {
-            PcapHandle h = nif.openLive(
-                65_536,
-                PcapNetworkInterface.PromiscuousMode.PROMISCUOUS,
-                1_000
-            );
-            try (h) {
-                logger.info("Successfully opened interface {} for live capture.", nif.getName());
-    
-                while (capturing.get()) {
-                    try {
-                        Packet p = h.getNextPacketEx();
-                        if (p != null) {
-                            PacketRow row = parsePacket(p);
-                            buffer.offer(row);
-                            logger.debug("Captured packet: {}", row.getInfo());
-                        }
-                    } catch (TimeoutException e) {
-                        logger.debug("Capture timeout: {}", e.getMessage());
-                    } catch (EOFException e) {
-                        logger.warn("Capture reached EOF unexpectedly: {}", e.getMessage());
-                    } catch (NotOpenException e) {
-                        logger.error("Capture handle was closed unexpectedly: {}", e.getMessage());
-                        break;
-                    } catch (Exception e) {
-                        logger.error("Unexpected error during capture: {}", e.toString());
-                    }
-                }
-            }
-        } catch (PcapNativeException ex) {
-            logger.error("Failed to start capture on {}: {}", nif.getName(), ex.getMessage());
-            Platform.runLater(() -> showAlert("Capture stopped", ex.getMessage()));
+            agents.start();
+        } catch (IOException e) {
+            showAlert("Cannot listen for agents", "Port " + agents.getPort() + ": " + e.getMessage());
+            agentsToggle.setSelected(false);
+            return;
         }
+        flusher.start();
+        laneStatsTicker.play();
     }
 
-    // ────────────────────── Parse Packet - Under the Hood Logic Part 2 of JavaLens ─────────────────────────────────────────────────── //
-    // This method will analyze the raw Pcap4j packet and convert it into a PacketRow object for the TableUI
-    private PacketRow parsePacket(Packet p) {
-        String src = "?", dst = "?", info = "";
-        String proto = "UNKNOWN";
-        Integer srcPort = null, dstPort = null, windowSize = null;
-        Set<String> tcpFlags = new HashSet<>();
-        String dnsQueryName = null;
-        Integer icmpType = null, icmpCode = null;
-        byte[] payload = null;
-
-        // ───── Detect ARP early ─────
-        if (p.contains(ArpPacket.class)) {
-            proto = "ARP";
-            info = "ARP Packet";
+    private List<PcapNetworkInterface> selectedInterfaces() {
+        List<PcapNetworkInterface> out = new ArrayList<>();
+        for (MenuItem item : ifaceMenu.getItems()) {
+            if (item instanceof CheckMenuItem c && c.isSelected()) out.add((PcapNetworkInterface) c.getUserData());
         }
+        return out;
+    }
 
-        // ───── Extract IP-level info ─────
-        if (p.contains(IpPacket.class)) {
-            IpPacket ip = p.get(IpPacket.class);
-            src = ip.getHeader().getSrcAddr().getHostAddress().replaceAll("%.*", "").toLowerCase();
-            dst = ip.getHeader().getDstAddr().getHostAddress().replaceAll("%.*", "").toLowerCase();
-
-            IpNumber protocol = ip.getHeader().getProtocol();
-            proto = protocol.name();
-
-            if (protocol == IpNumber.TCP && p.contains(TcpPacket.class)) {
-                TcpPacket tcp = p.get(TcpPacket.class);
-                srcPort = tcp.getHeader().getSrcPort().valueAsInt();
-                dstPort = tcp.getHeader().getDstPort().valueAsInt();
-                windowSize = (int) tcp.getHeader().getWindow();
-
-                if (tcp.getHeader().getSyn()) tcpFlags.add("SYN");
-                if (tcp.getHeader().getAck()) tcpFlags.add("ACK");
-                if (tcp.getHeader().getFin()) tcpFlags.add("FIN");
-                if (tcp.getHeader().getRst()) tcpFlags.add("RST");
-                if (tcp.getHeader().getUrg()) tcpFlags.add("URG");
-                if (tcp.getHeader().getPsh()) tcpFlags.add("PSH");
-
-                info = "TCP " + srcPort + " → " + dstPort;
-                payload = tcp.getPayload() != null ? tcp.getPayload().getRawData() : null;
-
-            } else if (protocol == IpNumber.UDP && p.contains(UdpPacket.class)) {
-                UdpPacket udp = p.get(UdpPacket.class);
-                srcPort = udp.getHeader().getSrcPort().valueAsInt();
-                dstPort = udp.getHeader().getDstPort().valueAsInt();
-                info = "UDP " + srcPort + " → " + dstPort;
-
-                if (p.contains(DnsPacket.class)) {
-                    DnsPacket dns = p.get(DnsPacket.class);
-                    if (!dns.getHeader().getQuestions().isEmpty()) {
-                        dnsQueryName = dns.getHeader().getQuestions().get(0).getQName().getName();
-                    }
-                }
-
-                payload = udp.getPayload() != null ? udp.getPayload().getRawData() : null;
-
-            } else if (protocol == IpNumber.ICMPV4 && p.contains(IcmpV4CommonPacket.class)) {
-                IcmpV4CommonPacket icmp = p.get(IcmpV4CommonPacket.class);
-                icmpType = icmp.getHeader().getType().value() & 0xFF;
-                icmpCode = icmp.getHeader().getCode().value() & 0xFF;
-                info = "ICMP type=" + icmpType + " code=" + icmpCode;
-
-                payload = icmp.getPayload() != null ? icmp.getPayload().getRawData() : null;
-            } else {
-                info = proto + " packet";
-            }
+    //Per-interface packet rate and drop counters, refreshed once a second while capturing
+    private void updateLaneStats() {
+        StringBuilder sb = new StringBuilder();
+        for (CaptureEngine.Lane lane : engine.getLanes()) {
+            if (sb.length() > 0) sb.append("   |   ");
+            sb.append(lane.getName()).append(": ")
+              .append(String.format("%.0f pps", lane.getPacketsPerSecond()))
+              .append(", ").append(lane.getPackets()).append(" pkts")
+              .append(", dropped ").append(lane.getKernelDropped() + lane.getIfaceDropped())
+              .append(", buffer ").append(lane.getBufferBytes() >> 20).append(" MiB");
+            if (lane.getShed() > 0) sb.append(", shed ").append(lane.getShed());
+            if (!lane.isOpen()) sb.append(" (closed)");
         }
-
-        // ───── MAC-level ownership check ─────
-        String ethSrc = "?", ethDst = "?";
-        boolean isMine = false;
-        boolean isBroadcastOrMulticast = false;
-
-        if (p.contains(EthernetPacket.class)) {
-            EthernetPacket eth = p.get(EthernetPacket.class);
-            ethSrc = Utils.macToString(eth.getHeader().getSrcAddr().getAddress());
-            ethDst = Utils.macToString(eth.getHeader().getDstAddr().getAddress());
-
-            if ("ff:ff:ff:ff:ff:ff".equals(ethDst) ||
-                ethDst.startsWith("01:00:5e") ||
-                ethDst.startsWith("33:33") ||
-                ethDst.startsWith("01:80:c2")) {
-                isBroadcastOrMulticast = true;
-            }
-
-            if (localMACs.contains(ethSrc) || localMACs.contains(ethDst)) {
-                isMine = true;
-            }
+        //Agents decode and shed on their own host; drops and shed counts are theirs
+        for (CaptureEngine.Lane lane : agents.getLanes()) {
+            if (sb.length() > 0) sb.append("   |   ");
+            sb.append("📡 ").append(lane.getName()).append(": ")
+              .append(String.format("%.0f pps", lane.getPacketsPerSecond()))
+              .append(", ").append(lane.getPackets()).append(" pkts")
+              .append(", dropped ").append(lane.getKernelDropped());
+            if (lane.getShed() > 0) sb.append(", shed ").append(lane.getShed());
+            if (!lane.isOpen()) sb.append(" (disconnected)");
         }
-
-        if (!isMine && (localIPs.contains(src) || localIPs.contains(dst))) {
-            isMine = true;
+        LoadShedder shedder = engine.getShedder();
+        if (shedder.isOverloaded()) {
+            sb.append("   |   ⚠ OVERLOAD: sampling routine flows 1 in ").append(shedder.getSampleRate());
         }
-
-        // ───── Create and store packet row ─────
-        PacketRow row = new PacketRow(
-            LocalTime.now().format(TIME_FMT),
-            src, dst, proto,
-            String.valueOf(p.length()), info,
-            p.toString(), isMine, isBroadcastOrMulticast,
-            srcPort, dstPort, windowSize,
-            tcpFlags, dnsQueryName,
-            icmpType, icmpCode, payload
-        );
-
-        if (PacketInspector.suspiciousPacket(row)) {
-            Database.insertPacket(row);
+        FrameArena arena = FrameArena.getDefault();
+        if (arena != null && arena.getEvictedBytes() > 0) {
+            sb.append("   |   frame arena full (").append(arena.getCapacity() >> 20).append(" MiB): oldest frames released");
         }
-
-        return row;
+        laneStats.setText(sb.toString());
     }
 
+    //Open incidents are only written once they close; close them now so nothing seen this session is lost
+    @Override public void stop() {
+        engine.stop();
+        agents.stop();
+        Database.shutdown();
+    }
 
     // ── Main -------------------------------------------------------------
-    public static void main(String[] args) { launch(args); }
+    public static void main(String[] args) {
+        StartupTimer.mark("main()");
+        launch(args);
+    }
 }
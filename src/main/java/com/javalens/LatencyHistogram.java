@@ -0,0 +1,77 @@
+package com.javalens;
+
+import java.util.Arrays;
+
+//Fixed-size log-linear histogram for latencies in nanoseconds (the same idea as HdrHistogram, much smaller).
+//Each power of two is split into SUB_BUCKETS linear buckets, so any recorded value is reported within ~6% and
+//recording is a couple of bit operations plus an array increment. Not thread-safe.
+public class LatencyHistogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    private final long[] counts = new long[64 * SUB_BUCKETS];
+    private long count, sum;
+    private long min = Long.MAX_VALUE, max;
+
+    public void record(long nanos) {
+        if (nanos < 0) return;
+        counts[index(nanos)]++;
+        count++;
+        sum += nanos;
+        min = Math.min(min, nanos);
+        max = Math.max(max, nanos);
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) counts[i] += other.counts[i];
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+        count = sum = max = 0;
+        min = Long.MAX_VALUE;
+    }
+
+    //Value at quantile q (0..1), e.g. 0.99 for p99. Returns 0 when empty.
+    public long percentile(double q) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(max, Math.max(min, midpoint(i)));
+        }
+        return max;
+    }
+
+    public long getCount() { return count; }
+    public long getMin() { return count == 0 ? 0 : min; }
+    public long getMax() { return max; }
+    public double getMean() { return count == 0 ? 0 : (double) sum / count; }
+
+    // ────────────────────── Bucketing ─────────────────────────────────────────────────── //
+    //Values below SUB_BUCKETS get exact buckets; above that, the top SUB_BITS bits below the leading one pick the sub-bucket
+    static int index(long v) {
+        if (v < SUB_BUCKETS) return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exp - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long lowerBound(int i) {
+        if (i < SUB_BUCKETS) return i;
+        int exp = i / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = i % SUB_BUCKETS;
+        return (1L << exp) | (sub << (exp - SUB_BITS));
+    }
+
+    private static long midpoint(int i) {
+        if (i < SUB_BUCKETS) return i;
+        int exp = i / SUB_BUCKETS + SUB_BITS - 1;
+        return lowerBound(i) + (1L << (exp - SUB_BITS)) / 2;
+    }
+}
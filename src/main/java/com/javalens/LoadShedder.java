@@ -0,0 +1,189 @@
+package com.javalens;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.pcap4j.packet.namednumber.DataLinkType;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Overload protection for the capture path. When the decode backlog or the kernel drop counters say we can't keep up,
+//routine traffic is flow-sampled 1-in-N *before* it is decoded, while anything that could be suspicious is always kept.
+//Rows that survive sampling carry N as their weight so statistics can be scaled back up.
+public class LoadShedder {
+    private static final Logger logger = LoggerFactory.getLogger(LoadShedder.class);
+
+    //Backlog = rows waiting in the capture lanes plus rows waiting for the UI
+    private static final int HIGH_WATER = Integer.getInteger("javalens.shed.highWater", 50_000);
+    private static final int LOW_WATER = HIGH_WATER / 10;
+    private static final int MAX_RATE = 1024;
+    private static final long UPDATE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final long CALM_PERIOD_NANOS = TimeUnit.SECONDS.toNanos(5); // quiet time before leaving overload
+
+    private volatile boolean overloaded;
+    private final AtomicInteger sampleRate = new AtomicInteger(1); // keep 1 in N routine flows
+    private final AtomicLong shed = new AtomicLong();
+    private final AtomicLong nonIpCounter = new AtomicLong();
+
+    private long lastUpdate, lastBacklog, lastDrops, lastPressure;
+
+    public boolean isOverloaded() { return overloaded; }
+    public int getSampleRate() { return overloaded ? sampleRate.get() : 1; }
+    public long getShed() { return shed.get(); }
+
+    // ────────────────────── Mode Control ─────────────────────────────────────────────────── //
+    //Called periodically by the capture coordinator with the current backlog and the total kernel drop count
+    public synchronized void update(long nowNanos, long backlog, long kernelDrops) {
+        if (nowNanos - lastUpdate < UPDATE_INTERVAL_NANOS) return;
+        lastUpdate = nowNanos;
+
+        boolean dropping = kernelDrops > lastDrops;
+        boolean growing = backlog > lastBacklog;
+        lastDrops = kernelDrops;
+        lastBacklog = backlog;
+        if (dropping || backlog > HIGH_WATER) lastPressure = nowNanos;
+
+        if (!overloaded) {
+            if (backlog > HIGH_WATER || dropping) {
+                overloaded = true;
+                sampleRate.set(2);
+                logger.warn("Entering overload mode (backlog {}, kernel drops rising: {})", backlog, dropping);
+            }
+            return;
+        }
+
+        //Still under pressure: sample harder. Draining well: ease off. Calm for a while: leave overload mode.
+        if ((growing && backlog > LOW_WATER) || dropping) {
+            sampleRate.set(Math.min(MAX_RATE, sampleRate.get() * 2));
+        } else if (backlog < LOW_WATER && sampleRate.get() > 2) {
+            sampleRate.set(sampleRate.get() / 2);
+        } else if (backlog < LOW_WATER && nowNanos - lastPressure > CALM_PERIOD_NANOS) {
+            overloaded = false;
+            sampleRate.set(1);
+            logger.info("Leaving overload mode, {} packets shed so far", shed.get());
+        }
+    }
+
+    // ────────────────────── Per-Packet Decision ─────────────────────────────────────────────────── //
+    //Decide from the raw frame whether to decode this packet. Returns the row weight (1 or N), or 0 to shed it.
+    //`frame` may be cut short by the snaplen; `wireLength` is the length the packet had on the wire.
+    public int admit(byte[] frame, DataLinkType dlt, int wireLength) {
+        if (!overloaded) return 1;
+        int rate = sampleRate.get();
+
+        int l3 = l3Offset(frame, dlt);
+        int version = l3 >= 0 && l3 < frame.length ? frame[l3] >>> 4 & 0x0F : 0;
+        int proto, l4, srcIp, dstIp;
+        if (version == 4 && l3 + 20 <= frame.length) {
+            proto = frame[l3 + 9] & 0xFF;
+            l4 = l3 + (frame[l3] & 0x0F) * 4;
+            srcIp = i32(frame, l3 + 12);
+            dstIp = i32(frame, l3 + 16);
+        } else if (version == 6 && l3 + 40 <= frame.length) {
+            long next = ipv6Upper(frame, l3);
+            //Truncated or unusual extension header chain: the ports can't be seen, so don't risk shedding it
+            if (next < 0) return 1;
+            proto = (int) (next >>> 32);
+            l4 = (int) next;
+            srcIp = fold(frame, l3 + 8);
+            dstIp = fold(frame, l3 + 24);
+        } else {
+            //Non-IP (ARP, LLDP, ...) has no flow key here, so sample it by count
+            if (nonIpCounter.incrementAndGet() % rate == 0) return rate;
+            shed.incrementAndGet();
+            return 0;
+        }
+
+        int srcPort = 0, dstPort = 0;
+
+        if ((proto == 6 || proto == 17) && l4 + 4 <= frame.length) {
+            srcPort = u16(frame, l4);
+            dstPort = u16(frame, l4 + 2);
+        }
+
+        if (PacketInspector.mightBeSuspicious(proto, srcPort, dstPort, tcpFlags(frame, proto, l4), icmpType(frame, proto, l4), wireLength)) {
+            return 1;
+        }
+
+        //Symmetric flow hash so both directions of a sampled flow are kept together
+        int h = mix(srcIp * 31 + srcPort) + mix(dstIp * 31 + dstPort) + proto;
+        if (Integer.remainderUnsigned(mix(h), rate) == 0) return rate;
+        shed.incrementAndGet();
+        return 0;
+    }
+
+    // ────────────────────── Raw Header Helpers ─────────────────────────────────────────────────── //
+    static int l3Offset(byte[] f, DataLinkType dlt) {
+        if (DataLinkType.EN10MB.equals(dlt)) {
+            if (f.length < 14) return -1;
+            int off = 12, type = u16(f, off);
+            while ((type == 0x8100 || type == 0x88A8) && f.length >= off + 6) { // VLAN tags
+                off += 4;
+                type = u16(f, off);
+            }
+            return type == 0x0800 || type == 0x86DD ? off + 2 : -1;
+        }
+        if (DataLinkType.NULL.equals(dlt)) return 4; // BSD loopback / utun: 4-byte address family header
+        if (DataLinkType.RAW.equals(dlt)) return 0;
+        return -1;
+    }
+
+    //Walk the IPv6 extension headers to the upper-layer header. Returns (protocol << 32 | offset), or -1 if the chain
+    //runs past the captured bytes or is an ESP/non-first fragment whose upper-layer header isn't visible.
+    static long ipv6Upper(byte[] f, int l3) {
+        int next = f[l3 + 6] & 0xFF, off = l3 + 40;
+        while (true) {
+            switch (next) {
+                case 0, 43, 60 -> { // hop-by-hop, routing, destination options
+                    if (off + 2 > f.length) return -1;
+                    next = f[off] & 0xFF;
+                    off += ((f[off + 1] & 0xFF) + 1) * 8;
+                }
+                case 44 -> { // fragment: only the first fragment carries the ports
+                    if (off + 8 > f.length || (u16(f, off + 2) & 0xFFF8) != 0) return -1;
+                    next = f[off] & 0xFF;
+                    off += 8;
+                }
+                case 51 -> { // authentication header
+                    if (off + 2 > f.length) return -1;
+                    next = f[off] & 0xFF;
+                    off += ((f[off + 1] & 0xFF) + 2) * 4;
+                }
+                case 50 -> { return -1; } // ESP: everything after it is encrypted
+                default -> { return (long) next << 32 | off; }
+            }
+        }
+    }
+
+    private static int tcpFlags(byte[] f, int proto, int l4) {
+        return proto == 6 && l4 + 14 <= f.length ? f[l4 + 13] & 0x3F : 0;
+    }
+
+    private static int icmpType(byte[] f, int proto, int l4) {
+        return proto == 1 && l4 < f.length ? f[l4] & 0xFF : -1;
+    }
+
+    private static int u16(byte[] d, int off) {
+        return ((d[off] & 0xFF) << 8) | (d[off + 1] & 0xFF);
+    }
+
+    private static int i32(byte[] d, int off) {
+        return ((d[off] & 0xFF) << 24) | ((d[off + 1] & 0xFF) << 16) | ((d[off + 2] & 0xFF) << 8) | (d[off + 3] & 0xFF);
+    }
+
+    //A 128-bit address folded to 32 bits for the flow hash
+    private static int fold(byte[] d, int off) {
+        return i32(d, off) ^ i32(d, off + 4) * 31 ^ i32(d, off + 8) * 961 ^ i32(d, off + 12) * 29791;
+    }
+
+    private static int mix(int x) {
+        x ^= x >>> 16;
+        x *= 0x7feb352d;
+        x ^= x >>> 15;
+        x *= 0x846ca68b;
+        x ^= x >>> 16;
+        return x;
+    }
+}
@@ -0,0 +1,241 @@
+package com.javalens;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.Map;
+import java.util.List;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.javalens.Utils.PacketRow;
+import com.javalens.IncidentAggregator.Incident;
+
+//Headless end-to-end load test: SyntheticTraffic lanes → CaptureEngine (shed, decode, parse, merge) → a consumer
+//draining the output queue like the UI does, with suspicious rows grouped into incidents and written by Database's
+//batched writer into an in-process stand-in for Postgres that charges a fixed cost per row. Runs offline and needs
+//no capture privileges.
+//
+//The rate doubles each step until the pipeline stops keeping up, then bisects to find the highest sustainable rate,
+//and reports per-stage latency percentiles at that rate.
+//
+//  mvn -Ploadtest compile exec:java -Dexec.args="--lanes=2 --attack=MIXED --attackShare=0.05"
+//
+//Options (all --name=value): lanes, flows, attack (NONE, SYN_FLOOD, PORT_SCAN, DNS_TUNNEL, BIG_PING, MIXED),
+//attackShare, startPps, maxPps, seconds (per step), dbRowMicros, seed.
+public class LoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(LoadTest.class);
+
+    //A step is sustainable if the generators hit this share of the target rate...
+    private static final double MIN_ACHIEVED = 0.95;
+    //...nothing was shed or dropped, and rows reached the consumer within this long at p99
+    private static final long MAX_P99_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final int BISECT_STEPS = 4;
+
+    private final int lanes, flows, seconds;
+    private final SyntheticTraffic.Attack attack;
+    private final double attackShare;
+    private final long startPps, maxPps, seed;
+    private final long dbRowNanos;
+
+    //Latencies recorded by several threads at once; LatencyHistogram itself is not thread-safe
+    private static final class Stage {
+        final String name;
+        private final LatencyHistogram h = new LatencyHistogram();
+
+        Stage(String name) { this.name = name; }
+
+        synchronized void record(long nanos) { h.record(nanos); }
+
+        synchronized String summary() {
+            if (h.getCount() == 0) return String.format("  %-12s (no samples)", name);
+            return String.format("  %-12s n=%,-10d p50 %9s  p90 %9s  p99 %9s  max %9s", name, h.getCount(),
+                fmt(h.percentile(0.50)), fmt(h.percentile(0.90)), fmt(h.percentile(0.99)), fmt(h.getMax()));
+        }
+
+        synchronized long p99() { return h.percentile(0.99); }
+    }
+
+    private record StepResult(long targetPps, double achievedPps, long processed, long consumed, long shed,
+                              long dbWritten, long dbDropped, List<Stage> stages, long e2eP99, boolean sustained) {}
+
+    //Shared with Database's writer thread for the whole run; Database only accepts one sink
+    private final Stage dbStage = new Stage("db write");
+    private final AtomicLong dbWritten = new AtomicLong();
+
+    LoadTest(Map<String, String> opts) {
+        lanes = Integer.parseInt(opts.getOrDefault("lanes", "2"));
+        flows = Integer.parseInt(opts.getOrDefault("flows", "5000"));
+        attack = SyntheticTraffic.Attack.valueOf(opts.getOrDefault("attack", "MIXED").toUpperCase());
+        attackShare = Double.parseDouble(opts.getOrDefault("attackShare", "0.02"));
+        startPps = Long.parseLong(opts.getOrDefault("startPps", "20000"));
+        maxPps = Long.parseLong(opts.getOrDefault("maxPps", "5000000"));
+        seconds = Integer.parseInt(opts.getOrDefault("seconds", "5"));
+        dbRowNanos = TimeUnit.MICROSECONDS.toNanos(Long.parseLong(opts.getOrDefault("dbRowMicros", "20")));
+        seed = Long.parseLong(opts.getOrDefault("seed", "42"));
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> opts = new HashMap<>();
+        for (String a : args) {
+            if (!a.startsWith("--") || !a.contains("=")) {
+                System.err.println("Ignoring argument " + a + " (expected --name=value)");
+                continue;
+            }
+            opts.put(a.substring(2, a.indexOf('=')), a.substring(a.indexOf('=') + 1));
+        }
+        new LoadTest(opts).run();
+    }
+
+    void run() throws InterruptedException {
+        Database.useSink(this::writeBatch);
+        System.out.printf("JavaLens load test: %d lanes, %,d flows, attack %s (%.1f%%), %d s per step, %d us per DB row%n",
+            lanes, flows, attack, attackShare * 100, seconds, TimeUnit.NANOSECONDS.toMicros(dbRowNanos));
+
+        //First run pays for class loading, pcap4j's factory setup and JIT compilation; don't judge the pipeline by it
+        runStep(startPps, Math.min(seconds, 3), false);
+
+        StepResult best = null, failed = null;
+        for (long pps = startPps; pps <= maxPps; pps *= 2) {
+            StepResult r = runStep(pps, seconds, true);
+            if (!r.sustained()) {
+                failed = r;
+                break;
+            }
+            best = r;
+        }
+        //Narrow down between the last good rate and the first bad one
+        if (failed != null) {
+            long lo = best != null ? best.targetPps() : 0, hi = failed.targetPps();
+            for (int i = 0; i < BISECT_STEPS && hi - lo > hi / 20; i++) {
+                long mid = (lo + hi) / 2;
+                StepResult r = runStep(mid, seconds, true);
+                if (r.sustained()) {
+                    best = r;
+                    lo = mid;
+                } else {
+                    hi = mid;
+                }
+            }
+        }
+
+        System.out.println();
+        if (best == null) {
+            System.out.printf("Not sustainable even at %,d pps%n", startPps);
+            return;
+        }
+        System.out.printf("Max sustainable rate: %,d pps (%,.0f achieved)%s%n", best.targetPps(), best.achievedPps(),
+            failed == null ? " — hit --maxPps, the real limit is higher" : "");
+        System.out.println("Stage latencies at that rate:");
+        for (Stage s : best.stages()) System.out.println(s.summary());
+        System.out.println(dbStage.summary() + "  (whole run, incident closed -> committed)");
+    }
+
+    // ────────────────────── One Step ─────────────────────────────────────────────────── //
+    private StepResult runStep(long pps, int seconds, boolean report) throws InterruptedException {
+        waitForDatabase();
+        long dbBefore = dbWritten.get(), dbDroppedBefore = Database.getDroppedIncidents();
+
+        PacketParser parser = new PacketParser(Set.of(), Set.of());
+        BlockingQueue<PacketRow> out = new LinkedBlockingQueue<>();
+        CaptureEngine engine = new CaptureEngine(parser, new TimingStats(), out,
+            (title, msg) -> logger.error("{}: {}", title, msg));
+
+        Stage decode = new Stage("decode"), parse = new Stage("parse"), e2e = new Stage("end to end");
+        engine.setProbe((decodeNanos, parseNanos) -> {
+            decode.record(decodeNanos);
+            parse.record(parseNanos);
+        });
+
+        List<SyntheticTraffic> sources = new ArrayList<>();
+        for (int i = 0; i < lanes; i++) {
+            sources.add(new SyntheticTraffic("synth" + i, (double) pps / lanes, flows / lanes, attack, attackShare, seed + i));
+        }
+
+        //Drains in batches like the UI's refresh does, and measures capture timestamp → consumer
+        AtomicLong consumed = new AtomicLong();
+        Thread consumer = Thread.ofPlatform().daemon().name("loadtest-consumer").start(() -> {
+            List<PacketRow> batch = new ArrayList<>(20_000);
+            while (!Thread.currentThread().isInterrupted()) {
+                out.drainTo(batch, 20_000);
+                if (batch.isEmpty()) {
+                    LockSupport.parkNanos(200_000);
+                    continue;
+                }
+                long now = SyntheticTraffic.now();
+                for (PacketRow r : batch) e2e.record(now - r.getTimestampNanos());
+                consumed.addAndGet(batch.size());
+                batch.clear();
+            }
+        });
+
+        long t0 = System.nanoTime();
+        engine.startSources(sources);
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+        engine.stop();
+        double elapsed = (System.nanoTime() - t0) / 1e9;
+
+        //Let the merger and consumer finish what was already captured
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        long processed;
+        while ((processed = processedRows(engine)) > consumed.get() && System.nanoTime() < deadline) Thread.sleep(10);
+        consumer.interrupt();
+        consumer.join();
+        //Incidents still open would otherwise be written during the next step
+        Database.flushIncidents();
+        waitForDatabase();
+
+        long generated = sources.stream().mapToLong(SyntheticTraffic::getProduced).sum();
+        long shed = engine.getLanes().stream().mapToLong(CaptureEngine.Lane::getShed).sum();
+        long dbDropped = Database.getDroppedIncidents() - dbDroppedBefore;
+        double achieved = generated / elapsed;
+
+        String verdict = achieved < MIN_ACHIEVED * pps ? "FAIL: generators fell behind"
+            : shed > 0 ? "FAIL: load shedding kicked in"
+            : dbDropped > 0 ? "FAIL: database queue overflowed"
+            : processed > consumed.get() ? "FAIL: rows stuck in the pipeline"
+            : e2e.p99() > MAX_P99_NANOS ? "FAIL: p99 latency over " + fmt(MAX_P99_NANOS)
+            : "OK";
+        boolean sustained = verdict.equals("OK");
+
+        StepResult r = new StepResult(pps, achieved, processed, consumed.get(), shed,
+            dbWritten.get() - dbBefore, dbDropped, List.of(decode, parse, e2e), e2e.p99(), sustained);
+        if (report) System.out.printf("%,12d pps target  %,12.0f achieved  %,11d consumed  %,9d shed  %,9d db rows  %,7d db dropped  p99 %9s  %s%n",
+            pps, achieved, r.consumed(), shed, r.dbWritten(), dbDropped, fmt(r.e2eP99()), verdict);
+        return r;
+    }
+
+    private static long processedRows(CaptureEngine engine) {
+        return engine.getLanes().stream().mapToLong(CaptureEngine.Lane::getPackets).sum();
+    }
+
+    //Stand-in for the JDBC batch: costs dbRowNanos per row (each incident plus its sample packets), busy-waiting
+    //since sleeps are too coarse at this scale. Latency is from the incident closing to its commit.
+    private void writeBatch(List<Incident> batch) {
+        int rows = 0;
+        for (Incident inc : batch) rows += 1 + inc.getSamples().size();
+        long end = System.nanoTime() + dbRowNanos * rows;
+        while (System.nanoTime() < end) Thread.onSpinWait();
+        long now = SyntheticTraffic.now();
+        for (Incident inc : batch) dbStage.record(now - inc.getClosedAt());
+        dbWritten.addAndGet(rows);
+    }
+
+    //Don't start a step with the previous step's backlog still queued for the database
+    private static void waitForDatabase() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (Database.getPendingIncidents() > 0 && System.nanoTime() < deadline) Thread.sleep(50);
+    }
+
+    private static String fmt(long nanos) {
+        if (nanos >= 1_000_000) return String.format("%.1f ms", nanos / 1e6);
+        if (nanos >= 1_000) return String.format("%.1f us", nanos / 1e3);
+        return nanos + " ns";
+    }
+}
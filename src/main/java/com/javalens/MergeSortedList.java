@@ -0,0 +1,251 @@
+package com.javalens;
+
+import java.util.Comparator;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.TransformationList;
+
+//A sorted view like SortedList, tuned for the live packet table. SortedList inserts each added row with its own
+//array shift and finds each removed row with a linear scan, so one pulse that appends 500 rows and trims 500
+//old ones from a 100k-row table costs ~100M moves. Here a change is applied in one pass: removed rows are
+//compacted out, the added rows are sorted among themselves and merged in, and one change event describes it.
+//When the added rows belong after everything already shown (capture order, newest last) the merge is a
+//binary search plus an append.
+//
+//Ties are broken by source index, so equal rows keep arrival order. Like the source, this is FX-thread only.
+public class MergeSortedList<E> extends TransformationList<E, E> {
+    private int[] perm = new int[16];  // view index -> source index
+    private int[] spare = new int[16]; // next perm while a change is being merged
+    private int size;
+    private int sourceSize;
+    private Comparator<? super E> comparator;
+
+    //Scratch space for sourceChanged, kept between changes so a pulse doesn't allocate per row
+    private int[] remap = new int[16];
+    private int[] added = new int[16];
+    private int[] tmp = new int[16];
+    private int[] updatedRows;
+    private Object[] removed = new Object[16];
+
+    private int[] inverse; // source index -> view index, rebuilt on demand
+    private boolean inverseValid;
+
+    public MergeSortedList(ObservableList<? extends E> source) {
+        super(source);
+        sourceSize = source.size();
+        size = sourceSize;
+        perm = new int[Math.max(16, size)];
+        for (int i = 0; i < size; i++) perm[i] = i;
+    }
+
+    public Comparator<? super E> getComparator() { return comparator; }
+
+    //Re-sorts everything once; null means source order
+    public void setComparator(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+        resort();
+    }
+
+    @Override public E get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        return getSource().get(perm[index]);
+    }
+
+    @Override public int size() { return size; }
+
+    @Override public int getSourceIndex(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        return perm[index];
+    }
+
+    @Override public int getViewIndex(int index) {
+        if (index < 0 || index >= sourceSize) throw new IndexOutOfBoundsException(index);
+        if (!inverseValid) {
+            inverse = ensure(inverse, sourceSize);
+            for (int v = 0; v < size; v++) inverse[perm[v]] = v;
+            inverseValid = true;
+        }
+        return inverse[index];
+    }
+
+    @Override
+    protected void sourceChanged(ListChangeListener.Change<? extends E> c) {
+        int oldSourceSize = sourceSize;
+        sourceSize = getSource().size();
+        inverseValid = false;
+
+        //Permutations and updates arrive on their own; re-sort and report the new order
+        if (c.next() && c.wasPermutated()) {
+            for (int v = 0; v < size; v++) perm[v] = c.getPermutation(perm[v]); // same rows, new source positions
+            resort();
+            return;
+        }
+        c.reset();
+
+        //Walk the sub-changes in order to map each old source index to its new one (-1 = removed) and collect
+        //the new source indices of added rows. Sub-change positions are in final-list coordinates.
+        remap = ensure(remap, oldSourceSize);
+        int oldPos = 0, newPos = 0, addCount = 0, updateCount = 0;
+        while (c.next()) {
+            if (c.wasUpdated()) {
+                updatedRows = ensure(updatedRows, updateCount + c.getTo() - c.getFrom());
+                for (int u = c.getFrom(); u < c.getTo(); u++) updatedRows[updateCount++] = u;
+                continue;
+            }
+            int from = c.getFrom();
+            while (newPos < from) remap[oldPos++] = newPos++;
+            if (c.wasRemoved()) {
+                if (removed.length < oldSourceSize) removed = new Object[Math.max(oldSourceSize, removed.length * 2)];
+                for (E r : c.getRemoved()) {
+                    removed[oldPos] = r;
+                    remap[oldPos++] = -1;
+                }
+            }
+            if (c.wasAdded()) {
+                added = ensure(added, addCount + c.getAddedSize());
+                for (int a = from; a < c.getTo(); a++) added[addCount++] = a;
+                newPos = c.getTo();
+            }
+        }
+        while (oldPos < oldSourceSize) remap[oldPos++] = newPos++;
+
+        beginChange();
+
+        //1. Compact removed rows out of the view, keeping the order of the rest
+        int kept = 0;
+        int[] keep = perm;
+        for (int v = 0; v < size; v++) {
+            int s = keep[v];
+            int ns = remap[s];
+            if (ns < 0) {
+                @SuppressWarnings("unchecked") E gone = (E) removed[s];
+                removed[s] = null;
+                nextRemove(kept, gone); // everything before it is already compacted
+            } else {
+                keep[kept++] = ns;
+            }
+        }
+
+        //2. Sort the newcomers and merge them in
+        if (addCount == 0) {
+            finish(keep, kept, updateCount);
+            return;
+        }
+        sort(added, 0, addCount);
+        int total = kept + addCount;
+        int[] out = ensure(spare, total);
+        //Everything before the first newcomer's slot stays put: for capture order that's all of it
+        int start = upperBound(keep, kept, added[0]);
+        System.arraycopy(keep, 0, out, 0, start);
+        int i = start, j = 0, o = start;
+        int runStart = -1;
+        while (j < addCount) {
+            boolean takeAdded = i >= kept || compare(added[j], keep[i]) < 0;
+            if (takeAdded) {
+                if (runStart < 0) runStart = o;
+                out[o++] = added[j++];
+            } else {
+                if (runStart >= 0) {
+                    nextAdd(runStart, o);
+                    runStart = -1;
+                }
+                out[o++] = keep[i++];
+            }
+        }
+        if (runStart >= 0) nextAdd(runStart, o);
+        System.arraycopy(keep, i, out, o, kept - i);
+
+        spare = keep;
+        finish(out, total, updateCount);
+    }
+
+    //Installs the merged order and closes the change. Rows whose fields changed (only with an extractor on the
+    //source) are reported as updates, then re-sorted since they may now be out of place.
+    private void finish(int[] next, int n, int updateCount) {
+        perm = next;
+        size = n;
+        for (int u = 0; u < updateCount; u++) nextUpdate(getViewIndex(updatedRows[u]));
+        endChange();
+        if (updateCount > 0) resort();
+    }
+
+    //Puts the view back in comparator order (source order when there is none) and reports the move
+    private void resort() {
+        int[] next = ensure(spare, size);
+        if (comparator == null) {
+            for (int v = 0; v < size; v++) next[v] = v;
+        } else {
+            System.arraycopy(perm, 0, next, 0, size);
+            sort(next, 0, size);
+        }
+        permuteTo(next);
+    }
+
+    //Switches to `next`, which holds the same source indices as perm in a new order, as one permutation change
+    private void permuteTo(int[] next) {
+        int[] where = ensure(inverse, sourceSize);
+        for (int v = 0; v < size; v++) where[next[v]] = v;
+        int[] moves = new int[size];
+        boolean moved = false;
+        for (int v = 0; v < size; v++) {
+            moves[v] = where[perm[v]];
+            moved |= moves[v] != v;
+        }
+        inverse = where;
+        inverseValid = false;
+        spare = perm;
+        perm = next;
+        if (moved) {
+            beginChange();
+            nextPermutation(0, size, moves);
+            endChange();
+        }
+    }
+
+    //First position in keep[0, n) whose row sorts after source row `s`
+    private int upperBound(int[] keep, int n, int s) {
+        int lo = 0, hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(s, keep[mid]) < 0) hi = mid;
+            else lo = mid + 1;
+        }
+        return lo;
+    }
+
+    //Stable merge sort of source indices. A range that is already in order costs one comparison per merge,
+    //so a batch that arrives in capture order and is shown in capture order is close to free.
+    private void sort(int[] a, int from, int to) {
+        if (to - from < 2) return;
+        tmp = ensure(tmp, to);
+        mergeSort(a, from, to);
+    }
+
+    private void mergeSort(int[] a, int lo, int hi) {
+        if (hi - lo < 2) return;
+        int mid = (lo + hi) >>> 1;
+        mergeSort(a, lo, mid);
+        mergeSort(a, mid, hi);
+        if (compare(a[mid - 1], a[mid]) <= 0) return;
+        System.arraycopy(a, lo, tmp, lo, hi - lo);
+        int i = lo, j = mid, k = lo;
+        while (i < mid && j < hi) a[k++] = compare(tmp[j], tmp[i]) < 0 ? tmp[j++] : tmp[i++];
+        while (i < mid) a[k++] = tmp[i++];
+        while (j < hi) a[k++] = tmp[j++];
+    }
+
+    //Comparator order, then source order so equal rows never swap
+    private int compare(int s1, int s2) {
+        if (comparator != null) {
+            int c = comparator.compare(getSource().get(s1), getSource().get(s2));
+            if (c != 0) return c;
+        }
+        return Integer.compare(s1, s2);
+    }
+
+    private static int[] ensure(int[] a, int n) {
+        if (a != null && a.length >= n) return a;
+        return new int[Math.max(16, Math.max(n, a == null ? 0 : a.length * 2))];
+    }
+}
@@ -0,0 +1,231 @@
+package com.javalens;
+
+import javafx.stage.Window;
+import javafx.stage.FileChooser;
+import javafx.scene.control.*;
+import javafx.scene.layout.VBox;
+import javafx.concurrent.Task;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.List;
+import java.io.Writer;
+import java.nio.ByteOrder;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Files;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.BufferedWriter;
+import java.util.zip.GZIPOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.BufferedOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.javalens.Utils.PacketRow;
+
+//Streams rows to CSV, JSON Lines or pcap on a background thread. The live list is copied once on the FX thread
+//(the only thread allowed to touch it) when the export starts; that copies references only, not the rows.
+public class PacketExporter {
+    private static final Logger logger = LoggerFactory.getLogger(PacketExporter.class);
+
+    private static final int CHUNK = 4_096;
+    private static final int IO_BUFFER = 1 << 18; // 256 KiB
+
+    public enum Format { CSV, JSONL, PCAP }
+
+    // ────────────────────── UI Entry Point ─────────────────────────────────────────────────── //
+    //Ask for a target file, then export `source` with a progress dialog that can cancel the job
+    public static void exportWithDialog(Window owner, List<PacketRow> source, String what) {
+        FileChooser fc = new FileChooser();
+        fc.setTitle("Export " + what);
+        fc.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter("CSV", "*.csv", "*.csv.gz"),
+            new FileChooser.ExtensionFilter("JSON Lines", "*.jsonl", "*.jsonl.gz"),
+            new FileChooser.ExtensionFilter("pcap", "*.pcap", "*.pcap.gz")
+        );
+        File file = fc.showSaveDialog(owner);
+        if (file == null) return;
+
+        String name = file.getName().toLowerCase();
+        boolean gzip = name.endsWith(".gz");
+        if (gzip) name = name.substring(0, name.length() - 3);
+        Format format = name.endsWith(".pcap") ? Format.PCAP : name.endsWith(".jsonl") ? Format.JSONL : Format.CSV;
+
+        Task<Long> task = exportTask(List.copyOf(source), file.toPath(), format, gzip);
+
+        ProgressBar bar = new ProgressBar();
+        bar.setPrefWidth(360);
+        bar.progressProperty().bind(task.progressProperty());
+        Label msg = new Label();
+        msg.textProperty().bind(task.messageProperty());
+
+        Dialog<Void> dlg = new Dialog<>();
+        dlg.setTitle("Exporting – JavaLens");
+        dlg.setHeaderText("Exporting " + what + " to " + file.getName());
+        dlg.getDialogPane().setContent(new VBox(8, bar, msg));
+        dlg.getDialogPane().getButtonTypes().add(ButtonType.CANCEL);
+        dlg.setOnCloseRequest(e -> { if (task.isRunning()) task.cancel(); });
+
+        task.setOnSucceeded(e -> {
+            dlg.close();
+            Utils.showAlert("Export finished", task.getValue() + " packets written to " + file.getName()
+                + (task.getMessage().contains("skipped") ? "\n" + task.getMessage() : ""));
+        });
+        task.setOnFailed(e -> {
+            dlg.close();
+            logger.error("Export to {} failed", file, task.getException());
+            Utils.showAlert("Export failed", String.valueOf(task.getException().getMessage()));
+        });
+        task.setOnCancelled(e -> dlg.close());
+
+        Thread t = new Thread(task, "javalens-export");
+        t.setDaemon(true);
+        t.start();
+        dlg.show();
+    }
+
+    // ────────────────────── Export Task ─────────────────────────────────────────────────── //
+    //`rows` must not change while the task runs: callers pass a copy of the live list taken on the FX thread, so
+    //rows trimmed from its head or sorted into the middle meanwhile are neither skipped nor written twice
+    public static Task<Long> exportTask(List<PacketRow> rows, Path target, Format format, boolean gzip) {
+        return new Task<>() {
+            @Override protected Long call() throws Exception {
+                long written = 0, skipped = 0;
+                int pcapLinkType = -1, total = rows.size();
+
+                try (OutputStream raw = open(target, gzip)) {
+                    Writer text = format == Format.PCAP ? null
+                        : new BufferedWriter(new OutputStreamWriter(raw, StandardCharsets.UTF_8), IO_BUFFER);
+                    if (format == Format.CSV) text.write(CSV_HEADER);
+
+                    for (int from = 0; from < total; from += CHUNK) {
+                        if (isCancelled()) break;
+                        for (PacketRow r : rows.subList(from, Math.min(total, from + CHUNK))) {
+                            switch (format) {
+                                case CSV -> text.write(toCsv(r));
+                                case JSONL -> text.write(toJson(r));
+                                case PCAP -> {
+                                    //A classic pcap file has one link type; frames from other link types can't go in it
+                                    if (pcapLinkType < 0) {
+                                        pcapLinkType = r.getLinkType();
+                                        writePcapHeader(raw, pcapLinkType);
+                                    }
+                                    //Read the frame once: it can be evicted from the FrameArena between two reads
+                                    byte[] frame = r.getRawData();
+                                    if (frame == null || r.getLinkType() != pcapLinkType) {
+                                        skipped++;
+                                        continue;
+                                    }
+                                    writePcapRecord(raw, r, frame);
+                                }
+                            }
+                            written++;
+                        }
+                        updateProgress(Math.min(total, from + CHUNK), total);
+                        updateMessage(written + " / " + total + " packets" + (skipped > 0 ? ", " + skipped + " skipped" : ""));
+                    }
+                    if (text != null) text.flush();
+                    return written;
+                } finally {
+                    //Also covers a cancel that interrupts a write: the stream is closed by now either way
+                    if (isCancelled()) Files.deleteIfExists(target);
+                }
+            }
+        };
+    }
+
+    private static OutputStream open(Path target, boolean gzip) throws IOException {
+        OutputStream out = Files.newOutputStream(target);
+        if (gzip) out = new GZIPOutputStream(out, IO_BUFFER);
+        return new BufferedOutputStream(out, IO_BUFFER);
+    }
+
+    // ────────────────────── CSV / JSON Lines ─────────────────────────────────────────────────── //
+    private static final String CSV_HEADER =
+        "timestamp_ns,time,iface,source,destination,protocol,application,src_port,dst_port,length,sample_weight,info\n";
+
+    static String toCsv(PacketRow r) {
+        StringBuilder sb = new StringBuilder(160);
+        sb.append(r.getTimestampNanos()).append(',')
+          .append(r.getTime()).append(',');
+        csv(sb, r.getIface()).append(',');
+        csv(sb, r.getSource()).append(',');
+        csv(sb, r.getDestination()).append(',');
+        csv(sb, r.getProtocol()).append(',');
+        csv(sb, r.getApplication()).append(',')
+          .append(r.getSrcPort() != null ? r.getSrcPort() : "").append(',')
+          .append(r.getDstPort() != null ? r.getDstPort() : "").append(',')
+          .append(r.getWireLength()).append(',')
+          .append(r.getSampleWeight()).append(',');
+        csv(sb, r.getInfo()).append('\n');
+        return sb.toString();
+    }
+
+    private static StringBuilder csv(StringBuilder sb, String v) {
+        if (v == null) return sb;
+        boolean quote = v.indexOf(',') >= 0 || v.indexOf('"') >= 0 || v.indexOf('\n') >= 0 || v.indexOf('\r') >= 0;
+        if (!quote) return sb.append(v);
+        return sb.append('"').append(v.replace("\"", "\"\"")).append('"');
+    }
+
+    static String toJson(PacketRow r) {
+        StringBuilder sb = new StringBuilder(256).append('{');
+        sb.append("\"timestamp_ns\":").append(r.getTimestampNanos());
+        json(sb, "iface", r.getIface());
+        json(sb, "source", r.getSource());
+        json(sb, "destination", r.getDestination());
+        json(sb, "protocol", r.getProtocol());
+        json(sb, "application", r.getApplication());
+        if (r.getSrcPort() != null) sb.append(",\"src_port\":").append(r.getSrcPort());
+        if (r.getDstPort() != null) sb.append(",\"dst_port\":").append(r.getDstPort());
+        sb.append(",\"length\":").append(r.getWireLength());
+        sb.append(",\"sample_weight\":").append(r.getSampleWeight());
+        json(sb, "dns_qname", r.getDnsQueryName());
+        json(sb, "info", r.getInfo());
+        sb.append(",\"is_mine\":").append(r.isMine());
+        return sb.append("}\n").toString();
+    }
+
+    private static void json(StringBuilder sb, String key, String v) {
+        if (v == null) return;
+        sb.append(",\"").append(key).append("\":\"");
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    // ────────────────────── pcap ─────────────────────────────────────────────────── //
+    //Nanosecond-resolution pcap (magic a1b23c4d), little-endian
+    private static void writePcapHeader(OutputStream out, int linkType) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(24).order(ByteOrder.LITTLE_ENDIAN);
+        b.putInt(0xa1b23c4d).putShort((short) 2).putShort((short) 4)
+         .putInt(0).putInt(0).putInt(65_535).putInt(linkType);
+        out.write(b.array());
+    }
+
+    private static void writePcapRecord(OutputStream out, PacketRow r, byte[] frame) throws IOException {
+        long ts = r.getTimestampNanos();
+        ByteBuffer b = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+        b.putInt((int) Math.floorDiv(ts, 1_000_000_000L))
+         .putInt((int) Math.floorMod(ts, 1_000_000_000L))
+         .putInt(frame.length)
+         .putInt(Math.max(frame.length, r.getWireLength()));
+        out.write(b.array());
+        out.write(frame);
+    }
+}
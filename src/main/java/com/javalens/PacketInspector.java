@@ -12,99 +12,133 @@ public class PacketInspector {
     private static final int MAX_DNS_NAME_LENGTH = 255;
     private static final int ICMP_PAYLOAD_THRESHOLD = 1000; // bytes
 
+    //Rule names, stored with each incident
+    public static final String ODD_PORT = "odd-port";
+    public static final String SYN_SMALL_WINDOW = "syn-small-window";
+    public static final String DNS_LONG_NAME = "dns-long-name";
+    public static final String DNS_UNDERSCORES = "dns-underscores";
+    public static final String DNS_LONG_LABEL = "dns-long-label";
+    public static final String DNS_HEX_LABEL = "dns-hex-label";
+    public static final String DNS_RANDOM_LABEL = "dns-random-label";
+    public static final String ICMP_BIG_ECHO = "icmp-big-echo";
+    public static final String ICMP_HOST_UNREACHABLE = "icmp-host-unreachable";
+    public static final String ICMP_SOURCE_QUENCH = "icmp-source-quench";
+
     public static boolean suspiciousPacket(PacketRow row) {
-        if (row == null || row.getProtocol() == null) return false;
+        return rule(row) != null;
+    }
+
+    //Name of the first rule the packet trips, or null if it looks fine
+    public static String rule(PacketRow row) {
+        if (row == null || row.getProtocol() == null) return null;
 
         String proto = row.getProtocol().trim().toUpperCase();
         switch (proto) {
             case "TCP":
-                return isSuspiciousTcp(row);
+                return suspiciousTcp(row);
             case "UDP":
-                return isSuspiciousDns(row);
+                return suspiciousDns(row);
             case "ICMP":
-                return isSuspiciousIcmp(row);
+            case "ICMPV4": // pcap4j's name for it
+                return suspiciousIcmp(row);
+            default:
+                return null;
+        }
+    }
+
+    //Cheap pre-check on raw header values, used before a packet is decoded (e.g. while shedding load).
+    //Must never return false for a packet suspiciousPacket() could flag; false positives are fine.
+    //wireLength is the frame's length on the wire, not the possibly truncated captured length.
+    public static boolean mightBeSuspicious(int ipProto, int srcPort, int dstPort, int tcpFlags, int icmpType, int wireLength) {
+        switch (ipProto) {
+            case 6: // TCP
+                if (ODD_TCP_PORTS.contains(srcPort) || ODD_TCP_PORTS.contains(dstPort)) return true;
+                return (tcpFlags & 0x02) != 0 && (tcpFlags & 0x10) == 0; // SYN without ACK
+            case 17: // UDP
+                return srcPort == 53 || dstPort == 53;
+            case 1: // ICMP
+                return icmpType == 3 || icmpType == 4 || (icmpType == 8 && wireLength > ICMP_PAYLOAD_THRESHOLD);
             default:
                 return false;
         }
     }
 
-    private static boolean isSuspiciousTcp(PacketRow row) {
+    private static String suspiciousTcp(PacketRow row) {
         Integer srcPort = row.getSrcPort(), dstPort = row.getDstPort();
     
         // Non-standard odd ports
         if (ODD_TCP_PORTS.contains(srcPort) || ODD_TCP_PORTS.contains(dstPort)) {
-            return true;
+            return ODD_PORT;
         }
     
         // Tiny TCP window size with SYN — possible scan or DoS
         if (row.hasFlag("SYN") && !row.hasFlag("ACK")) {
             Integer window = row.getWindowSize();
             if (window != null && window < 100) {
-                return true;
+                return SYN_SMALL_WINDOW;
             }
         }
     
-        return false;
+        return null;
     }    
 
-    private static boolean isSuspiciousDns(PacketRow row) {
+    private static String suspiciousDns(PacketRow row) {
         Integer srcPort = row.getSrcPort(), dstPort = row.getDstPort();
     
         // Only consider packets involving DNS port 53
         if (!Objects.equals(srcPort, 53) && !Objects.equals(dstPort, 53)) {
-            return false;
+            return null;
         }
     
         String qname = row.getDnsQueryName();
-        if (qname == null) return false;
+        if (qname == null) return null;
     
         // 1) Overly long domain name
         if (qname.length() > MAX_DNS_NAME_LENGTH) {
-            return true;
+            return DNS_LONG_NAME;
         }
     
         // 2) Count underscores
         long underscoreCount = qname.chars().filter(c -> c == '_').count();
         if (underscoreCount > 5) {
-            return true;  // Relaxed threshold
+            return DNS_UNDERSCORES;  // Relaxed threshold
         }
     
         // 3) Check individual labels
         for (String label : qname.split("\\.")) {
             if (label.length() > MAX_DNS_LABEL_LENGTH) {
-                return true;
+                return DNS_LONG_LABEL;
             }
     
             // Highly random-looking subdomain (hex-only, very long)
             if (label.matches("^[0-9A-Fa-f]{32,}$")) {
-                return true;
+                return DNS_HEX_LABEL;
             }
     
             // (Optional) catch truly random 12+ char lowercase blocks like malware beacons
             if (label.matches("^[a-z0-9]{12,}$")) {
-                return true;
+                return DNS_RANDOM_LABEL;
             }
         }
     
-        return false;
+        return null;
     }    
 
-    private static boolean isSuspiciousIcmp(PacketRow row) {
+    private static String suspiciousIcmp(PacketRow row) {
         Integer type = row.getIcmpType(), code = row.getIcmpCode();
-        byte[] payload = row.getPayload();
 
-        // Echo requests with huge payloads
-        if (Objects.equals(type, 8) && payload != null && payload.length > ICMP_PAYLOAD_THRESHOLD) {
-            return true;
+        // Echo requests with huge payloads (as sent, not as captured: the snaplen may have cut them)
+        if (Objects.equals(type, 8) && row.getOriginalPayloadLength() > ICMP_PAYLOAD_THRESHOLD) {
+            return ICMP_BIG_ECHO;
         }
         // Destination Unreachable flooding
         if (Objects.equals(type, 3) && Objects.equals(code, 1 /* host unreachable */)) {
-            return true;
+            return ICMP_HOST_UNREACHABLE;
         }
         // Deprecated types (e.g., source quench: type 4)
         if (Objects.equals(type, 4)) {
-            return true;
+            return ICMP_SOURCE_QUENCH;
         }
-        return false;
+        return null;
     }
 }
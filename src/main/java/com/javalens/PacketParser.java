@@ -0,0 +1,219 @@
+package com.javalens;
+
+//PCap4j - Packet Capturing and Networking Classes
+import org.pcap4j.packet.Packet;
+import org.pcap4j.packet.ArpPacket;
+import org.pcap4j.packet.DnsPacket;
+import org.pcap4j.packet.DnsRDataA;
+import org.pcap4j.packet.DnsRDataAaaa;
+import org.pcap4j.packet.DnsResourceRecord;
+import org.pcap4j.packet.EthernetPacket;
+import org.pcap4j.packet.IcmpV4CommonPacket;
+import org.pcap4j.packet.IpPacket;
+import org.pcap4j.packet.UdpPacket;
+import org.pcap4j.packet.TcpPacket;
+import org.pcap4j.packet.namednumber.IpNumber;
+import org.pcap4j.packet.namednumber.DataLinkType;
+import org.pcap4j.packet.namednumber.IpVersion;
+
+//Java Standard Library Imports
+import java.util.Set;
+import java.util.HashSet;
+
+import com.javalens.Utils.PacketRow;
+
+//Turns decoded pcap4j packets into PacketRows. Holds the local address sets used for the ownership check.
+public class PacketParser {
+    //sets that help me determine the ownership of my packets
+    private final Set<String> localIPs;
+    private final Set<String> localMACs;
+    private final TopTalkers topTalkers = new TopTalkers();
+    private final HttpTracker httpTracker = new HttpTracker();
+    private final TcpAnalyzer tcpAnalyzer;
+    private final PassiveDnsCache dnsCache = new PassiveDnsCache();
+
+    public PacketParser(Set<String> localIPs, Set<String> localMACs) {
+        this.localIPs = localIPs;
+        this.localMACs = localMACs;
+        this.tcpAnalyzer = new TcpAnalyzer(localIPs);
+    }
+
+    public TopTalkers getTopTalkers() { return topTalkers; }
+    public HttpTracker getHttpTracker() { return httpTracker; }
+    public TcpAnalyzer getTcpAnalyzer() { return tcpAnalyzer; }
+    public PassiveDnsCache getDnsCache() { return dnsCache; }
+
+    // ────────────────────── Parse Packet - Under the Hood Logic Part 2 of JavaLens ─────────────────────────────────────────────────── //
+    // This method will analyze the raw Pcap4j packet and convert it into a PacketRow object for the TableUI
+    // timestampNanos is the libpcap capture time of the packet, not the time we got around to decoding it
+    // Called concurrently from every capture thread, so shared state (TopTalkers) must be thread-safe.
+    // sampleWeight is how many packets this row represents (more than 1 only while shedding load)
+    // wireLength is the frame's original length, which is more than p.length() when the snaplen truncated it
+    public PacketRow parsePacket(Packet p, long timestampNanos, String iface, DataLinkType dlt, int sampleWeight, int wireLength) {
+        String src = "?", dst = "?", info = "";
+        String proto = "UNKNOWN";
+        Integer srcPort = null, dstPort = null, windowSize = null;
+        Set<String> tcpFlags = new HashSet<>();
+        String dnsQueryName = null;
+        Integer icmpType = null, icmpCode = null;
+        byte[] payload = null;
+        int etherType = -1, ipProtocol = -1;
+        HttpParser.Request httpRequest = null;
+        HttpParser.Response httpResponse = null;
+        boolean isTcp = false;
+        int tcpSeq = 0, tcpAck = 0;
+        int payloadOffset = -1;
+
+        // ───── Detect ARP early ─────
+        if (p.contains(ArpPacket.class)) {
+            proto = "ARP";
+            info = "ARP Packet";
+        }
+
+        // ───── Extract IP-level info ─────
+        if (p.contains(IpPacket.class)) {
+            IpPacket ip = p.get(IpPacket.class);
+            src = ip.getHeader().getSrcAddr().getHostAddress().replaceAll("%.*", "").toLowerCase();
+            dst = ip.getHeader().getDstAddr().getHostAddress().replaceAll("%.*", "").toLowerCase();
+
+            IpNumber protocol = ip.getHeader().getProtocol();
+            proto = protocol.name();
+            ipProtocol = protocol.value() & 0xFF;
+            etherType = ip.getHeader().getVersion() == IpVersion.IPV6 ? 0x86DD : 0x0800;
+
+            if (protocol == IpNumber.TCP && p.contains(TcpPacket.class)) {
+                TcpPacket tcp = p.get(TcpPacket.class);
+                srcPort = tcp.getHeader().getSrcPort().valueAsInt();
+                dstPort = tcp.getHeader().getDstPort().valueAsInt();
+                windowSize = tcp.getHeader().getWindowAsInt();
+                tcpSeq = tcp.getHeader().getSequenceNumber();
+                tcpAck = tcp.getHeader().getAcknowledgmentNumber();
+                isTcp = true;
+
+                if (tcp.getHeader().getSyn()) tcpFlags.add("SYN");
+                if (tcp.getHeader().getAck()) tcpFlags.add("ACK");
+                if (tcp.getHeader().getFin()) tcpFlags.add("FIN");
+                if (tcp.getHeader().getRst()) tcpFlags.add("RST");
+                if (tcp.getHeader().getUrg()) tcpFlags.add("URG");
+                if (tcp.getHeader().getPsh()) tcpFlags.add("PSH");
+
+                info = "TCP " + srcPort + " → " + dstPort;
+                payload = tcp.getPayload() != null ? tcp.getPayload().getRawData() : null;
+                payloadOffset = payloadOffset(p, tcp);
+
+                //Plaintext HTTP/1.x on any port: name it in the info column and feed the per-endpoint metrics
+                httpRequest = HttpParser.parseRequest(payload);
+                if (httpRequest != null) {
+                    info = "HTTP " + httpRequest.method() + " " + (httpRequest.host() != null ? httpRequest.host() : "") + httpRequest.path();
+                } else if ((httpResponse = HttpParser.parseResponse(payload)) != null) {
+                    info = "HTTP " + httpResponse.status() + " (" + srcPort + " → " + dstPort + ")";
+                }
+
+            } else if (protocol == IpNumber.UDP && p.contains(UdpPacket.class)) {
+                UdpPacket udp = p.get(UdpPacket.class);
+                srcPort = udp.getHeader().getSrcPort().valueAsInt();
+                dstPort = udp.getHeader().getDstPort().valueAsInt();
+                info = "UDP " + srcPort + " → " + dstPort;
+
+                if (p.contains(DnsPacket.class)) {
+                    DnsPacket dns = p.get(DnsPacket.class);
+                    if (!dns.getHeader().getQuestions().isEmpty()) {
+                        dnsQueryName = dns.getHeader().getQuestions().get(0).getQName().getName();
+                    }
+                    if (dns.getHeader().isResponse()) learnAddresses(dns, dnsQueryName, timestampNanos);
+                }
+
+                payload = udp.getPayload() != null ? udp.getPayload().getRawData() : null;
+                payloadOffset = payloadOffset(p, udp);
+
+            } else if (protocol == IpNumber.ICMPV4 && p.contains(IcmpV4CommonPacket.class)) {
+                IcmpV4CommonPacket icmp = p.get(IcmpV4CommonPacket.class);
+                icmpType = icmp.getHeader().getType().value() & 0xFF;
+                icmpCode = icmp.getHeader().getCode().value() & 0xFF;
+                info = "ICMP type=" + icmpType + " code=" + icmpCode;
+
+                payload = icmp.getPayload() != null ? icmp.getPayload().getRawData() : null;
+                payloadOffset = payloadOffset(p, icmp);
+            } else {
+                info = proto + " packet";
+            }
+        }
+
+        // ───── MAC-level ownership check ─────
+        String ethSrc = "?", ethDst = "?";
+        boolean isMine = false;
+        boolean isBroadcastOrMulticast = false;
+
+        if (p.contains(EthernetPacket.class)) {
+            EthernetPacket eth = p.get(EthernetPacket.class);
+            etherType = eth.getHeader().getType().value() & 0xFFFF;
+            ethSrc = Utils.macToString(eth.getHeader().getSrcAddr().getAddress());
+            ethDst = Utils.macToString(eth.getHeader().getDstAddr().getAddress());
+
+            if ("ff:ff:ff:ff:ff:ff".equals(ethDst) ||
+                ethDst.startsWith("01:00:5e") ||
+                ethDst.startsWith("33:33") ||
+                ethDst.startsWith("01:80:c2")) {
+                isBroadcastOrMulticast = true;
+            }
+
+            if (localMACs.contains(ethSrc) || localMACs.contains(ethDst)) {
+                isMine = true;
+            }
+        }
+
+        if (!isMine && (localIPs.contains(src) || localIPs.contains(dst))) {
+            isMine = true;
+        }
+
+        // ───── Create and store packet row ─────
+        PacketRow row = PacketRow.builder()
+            .timestampNanos(timestampNanos).iface(iface).linkType(dlt.value()).sampleWeight(sampleWeight)
+            .source(src).destination(dst).protocol(proto).etherType(etherType).ipProtocol(ipProtocol)
+            .wireLength(wireLength).info(info)
+            .mine(isMine).broadcastOrMulticast(isBroadcastOrMulticast)
+            .srcPort(srcPort).dstPort(dstPort).windowSize(windowSize)
+            .tcpFlags(tcpFlags).dnsQueryName(dnsQueryName)
+            .icmpType(icmpType).icmpCode(icmpCode).payload(payload).payloadOffset(payloadOffset).rawData(p.getRawData())
+            .build();
+
+        //Sequence space advances by the payload as sent, even if the snaplen only let part of it through
+        if (isTcp) row.annotateTcp(tcpAnalyzer.analyze(row, tcpSeq, tcpAck, Math.max(0, row.getOriginalPayloadLength())));
+        if (httpRequest != null || httpResponse != null) httpTracker.record(row, httpRequest, httpResponse);
+        observe(row);
+        return row;
+    }
+
+    //Where `inner`'s payload starts in the frame `p`: the header lengths from the link layer down to and including
+    //inner's own. -1 if `inner` isn't part of p's chain.
+    static int payloadOffset(Packet p, Packet inner) {
+        int at = 0;
+        for (Packet q = p; q != null; q = q.getPayload()) {
+            if (q.getHeader() != null) at += q.getHeader().length();
+            if (q == inner) return at;
+        }
+        return -1;
+    }
+
+    //The bookkeeping every row gets, also applied to rows decoded elsewhere (a remote CaptureAgent) that never
+    //pass through parsePacket here: top talkers, and suspicious packets grouped into incidents.
+    public void observe(PacketRow row) {
+        topTalkers.record(row);
+        String rule = PacketInspector.rule(row);
+        if (rule != null) Database.report(row, rule);
+    }
+
+    //Feed A/AAAA answers into the passive DNS cache, named after the question (what was actually looked up),
+    //so a CNAME chain to a CDN still shows the name the client asked for
+    private void learnAddresses(DnsPacket dns, String queryName, long timestampNanos) {
+        for (DnsResourceRecord rr : dns.getHeader().getAnswers()) {
+            String address = null;
+            if (rr.getRData() instanceof DnsRDataA a) address = a.getAddress().getHostAddress();
+            else if (rr.getRData() instanceof DnsRDataAaaa aaaa) address = aaaa.getAddress().getHostAddress();
+            if (address == null) continue;
+
+            String name = queryName != null ? queryName : rr.getName().getName();
+            dnsCache.put(address.replaceAll("%.*", "").toLowerCase(), name, rr.getTtlAsLong(), timestampNanos);
+        }
+    }
+}
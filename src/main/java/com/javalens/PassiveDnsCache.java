@@ -0,0 +1,40 @@
+package com.javalens;
+
+import java.util.Map;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+//IP → hostname map built only from DNS responses seen on the wire, so showing names never triggers a lookup.
+//Entries live for their TTL plus a grace period (connections routinely outlast the record that started them),
+//and the map is a bounded LRU. Written by capture threads, read by the FX thread when name columns render.
+public class PassiveDnsCache {
+    private static final int MAX_ENTRIES = Integer.getInteger("javalens.dns.cacheSize", 50_000);
+    private static final long GRACE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private record Entry(String name, long expiresAtNanos) {}
+
+    private final Map<String, Entry> byAddress = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) { return size() > MAX_ENTRIES; }
+    };
+
+    //Record that `name` resolved to `address` in a response captured at `seenAtNanos` (epoch nanos)
+    public synchronized void put(String address, String name, long ttlSeconds, long seenAtNanos) {
+        if (address == null || name == null || name.isEmpty()) return;
+        long expires = seenAtNanos + TimeUnit.SECONDS.toNanos(Math.max(0, ttlSeconds)) + GRACE_NANOS;
+        Entry old = byAddress.get(address);
+        //Several names can share an address (CDNs); keep whichever was seen most recently
+        if (old == null || old.expiresAtNanos() <= expires) byAddress.put(address, new Entry(name, expires));
+    }
+
+    //Name for an address as of `atNanos` (epoch nanos, normally the row's capture time), or null if none was observed
+    //or it had expired by then. Expired entries are left for the LRU: rows are rendered in any order, and an older
+    //row may still need the name.
+    public synchronized String lookup(String address, long atNanos) {
+        Entry e = byAddress.get(address);
+        return e == null || e.expiresAtNanos() < atNanos ? null : e.name();
+    }
+
+    public synchronized int size() { return byAddress.size(); }
+
+    public synchronized void clear() { byAddress.clear(); }
+}
@@ -0,0 +1,141 @@
+package com.javalens;
+
+import java.util.List;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+//Multi-pattern byte search for packet payloads: an Aho–Corasick automaton compiled into a full 256-way transition
+//table, so a scan is one table lookup per payload byte however many patterns there are, and never backs up.
+//
+//Pattern syntax, one pattern per string: plain text, with hex bytes between pipes, Snort style, e.g.
+//  Authorization: Bearer
+//  |4d 5a 90 00|
+//  GET |2f|admin
+//With ignoreCase, ASCII letters are folded on both sides (in hex segments too); other bytes compare exactly.
+//
+//Immutable once compiled, so one matcher can be shared by every search thread.
+public final class PayloadMatcher {
+    //Keeps the table to ~64 MiB even for a long pattern list
+    private static final int MAX_STATES = 1 << 16;
+
+    private final List<String> patterns;
+    private final int[] lengths;
+    private final int[] next;    // next[state << 8 | byte]
+    private final int[] output;  // pattern ending at this state (shortest via suffix links), or -1
+    private final byte[] fold = new byte[256];
+
+    //Where a pattern was found: index into getPatterns() and the offset of its first byte
+    public record Match(int pattern, int offset) {}
+
+    private PayloadMatcher(List<String> patterns, List<byte[]> bytes, boolean ignoreCase) {
+        this.patterns = List.copyOf(patterns);
+        for (int b = 0; b < 256; b++) fold[b] = (byte) (ignoreCase && b >= 'A' && b <= 'Z' ? b + 32 : b);
+
+        //Trie first, in the transition table itself; -1 marks a missing edge until the BFS fills it in
+        int total = 1;
+        for (byte[] p : bytes) total += p.length;
+        if (total > MAX_STATES) throw new IllegalArgumentException("Patterns too long (" + total + " bytes, max " + MAX_STATES + ")");
+        next = new int[total << 8];
+        Arrays.fill(next, -1);
+        output = new int[total];
+        Arrays.fill(output, -1);
+        lengths = new int[bytes.size()];
+
+        int states = 1;
+        for (int i = 0; i < bytes.size(); i++) {
+            byte[] p = bytes.get(i);
+            lengths[i] = p.length;
+            int s = 0;
+            for (byte raw : p) {
+                int c = fold[raw & 0xff] & 0xff;
+                if (next[s << 8 | c] < 0) next[s << 8 | c] = states++;
+                s = next[s << 8 | c];
+            }
+            if (output[s] < 0) output[s] = i;
+        }
+
+        //Breadth-first: each missing edge borrows the edge of the state's longest proper suffix (its fail state)
+        int[] fail = new int[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < 256; c++) {
+            int t = next[c];
+            if (t < 0) {
+                next[c] = 0;
+            } else {
+                fail[t] = 0;
+                queue.add(t);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            if (output[s] < 0) output[s] = output[fail[s]];
+            else if (output[fail[s]] >= 0 && lengths[output[fail[s]]] < lengths[output[s]]) output[s] = output[fail[s]];
+            for (int c = 0; c < 256; c++) {
+                int t = next[s << 8 | c];
+                if (t < 0) {
+                    next[s << 8 | c] = next[fail[s] << 8 | c];
+                } else {
+                    fail[t] = next[fail[s] << 8 | c];
+                    queue.add(t);
+                }
+            }
+        }
+    }
+
+    //Throws IllegalArgumentException naming the bad pattern
+    public static PayloadMatcher compile(List<String> patterns, boolean ignoreCase) {
+        List<String> kept = new ArrayList<>();
+        List<byte[]> bytes = new ArrayList<>();
+        for (String p : patterns) {
+            if (p == null || p.isBlank()) continue;
+            byte[] b = parse(p.strip());
+            if (b.length == 0) throw new IllegalArgumentException("Empty pattern: " + p);
+            kept.add(p.strip());
+            bytes.add(b);
+        }
+        if (kept.isEmpty()) throw new IllegalArgumentException("Enter at least one pattern");
+        return new PayloadMatcher(kept, bytes, ignoreCase);
+    }
+
+    //Text with |hex| segments to bytes; text is UTF-8
+    static byte[] parse(String spec) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int i = 0;
+        while (i < spec.length()) {
+            int bar = spec.indexOf('|', i);
+            if (bar < 0) bar = spec.length();
+            out.writeBytes(spec.substring(i, bar).getBytes(StandardCharsets.UTF_8));
+            if (bar == spec.length()) break;
+
+            int end = spec.indexOf('|', bar + 1);
+            if (end < 0) throw new IllegalArgumentException("Unclosed hex segment in: " + spec);
+            String hex = spec.substring(bar + 1, end).replaceAll("\\s+", "");
+            if (hex.length() % 2 != 0 || !hex.matches("[0-9a-fA-F]*")) throw new IllegalArgumentException("Bad hex bytes |" + spec.substring(bar + 1, end) + "|");
+            for (int h = 0; h < hex.length(); h += 2) out.write(Integer.parseInt(hex.substring(h, h + 2), 16));
+            i = end + 1;
+        }
+        return out.toByteArray();
+    }
+
+    public List<String> getPatterns() { return patterns; }
+
+    //First place any pattern ends in data[0, len), reporting the shortest pattern ending there; null if none
+    public Match find(byte[] data, int len) {
+        int[] nx = next, out = output;
+        byte[] f = fold;
+        int s = 0;
+        for (int i = 0; i < len; i++) {
+            s = nx[s << 8 | (f[data[i] & 0xff] & 0xff)];
+            int p = out[s];
+            if (p >= 0) return new Match(p, i - lengths[p] + 1);
+        }
+        return null;
+    }
+
+    public Match find(byte[] data) {
+        return data == null ? null : find(data, data.length);
+    }
+}
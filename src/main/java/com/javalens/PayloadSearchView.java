@@ -0,0 +1,271 @@
+package com.javalens;
+
+import javafx.util.Duration;
+import javafx.stage.Stage;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.concurrent.Task;
+import javafx.animation.Timeline;
+import javafx.animation.KeyFrame;
+import javafx.animation.Animation;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.BorderPane;
+import javafx.beans.property.SimpleStringProperty;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.List;
+import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.javalens.Utils.PacketRow;
+
+//Searches the payload bytes of every captured packet for one or more patterns (see PayloadMatcher for the syntax).
+//The live list is copied on the FX thread when a search starts, like an export, and the copy is scanned in chunks,
+//each split across one worker per core. Hits stream into the table as they are found and the search can be
+//cancelled at any point.
+public class PayloadSearchView {
+    private static final Logger logger = LoggerFactory.getLogger(PayloadSearchView.class);
+
+    private static final int CHUNK = 16_384;
+    private static final int CONTEXT = 12; // bytes shown either side of a hit
+
+    //One matching row: the first pattern found in its payload, where, and the bytes around it
+    record Hit(PacketRow row, String pattern, int offset, String context) {}
+
+    private final List<PacketRow> source;
+    private final Consumer<Set<PacketRow>> showInTable;
+    private final TableView<Hit> table = new TableView<>();
+    private final ConcurrentLinkedQueue<Hit> found = new ConcurrentLinkedQueue<>();
+    private final Label status = new Label("Enter patterns, one per line. Text matches literally; put hex bytes between pipes, e.g. |4d 5a 90 00|.");
+    private final ProgressBar progress = new ProgressBar(0);
+    private Task<Long> task;
+
+    private PayloadSearchView(List<PacketRow> source, Consumer<Set<PacketRow>> showInTable) {
+        this.source = source;
+        this.showInTable = showInTable;
+    }
+
+    //`showInTable` narrows the main packet table to the given rows
+    public static void show(List<PacketRow> source, Consumer<Set<PacketRow>> showInTable) {
+        new PayloadSearchView(source, showInTable).open();
+    }
+
+    private void open() {
+        Stage stage = new Stage();
+        stage.setTitle("Payload Search – JavaLens");
+
+        TextArea patterns = new TextArea();
+        patterns.setPromptText("password\nAuthorization: Basic\n|4d 5a 90 00|");
+        patterns.setPrefRowCount(4);
+        CheckBox ignoreCase = new CheckBox("Ignore case");
+        ignoreCase.setSelected(true);
+        Button search = new Button("Search");
+        Button cancel = new Button("Cancel");
+        Button filter = new Button("Show in packet table");
+        cancel.setDisable(true);
+        filter.setDisable(true);
+        progress.setPrefWidth(200);
+
+        search.setOnAction(e -> {
+            PayloadMatcher matcher;
+            try {
+                matcher = PayloadMatcher.compile(List.of(patterns.getText().split("\\R")), ignoreCase.isSelected());
+            } catch (IllegalArgumentException ex) {
+                status.setText(ex.getMessage());
+                return;
+            }
+            start(matcher);
+            search.setDisable(true);
+            cancel.setDisable(false);
+            filter.setDisable(true);
+            task.runningProperty().addListener((obs, was, running) -> {
+                if (running) return;
+                search.setDisable(false);
+                cancel.setDisable(true);
+                filter.setDisable(table.getItems().isEmpty() && found.isEmpty());
+            });
+        });
+        cancel.setOnAction(e -> { if (task != null) task.cancel(); });
+        filter.setOnAction(e -> {
+            drain();
+            Set<PacketRow> hits = new HashSet<>();
+            for (Hit h : table.getItems()) hits.add(h.row());
+            showInTable.accept(hits);
+        });
+
+        table.setPlaceholder(new Label("No matches"));
+        table.getColumns().addAll(List.of(
+            col("Time", 110, h -> Utils.formatTime(h.row().getTimestampNanos())),
+            col("Source", 170, h -> h.row().getSource()),
+            col("Destination", 170, h -> h.row().getDestination()),
+            col("Protocol", 80, h -> h.row().getProtocol()),
+            col("Pattern", 160, Hit::pattern),
+            col("Offset", 60, h -> String.valueOf(h.offset())),
+            col("Context", 260, Hit::context)
+        ));
+        table.setRowFactory(tv -> {
+            TableRow<Hit> r = new TableRow<>();
+            r.setOnMouseClicked(ev -> { if (ev.getClickCount() == 2 && !r.isEmpty()) Utils.showDetails(r.getItem().row()); });
+            return r;
+        });
+
+        HBox controls = new HBox(8, ignoreCase, search, cancel, progress, filter);
+        controls.setAlignment(Pos.CENTER_LEFT);
+        VBox top = new VBox(6, patterns, controls);
+        VBox.setVgrow(patterns, Priority.NEVER);
+
+        BorderPane root = new BorderPane(table);
+        root.setTop(top);
+        root.setBottom(status);
+        root.setPadding(new Insets(10));
+        BorderPane.setMargin(top, new Insets(0, 0, 8, 0));
+        BorderPane.setMargin(status, new Insets(6, 0, 0, 0));
+
+        //Hits are queued by the workers and moved into the table in batches, so a busy search can't flood the FX thread
+        Timeline ticker = new Timeline(new KeyFrame(Duration.millis(250), e -> drain()));
+        ticker.setCycleCount(Animation.INDEFINITE);
+        stage.setOnHidden(e -> {
+            ticker.stop();
+            if (task != null) task.cancel();
+        });
+
+        stage.setScene(new Scene(root, 1100, 650));
+        stage.show();
+        ticker.play();
+    }
+
+    private void drain() {
+        List<Hit> batch = new ArrayList<>();
+        for (Hit h; (h = found.poll()) != null; ) batch.add(h);
+        if (!batch.isEmpty()) table.getItems().addAll(batch);
+    }
+
+    // ────────────────────── Search ─────────────────────────────────────────────────── //
+    private void start(PayloadMatcher matcher) {
+        found.clear();
+        table.getItems().clear();
+        task = searchTask(List.copyOf(source), matcher, found);
+        progress.progressProperty().bind(task.progressProperty());
+        status.textProperty().bind(task.messageProperty());
+
+        Runnable done = () -> {
+            drain();
+            progress.progressProperty().unbind();
+            status.textProperty().unbind();
+        };
+        task.setOnSucceeded(e -> done.run());
+        task.setOnCancelled(e -> {
+            done.run();
+            status.setText(status.getText() + " (cancelled)");
+        });
+        task.setOnFailed(e -> {
+            done.run();
+            logger.error("Payload search failed", task.getException());
+            status.setText("Search failed: " + task.getException().getMessage());
+        });
+
+        Thread t = new Thread(task, "javalens-payload-search");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    //Scans `rows` and offers a Hit per matching row to `out`; returns the match count. `rows` must not change while
+    //the task runs, so callers pass a copy of the live list taken on the FX thread.
+    //Rows whose frame has been released from the FrameArena have no payload left and are counted as skipped.
+    static Task<Long> searchTask(List<PacketRow> rows, PayloadMatcher matcher, ConcurrentLinkedQueue<Hit> out) {
+        return new Task<>() {
+            @Override protected Long call() throws Exception {
+                int workers = Math.max(1, Runtime.getRuntime().availableProcessors());
+                ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+                    Thread t = new Thread(r, "javalens-payload-scan");
+                    t.setDaemon(true);
+                    return t;
+                });
+                AtomicLong hits = new AtomicLong(), bytes = new AtomicLong(), evicted = new AtomicLong();
+                long started = System.nanoTime();
+                int scanned = 0, total = rows.size();
+                try {
+                    for (int from = 0; from < total && !isCancelled(); from += CHUNK) {
+                        List<PacketRow> chunk = rows.subList(from, Math.min(total, from + CHUNK));
+                        List<Future<?>> parts = new ArrayList<>(workers);
+                        int slice = (chunk.size() + workers - 1) / workers;
+                        for (int lo = 0; lo < chunk.size(); lo += slice) {
+                            List<PacketRow> part = chunk.subList(lo, Math.min(chunk.size(), lo + slice));
+                            parts.add(pool.submit(() -> scan(part, matcher, out, hits, bytes, evicted)));
+                        }
+                        for (Future<?> f : parts) f.get();
+
+                        scanned += chunk.size();
+                        updateProgress(scanned, total);
+                        updateMessage(summary(scanned, hits.get(), bytes.get(), evicted.get(), System.nanoTime() - started));
+                    }
+                } finally {
+                    pool.shutdownNow();
+                }
+                return hits.get();
+            }
+
+            private void scan(List<PacketRow> rows, PayloadMatcher matcher, ConcurrentLinkedQueue<Hit> out,
+                              AtomicLong hits, AtomicLong bytes, AtomicLong evicted) {
+                long n = 0, b = 0, gone = 0;
+                for (PacketRow r : rows) {
+                    if (isCancelled()) break;
+                    if (r.getPayloadLength() <= 0) continue;
+                    byte[] p = r.getPayload();
+                    if (p == null) {
+                        gone++;
+                        continue;
+                    }
+                    b += p.length;
+                    PayloadMatcher.Match m = matcher.find(p);
+                    if (m == null) continue;
+                    out.offer(new Hit(r, matcher.getPatterns().get(m.pattern()), m.offset(), context(p, m.offset())));
+                    n++;
+                }
+                hits.addAndGet(n);
+                bytes.addAndGet(b);
+                evicted.addAndGet(gone);
+            }
+        };
+    }
+
+    private static String summary(int scanned, long hits, long bytes, long evicted, long nanos) {
+        double secs = Math.max(nanos, 1) / 1e9;
+        return String.format("%,d matches in %,d packets (%.1f MB of payload, %.0f MB/s)%s", hits, scanned,
+            bytes / 1e6, bytes / 1e6 / secs, evicted == 0 ? "" : String.format(", %,d skipped: frame no longer retained", evicted));
+    }
+
+    //The bytes around a hit as printable ASCII, non-printables as '.'
+    static String context(byte[] p, int at) {
+        int from = Math.max(0, at - CONTEXT), to = Math.min(p.length, at + 2 * CONTEXT);
+        StringBuilder sb = new StringBuilder(to - from + 2);
+        if (from > 0) sb.append('…');
+        for (int i = from; i < to; i++) {
+            int c = p[i] & 0xff;
+            sb.append(c >= 0x20 && c < 0x7f ? (char) c : '.');
+        }
+        if (to < p.length) sb.append('…');
+        return sb.toString();
+    }
+
+    private static TableColumn<Hit, String> col(String title, double width, Function<Hit, String> f) {
+        TableColumn<Hit, String> c = new TableColumn<>(title);
+        c.setPrefWidth(width);
+        c.setCellValueFactory(cd -> new SimpleStringProperty(f.apply(cd.getValue())));
+        return c;
+    }
+}
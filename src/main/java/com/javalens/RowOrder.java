@@ -0,0 +1,99 @@
+package com.javalens;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Comparator;
+import java.util.function.Function;
+
+import com.javalens.Utils.PacketRow;
+
+//Sort orders for the packet table. Each one compares a primitive the row already holds (capture nanos, wire
+//length, port, binary address) instead of the text the cell shows, so "60" sorts before "1000", 9.0.0.1 before
+//10.0.0.1, and a sort over 100k rows never formats a timestamp or allocates a property.
+final class RowOrder {
+    private RowOrder() {}
+
+    static final Comparator<PacketRow> TIME = (a, b) -> Long.compare(a.getTimestampNanos(), b.getTimestampNanos());
+    static final Comparator<PacketRow> LENGTH = (a, b) -> Integer.compare(a.getWireLength(), b.getWireLength());
+    static final Comparator<PacketRow> SOURCE = (a, b) -> compareKeys(a.getAddressKeys(), b.getAddressKeys(), 0);
+    static final Comparator<PacketRow> DESTINATION = (a, b) -> compareKeys(a.getAddressKeys(), b.getAddressKeys(), 2);
+    static final Comparator<PacketRow> SRC_PORT = (a, b) -> Integer.compare(port(a.getSrcPort()), port(b.getSrcPort()));
+    static final Comparator<PacketRow> DST_PORT = (a, b) -> Integer.compare(port(a.getDstPort()), port(b.getDstPort()));
+
+    //Plain string order for the text columns (protocol, info, ...); a missing value sorts as ""
+    static Comparator<PacketRow> text(Function<PacketRow, String> value) {
+        return (a, b) -> {
+            String x = value.apply(a), y = value.apply(b);
+            return (x == null ? "" : x).compareTo(y == null ? "" : y);
+        };
+    }
+
+    //Rows without a port (ICMP, ARP, ...) sort before port 0
+    private static int port(Integer p) { return p == null ? -1 : p; }
+
+    private static int compareKeys(long[] a, long[] b, int at) {
+        int c = Long.compareUnsigned(a[at], b[at]);
+        return c != 0 ? c : Long.compareUnsigned(a[at + 1], b[at + 1]);
+    }
+
+    //Writes `address` as a 128-bit big-endian key into out[at] (high) and out[at + 1] (low). IPv4 is stored
+    //IPv4-mapped (::ffff:a.b.c.d), which puts it ahead of almost all IPv6 space; anything that isn't an address
+    //literal ("?" for ARP and friends) gets all ones and sorts last.
+    static void addressKey(String address, long[] out, int at) {
+        out[at] = -1L;
+        out[at + 1] = -1L;
+        if (address == null || address.isEmpty()) return;
+
+        if (address.indexOf(':') < 0) {
+            long v4 = parseIpv4(address);
+            if (v4 >= 0) {
+                out[at] = 0;
+                out[at + 1] = 0xffff_0000_0000L | v4;
+            }
+            return;
+        }
+
+        //IPv6 literal; drop a zone id such as %en0 so the lookup never touches interfaces or DNS
+        int zone = address.indexOf('%');
+        String literal = zone < 0 ? address : address.substring(0, zone);
+        try {
+            byte[] b = InetAddress.getByName(literal).getAddress();
+            if (b.length == 4) {
+                out[at] = 0;
+                out[at + 1] = 0xffff_0000_0000L | bytesToLong(b, 0, 4);
+            } else {
+                out[at] = bytesToLong(b, 0, 8);
+                out[at + 1] = bytesToLong(b, 8, 8);
+            }
+        } catch (UnknownHostException e) {
+            //not a literal after all; leave it sorting last
+        }
+    }
+
+    //Dotted quad to an unsigned 32-bit value, or -1 if it isn't one
+    private static long parseIpv4(String s) {
+        long v = 0;
+        int octet = -1, dots = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            if (ch == '.') {
+                if (octet < 0 || ++dots > 3) return -1;
+                v = (v << 8) | octet;
+                octet = -1;
+            } else if (ch >= '0' && ch <= '9') {
+                octet = (octet < 0 ? 0 : octet * 10) + (ch - '0');
+                if (octet > 255) return -1;
+            } else {
+                return -1;
+            }
+        }
+        if (octet < 0 || dots != 3) return -1;
+        return (v << 8) | octet;
+    }
+
+    private static long bytesToLong(byte[] b, int from, int len) {
+        long v = 0;
+        for (int i = from; i < from + len; i++) v = (v << 8) | (b[i] & 0xff);
+        return v;
+    }
+}
@@ -0,0 +1,438 @@
+package com.javalens;
+
+import javafx.stage.Window;
+import javafx.stage.FileChooser;
+import javafx.scene.control.*;
+import javafx.scene.layout.VBox;
+import javafx.concurrent.Task;
+import javafx.application.Platform;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Set;
+import java.util.List;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Files;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+
+import com.javalens.Utils.PacketRow;
+
+//Binary snapshot of a capture session: every row's decoded fields, flags, TcpAnalyzer bits, PacketInspector verdict
+//and raw frame, so a session can be closed and reopened without decoding anything again.
+//
+//Layout (big-endian):
+//  header      MAGIC, version, row count, string count, and the offsets of the three sections below
+//  records     one variable-length record per row, in capture order
+//  strings     interned strings (interfaces, addresses, protocols, DNS names) as length + UTF-8
+//  string index  one long file offset per string
+//  row index     one long file offset per record
+//
+//Written once, front to back, through one direct buffer; the header is filled in last. Read back with memory
+//mapping: opening only maps the indexes, and rows and strings are decoded when asked for, so any row can be
+//fetched at random without touching the rest of the file.
+public class SessionFile {
+    private static final Logger logger = LoggerFactory.getLogger(SessionFile.class);
+
+    static final long MAGIC = 0x4a4c534553534e00L; // "JLSESSN\0"
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int IO_BUFFER = 1 << 20;
+
+    //Records are kept under this size so the reader can map the file in overlapping windows and never split one
+    private static final int MAX_RECORD = IO_BUFFER;
+    private static final int MAX_INFO_CHARS = 16_384;
+    private static final long SEGMENT = 1L << 30;
+
+    private static final int NONE = -1;
+    private static final int PAYLOAD_INLINE = -2;
+
+    //Row flag bits; TCP flag bits sit above them in header order (see PacketRow.getTcpFlagBits)
+    private static final int F_MINE = 1, F_BROADCAST = 2, F_SUSPICIOUS = 4;
+    private static final int TCP_FLAGS_SHIFT = 8;
+    private static final String[] TCP_FLAG_NAMES = {"FIN", "SYN", "RST", "PSH", "ACK", "URG"};
+    private static final List<Set<String>> TCP_FLAG_SETS = new ArrayList<>(64);
+    static {
+        for (int bits = 0; bits < 64; bits++) {
+            Set<String> s = new HashSet<>();
+            for (int b = 0; b < TCP_FLAG_NAMES.length; b++) if ((bits & (1 << b)) != 0) s.add(TCP_FLAG_NAMES[b]);
+            TCP_FLAG_SETS.add(Set.copyOf(s));
+        }
+    }
+
+    // ────────────────────── Writer ─────────────────────────────────────────────────── //
+    public static final class Writer implements AutoCloseable {
+        private final FileChannel ch;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(IO_BUFFER);
+        private final Map<String, Integer> stringIds = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+        private long[] offsets = new long[1024];
+        private int count;
+        private long position = HEADER_BYTES;
+
+        public Writer(Path target) throws IOException {
+            ch = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            ch.position(HEADER_BYTES);
+        }
+
+        public int getCount() { return count; }
+
+        public void append(PacketRow r) throws IOException {
+            String info = r.getInfo();
+            if (info != null && info.length() > MAX_INFO_CHARS) info = info.substring(0, MAX_INFO_CHARS);
+            byte[] infoBytes = info == null ? null : info.getBytes(StandardCharsets.UTF_8);
+            byte[] raw = r.getRawData();
+            byte[] payload = r.getPayload();
+            int payloadAt = payload == null ? NONE
+                : raw != null && r.getPayloadOffset() >= 0 && r.getPayloadOffset() + payload.length <= raw.length ? r.getPayloadOffset()
+                : PAYLOAD_INLINE;
+
+            int size = 8 + 4 * 5 + 4 * 12
+                + 4 + (infoBytes == null ? 0 : infoBytes.length)
+                + 4 + (raw == null ? 0 : raw.length)
+                + 8 + (payloadAt == PAYLOAD_INLINE ? payload.length : 0);
+            if (size > MAX_RECORD) throw new IOException("Row too large to save (" + size + " bytes)");
+
+            if (count == offsets.length) offsets = Arrays.copyOf(offsets, count * 2);
+            offsets[count++] = position;
+            if (buf.remaining() < size) flush();
+
+            int flags = (r.isMine() ? F_MINE : 0) | (r.isBroadcastOrMulticast() ? F_BROADCAST : 0)
+                | (PacketInspector.suspiciousPacket(r) ? F_SUSPICIOUS : 0) | r.getTcpFlagBits() << TCP_FLAGS_SHIFT;
+
+            buf.putLong(r.getTimestampNanos());
+            buf.putInt(intern(r.getIface())).putInt(intern(r.getSource())).putInt(intern(r.getDestination()))
+               .putInt(intern(r.getProtocol())).putInt(intern(r.getDnsQueryName()));
+            buf.putInt(r.getLinkType()).putInt(r.getSampleWeight()).putInt(r.getEtherType()).putInt(r.getIpProtocol())
+               .putInt(r.getWireLength()).putInt(flags).putInt(r.getTcpAnalysis());
+            buf.putInt(orNone(r.getSrcPort())).putInt(orNone(r.getDstPort())).putInt(orNone(r.getWindowSize()))
+               .putInt(orNone(r.getIcmpType())).putInt(orNone(r.getIcmpCode()));
+            putBytes(infoBytes);
+            putBytes(raw);
+            //Payloads are nearly always a slice of the frame, so store where rather than the bytes again
+            buf.putInt(payloadAt).putInt(payload == null ? NONE : payload.length);
+            if (payloadAt == PAYLOAD_INLINE) buf.put(payload);
+            position += size;
+        }
+
+        @Override public void close() throws IOException {
+            try (ch) {
+                long stringsAt = position;
+                long[] stringOffsets = new long[strings.size()];
+                for (int i = 0; i < strings.size(); i++) {
+                    byte[] b = strings.get(i).getBytes(StandardCharsets.UTF_8);
+                    if (buf.remaining() < 4 + b.length) flush();
+                    stringOffsets[i] = position;
+                    buf.putInt(b.length).put(b);
+                    position += 4 + b.length;
+                }
+                long stringIndexAt = position;
+                position = putLongs(stringOffsets, stringOffsets.length);
+                long rowIndexAt = position;
+                position = putLongs(offsets, count);
+                flush();
+
+                ByteBuffer h = ByteBuffer.allocate(HEADER_BYTES);
+                h.putLong(MAGIC).putInt(VERSION).putInt(strings.size()).putLong(count)
+                 .putLong(stringsAt).putLong(stringIndexAt).putLong(rowIndexAt).flip();
+                while (h.hasRemaining()) ch.write(h, h.position());
+                ch.force(false);
+            }
+        }
+
+        private long putLongs(long[] values, int n) throws IOException {
+            for (int i = 0; i < n; i++) {
+                if (buf.remaining() < 8) flush();
+                buf.putLong(values[i]);
+            }
+            return position + 8L * n;
+        }
+
+        private int intern(String s) {
+            if (s == null) return NONE;
+            Integer id = stringIds.get(s);
+            if (id == null) {
+                id = strings.size();
+                stringIds.put(s, id);
+                strings.add(s);
+            }
+            return id;
+        }
+
+        private void putBytes(byte[] b) {
+            if (b == null) {
+                buf.putInt(NONE);
+            } else {
+                buf.putInt(b.length).put(b);
+            }
+        }
+
+        private void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) ch.write(buf);
+            buf.clear();
+        }
+    }
+
+    private static int orNone(Integer v) { return v == null ? NONE : v; }
+
+    // ────────────────────── Reader ─────────────────────────────────────────────────── //
+    //Random access over a saved session. Safe to use from several threads: only absolute reads on shared buffers.
+    public static final class Reader implements AutoCloseable {
+        private final FileChannel ch;
+        private final int size, stringCount;
+        private final MappedByteBuffer rowIndex, stringIndex;
+        private final MappedByteBuffer[] segments;
+        private final String[] stringCache;
+
+        public Reader(Path file) throws IOException {
+            ch = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                ByteBuffer h = ByteBuffer.allocate(HEADER_BYTES);
+                while (h.hasRemaining() && ch.read(h, h.position()) > 0) { }
+                h.flip();
+                if (h.remaining() < HEADER_BYTES || h.getLong() != MAGIC) throw new IOException(file.getFileName() + " is not a JavaLens session");
+                int version = h.getInt();
+                if (version != VERSION) throw new IOException("Unsupported session version " + version);
+                stringCount = h.getInt();
+                long rows = h.getLong();
+                if (rows > Integer.MAX_VALUE / 8) throw new IOException("Session has too many rows: " + rows);
+                size = (int) rows;
+                h.getLong(); // start of the strings section, only needed by tools that scan the file
+                long stringIndexAt = h.getLong(), rowIndexAt = h.getLong();
+
+                stringIndex = ch.map(FileChannel.MapMode.READ_ONLY, stringIndexAt, 8L * stringCount);
+                rowIndex = ch.map(FileChannel.MapMode.READ_ONLY, rowIndexAt, 8L * size);
+                segments = new MappedByteBuffer[(int) (rowIndexAt / SEGMENT) + 1];
+                stringCache = new String[stringCount];
+            } catch (IOException | RuntimeException e) {
+                ch.close();
+                throw e;
+            }
+        }
+
+        public int size() { return size; }
+
+        public long getTimestampNanos(int i) {
+            long at = rowIndex.getLong(8 * i);
+            return segment(at).getLong((int) (at % SEGMENT));
+        }
+
+        public boolean isSuspicious(int i) {
+            long at = rowIndex.getLong(8 * i);
+            return (segment(at).getInt((int) (at % SEGMENT) + 8 + 4 * 5 + 4 * 5) & F_SUSPICIOUS) != 0;
+        }
+
+        public PacketRow row(int i) {
+            long at = rowIndex.getLong(8 * i);
+            ByteBuffer b = segment(at);
+            int p = (int) (at % SEGMENT);
+
+            long ts = b.getLong(p); p += 8;
+            String iface = string(b.getInt(p)), src = string(b.getInt(p + 4)), dst = string(b.getInt(p + 8));
+            String proto = string(b.getInt(p + 12)), dns = string(b.getInt(p + 16));
+            p += 20;
+            int linkType = b.getInt(p), weight = b.getInt(p + 4), etherType = b.getInt(p + 8), ipProto = b.getInt(p + 12);
+            int wireLength = b.getInt(p + 16), flags = b.getInt(p + 20), tcpAnalysis = b.getInt(p + 24);
+            p += 28;
+            Integer srcPort = orNull(b.getInt(p)), dstPort = orNull(b.getInt(p + 4)), window = orNull(b.getInt(p + 8));
+            Integer icmpType = orNull(b.getInt(p + 12)), icmpCode = orNull(b.getInt(p + 16));
+            p += 20;
+
+            byte[] infoBytes = bytes(b, p);
+            p += 4 + (infoBytes == null ? 0 : infoBytes.length);
+            byte[] raw = bytes(b, p);
+            p += 4 + (raw == null ? 0 : raw.length);
+            int payloadAt = b.getInt(p), payloadLen = b.getInt(p + 4);
+            byte[] payload = null;
+            if (payloadLen >= 0) {
+                payload = new byte[payloadLen];
+                if (payloadAt == PAYLOAD_INLINE) b.get(p + 8, payload);
+                else System.arraycopy(raw, payloadAt, payload, 0, payloadLen);
+            }
+
+            PacketRow row = PacketRow.builder()
+                .timestampNanos(ts).iface(iface).linkType(linkType).sampleWeight(weight)
+                .source(src).destination(dst).protocol(proto).etherType(etherType).ipProtocol(ipProto)
+                .wireLength(wireLength).info(infoBytes == null ? null : new String(infoBytes, StandardCharsets.UTF_8))
+                .mine((flags & F_MINE) != 0).broadcastOrMulticast((flags & F_BROADCAST) != 0)
+                .srcPort(srcPort).dstPort(dstPort).windowSize(window)
+                .tcpFlags(TCP_FLAG_SETS.get((flags >>> TCP_FLAGS_SHIFT) & 0x3f)).dnsQueryName(dns)
+                .icmpType(icmpType).icmpCode(icmpCode).payload(payload).rawData(raw)
+                .payloadOffset(payloadAt == PAYLOAD_INLINE ? -1 : payloadAt)
+                .build();
+            row.setTcpAnalysis(tcpAnalysis);
+            return row;
+        }
+
+        public List<PacketRow> rows(int from, int to) {
+            List<PacketRow> out = new ArrayList<>(Math.max(0, to - from));
+            for (int i = from; i < to; i++) out.add(row(i));
+            return out;
+        }
+
+        //Windows of SEGMENT bytes plus MAX_RECORD of overlap, mapped the first time a row in them is read
+        private synchronized MappedByteBuffer segment(long offset) {
+            int k = (int) (offset / SEGMENT);
+            MappedByteBuffer m = segments[k];
+            if (m == null) {
+                long start = k * SEGMENT;
+                try {
+                    m = ch.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT + MAX_RECORD, ch.size() - start));
+                } catch (IOException e) {
+                    throw new IllegalStateException("Could not map session file: " + e.getMessage(), e);
+                }
+                segments[k] = m;
+            }
+            return m;
+        }
+
+        private String string(int id) {
+            if (id < 0) return null;
+            String s = stringCache[id];
+            if (s == null) {
+                long at = stringIndex.getLong(8 * id);
+                byte[] b = bytes(segment(at), (int) (at % SEGMENT));
+                //Racing threads may both decode it; they produce equal strings, so either write is fine
+                stringCache[id] = s = new String(b, StandardCharsets.UTF_8);
+            }
+            return s;
+        }
+
+        private static byte[] bytes(ByteBuffer b, int p) {
+            int len = b.getInt(p);
+            if (len < 0) return null;
+            byte[] out = new byte[len];
+            b.get(p + 4, out);
+            return out;
+        }
+
+        private static Integer orNull(int v) { return v == NONE ? null : v; }
+
+        @Override public void close() throws IOException { ch.close(); }
+    }
+
+    // ────────────────────── Save / Open Tasks ─────────────────────────────────────────────────── //
+    //`rows` must not change while the task runs; like an export, callers pass a copy taken on the FX thread
+    public static Task<Integer> saveTask(List<PacketRow> rows, Path target) {
+        return new Task<>() {
+            @Override protected Integer call() throws Exception {
+                int total = rows.size();
+                try (Writer w = new Writer(target)) {
+                    for (int from = 0; from < total && !isCancelled(); from += 4_096) {
+                        for (PacketRow r : rows.subList(from, Math.min(total, from + 4_096))) w.append(r);
+                        updateProgress(w.getCount(), total);
+                        updateMessage(w.getCount() + " / " + total + " packets");
+                    }
+                    return w.getCount();
+                } finally {
+                    if (isCancelled()) Files.deleteIfExists(target);
+                }
+            }
+        };
+    }
+
+    //Hands rows to `sink` on the FX thread, a small first chunk so the table fills at once and then bigger ones.
+    //Only the newest `maxRows` are loaded, matching what the live table would have kept. `onOpened` runs on the FX
+    //thread once the file has been read successfully, before the first chunk, so the caller can drop what it had.
+    public static Task<Integer> openTask(Path file, int maxRows, Runnable onOpened, Consumer<List<PacketRow>> sink) {
+        return new Task<>() {
+            @Override protected Integer call() throws Exception {
+                try (Reader r = new Reader(file)) {
+                    FutureTask<Void> opened = new FutureTask<>(onOpened, null);
+                    Platform.runLater(opened);
+                    opened.get();
+                    int start = Math.max(0, r.size() - maxRows), total = r.size() - start, loaded = 0;
+                    int chunk = 2_000;
+                    for (int from = start; from < r.size() && !isCancelled(); from += chunk, chunk = 50_000) {
+                        List<PacketRow> rows = r.rows(from, Math.min(r.size(), from + chunk));
+                        //Wait for the FX thread to take each chunk so we never run far ahead of the UI
+                        FutureTask<Void> handoff = new FutureTask<>(() -> sink.accept(rows), null);
+                        Platform.runLater(handoff);
+                        handoff.get();
+                        loaded += rows.size();
+                        updateProgress(loaded, total);
+                        updateMessage(loaded + " / " + total + " packets"
+                            + (start > 0 ? " (oldest " + start + " skipped, over the row limit)" : ""));
+                    }
+                    return loaded;
+                }
+            }
+        };
+    }
+
+    // ────────────────────── UI Entry Points ─────────────────────────────────────────────────── //
+    public static void saveWithDialog(Window owner, List<PacketRow> source) {
+        FileChooser fc = chooser("Save session");
+        fc.setInitialFileName("capture.jlsession");
+        File file = fc.showSaveDialog(owner);
+        if (file == null) return;
+
+        List<PacketRow> rows = List.copyOf(source);
+        Task<Integer> task = saveTask(rows, file.toPath());
+        runWithProgress(task, "Saving session", "Saving " + rows.size() + " packets to " + file.getName(),
+            () -> Utils.showAlert("Session saved", task.getValue() + " packets written to " + file.getName()));
+    }
+
+    public static void openWithDialog(Window owner, int maxRows, Runnable onOpened, Consumer<List<PacketRow>> sink) {
+        File file = chooser("Open session").showOpenDialog(owner);
+        if (file == null) return;
+
+        Task<Integer> task = openTask(file.toPath(), maxRows, onOpened, sink);
+        runWithProgress(task, "Opening session", "Loading " + file.getName(), () -> {
+            if (task.getMessage().contains("skipped")) Utils.showAlert("Session opened", task.getMessage());
+        });
+    }
+
+    private static FileChooser chooser(String title) {
+        FileChooser fc = new FileChooser();
+        fc.setTitle(title);
+        fc.getExtensionFilters().add(new FileChooser.ExtensionFilter("JavaLens session", "*.jlsession"));
+        return fc;
+    }
+
+    //Same progress dialog as the exporter: non-modal, cancel stops the task
+    private static void runWithProgress(Task<Integer> task, String title, String header, Runnable onDone) {
+        ProgressBar bar = new ProgressBar();
+        bar.setPrefWidth(360);
+        bar.progressProperty().bind(task.progressProperty());
+        Label msg = new Label();
+        msg.textProperty().bind(task.messageProperty());
+
+        Dialog<Void> dlg = new Dialog<>();
+        dlg.setTitle(title + " – JavaLens");
+        dlg.setHeaderText(header);
+        dlg.getDialogPane().setContent(new VBox(8, bar, msg));
+        dlg.getDialogPane().getButtonTypes().add(ButtonType.CANCEL);
+        dlg.setOnCloseRequest(e -> { if (task.isRunning()) task.cancel(); });
+
+        task.setOnSucceeded(e -> {
+            dlg.close();
+            onDone.run();
+        });
+        task.setOnFailed(e -> {
+            dlg.close();
+            logger.error("{} failed", title, task.getException());
+            Utils.showAlert(title + " failed", String.valueOf(task.getException().getMessage()));
+        });
+        task.setOnCancelled(e -> dlg.close());
+
+        Thread t = new Thread(task, "javalens-session");
+        t.setDaemon(true);
+        t.start();
+        dlg.show();
+    }
+}
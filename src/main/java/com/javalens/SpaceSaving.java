@@ -0,0 +1,174 @@
+package com.javalens;
+
+import java.util.List;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Comparator;
+
+//Space-Saving heavy-hitter counter (Metwally et al.): tracks at most `capacity` keys no matter how many distinct keys
+//are offered. When full, a new key takes over the slot of the current minimum and inherits its count as the error
+//bound, so a reported count over-estimates the true one by at most `error`. Any key whose true total exceeds
+//total/capacity is guaranteed to be present.
+//
+//The counters live in an indexed min-heap, so each update is O(log capacity). Not thread-safe; summaries kept by
+//different threads can be combined with merge.
+public class SpaceSaving<K> {
+
+    public record Entry<K>(K key, long count, long error) {
+        //Lower bound on the key's true total
+        public long guaranteed() { return count - error; }
+    }
+
+    private static final class Counter<K> {
+        K key;
+        long count, error;
+        int slot; // position in the heap
+    }
+
+    private final int capacity;
+    private final Map<K, Counter<K>> index;
+    private final Counter<K>[] heap;
+    private int size;
+    private long total;
+
+    @SuppressWarnings("unchecked")
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        this.capacity = capacity;
+        this.index = new HashMap<>(capacity * 2);
+        this.heap = (Counter<K>[]) new Counter<?>[capacity];
+    }
+
+    public void offer(K key) { offer(key, 1); }
+
+    public void offer(K key, long weight) {
+        if (key == null || weight <= 0) return;
+        total += weight;
+
+        Counter<K> c = index.get(key);
+        if (c != null) {
+            c.count += weight;
+            siftDown(c.slot);
+            return;
+        }
+
+        if (size < capacity) {
+            c = new Counter<>();
+            c.key = key;
+            c.count = weight;
+            c.slot = size;
+            heap[size++] = c;
+            index.put(key, c);
+            siftUp(c.slot);
+            return;
+        }
+
+        //Evict the minimum and reuse its counter for the new key
+        c = heap[0];
+        index.remove(c.key);
+        c.key = key;
+        c.error = c.count;
+        c.count += weight;
+        index.put(key, c);
+        siftDown(0);
+    }
+
+    //The n largest counters, biggest first
+    public List<Entry<K>> top(int n) {
+        Counter<K>[] copy = Arrays.copyOf(heap, size);
+        Arrays.sort(copy, Comparator.comparingLong((Counter<K> c) -> c.count).reversed());
+        List<Entry<K>> out = new ArrayList<>(Math.min(n, size));
+        for (int i = 0; i < copy.length && i < n; i++) out.add(new Entry<>(copy[i].key, copy[i].count, copy[i].error));
+        return out;
+    }
+
+    //Combine summaries of disjoint streams (Agarwal et al., "Mergeable Summaries"). A key missing from a full summary
+    //may have been evicted from it, so it is charged that summary's minimum as both count and error; the result
+    //keeps the same guarantees as one summary of `capacity` that had seen every stream.
+    public static <K> SpaceSaving<K> merge(List<SpaceSaving<K>> parts, int capacity) {
+        Map<K, long[]> sums = new HashMap<>(); // key -> {count, error, sum of the minimums of the parts holding it}
+        long floor = 0, total = 0;
+        for (SpaceSaving<K> part : parts) {
+            total += part.total;
+            long min = part.size == part.capacity ? part.heap[0].count : 0;
+            floor += min;
+            for (int i = 0; i < part.size; i++) {
+                Counter<K> c = part.heap[i];
+                long[] s = sums.computeIfAbsent(c.key, k -> new long[3]);
+                s[0] += c.count;
+                s[1] += c.error;
+                s[2] += min;
+            }
+        }
+
+        List<Entry<K>> all = new ArrayList<>(sums.size());
+        for (Map.Entry<K, long[]> e : sums.entrySet()) {
+            long[] s = e.getValue();
+            long missing = floor - s[2];
+            all.add(new Entry<>(e.getKey(), s[0] + missing, s[1] + missing));
+        }
+        all.sort(Comparator.comparingLong((Entry<K> en) -> en.count()).reversed());
+
+        SpaceSaving<K> out = new SpaceSaving<>(capacity);
+        for (int i = 0; i < all.size() && i < capacity; i++) {
+            Entry<K> en = all.get(i);
+            Counter<K> c = new Counter<>();
+            c.key = en.key();
+            c.count = en.count();
+            c.error = en.error();
+            c.slot = out.size;
+            out.heap[out.size++] = c;
+            out.index.put(c.key, c);
+            out.siftUp(c.slot);
+        }
+        out.total = total;
+        return out;
+    }
+
+    public SpaceSaving<K> copy() {
+        return merge(List.of(this), capacity);
+    }
+
+    public long getTotal() { return total; }
+    public int size() { return size; }
+    public int getCapacity() { return capacity; }
+
+    public void clear() {
+        index.clear();
+        Arrays.fill(heap, 0, size, null);
+        size = 0;
+        total = 0;
+    }
+
+    // ────────────────────── Heap ─────────────────────────────────────────────────── //
+    private void siftUp(int i) {
+        Counter<K> c = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent].count <= c.count) break;
+            place(heap[parent], i);
+            i = parent;
+        }
+        place(c, i);
+    }
+
+    private void siftDown(int i) {
+        Counter<K> c = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) child++;
+            if (c.count <= heap[child].count) break;
+            place(heap[child], i);
+            i = child;
+        }
+        place(c, i);
+    }
+
+    private void place(Counter<K> c, int i) {
+        heap[i] = c;
+        c.slot = i;
+    }
+}
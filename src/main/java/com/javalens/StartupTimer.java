@@ -0,0 +1,35 @@
+package com.javalens;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.time.Duration;
+
+//Logs how long each startup phase took, measured from JVM launch, so regressions in time-to-first-frame show up in the log
+public final class StartupTimer {
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimer.class);
+
+    private static final long JVM_START_MILLIS = ProcessHandle.current().info().startInstant()
+        .map(Instant::toEpochMilli).orElse(System.currentTimeMillis());
+    private static long lastMark = JVM_START_MILLIS;
+
+    private StartupTimer() {}
+
+    public static synchronized void mark(String phase) {
+        long now = System.currentTimeMillis();
+        logger.info("Startup: {} at +{} ms ({} ms since previous phase)", phase, now - JVM_START_MILLIS, now - lastMark);
+        lastMark = now;
+    }
+
+    //For background phases that run alongside the UI: logs the phase's own duration rather than the gap since the last mark
+    public static void timed(String phase, Runnable work) {
+        long t0 = System.nanoTime();
+        try {
+            work.run();
+        } finally {
+            logger.info("Startup: {} took {} ms (finished at +{} ms)", phase,
+                Duration.ofNanos(System.nanoTime() - t0).toMillis(), System.currentTimeMillis() - JVM_START_MILLIS);
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.javalens;
+
+import org.pcap4j.packet.namednumber.DataLinkType;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+//Generates realistic Ethernet frames at a fixed rate without touching a network interface, so the capture pipeline
+//can be load tested offline and without root. Traffic is a mix of TCP sessions (handshake, HTTP or TLS-sized
+//exchanges, FIN), DNS queries with answers, NTP, ICMP echo and ARP spread over a fixed set of flows, plus an
+//optional share of attack traffic that PacketInspector should flag.
+public class SyntheticTraffic implements FrameSource {
+
+    public enum Attack { NONE, SYN_FLOOD, PORT_SCAN, DNS_TUNNEL, BIG_PING, MIXED }
+
+    //Frame timestamps use this clock, so consumers can compare a row's timestamp with now() to get pipeline latency
+    private static final long EPOCH_BASE_NANOS = System.currentTimeMillis() * 1_000_000L;
+    private static final long NANO_BASE = System.nanoTime();
+
+    public static long now() {
+        return EPOCH_BASE_NANOS + (System.nanoTime() - NANO_BASE);
+    }
+
+    private static final byte[] BROADCAST_MAC = {-1, -1, -1, -1, -1, -1};
+    private static final int[] SCAN_PORTS = {21, 22, 23, 25, 80, 110, 143, 443, 445, 666, 1337, 3306, 3389, 5432, 8080, 31337};
+    private static final String[] SITES = {"example", "cdn", "api", "static", "mail", "news", "shop", "video"};
+    private static final String[] PATHS = {"/", "/index.html", "/api/v1/items", "/login", "/img/logo.png", "/search?q=lens"};
+
+    //One conversation between a local client and a remote server. TCP flows walk a small state machine.
+    private static final class Flow {
+        final int kind; // 0 HTTP, 1 HTTPS, 2 DNS, 3 NTP, 4 ICMP
+        final byte[] clientMac, serverMac;
+        final int clientIp, serverIp;
+        int clientPort;
+        final int serverPort;
+        int clientSeq, serverSeq, step, exchanges;
+        int dnsId;
+
+        Flow(int kind, byte[] clientMac, byte[] serverMac, int clientIp, int serverIp, int clientPort, int serverPort) {
+            this.kind = kind;
+            this.clientMac = clientMac;
+            this.serverMac = serverMac;
+            this.clientIp = clientIp;
+            this.serverIp = serverIp;
+            this.clientPort = clientPort;
+            this.serverPort = serverPort;
+        }
+    }
+
+    private final String name;
+    private final double packetsPerSecond;
+    private final Attack attack;
+    private final double attackShare;
+    private final Random rnd;
+    private final Flow[] flows;
+    private final byte[] gatewayMac;
+
+    private long startNanos = -1;
+    private long produced;
+    private int ipId, scanPort, scanIndex;
+
+    //`flows` concurrent conversations at `packetsPerSecond`; `attackShare` of frames (0..1) come from the attack pattern
+    public SyntheticTraffic(String name, double packetsPerSecond, int flows, Attack attack, double attackShare, long seed) {
+        if (packetsPerSecond <= 0) throw new IllegalArgumentException("packetsPerSecond must be positive");
+        this.name = name;
+        this.packetsPerSecond = packetsPerSecond;
+        this.attack = attack;
+        this.attackShare = attack == Attack.NONE ? 0 : Math.max(0, Math.min(1, attackShare));
+        this.rnd = new Random(seed);
+        this.gatewayMac = mac(0xfe0000, 1);
+        this.flows = new Flow[Math.max(1, flows)];
+        for (int i = 0; i < this.flows.length; i++) {
+            int r = rnd.nextInt(100);
+            int kind = r < 20 ? 0 : r < 70 ? 1 : r < 88 ? 2 : r < 94 ? 3 : 4;
+            int clientIp = 0x0a000000 | ((i / 250) & 0xffff) << 8 | (i % 250 + 1); // 10.x.y.z
+            int serverIp = switch (kind) {
+                case 2 -> 0x08080808;                           // 8.8.8.8
+                case 3 -> 0xa29fc87b;                           // 162.159.200.123
+                default -> 0x5db80000 | rnd.nextInt(1 << 16);   // 93.184.x.y
+            };
+            int serverPort = switch (kind) { case 0 -> 80; case 1 -> 443; case 2 -> 53; case 3 -> 123; default -> 0; };
+            this.flows[i] = new Flow(kind, mac(0x020000, i), gatewayMac, clientIp, serverIp, ephemeralPort(), serverPort);
+            this.flows[i].clientSeq = rnd.nextInt();
+            this.flows[i].serverSeq = rnd.nextInt();
+        }
+    }
+
+    public long getProduced() { return produced; }
+
+    @Override public String name() { return name; }
+
+    @Override public DataLinkType dataLinkType() { return DataLinkType.EN10MB; }
+
+    //Paces output against the wall clock: frames owed since start are returned immediately, otherwise the caller
+    //is parked until the next one is due (at most 1 ms, returning null, so the capture loop can check for stop)
+    @Override public Frame next() {
+        long now = System.nanoTime();
+        if (startNanos < 0) startNanos = now;
+        long due = (long) ((now - startNanos) * packetsPerSecond / 1e9);
+        if (produced > due) {
+            long wait = (long) ((produced - due) * 1e9 / packetsPerSecond);
+            LockSupport.parkNanos(Math.min(wait, TimeUnit.MILLISECONDS.toNanos(1)));
+            return null;
+        }
+        produced++;
+        byte[] frame = attackShare > 0 && rnd.nextDouble() < attackShare ? attackFrame() : normalFrame();
+        return new Frame(frame, now(), frame.length);
+    }
+
+    // ────────────────────── Normal Traffic ─────────────────────────────────────────────────── //
+    private byte[] normalFrame() {
+        //About one frame in a hundred is ARP chatter
+        if (rnd.nextInt(100) == 0) {
+            Flow f = flows[rnd.nextInt(flows.length)];
+            return arp(f.clientMac, f.clientIp, 0x0a000001);
+        }
+        Flow f = flows[rnd.nextInt(flows.length)];
+        return switch (f.kind) {
+            case 0, 1 -> tcpStep(f);
+            case 2 -> dnsStep(f);
+            case 3 -> ntp(f);
+            default -> icmpStep(f);
+        };
+    }
+
+    //SYN, SYN/ACK, ACK, then request/response/ACK rounds, and FIN after a few rounds before starting a new connection
+    private byte[] tcpStep(Flow f) {
+        int step = f.step++;
+        switch (step) {
+            case 0: return tcp(f, true, TcpFlags.SYN, 64240, null);
+            case 1: return tcp(f, false, TcpFlags.SYN | TcpFlags.ACK, 65535, null);
+            case 2: return tcp(f, true, TcpFlags.ACK, 64240, null);
+            default: break;
+        }
+        int phase = (step - 3) % 3;
+        if (phase == 0 && f.exchanges >= 2 + (f.clientPort & 7)) {
+            f.step = 0;
+            f.exchanges = 0;
+            byte[] fin = tcp(f, true, TcpFlags.FIN | TcpFlags.ACK, 64240, null);
+            f.clientPort = ephemeralPort();
+            f.clientSeq = rnd.nextInt();
+            f.serverSeq = rnd.nextInt();
+            return fin;
+        }
+        return switch (phase) {
+            case 0 -> tcp(f, true, TcpFlags.PSH | TcpFlags.ACK, 64240, f.kind == 0 ? httpRequest(f) : randomBytes(100 + rnd.nextInt(500)));
+            case 1 -> {
+                f.exchanges++;
+                yield tcp(f, false, TcpFlags.PSH | TcpFlags.ACK, 65535, f.kind == 0 ? httpResponse() : randomBytes(200 + rnd.nextInt(1200)));
+            }
+            default -> tcp(f, true, TcpFlags.ACK, 64240, null);
+        };
+    }
+
+    private byte[] httpRequest(Flow f) {
+        String host = SITES[f.serverIp & 7] + ".test";
+        String req = "GET " + PATHS[rnd.nextInt(PATHS.length)] + " HTTP/1.1\r\nHost: " + host
+            + "\r\nUser-Agent: javalens-loadtest\r\nAccept: */*\r\n\r\n";
+        return req.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private byte[] httpResponse() {
+        int r = rnd.nextInt(100);
+        String status = r < 85 ? "200 OK" : r < 93 ? "304 Not Modified" : r < 98 ? "404 Not Found" : "503 Service Unavailable";
+        int bodyLen = status.startsWith("200") ? 200 + rnd.nextInt(1000) : 0;
+        String head = "HTTP/1.1 " + status + "\r\nContent-Type: text/html\r\nContent-Length: " + bodyLen + "\r\n\r\n";
+        byte[] h = head.getBytes(StandardCharsets.US_ASCII);
+        byte[] out = new byte[h.length + bodyLen];
+        System.arraycopy(h, 0, out, 0, h.length);
+        for (int i = h.length; i < out.length; i++) out[i] = (byte) ('a' + (i % 26));
+        return out;
+    }
+
+    //Alternates query and response so every answer matches the query before it
+    private byte[] dnsStep(Flow f) {
+        boolean response = (f.step++ & 1) == 1;
+        if (!response) f.dnsId = rnd.nextInt(1 << 16);
+        String qname = "www." + SITES[f.dnsId & 7] + ".test";
+        int answer = 0x5db80000 | (f.dnsId & 0xffff);
+        byte[] dns = dnsMessage(f.dnsId, qname, response ? answer : -1);
+        return response ? udp(f.serverMac, f.clientMac, f.serverIp, f.clientIp, 53, f.clientPort, dns)
+                        : udp(f.clientMac, f.serverMac, f.clientIp, f.serverIp, f.clientPort, 53, dns);
+    }
+
+    private byte[] ntp(Flow f) {
+        byte[] msg = new byte[48];
+        msg[0] = 0x23; // LI 0, version 4, client mode
+        return udp(f.clientMac, f.serverMac, f.clientIp, f.serverIp, 123, 123, msg);
+    }
+
+    private byte[] icmpStep(Flow f) {
+        boolean reply = (f.step++ & 1) == 1;
+        byte[] payload = randomBytes(56);
+        return reply ? icmpEcho(f.serverMac, f.clientMac, f.serverIp, f.clientIp, 0, f.step >> 1, payload)
+                     : icmpEcho(f.clientMac, f.serverMac, f.clientIp, f.serverIp, 8, f.step >> 1, payload);
+    }
+
+    // ────────────────────── Attack Traffic ─────────────────────────────────────────────────── //
+    private byte[] attackFrame() {
+        Attack a = attack;
+        if (a == Attack.MIXED) a = Attack.values()[1 + rnd.nextInt(Attack.values().length - 2)];
+        int victim = 0x0a000001 + 100;
+        return switch (a) {
+            //Spoofed sources, tiny SYN window: the classic flood signature PacketInspector looks for
+            case SYN_FLOOD -> {
+                Flow f = new Flow(0, mac(0x0a0000, rnd.nextInt(1 << 16)), gatewayMac, rnd.nextInt(), victim, ephemeralPort(), 80);
+                f.clientSeq = rnd.nextInt();
+                yield tcp(f, true, TcpFlags.SYN, 1 + rnd.nextInt(64), null);
+            }
+            //One scanner walking a short list of ports, including the odd ones
+            case PORT_SCAN -> {
+                if (scanIndex == SCAN_PORTS.length) scanIndex = 0;
+                int port = SCAN_PORTS[scanIndex++];
+                Flow f = new Flow(0, mac(0x0b0000, 1), gatewayMac, 0xc6336401, victim, 40000 + (scanPort++ & 0xfff), port);
+                f.clientSeq = rnd.nextInt();
+                yield tcp(f, true, TcpFlags.SYN, 1024, null);
+            }
+            //Data smuggled out in long hex labels
+            case DNS_TUNNEL -> {
+                StringBuilder label = new StringBuilder(48);
+                for (int i = 0; i < 48; i++) label.append(Character.forDigit(rnd.nextInt(16), 16));
+                byte[] dns = dnsMessage(rnd.nextInt(1 << 16), label + ".t.exfil.test", -1);
+                yield udp(mac(0x020000, 7), gatewayMac, 0x0a000007, 0x08080808, ephemeralPort(), 53, dns);
+            }
+            case BIG_PING -> icmpEcho(mac(0x020000, 9), gatewayMac, 0x0a000009, victim, 8, scanPort++ & 0xffff, randomBytes(1400));
+            default -> normalFrame();
+        };
+    }
+
+    // ────────────────────── Frame Builders ─────────────────────────────────────────────────── //
+    private static final class TcpFlags {
+        static final int FIN = 0x01, SYN = 0x02, PSH = 0x08, ACK = 0x10;
+    }
+
+    //One TCP segment in either direction; sequence numbers advance the way a real stack's would
+    private byte[] tcp(Flow f, boolean fromClient, int flags, int window, byte[] payload) {
+        int len = payload == null ? 0 : payload.length;
+        ByteBuffer l4 = ByteBuffer.allocate(20 + len);
+        l4.putShort((short) (fromClient ? f.clientPort : f.serverPort));
+        l4.putShort((short) (fromClient ? f.serverPort : f.clientPort));
+        l4.putInt(fromClient ? f.clientSeq : f.serverSeq);
+        l4.putInt((flags & TcpFlags.ACK) != 0 ? (fromClient ? f.serverSeq : f.clientSeq) : 0);
+        l4.put((byte) 0x50); // data offset 5 words
+        l4.put((byte) flags);
+        l4.putShort((short) window);
+        l4.putShort((short) 0); // checksum not computed, pcap4j does not verify it
+        l4.putShort((short) 0);
+        if (payload != null) l4.put(payload);
+
+        int advance = len + ((flags & (TcpFlags.SYN | TcpFlags.FIN)) != 0 ? 1 : 0);
+        if (fromClient) f.clientSeq += advance;
+        else f.serverSeq += advance;
+
+        return fromClient ? ipv4(f.clientMac, f.serverMac, f.clientIp, f.serverIp, 6, l4.array())
+                          : ipv4(f.serverMac, f.clientMac, f.serverIp, f.clientIp, 6, l4.array());
+    }
+
+    private byte[] udp(byte[] srcMac, byte[] dstMac, int srcIp, int dstIp, int srcPort, int dstPort, byte[] payload) {
+        ByteBuffer l4 = ByteBuffer.allocate(8 + payload.length);
+        l4.putShort((short) srcPort).putShort((short) dstPort).putShort((short) (8 + payload.length)).putShort((short) 0);
+        l4.put(payload);
+        return ipv4(srcMac, dstMac, srcIp, dstIp, 17, l4.array());
+    }
+
+    private byte[] icmpEcho(byte[] srcMac, byte[] dstMac, int srcIp, int dstIp, int type, int seq, byte[] payload) {
+        ByteBuffer l4 = ByteBuffer.allocate(8 + payload.length);
+        l4.put((byte) type).put((byte) 0).putShort((short) 0).putShort((short) 0x4a4c).putShort((short) seq);
+        l4.put(payload);
+        byte[] b = l4.array();
+        int sum = checksum(b, 0, b.length);
+        b[2] = (byte) (sum >> 8);
+        b[3] = (byte) sum;
+        return ipv4(srcMac, dstMac, srcIp, dstIp, 1, b);
+    }
+
+    //Standard query for an A record, or with answerIp != -1 the response carrying that one answer
+    private static byte[] dnsMessage(int id, String qname, int answerIp) {
+        boolean response = answerIp != -1;
+        ByteBuffer b = ByteBuffer.allocate(12 + qname.length() + 2 + 4 + (response ? 16 : 0));
+        b.putShort((short) id);
+        b.putShort((short) (response ? 0x8180 : 0x0100));
+        b.putShort((short) 1).putShort((short) (response ? 1 : 0)).putShort((short) 0).putShort((short) 0);
+        for (String label : qname.split("\\.")) {
+            b.put((byte) label.length());
+            b.put(label.getBytes(StandardCharsets.US_ASCII));
+        }
+        b.put((byte) 0);
+        b.putShort((short) 1).putShort((short) 1); // A, IN
+        if (response) {
+            b.putShort((short) 0xc00c);             // pointer to the question name
+            b.putShort((short) 1).putShort((short) 1);
+            b.putInt(300);                          // TTL
+            b.putShort((short) 4).putInt(answerIp);
+        }
+        return b.array();
+    }
+
+    private static byte[] arp(byte[] senderMac, int senderIp, int targetIp) {
+        ByteBuffer b = ByteBuffer.allocate(14 + 28);
+        b.put(BROADCAST_MAC).put(senderMac).putShort((short) 0x0806);
+        b.putShort((short) 1).putShort((short) 0x0800).put((byte) 6).put((byte) 4).putShort((short) 1);
+        b.put(senderMac).putInt(senderIp).put(new byte[6]).putInt(targetIp);
+        return b.array();
+    }
+
+    private byte[] ipv4(byte[] srcMac, byte[] dstMac, int srcIp, int dstIp, int proto, byte[] l4) {
+        ByteBuffer b = ByteBuffer.allocate(14 + 20 + l4.length);
+        b.put(dstMac).put(srcMac).putShort((short) 0x0800);
+        b.put((byte) 0x45).put((byte) 0).putShort((short) (20 + l4.length));
+        b.putShort((short) ipId++).putShort((short) 0x4000); // DF
+        b.put((byte) 64).put((byte) proto).putShort((short) 0);
+        b.putInt(srcIp).putInt(dstIp);
+        byte[] frame = b.array();
+        int sum = checksum(frame, 14, 20);
+        frame[24] = (byte) (sum >> 8);
+        frame[25] = (byte) sum;
+        System.arraycopy(l4, 0, frame, 34, l4.length);
+        return frame;
+    }
+
+    //RFC 1071 ones' complement sum
+    static int checksum(byte[] b, int off, int len) {
+        long sum = 0;
+        for (int i = 0; i + 1 < len; i += 2) sum += ((b[off + i] & 0xff) << 8) | (b[off + i + 1] & 0xff);
+        if ((len & 1) != 0) sum += (b[off + len - 1] & 0xff) << 8;
+        while ((sum >> 16) != 0) sum = (sum & 0xffff) + (sum >> 16);
+        return (int) (~sum & 0xffff);
+    }
+
+    private int ephemeralPort() {
+        return 49152 + rnd.nextInt(16384);
+    }
+
+    private byte[] randomBytes(int n) {
+        byte[] b = new byte[n];
+        rnd.nextBytes(b);
+        return b;
+    }
+
+    //Locally administered MAC built from a prefix and an index
+    private static byte[] mac(int prefix, int index) {
+        return new byte[] {0x02, (byte) (prefix >> 16), (byte) (prefix >> 8), (byte) (index >> 16), (byte) (index >> 8), (byte) index};
+    }
+}
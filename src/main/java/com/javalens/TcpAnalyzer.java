@@ -0,0 +1,309 @@
+package com.javalens;
+
+import java.io.Serial;
+import java.util.Map;
+import java.util.Set;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+
+import com.javalens.Utils.PacketRow;
+
+//Per-connection TCP analysis from sequence/ack numbers seen at the capture point: RTT estimates (handshake and
+//data/ACK pairs), retransmissions, out-of-order segments, duplicate ACKs and zero windows. Results are returned
+//as flags for the row and rolled up per remote host. Connection and host tables are bounded LRUs.
+//
+//Connections are split into stripes by connection key, each with its own lock, so capture threads working on
+//different connections don't wait for each other. Host aggregates are guarded by the HostHealth itself and are
+//updated once per segment after the connection state; lock order is always stripe, then host.
+public class TcpAnalyzer {
+    private static final int STRIPES = 16;
+    private static final int MAX_CONNECTIONS = 20_000;
+    private static final int MAX_HOSTS = 5_000;
+    private static final int MAX_IN_FLIGHT = 64; // RTT samples we wait on per direction
+    //With no RTT estimate yet, a gap-filling segment this soon after the highest one is treated as reordering
+    private static final long DEFAULT_REORDER_NANOS = 3_000_000L;
+
+    //Row annotation bits
+    public static final int RETRANSMISSION = 1;
+    public static final int OUT_OF_ORDER = 1 << 1;
+    public static final int DUP_ACK = 1 << 2;
+    public static final int ZERO_WINDOW = 1 << 3;
+    public static final int PREVIOUS_NOT_CAPTURED = 1 << 4;
+
+    //Wireshark-style labels, so the info column reads the way people expect
+    public static String describe(int flags) {
+        if (flags == 0) return "";
+        StringBuilder sb = new StringBuilder();
+        if ((flags & RETRANSMISSION) != 0) sb.append(" [TCP Retransmission]");
+        if ((flags & OUT_OF_ORDER) != 0) sb.append(" [TCP Out-Of-Order]");
+        if ((flags & DUP_ACK) != 0) sb.append(" [TCP Dup ACK]");
+        if ((flags & ZERO_WINDOW) != 0) sb.append(" [TCP ZeroWindow]");
+        if ((flags & PREVIOUS_NOT_CAPTURED) != 0) sb.append(" [TCP Previous segment not captured]");
+        return sb.toString();
+    }
+
+    // ────────────────────── Per-Connection State ─────────────────────────────────────────────────── //
+    private record ConnKey(String a, int aPort, String b, int bPort) {
+        //Same key for both directions: the lexically smaller endpoint goes first
+        static ConnKey of(String src, int sp, String dst, int dp) {
+            int c = src.compareTo(dst);
+            return c < 0 || (c == 0 && sp <= dp) ? new ConnKey(src, sp, dst, dp) : new ConnKey(dst, dp, src, sp);
+        }
+    }
+
+    //State for one direction of a connection (segments sent by one side)
+    private static final class Direction {
+        boolean seen;
+        int nextSeq;          // highest seq + len sent so far
+        long nextSeqNanos;    // when that highest segment was seen
+        int lastAck = -1;
+        int lastWindow = -1;
+        boolean ackSeen;
+        //Segments awaiting an ACK, for RTT samples: end sequence number and send time (ring, oldest first)
+        final int[] pendingEnd = new int[MAX_IN_FLIGHT];
+        final long[] pendingNanos = new long[MAX_IN_FLIGHT];
+        int pendingHead, pendingCount;
+    }
+
+    private static final class Conn {
+        final Direction[] dirs = { new Direction(), new Direction() }; // [0] sent by key.a, [1] sent by key.b
+        long synNanos = -1, synAckNanos = -1;
+        boolean handshakeSampled;
+        double srttNanos;
+        HostHealth host; // the remote / server side this connection is accounted to
+    }
+
+    //Aggregates for one remote host
+    public static final class HostHealth {
+        private final String host;
+        private long connections, segments, retransmissions, outOfOrder, dupAcks, zeroWindows, lostSegments;
+        private final LatencyHistogram handshakeRtt = new LatencyHistogram();
+        private final LatencyHistogram dataRtt = new LatencyHistogram();
+
+        HostHealth(String host) { this.host = host; }
+
+        public String getHost() { return host; }
+        public long getConnections() { return connections; }
+        public long getSegments() { return segments; }
+        public long getRetransmissions() { return retransmissions; }
+        public long getOutOfOrder() { return outOfOrder; }
+        public long getDupAcks() { return dupAcks; }
+        public long getZeroWindows() { return zeroWindows; }
+        public long getLostSegments() { return lostSegments; }
+        public LatencyHistogram getHandshakeRtt() { return handshakeRtt; }
+        public LatencyHistogram getDataRtt() { return dataRtt; }
+        public double getRetransmissionRate() { return segments == 0 ? 0 : (double) retransmissions / segments; }
+
+        //One segment's worth of findings; RTT samples are -1 when the segment gave none
+        synchronized void record(int flags, long handshakeSample, long dataSample) {
+            segments++;
+            if ((flags & RETRANSMISSION) != 0) retransmissions++;
+            if ((flags & OUT_OF_ORDER) != 0) outOfOrder++;
+            if ((flags & DUP_ACK) != 0) dupAcks++;
+            if ((flags & ZERO_WINDOW) != 0) zeroWindows++;
+            if ((flags & PREVIOUS_NOT_CAPTURED) != 0) lostSegments++;
+            if (handshakeSample >= 0) handshakeRtt.record(handshakeSample);
+            if (dataSample >= 0) dataRtt.record(dataSample);
+        }
+
+        synchronized void connectionOpened() { connections++; }
+
+        synchronized HostHealth copy() {
+            HostHealth c = new HostHealth(host);
+            c.connections = connections;
+            c.segments = segments;
+            c.retransmissions = retransmissions;
+            c.outOfOrder = outOfOrder;
+            c.dupAcks = dupAcks;
+            c.zeroWindows = zeroWindows;
+            c.lostSegments = lostSegments;
+            c.handshakeRtt.add(handshakeRtt);
+            c.dataRtt.add(dataRtt);
+            return c;
+        }
+    }
+
+    private static final class Stripe extends LinkedHashMap<ConnKey, Conn> {
+        @Serial private static final long serialVersionUID = 1L;
+        Stripe() { super(256, 0.75f, true); }
+
+        @Override protected boolean removeEldestEntry(Map.Entry<ConnKey, Conn> eldest) { return size() > MAX_CONNECTIONS / STRIPES; }
+    }
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    //Only touched when a connection is first seen, so one lock is enough here
+    private final Map<String, HostHealth> hosts = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(Map.Entry<String, HostHealth> eldest) { return size() > MAX_HOSTS; }
+    };
+    private final Set<String> localIPs;
+
+    public TcpAnalyzer(Set<String> localIPs) {
+        this.localIPs = localIPs;
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe();
+    }
+
+    // ────────────────────── Analysis ─────────────────────────────────────────────────── //
+    //Called from every capture thread for each TCP segment. seq/ack are the raw 32-bit header values.
+    //Returns the annotation bits for this row.
+    public int analyze(PacketRow r, int seq, int ack, int payloadLen) {
+        ConnKey key = ConnKey.of(r.getSource(), r.getSrcPort(), r.getDestination(), r.getDstPort());
+        int hash = key.hashCode();
+        Stripe stripe = stripes[(hash ^ hash >>> 16) & (STRIPES - 1)];
+        synchronized (stripe) {
+            return analyze(stripe, key, r, seq, ack, payloadLen);
+        }
+    }
+
+    private int analyze(Stripe connections, ConnKey key, PacketRow r, int seq, int ack, int payloadLen) {
+        String src = r.getSource(), dst = r.getDestination();
+        int sp = r.getSrcPort(), dp = r.getDstPort();
+        boolean syn = r.hasFlag("SYN"), fin = r.hasFlag("FIN"), rst = r.hasFlag("RST"), hasAck = r.hasFlag("ACK");
+        long ts = r.getTimestampNanos();
+
+        Conn c = connections.get(key);
+        if (c == null) {
+            c = new Conn();
+            //Account to the side that received the SYN; without one, to the non-local side, else the lower port
+            String remote = syn && !hasAck ? dst
+                : syn ? src
+                : localIPs.contains(src) ? dst
+                : localIPs.contains(dst) ? src
+                : sp < dp ? src : dst;
+            synchronized (hosts) {
+                c.host = hosts.computeIfAbsent(remote, HostHealth::new);
+            }
+            c.host.connectionOpened();
+            connections.put(key, c);
+        }
+        Direction out = c.dirs[key.a().equals(src) && key.aPort() == sp ? 0 : 1];
+        Direction in = c.dirs[out == c.dirs[0] ? 1 : 0];
+        int flags = 0;
+        long handshakeSample = -1, dataSample = -1;
+
+        // ───── Handshake RTT: SYN → SYN/ACK → ACK ─────
+        if (syn && !hasAck) c.synNanos = ts;
+        else if (syn) c.synAckNanos = ts;
+        else if (hasAck && !c.handshakeSampled && c.synNanos >= 0 && c.synAckNanos >= c.synNanos) {
+            long rtt = ts - c.synNanos;
+            handshakeSample = rtt;
+            c.srttNanos = rtt;
+            c.handshakeSampled = true;
+        }
+
+        // ───── Sequence space: retransmission / out-of-order / gaps ─────
+        int segLen = payloadLen + (syn ? 1 : 0) + (fin ? 1 : 0);
+        if (syn && out.seen && seq == out.nextSeq - 1) {
+            flags |= RETRANSMISSION; // SYN or SYN/ACK sent again
+            c.handshakeSampled = true; // Karn: the handshake time is now ambiguous
+        } else if (!out.seen || syn) {
+            out.seen = true;
+            out.nextSeq = seq + segLen;
+            out.nextSeqNanos = ts;
+        } else if (segLen > 0 && !rst) {
+            int end = seq + segLen;
+            if (seq - out.nextSeq > 0) {
+                flags |= PREVIOUS_NOT_CAPTURED;
+            }
+            boolean keepAlive = !fin && segLen <= 1 && seq == out.nextSeq - 1;
+            if (!keepAlive && seq - out.nextSeq < 0) {
+                //Below the highest sequence sent: a late original if it arrives quickly, otherwise a resend
+                long window = c.srttNanos > 0 ? (long) c.srttNanos : DEFAULT_REORDER_NANOS;
+                if (ts - out.nextSeqNanos < window && end - out.nextSeq <= 0) {
+                    flags |= OUT_OF_ORDER;
+                } else {
+                    flags |= RETRANSMISSION;
+                    dropPending(out, end); // Karn: no RTT sample from a retransmitted range
+                }
+            }
+            if (end - out.nextSeq > 0) {
+                out.nextSeq = end;
+                out.nextSeqNanos = ts;
+                addPending(out, end, ts);
+            }
+        }
+
+        // ───── ACK side: RTT samples, duplicate ACKs, zero window ─────
+        if (hasAck) {
+            int window = r.getWindowSize() != null ? r.getWindowSize() : -1;
+            boolean pureAck = payloadLen == 0 && !syn && !fin && !rst;
+            if (pureAck && out.ackSeen && ack == out.lastAck && window == out.lastWindow) {
+                flags |= DUP_ACK;
+            }
+            if (!out.ackSeen || ack - out.lastAck > 0) {
+                long sample = ackPending(in, ack, ts);
+                if (sample >= 0) {
+                    dataSample = sample;
+                    c.srttNanos = c.srttNanos == 0 ? sample : c.srttNanos * 7 / 8 + sample / 8.0;
+                }
+            }
+            if (window == 0 && !rst && !syn) {
+                flags |= ZERO_WINDOW;
+            }
+            out.lastAck = ack;
+            out.lastWindow = window;
+            out.ackSeen = true;
+        }
+
+        //A reset connection won't ACK anything else; its entry just ages out of the LRU
+        if (rst) out.pendingCount = in.pendingCount = 0;
+        c.host.record(flags, handshakeSample, dataSample);
+        return flags;
+    }
+
+    //Remember a segment's end so the ACK that covers it yields an RTT sample
+    private static void addPending(Direction d, int end, long ts) {
+        if (d.pendingCount == MAX_IN_FLIGHT) { // full: forget the oldest
+            d.pendingHead = (d.pendingHead + 1) % MAX_IN_FLIGHT;
+            d.pendingCount--;
+        }
+        int slot = (d.pendingHead + d.pendingCount) % MAX_IN_FLIGHT;
+        d.pendingEnd[slot] = end;
+        d.pendingNanos[slot] = ts;
+        d.pendingCount++;
+    }
+
+    //Pop every pending segment the ACK covers; the newest one covered gives the sample
+    private static long ackPending(Direction d, int ack, long now) {
+        long sentAt = -1;
+        while (d.pendingCount > 0 && ack - d.pendingEnd[d.pendingHead] >= 0) {
+            sentAt = d.pendingNanos[d.pendingHead];
+            d.pendingHead = (d.pendingHead + 1) % MAX_IN_FLIGHT;
+            d.pendingCount--;
+        }
+        return sentAt < 0 ? -1 : Math.max(0, now - sentAt);
+    }
+
+    private static void dropPending(Direction d, int end) {
+        while (d.pendingCount > 0 && end - d.pendingEnd[d.pendingHead] >= 0) {
+            d.pendingHead = (d.pendingHead + 1) % MAX_IN_FLIGHT;
+            d.pendingCount--;
+        }
+    }
+
+    // ────────────────────── Snapshots ─────────────────────────────────────────────────── //
+    //Copies of the per-host aggregates, most retransmissions first
+    public List<HostHealth> snapshot() {
+        List<HostHealth> live;
+        synchronized (hosts) {
+            live = new ArrayList<>(hosts.values());
+        }
+        List<HostHealth> out = new ArrayList<>(live.size());
+        for (HostHealth h : live) out.add(h.copy());
+        out.sort(Comparator.comparingLong(HostHealth::getRetransmissions)
+            .thenComparingLong(HostHealth::getSegments).reversed());
+        return out;
+    }
+
+    public void clear() {
+        for (Stripe s : stripes) {
+            synchronized (s) {
+                s.clear();
+            }
+        }
+        synchronized (hosts) {
+            hosts.clear();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.javalens;
+
+import javafx.util.Duration;
+import javafx.stage.Stage;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.geometry.Insets;
+import javafx.animation.Timeline;
+import javafx.animation.KeyFrame;
+import javafx.animation.Animation;
+import javafx.scene.layout.BorderPane;
+import javafx.beans.property.SimpleStringProperty;
+
+import java.util.List;
+import java.util.function.Function;
+
+import com.javalens.TcpAnalyzer.HostHealth;
+
+//Per-host TCP health: RTT from handshakes and data/ACK pairs, retransmissions, reordering, dup ACKs and zero windows.
+//Refreshed once a second from a TcpAnalyzer snapshot while the window is open.
+public class TcpHealthView {
+    private final TcpAnalyzer analyzer;
+    private final TableView<HostHealth> table = new TableView<>();
+    private final Label status = new Label();
+
+    private TcpHealthView(TcpAnalyzer analyzer) {
+        this.analyzer = analyzer;
+    }
+
+    public static void show(TcpAnalyzer analyzer) {
+        new TcpHealthView(analyzer).open();
+    }
+
+    private void open() {
+        Stage stage = new Stage();
+        stage.setTitle("TCP Health – JavaLens");
+
+        table.setPlaceholder(new Label("No TCP traffic seen yet"));
+        table.getColumns().addAll(List.of(
+            col("Host", 180, HostHealth::getHost),
+            col("Conns", 60, h -> count(h.getConnections())),
+            col("Segments", 80, h -> count(h.getSegments())),
+            col("Retrans", 70, h -> count(h.getRetransmissions())),
+            col("Retrans %", 75, h -> h.getRetransmissions() == 0 ? "" : String.format("%.2f%%", 100 * h.getRetransmissionRate())),
+            col("Out of order", 90, h -> count(h.getOutOfOrder())),
+            col("Dup ACK", 70, h -> count(h.getDupAcks())),
+            col("Zero win", 70, h -> count(h.getZeroWindows())),
+            col("Not captured", 90, h -> count(h.getLostSegments())),
+            col("SYN RTT p50", 90, h -> millis(h.getHandshakeRtt(), 0.50)),
+            col("RTT p50", 80, h -> millis(h.getDataRtt(), 0.50)),
+            col("RTT p90", 80, h -> millis(h.getDataRtt(), 0.90)),
+            col("RTT max", 80, h -> millis(h.getDataRtt(), 1.0))
+        ));
+
+        BorderPane root = new BorderPane(table);
+        root.setBottom(status);
+        root.setPadding(new Insets(10));
+        BorderPane.setMargin(status, new Insets(6, 0, 0, 0));
+
+        Timeline ticker = new Timeline(new KeyFrame(Duration.seconds(1), e -> refresh()));
+        ticker.setCycleCount(Animation.INDEFINITE);
+        stage.setOnHidden(e -> ticker.stop());
+
+        stage.setScene(new Scene(root, 1300, 600));
+        stage.show();
+        refresh();
+        ticker.play();
+    }
+
+    private void refresh() {
+        List<HostHealth> snap = analyzer.snapshot();
+        table.getItems().setAll(snap);
+        status.setText(snap.size() + " hosts. RTTs are measured at this capture point: data RTT is segment to "
+            + "the ACK covering it, skipping retransmitted ranges. Filter on \"[TCP\" to see the annotated rows.");
+    }
+
+    private static TableColumn<HostHealth, String> col(String title, double width, Function<HostHealth, String> f) {
+        TableColumn<HostHealth, String> c = new TableColumn<>(title);
+        c.setPrefWidth(width);
+        c.setSortable(false);
+        c.setCellValueFactory(cd -> new SimpleStringProperty(f.apply(cd.getValue())));
+        return c;
+    }
+
+    private static String count(long n) {
+        return n == 0 ? "" : String.format("%,d", n);
+    }
+
+    private static String millis(LatencyHistogram h, double q) {
+        if (h.getCount() == 0) return "";
+        return String.format("%.2f ms", (q >= 1.0 ? h.getMax() : h.percentile(q)) / 1e6);
+    }
+}
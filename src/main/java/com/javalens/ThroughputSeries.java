@@ -0,0 +1,213 @@
+package com.javalens;
+
+import java.util.Set;
+import java.util.List;
+import java.util.Arrays;
+
+import com.javalens.Utils.PacketRow;
+
+//Per-second packet and byte counters for the whole capture, split by protocol (TCP / UDP / ICMP / other) and by
+//direction relative to this host, for the throughput chart. Unlike the row list, this isn't trimmed to maxRows:
+//it keeps the last `capacity` seconds (a day by default, -Djavalens.throughputSeconds=N).
+//
+//Storage is a ring of primitive arrays with SERIES counters per second, indexed by epoch second modulo the ring
+//length. The ring starts at an hour and doubles as the capture gets longer, up to capacity, so a short capture
+//doesn't pay for a day of slots. Rows older than the ring are dropped.
+public final class ThroughputSeries {
+    public enum Protocol { TCP, UDP, ICMP, OTHER }
+    //OTHER: neither end is one of our addresses (transit, broadcast, or non-IP)
+    public enum Direction { IN, OUT, OTHER }
+
+    static final int SERIES = Protocol.values().length * Direction.values().length;
+    private static final int INITIAL_SECONDS = 3_600;
+
+    private final Set<String> localIPs;
+    private final int capacity;
+    private int length;
+    private long[] packets, bytes; // [slot * SERIES + series]
+    private long first = 0, last = -1; // retained seconds, first > last when empty
+
+    public ThroughputSeries(Set<String> localIPs) {
+        this(localIPs, Integer.getInteger("javalens.throughputSeconds", 86_400));
+    }
+
+    ThroughputSeries(Set<String> localIPs, int capacity) {
+        this.localIPs = localIPs;
+        this.capacity = Math.max(2, capacity);
+        length = Math.min(this.capacity, INITIAL_SECONDS);
+        packets = new long[length * SERIES];
+        bytes = new long[length * SERIES];
+    }
+
+    public static int series(Protocol p, Direction d) {
+        return p.ordinal() * Direction.values().length + d.ordinal();
+    }
+
+    //Bitmask over series() of every series with this protocol, or with this direction
+    public static int mask(Protocol p) {
+        int m = 0;
+        for (Direction d : Direction.values()) m |= 1 << series(p, d);
+        return m;
+    }
+
+    public static int mask(Direction d) {
+        int m = 0;
+        for (Protocol p : Protocol.values()) m |= 1 << series(p, d);
+        return m;
+    }
+
+    // ────────────────────── Record ─────────────────────────────────────────────────── //
+    //Sampled rows count for sampleWeight packets of their length each
+    public synchronized void record(List<PacketRow> rows) {
+        for (PacketRow r : rows) {
+            int s = series(protocol(r), direction(r));
+            long w = r.getSampleWeight();
+            add(Math.floorDiv(r.getTimestampNanos(), 1_000_000_000L), s, w, w * r.getWireLength());
+        }
+    }
+
+    synchronized void add(long second, int series, long pkts, long byteCount) {
+        if (first > last) {
+            first = last = second;
+        } else if (second < first || second > last) {
+            long lo = Math.min(first, second), hi = Math.max(last, second);
+            if (hi - lo + 1 > capacity) {
+                if (second < first) return; // older than anything we keep
+                lo = hi - capacity + 1;
+            }
+            if (hi - lo + 1 > length) grow(hi - lo + 1);
+            //Slots for the newly covered seconds may still hold a second from a lap ago
+            if (lo < first) clear(lo, first - 1);
+            if (hi > last) clear(Math.max(last + 1, lo), hi);
+            first = lo;
+            last = hi;
+        }
+        int at = slot(second) * SERIES + series;
+        packets[at] += pkts;
+        bytes[at] += byteCount;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(packets, 0);
+        Arrays.fill(bytes, 0);
+        first = 0;
+        last = -1;
+    }
+
+    private static Protocol protocol(PacketRow r) {
+        return switch (r.getIpProtocol()) {
+            case 6 -> Protocol.TCP;
+            case 17 -> Protocol.UDP;
+            case 1, 58 -> Protocol.ICMP;
+            default -> Protocol.OTHER;
+        };
+    }
+
+    private Direction direction(PacketRow r) {
+        if (r.getSource() != null && localIPs.contains(r.getSource())) return Direction.OUT;
+        if (r.getDestination() != null && localIPs.contains(r.getDestination())) return Direction.IN;
+        return Direction.OTHER;
+    }
+
+    // ────────────────────── Read ─────────────────────────────────────────────────── //
+    public synchronized boolean isEmpty() { return first > last; }
+    public synchronized long getFirstSecond() { return first; }
+    public synchronized long getLastSecond() { return last; }
+    public int getCapacity() { return capacity; }
+
+    //Per-second totals over the series in `mask`, for seconds [from, to]; packets, or bits when `bits` is set.
+    //Seconds outside what is retained read as 0.
+    public synchronized long[] totals(long from, long to, int mask, boolean bits) {
+        long[] out = new long[(int) Math.max(0, to - from + 1)];
+        long[] src = bits ? bytes : packets;
+        for (long t = Math.max(from, first); t <= Math.min(to, last); t++) {
+            int base = slot(t) * SERIES;
+            long sum = 0;
+            for (int s = 0; s < SERIES; s++) if ((mask & (1 << s)) != 0) sum += src[base + s];
+            out[(int) (t - from)] = bits ? sum * 8 : sum;
+        }
+        return out;
+    }
+
+    // ────────────────────── Ring ─────────────────────────────────────────────────── //
+    private int slot(long second) {
+        return (int) Math.floorMod(second, (long) length);
+    }
+
+    private void clear(long from, long to) {
+        if (to - from + 1 >= length) {
+            Arrays.fill(packets, 0);
+            Arrays.fill(bytes, 0);
+            return;
+        }
+        for (long t = from; t <= to; t++) {
+            int base = slot(t) * SERIES;
+            Arrays.fill(packets, base, base + SERIES, 0);
+            Arrays.fill(bytes, base, base + SERIES, 0);
+        }
+    }
+
+    //Re-lays the retained seconds into a longer ring, since a second's slot depends on the ring length
+    private void grow(long needed) {
+        int newLength = (int) Math.min(capacity, Math.max(needed, (long) length * 2));
+        long[] p = new long[newLength * SERIES], b = new long[newLength * SERIES];
+        for (long t = first; t <= last; t++) {
+            int from = slot(t) * SERIES, to = (int) Math.floorMod(t, (long) newLength) * SERIES;
+            System.arraycopy(packets, from, p, to, SERIES);
+            System.arraycopy(bytes, from, b, to, SERIES);
+        }
+        packets = p;
+        bytes = b;
+        length = newLength;
+    }
+
+    // ────────────────────── Downsampling ─────────────────────────────────────────────────── //
+    //Largest-Triangle-Three-Buckets: picks `threshold` of the evenly spaced points in `y` that keep the shape of
+    //the line (peaks and dips survive, unlike plain averaging). Returns ascending indexes, always including the
+    //first and last point; every index when there are no more than `threshold` points.
+    public static int[] lttb(long[] y, int threshold) {
+        int n = y.length;
+        threshold = Math.max(3, threshold);
+        if (n <= threshold) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) all[i] = i;
+            return all;
+        }
+
+        int[] out = new int[threshold];
+        double every = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+        for (int i = 0; i < threshold - 2; i++) {
+            //Average of the next bucket is the third corner of the triangle
+            int nextFrom = (int) ((i + 1) * every) + 1, nextTo = Math.min(n, (int) ((i + 2) * every) + 1);
+            double avgX = 0, avgY = 0;
+            for (int j = nextFrom; j < nextTo; j++) {
+                avgX += j;
+                avgY += y[j];
+            }
+            int count = nextTo - nextFrom;
+            if (count > 0) {
+                avgX /= count;
+                avgY /= count;
+            } else {
+                avgX = n - 1;
+                avgY = y[n - 1];
+            }
+
+            int from = (int) (i * every) + 1, to = (int) ((i + 1) * every) + 1;
+            double best = -1;
+            int pick = from;
+            for (int j = from; j < to; j++) {
+                double area = Math.abs((a - avgX) * (y[j] - y[a]) - (a - j) * (avgY - y[a]));
+                if (area > best) {
+                    best = area;
+                    pick = j;
+                }
+            }
+            out[i + 1] = pick;
+            a = pick;
+        }
+        out[threshold - 1] = n - 1;
+        return out;
+    }
+}
@@ -0,0 +1,176 @@
+package com.javalens;
+
+import javafx.util.Duration;
+import javafx.util.StringConverter;
+import javafx.stage.Stage;
+import javafx.scene.Scene;
+import javafx.scene.chart.XYChart;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.control.*;
+import javafx.geometry.Pos;
+import javafx.geometry.Insets;
+import javafx.animation.Timeline;
+import javafx.animation.KeyFrame;
+import javafx.animation.Animation;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.BorderPane;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+import com.javalens.ThroughputSeries.Protocol;
+import com.javalens.ThroughputSeries.Direction;
+
+//Packets/s or bits/s over time, one line per protocol or per direction, from the per-second ThroughputSeries.
+//Each line is cut down with LTTB to about one point per two pixels of chart width, so the chart stays cheap to
+//redraw once a second even when the window spans a day.
+public class ThroughputView {
+    private static final DateTimeFormatter CLOCK = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private enum Window {
+        FIVE_MINUTES("Last 5 min", 300), HOUR("Last hour", 3_600), SIX_HOURS("Last 6 h", 21_600), ALL("Everything", 0);
+
+        final String label;
+        final long seconds;
+        Window(String label, long seconds) { this.label = label; this.seconds = seconds; }
+        @Override public String toString() { return label; }
+    }
+
+    private final ThroughputSeries series;
+    private final NumberAxis xAxis = new NumberAxis();
+    private final NumberAxis yAxis = new NumberAxis();
+    private final LineChart<Number, Number> chart = new LineChart<>(xAxis, yAxis);
+    private final ChoiceBox<String> metric = new ChoiceBox<>();
+    private final ChoiceBox<String> split = new ChoiceBox<>();
+    private final ChoiceBox<Window> window = new ChoiceBox<>();
+    private final Label status = new Label();
+
+    private ThroughputView(ThroughputSeries series) {
+        this.series = series;
+    }
+
+    public static void show(ThroughputSeries series) {
+        new ThroughputView(series).open();
+    }
+
+    private void open() {
+        Stage stage = new Stage();
+        stage.setTitle("Throughput – JavaLens");
+
+        metric.getItems().setAll("Packets/s", "Bits/s");
+        metric.setValue("Bits/s");
+        split.getItems().setAll("By protocol", "By direction");
+        split.setValue("By protocol");
+        window.getItems().setAll(Window.values());
+        window.setValue(Window.FIVE_MINUTES);
+        metric.valueProperty().addListener((obs, o, n) -> refresh());
+        split.valueProperty().addListener((obs, o, n) -> refresh());
+        window.valueProperty().addListener((obs, o, n) -> refresh());
+
+        chart.setAnimated(false);
+        chart.setCreateSymbols(false);
+        xAxis.setForceZeroInRange(false);
+        xAxis.setAutoRanging(false);
+        xAxis.setTickLabelFormatter(new StringConverter<>() {
+            @Override public String toString(Number sec) { return CLOCK.format(Instant.ofEpochSecond(sec.longValue())); }
+            @Override public Number fromString(String s) { return 0; }
+        });
+        yAxis.setTickLabelFormatter(new StringConverter<>() {
+            @Override public String toString(Number v) { return scaled(v.doubleValue()); }
+            @Override public Number fromString(String s) { return 0; }
+        });
+
+        HBox controls = new HBox(8, metric, split, window);
+        controls.setAlignment(Pos.CENTER_LEFT);
+
+        BorderPane root = new BorderPane(chart);
+        root.setTop(controls);
+        root.setBottom(status);
+        root.setPadding(new Insets(10));
+        BorderPane.setMargin(status, new Insets(6, 0, 0, 0));
+
+        Timeline ticker = new Timeline(new KeyFrame(Duration.seconds(1), e -> refresh()));
+        ticker.setCycleCount(Animation.INDEFINITE);
+        stage.setOnHidden(e -> ticker.stop());
+
+        stage.setScene(new Scene(root, 1100, 550));
+        stage.show();
+        refresh();
+        ticker.play();
+    }
+
+    private void refresh() {
+        if (series.isEmpty()) {
+            chart.getData().clear();
+            status.setText("No traffic recorded yet");
+            return;
+        }
+
+        //The current second is still filling; leave it out while capture is live so the line doesn't dip at the end
+        long last = series.getLastSecond();
+        if (last >= System.currentTimeMillis() / 1000) last--;
+        long first = series.getFirstSecond();
+        if (window.getValue().seconds > 0) first = Math.max(first, last - window.getValue().seconds + 1);
+        if (last < first) return;
+
+        boolean bits = metric.getValue().startsWith("Bits");
+        int points = Math.max(100, (int) chart.getWidth() / 2);
+
+        List<String> names = new ArrayList<>();
+        List<Integer> masks = new ArrayList<>();
+        if (split.getValue().endsWith("protocol")) {
+            for (Protocol p : Protocol.values()) {
+                names.add(p.name());
+                masks.add(ThroughputSeries.mask(p));
+            }
+        } else {
+            names.addAll(List.of("In", "Out", "Other hosts"));
+            for (Direction d : Direction.values()) masks.add(ThroughputSeries.mask(d));
+        }
+
+        List<XYChart.Series<Number, Number>> lines = new ArrayList<>();
+        long peak = 0;
+        for (int k = 0; k < names.size(); k++) {
+            long[] y = series.totals(first, last, masks.get(k), bits);
+            long sum = 0;
+            for (long v : y) {
+                sum += v;
+                peak = Math.max(peak, v);
+            }
+            if (sum == 0) continue; // nothing of this kind in the window; keep the legend short
+
+            XYChart.Series<Number, Number> line = new XYChart.Series<>();
+            line.setName(names.get(k));
+            List<XYChart.Data<Number, Number>> data = new ArrayList<>();
+            for (int i : ThroughputSeries.lttb(y, points)) data.add(new XYChart.Data<>(first + i, y[i]));
+            line.getData().setAll(data);
+            lines.add(line);
+        }
+        chart.getData().setAll(lines);
+
+        long span = last - first + 1;
+        xAxis.setLowerBound(first);
+        xAxis.setUpperBound(Math.max(last, first + 1));
+        xAxis.setTickUnit(Math.max(1, span / 10));
+        yAxis.setLabel(metric.getValue());
+        status.setText(String.format("%s of per-second samples, peak %s %s. Kept for up to %d h; lines show at most %d points each.",
+            length(span), scaled(peak), bits ? "bit/s" : "packets/s", series.getCapacity() / 3600, points));
+    }
+
+    private static String scaled(double v) {
+        if (v >= 1e9) return String.format("%.1fG", v / 1e9);
+        if (v >= 1e6) return String.format("%.1fM", v / 1e6);
+        if (v >= 1e3) return String.format("%.1fk", v / 1e3);
+        return String.format("%.0f", v);
+    }
+
+    private static String length(long seconds) {
+        if (seconds >= 3_600) return String.format("%dh %02dm", seconds / 3_600, seconds % 3_600 / 60);
+        if (seconds >= 60) return String.format("%dm %02ds", seconds / 60, seconds % 60);
+        return seconds + " s";
+    }
+}
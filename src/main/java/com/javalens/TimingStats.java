@@ -0,0 +1,179 @@
+package com.javalens;
+
+import java.util.List;
+import java.util.Map;
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.javalens.Utils.PacketRow;
+
+//Inter-arrival timing per flow and per interface, computed from capture timestamps.
+//Flows are kept in a bounded LRU map so a scan across millions of 5-tuples can't grow memory without limit.
+//
+//Called for every packet from every capture thread and agent reader, so nothing here is one global lock: flows
+//are split into stripes by flow key, each its own lock, and each interface's Series is guarded by itself.
+public class TimingStats {
+    private static final int STRIPES = 16;
+    private static final int MAX_FLOWS = 10_000;
+
+    //A microburst is at least BURST_PACKETS packets inside one BURST_WINDOW_NANOS window
+    static final long BURST_WINDOW_NANOS = 1_000_000L; // 1 ms
+    static final int BURST_PACKETS = 64;
+
+    public record FlowKey(String protocol, String src, Integer srcPort, String dst, Integer dstPort) {
+        @Override public String toString() {
+            return protocol + " " + src + (srcPort != null ? ":" + srcPort : "")
+                 + " → " + dst + (dstPort != null ? ":" + dstPort : "");
+        }
+    }
+
+    //Running statistics for one stream of packet arrivals. All values are in nanoseconds.
+    public static final class Series {
+        private final String name;
+        private long packets;
+        private long gaps; // gaps that went into the stats; reordered packets are counted but add no gap
+        private long firstNanos, lastNanos;
+        private long lastGap = -1;
+        private long minGap = Long.MAX_VALUE, maxGap;
+        private double meanGap, m2; // Welford accumulators
+        private double jitter;      // RFC 3550 style smoothed |gap(i) - gap(i-1)|
+
+        private long windowStart;
+        private int windowCount, peakWindowCount;
+        private long microbursts;
+
+        Series(String name) { this.name = name; }
+
+        void add(long ts) {
+            packets++;
+            if (packets == 1) {
+                firstNanos = lastNanos = windowStart = ts;
+                windowCount = 1;
+                return;
+            }
+
+            long gap = ts - lastNanos;
+            if (gap < 0) return; // reordered timestamp; don't let it poison the stats
+            lastNanos = ts;
+
+            gaps++;
+            double delta = gap - meanGap;
+            meanGap += delta / gaps;
+            m2 += delta * (gap - meanGap);
+            minGap = Math.min(minGap, gap);
+            maxGap = Math.max(maxGap, gap);
+
+            if (lastGap >= 0) jitter += (Math.abs(gap - lastGap) - jitter) / 16.0;
+            lastGap = gap;
+
+            if (ts - windowStart >= BURST_WINDOW_NANOS) {
+                if (windowCount >= BURST_PACKETS) microbursts++;
+                windowStart = ts;
+                windowCount = 0;
+            }
+            windowCount++;
+            peakWindowCount = Math.max(peakWindowCount, windowCount);
+        }
+
+        public String getName() { return name; }
+        public long getPackets() { return packets; }
+        public double getMeanGapNanos() { return gaps > 0 ? meanGap : 0; }
+        public double getStdDevGapNanos() { return gaps > 1 ? Math.sqrt(m2 / (gaps - 1)) : 0; }
+        public long getMinGapNanos() { return gaps > 0 ? minGap : 0; }
+        public long getMaxGapNanos() { return maxGap; }
+        public double getJitterNanos() { return jitter; }
+        public long getMicrobursts() { return microbursts + (windowCount >= BURST_PACKETS ? 1 : 0); }
+        public int getPeakPacketsPerWindow() { return peakWindowCount; }
+        public double getRatePps() {
+            long span = lastNanos - firstNanos;
+            return span > 0 ? gaps * 1e9 / span : 0;
+        }
+
+        Series copy() {
+            Series s = new Series(name);
+            s.packets = packets; s.gaps = gaps; s.firstNanos = firstNanos; s.lastNanos = lastNanos; s.lastGap = lastGap;
+            s.minGap = minGap; s.maxGap = maxGap; s.meanGap = meanGap; s.m2 = m2; s.jitter = jitter;
+            s.windowStart = windowStart; s.windowCount = windowCount; s.peakWindowCount = peakWindowCount;
+            s.microbursts = microbursts;
+            return s;
+        }
+    }
+
+    private static final class Stripe extends LinkedHashMap<FlowKey, Series> {
+        @Serial private static final long serialVersionUID = 1L;
+
+        Stripe() { super(256, 0.75f, true); }
+
+        @Override protected boolean removeEldestEntry(Map.Entry<FlowKey, Series> eldest) { return size() > MAX_FLOWS / STRIPES; }
+    }
+
+    private static final Comparator<Series> MOST_BURSTY =
+        Comparator.comparingLong(Series::getMicrobursts).thenComparingDouble(Series::getJitterNanos).reversed();
+
+    private final Map<String, Series> interfaces = new ConcurrentHashMap<>();
+    private final Stripe[] flows = new Stripe[STRIPES];
+
+    public TimingStats() {
+        for (int i = 0; i < STRIPES; i++) flows[i] = new Stripe();
+    }
+
+    public void record(PacketRow row) {
+        long ts = row.getTimestampNanos();
+        Series iface = interfaces.computeIfAbsent(row.getIface(), Series::new);
+        synchronized (iface) {
+            iface.add(ts);
+        }
+
+        FlowKey key = new FlowKey(row.getProtocol(), row.getSource(), row.getSrcPort(), row.getDestination(), row.getDstPort());
+        int hash = key.hashCode();
+        Stripe stripe = flows[(hash ^ hash >>> 16) & (STRIPES - 1)];
+        synchronized (stripe) {
+            Series flow = stripe.get(key);
+            if (flow == null) {
+                flow = new Series(key.toString());
+                stripe.put(key, flow);
+            }
+            flow.add(ts);
+        }
+    }
+
+    public void clear() {
+        interfaces.clear();
+        for (Stripe s : flows) {
+            synchronized (s) {
+                s.clear();
+            }
+        }
+    }
+
+    //Copies, so the UI can read them without holding the locks the capture threads need
+    public List<Series> interfaceSnapshot() {
+        List<Series> out = new ArrayList<>(interfaces.size());
+        for (Series s : interfaces.values()) {
+            synchronized (s) {
+                out.add(s.copy());
+            }
+        }
+        return out;
+    }
+
+    //The `limit` flows with the most microbursts, then the highest jitter. Each stripe's best are copied under
+    //its lock, then merged.
+    public List<Series> topFlows(int limit) {
+        List<Series> candidates = new ArrayList<>();
+        for (Stripe stripe : flows) {
+            synchronized (stripe) {
+                stripe.values().stream()
+                    .filter(s -> s.getPackets() > 2)
+                    .sorted(MOST_BURSTY)
+                    .limit(limit)
+                    .map(Series::copy)
+                    .forEach(candidates::add);
+            }
+        }
+        return candidates.stream().sorted(MOST_BURSTY).limit(limit).toList();
+    }
+}
@@ -0,0 +1,101 @@
+package com.javalens;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.EnumMap;
+
+import com.javalens.SpaceSaving.Entry;
+import com.javalens.Utils.PacketRow;
+
+//Heavy hitters for the whole session: top source IPs, destination IPs, ports and DNS names by packets and by bytes.
+//Every table is a fixed-size SpaceSaving summary, so memory stays constant however many distinct hosts show up.
+public class TopTalkers {
+    private static final int CAPACITY = Integer.getInteger("javalens.topTalkers.capacity", 1_000);
+
+    public enum Dimension {
+        SOURCE("Source IP"), DESTINATION("Destination IP"), PORT("Port"), DNS("DNS name");
+
+        private final String title;
+        Dimension(String title) { this.title = title; }
+        public String getTitle() { return title; }
+    }
+
+    //Capture threads record into their own stripe, chosen by thread id, so they rarely contend for a lock.
+    //Readers copy each stripe under its lock and merge the copies.
+    private static final int STRIPES = Math.min(16, Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) * 2);
+
+    private static final class Stripe {
+        final EnumMap<Dimension, SpaceSaving<String>> packets = new EnumMap<>(Dimension.class);
+        final EnumMap<Dimension, SpaceSaving<String>> bytes = new EnumMap<>(Dimension.class);
+
+        Stripe() {
+            for (Dimension d : Dimension.values()) {
+                packets.put(d, new SpaceSaving<>(CAPACITY));
+                bytes.put(d, new SpaceSaving<>(CAPACITY));
+            }
+        }
+
+        void add(Dimension d, String key, long n, long b) {
+            if (key == null || key.equals("?")) return;
+            packets.get(d).offer(key, n);
+            bytes.get(d).offer(key, b);
+        }
+    }
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public TopTalkers() {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe();
+    }
+
+    //Called from every capture thread. Sampled rows count for sampleWeight packets.
+    public void record(PacketRow r) {
+        long n = r.getSampleWeight();
+        long b = n * r.getWireLength();
+        //The lower port is usually the service, so count it rather than the ephemeral client side
+        String port = r.getSrcPort() != null && r.getDstPort() != null
+            ? r.getProtocol() + "/" + Math.min(r.getSrcPort(), r.getDstPort()) : null;
+
+        Stripe s = stripes[(int) Thread.currentThread().threadId() & (STRIPES - 1)];
+        synchronized (s) {
+            s.add(Dimension.SOURCE, r.getSource(), n, b);
+            s.add(Dimension.DESTINATION, r.getDestination(), n, b);
+            s.add(Dimension.PORT, port, n, b);
+            s.add(Dimension.DNS, r.getDnsQueryName(), n, b);
+        }
+    }
+
+    private SpaceSaving<String> merged(Dimension d, boolean byBytes) {
+        List<SpaceSaving<String>> parts = new ArrayList<>(STRIPES);
+        for (Stripe s : stripes) {
+            synchronized (s) {
+                SpaceSaving<String> ss = (byBytes ? s.bytes : s.packets).get(d);
+                if (ss.size() > 0) parts.add(ss.copy());
+            }
+        }
+        return SpaceSaving.merge(parts, CAPACITY);
+    }
+
+    public List<Entry<String>> top(Dimension d, boolean byBytes, int limit) {
+        return merged(d, byBytes).top(limit);
+    }
+
+    public long total(Dimension d, boolean byBytes) {
+        long total = 0;
+        for (Stripe s : stripes) {
+            synchronized (s) {
+                total += (byBytes ? s.bytes : s.packets).get(d).getTotal();
+            }
+        }
+        return total;
+    }
+
+    public void clear() {
+        for (Stripe s : stripes) {
+            synchronized (s) {
+                s.packets.values().forEach(SpaceSaving::clear);
+                s.bytes.values().forEach(SpaceSaving::clear);
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.javalens;
+
+import javafx.util.Duration;
+import javafx.stage.Stage;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.geometry.Insets;
+import javafx.animation.Timeline;
+import javafx.animation.KeyFrame;
+import javafx.animation.Animation;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.ColumnConstraints;
+import javafx.beans.property.SimpleStringProperty;
+
+import java.util.Map;
+import java.util.EnumMap;
+import java.util.function.Function;
+
+import com.javalens.SpaceSaving.Entry;
+import com.javalens.TopTalkers.Dimension;
+
+//Live heavy-hitters panel. Reads the TopTalkers summaries once a second while the window is open.
+public class TopTalkersView {
+    private static final int TOP_N = 20;
+
+    private final TopTalkers talkers;
+    private final Map<Dimension, TableView<Entry<String>>> tables = new EnumMap<>(Dimension.class);
+    private final ToggleGroup metric = new ToggleGroup();
+    private final RadioButton byPackets = new RadioButton("Packets");
+    private final RadioButton byBytes = new RadioButton("Bytes");
+
+    private TopTalkersView(TopTalkers talkers) {
+        this.talkers = talkers;
+    }
+
+    public static void show(TopTalkers talkers) {
+        new TopTalkersView(talkers).open();
+    }
+
+    private void open() {
+        Stage stage = new Stage();
+        stage.setTitle("Top Talkers – JavaLens");
+
+        byPackets.setToggleGroup(metric);
+        byBytes.setToggleGroup(metric);
+        byPackets.setSelected(true);
+        metric.selectedToggleProperty().addListener((obs, o, n) -> refresh());
+
+        HBox bar = new HBox(10, new Label("Rank by"), byPackets, byBytes);
+        bar.setPadding(new Insets(0, 0, 8, 0));
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        for (int i = 0; i < 2; i++) {
+            ColumnConstraints cc = new ColumnConstraints();
+            cc.setPercentWidth(50);
+            grid.getColumnConstraints().add(cc);
+        }
+        Dimension[] dims = Dimension.values();
+        for (int i = 0; i < dims.length; i++) {
+            VBox box = new VBox(4, new Label(dims[i].getTitle()), buildTable(dims[i]));
+            GridPane.setHgrow(box, Priority.ALWAYS);
+            GridPane.setVgrow(box, Priority.ALWAYS);
+            grid.add(box, i % 2, i / 2);
+        }
+
+        BorderPane root = new BorderPane(grid);
+        root.setTop(bar);
+        root.setPadding(new Insets(10));
+
+        Timeline ticker = new Timeline(new KeyFrame(Duration.seconds(1), e -> refresh()));
+        ticker.setCycleCount(Animation.INDEFINITE);
+        stage.setOnHidden(e -> ticker.stop());
+
+        stage.setScene(new Scene(root, 900, 650));
+        stage.show();
+        refresh();
+        ticker.play();
+    }
+
+    private TableView<Entry<String>> buildTable(Dimension d) {
+        TableView<Entry<String>> t = new TableView<>();
+        t.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+        t.setPlaceholder(new Label("Nothing captured yet"));
+        t.getColumns().add(col(d.getTitle(), 200, Entry::key));
+        t.getColumns().add(col("Count", 90, e -> String.format("%,d", e.count())));
+        t.getColumns().add(col("Share", 60, e -> share(d, e)));
+        t.getColumns().add(col("± Error", 80, e -> e.error() == 0 ? "exact" : String.format("%,d", e.error())));
+        VBox.setVgrow(t, Priority.ALWAYS);
+        tables.put(d, t);
+        return t;
+    }
+
+    private static TableColumn<Entry<String>, String> col(String title, double width, Function<Entry<String>, String> f) {
+        TableColumn<Entry<String>, String> c = new TableColumn<>(title);
+        c.setPrefWidth(width);
+        c.setSortable(false);
+        c.setCellValueFactory(cd -> new SimpleStringProperty(f.apply(cd.getValue())));
+        return c;
+    }
+
+    private String share(Dimension d, Entry<String> e) {
+        long total = talkers.total(d, byBytes.isSelected());
+        return total == 0 ? "" : String.format("%.1f%%", 100.0 * e.count() / total);
+    }
+
+    private void refresh() {
+        boolean bytes = byBytes.isSelected();
+        tables.forEach((d, t) -> t.getItems().setAll(talkers.top(d, bytes, TOP_N)));
+    }
+}
@@ -6,14 +6,20 @@ import javafx.scene.chart.XYChart;
 import javafx.scene.chart.BarChart;
 import javafx.scene.chart.NumberAxis;
 import javafx.scene.chart.CategoryAxis;
+import javafx.collections.FXCollections;
 import javafx.beans.property.SimpleStringProperty;
 
-import java.util.Map;
+import java.util.function.Function;
+import java.time.ZoneId;
+import java.time.Instant;
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
 import java.util.Set;
 import java.awt.Taskbar;
 import javax.imageio.ImageIO;
 
 import java.util.List;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.io.IOException;
 import java.net.InetAddress;
@@ -25,6 +31,8 @@ import java.net.NetworkInterface;
 import org.pcap4j.core.Pcaps;
 import org.pcap4j.packet.Packet;
 import org.pcap4j.packet.EthernetPacket;
+import org.pcap4j.packet.factory.PacketFactories;
+import org.pcap4j.packet.namednumber.DataLinkType;
 import org.pcap4j.core.PcapNativeException;
 import org.pcap4j.core.PcapNetworkInterface;
 
@@ -42,21 +50,12 @@ public class Utils {
         try {
             return Pcaps.findAllDevs();
         } catch (PcapNativeException e) {
-            showAlert("No interfaces", e.getMessage());
+            //Called off the FX thread at startup, so hop over to show the alert
+            javafx.application.Platform.runLater(() -> showAlert("No interfaces", e.getMessage()));
             return List.of();
         }
     }
 
-    private static String prettyHex(String text) {
-        byte[] bytes = text.getBytes();
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < bytes.length; i++) {
-            sb.append(String.format("%02X ", bytes[i]));
-            if ((i + 1) % 16 == 0) sb.append("\n");
-        }
-        return sb.toString();
-    }
-
     public static void showDetails(PacketRow r) {
         TabPane tabs = new TabPane();
         
@@ -65,13 +64,12 @@ public class Utils {
         summaryArea.setEditable(false);
         summaryArea.setWrapText(true);
         
-        // [HEX VIEW TAB]
-        TextArea hexArea = new TextArea(prettyHex(r.getFullPacketDump()));
-        hexArea.setEditable(false);
-        hexArea.setWrapText(false); 
-
+        // [HEX VIEW TAB] - built over the captured frame bytes, only when the tab is first opened
         Tab summaryTab = new Tab("Summary", summaryArea);
-        Tab hexTab = new Tab("Hex View", hexArea);
+        Tab hexTab = new Tab("Hex View");
+        hexTab.setOnSelectionChanged(e -> {
+            if (hexTab.isSelected() && hexTab.getContent() == null) hexTab.setContent(new HexView(r.getRawData()));
+        });
         tabs.getTabs().addAll(summaryTab, hexTab);
     
         Dialog<Void> dlg = new Dialog<>();
@@ -114,81 +112,25 @@ public class Utils {
     public static void showExplain(PacketRow r) {
         Alert a = new Alert(Alert.AlertType.INFORMATION);
         a.setTitle("What is this packet?");
-        a.setHeaderText(r.getProtocol() + " packet");
-        a.setContentText(shortExplain(r));
+        a.setHeaderText(r.getApplication() + " packet");
+        String summary = r.getSummary();
+        a.setContentText(summary != null ? summary + "\n\n" + explain(r) : explain(r));
         a.showAndWait();
     }
 
+    //O(1) via the dissector dispatch table, safe to call from every cell render
     public static String explain(PacketRow r) {
-        return shortExplain(r);
-    }
-
-    private static String shortExplain(PacketRow r) {
-        String key = EXPLAIN.keySet().stream()
-        .filter(k -> r.getProtocol().equalsIgnoreCase(k) ||
-                                      r.getInfo().toUpperCase().contains(k))
-                         .findFirst().orElse("OTHER");
-            return EXPLAIN.get(key);
+        return r.getDissector().explanation();
     }
-        
-    private static final Map<String, String> EXPLAIN = Map.ofEntries(
-        Map.entry("TCP", 
-            "TCP – Transmission Control Protocol. Reliable, connection-oriented transport layer protocol using a 3-way handshake, acknowledgments, retransmissions, and congestion control. Used for web browsing (HTTP/HTTPS), email (SMTP), file transfers (FTP)."
-        ),
-        Map.entry("UDP", 
-            "UDP – User Datagram Protocol. Lightweight, connectionless transport layer protocol with no guarantee of delivery, ordering, or duplicate protection. Used for streaming (video, voice), DNS queries, and gaming."
-        ),
-        Map.entry("DNS", 
-            "DNS – Domain Name System. Resolves human-readable domain names like 'google.com' into IP addresses. Typically uses UDP port 53, but can use TCP for larger responses like zone transfers."
-        ),
-        Map.entry("DHCP", 
-            "DHCP – Dynamic Host Configuration Protocol. Automatically assigns IP addresses, subnet masks, default gateways, and DNS servers to devices on a network. Operates over UDP ports 67 (server) and 68 (client)."
-        ),
-        Map.entry("ARP", 
-            "ARP – Address Resolution Protocol. Maps an IPv4 address to a device's MAC address inside a local Ethernet network. Uses broadcast frames (ff:ff:ff:ff:ff:ff) to find the MAC address for a given IP."
-        ),
-        Map.entry("HTTP", 
-            "HTTP – HyperText Transfer Protocol. Application layer protocol used for web traffic (port 80). It defines how browsers and web servers communicate, requesting and transmitting web pages, images, and resources."
-        ),
-        Map.entry("HTTPS", 
-            "HTTPS – Secure version of HTTP (over TLS/SSL). Encrypts data between browser and server to ensure privacy, authenticity, and integrity. Commonly runs over TCP port 443."
-        ),
-        Map.entry("FTP", 
-            "FTP – File Transfer Protocol. Transfers files between client and server over TCP, using ports 20 (data) and 21 (control). Unencrypted by default; sensitive to firewalls due to separate control and data connections."
-        ),
-        Map.entry("ICMP", 
-            "ICMP – Internet Control Message Protocol. Used for diagnostic and error messages like 'ping' (echo request/reply) and 'destination unreachable'. Operates directly over IP (not TCP/UDP)."
-        ),
-        Map.entry("SSH", 
-            "SSH – Secure Shell. Provides encrypted remote login and command execution between computers. Runs over TCP port 22, replacing older, insecure protocols like Telnet and Rlogin."
-        ),
-        Map.entry("TLS", 
-            "TLS – Transport Layer Security. Cryptographic protocol providing privacy and data integrity between two communicating applications. Commonly used to secure HTTPS, SMTP, and VPN traffic."
-        ),
-        Map.entry("NTP", 
-            "NTP – Network Time Protocol. Synchronizes clocks of computer systems over packet-switched, variable-latency networks. Uses UDP port 123."
-        ),
-        Map.entry("SMTP", 
-            "SMTP – Simple Mail Transfer Protocol. Protocol for sending emails across networks. Typically uses TCP port 25 (unencrypted) or ports 465/587 (encrypted with SSL/TLS)."
-        ),
-        Map.entry("POP3", 
-            "POP3 – Post Office Protocol version 3. Email retrieval protocol that downloads messages from a server to a local client, usually TCP port 110 (unencrypted) or 995 (encrypted)."
-        ),
-        Map.entry("IMAP", 
-            "IMAP – Internet Message Access Protocol. Email retrieval protocol that allows syncing and managing mail on the server. Typically TCP port 143 (unencrypted) or 993 (encrypted)."
-        ),
-        Map.entry("OTHER",
-            "Unknown or unsupported protocol. Could be a custom, experimental, or proprietary traffic type not recognized by this tool."
-        )
-    );
 
     public static void showProtocolStats(List<PacketRow> rows) {
         // Count protocols
         var counts = new java.util.HashMap<String, Integer>();
         int total = 0;
+        //Rows kept while shedding load stand in for sampleWeight packets each
         for (PacketRow r : rows) {
-            counts.merge(r.getProtocol(), 1, Integer::sum);
-            total++;
+            counts.merge(r.getProtocol(), r.getSampleWeight(), Integer::sum);
+            total += r.getSampleWeight();
         }
         if (total == 0) {
             showAlert("No Packets", "No captured packets to show statistics for.");
@@ -229,9 +171,79 @@ public class Utils {
         dlg.showAndWait();
     }
 
+    private static final DateTimeFormatter TIME_FMT =
+        DateTimeFormatter.ofPattern("HH:mm:ss.SSSSSS").withZone(ZoneId.systemDefault()); // [Example: 13:42:11.653127]
+
+    public static String formatTime(long epochNanos) {
+        return TIME_FMT.format(Instant.ofEpochSecond(0, epochNanos));
+    }
+
+    public static long toEpochNanos(Timestamp ts) {
+        return Math.floorDiv(ts.getTime(), 1000L) * 1_000_000_000L + ts.getNanos();
+    }
+
+    public static void showTimingStats(TimingStats timing) {
+        TabPane tabs = new TabPane(
+            new Tab("Interfaces", timingTable(timing.interfaceSnapshot())),
+            new Tab("Flows (top 200)", timingTable(timing.topFlows(200)))
+        );
+        tabs.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
+
+        Dialog<Void> dlg = new Dialog<>();
+        dlg.setTitle("Inter-arrival Timing – JavaLens");
+        dlg.setHeaderText("Gaps and jitter in µs. A microburst is ≥ " + TimingStats.BURST_PACKETS
+            + " packets within " + (TimingStats.BURST_WINDOW_NANOS / 1_000_000) + " ms.");
+        dlg.getDialogPane().setContent(tabs);
+        dlg.getDialogPane().setPrefSize(1000, 520);
+        dlg.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        dlg.setResizable(true);
+        dlg.showAndWait();
+    }
+
+    private static TableView<TimingStats.Series> timingTable(List<TimingStats.Series> series) {
+        TableView<TimingStats.Series> t = new TableView<>(FXCollections.observableArrayList(series));
+        t.getColumns().addAll(List.of(
+            statCol("Stream", 320, TimingStats.Series::getName),
+            statCol("Packets", 80, s -> String.valueOf(s.getPackets())),
+            statCol("Rate (pps)", 90, s -> String.format("%.1f", s.getRatePps())),
+            statCol("Mean gap", 90, s -> micros(s.getMeanGapNanos())),
+            statCol("Std dev", 90, s -> micros(s.getStdDevGapNanos())),
+            statCol("Min gap", 80, s -> micros(s.getMinGapNanos())),
+            statCol("Max gap", 90, s -> micros(s.getMaxGapNanos())),
+            statCol("Jitter", 80, s -> micros(s.getJitterNanos())),
+            statCol("Microbursts", 90, s -> String.valueOf(s.getMicrobursts())),
+            statCol("Peak / ms", 80, s -> String.valueOf(s.getPeakPacketsPerWindow()))
+        ));
+        t.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+        return t;
+    }
+
+    private static <T> TableColumn<T, String> statCol(String title, int min, Function<T, String> value) {
+        TableColumn<T, String> c = new TableColumn<>(title);
+        c.setMinWidth(min);
+        c.setCellValueFactory(cd -> new SimpleStringProperty(value.apply(cd.getValue())));
+        return c;
+    }
+
+    private static String micros(double nanos) {
+        return String.format("%.1f", nanos / 1_000.0);
+    }
+
     public static class PacketRow {
-        private final SimpleStringProperty time, source, destination, protocol, length, info;
-        private final String fullPacketDump;
+        private final SimpleStringProperty source, destination, protocol, info;
+        private final long timestampNanos; // libpcap capture time, epoch nanoseconds. Only formatted when displayed.
+        private final String iface; // interface (or other source) this packet was captured on
+        private final int linkType; // libpcap DLT of rawData, e.g. 1 = Ethernet
+        private final int sampleWeight; // 1, or N when this row stands in for 1-in-N sampled traffic
+        private final int etherType;  // -1 when the link layer has none
+        private final int ipProtocol; // -1 for non-IP
+        private final int wireLength; // the Len column as a number, so sorting never compares strings
+        private long[] addressKeys; // binary sort keys for source/destination, built the first time the table sorts by address
+
+        //Resolved lazily: most rows are never rendered or filtered on, so they never pay for dissection
+        private Dissector dissector;
+        private String summary;
+        private boolean summarized;
         private final boolean isMine;
         private final boolean isBroadcastOrMulticast;
         private Integer srcPort;
@@ -241,59 +253,234 @@ public class Utils {
         private String dnsQueryName;
         private Integer icmpType;
         private Integer icmpCode;
-        private byte[] payload;
-
-        public PacketRow(
-            String t, String s, String d, String pr, String l, String i, String fullDump,
-            boolean isMine, boolean isBroadcastOrMulticast,
-            Integer srcPort, Integer dstPort, Integer windowSize,
-            Set<String> tcpFlags, String dnsQueryName,
-            Integer icmpType, Integer icmpCode, byte[] payload
-        ) {
-            time = new SimpleStringProperty(t);
-            source = new SimpleStringProperty(s);
-            destination = new SimpleStringProperty(d);
-            protocol = new SimpleStringProperty(pr);
-            length = new SimpleStringProperty(l);
-            info = new SimpleStringProperty(i);
-            fullPacketDump = fullDump;
-            this.isMine = isMine;
-            this.isBroadcastOrMulticast = isBroadcastOrMulticast;
+        //The captured frame and its payload live off-heap in the FrameArena; rows keep positions into it (-1 = none).
+        //The arrays are only used when there is no arena (-Djavalens.arenaMiB=0) or it can't take the bytes.
+        private long frameAt = -1, payloadAt = -1;
+        private int frameLen = -1, payloadLen = -1;
+        private int originalPayloadLen = -1; // set when the bytes were cut somewhere the frame length can't show (agent snap)
+        private int payloadOffset = -1; // where the payload starts in the frame; -1 when it isn't a slice of it
+        private byte[] payload; // only kept when it isn't a slice of the frame
+        private byte[] rawData; // the whole captured frame
+        private int tcpAnalysis; // TcpAnalyzer flag bits, 0 when nothing unusual was seen
+
+        //Fields not set on the builder keep the defaults a packet with no such layer would have
+        public static Builder builder() { return new Builder(); }
+
+        public static final class Builder {
+            private long timestampNanos;
+            private String iface;
+            private int linkType = 1; // DLT_EN10MB
+            private int sampleWeight = 1;
+            private String source = "?", destination = "?", protocol = "UNKNOWN";
+            private int etherType = -1, ipProtocol = -1;
+            private int wireLength;
+            private String info = "";
+            private boolean mine, broadcastOrMulticast;
+            private Integer srcPort, dstPort, windowSize;
+            private Set<String> tcpFlags = Set.of();
+            private String dnsQueryName;
+            private Integer icmpType, icmpCode;
+            private byte[] payload, rawData;
+            private int originalPayloadLength = -1, payloadOffset = -1;
+
+            private Builder() {}
+
+            public Builder timestampNanos(long v) { timestampNanos = v; return this; }
+            public Builder iface(String v) { iface = v; return this; }
+            public Builder linkType(int v) { linkType = v; return this; }
+            public Builder sampleWeight(int v) { sampleWeight = v; return this; }
+            public Builder source(String v) { source = v; return this; }
+            public Builder destination(String v) { destination = v; return this; }
+            public Builder protocol(String v) { protocol = v; return this; }
+            public Builder etherType(int v) { etherType = v; return this; }
+            public Builder ipProtocol(int v) { ipProtocol = v; return this; }
+            public Builder wireLength(int v) { wireLength = v; return this; }
+            public Builder info(String v) { info = v; return this; }
+            public Builder mine(boolean v) { mine = v; return this; }
+            public Builder broadcastOrMulticast(boolean v) { broadcastOrMulticast = v; return this; }
+            public Builder srcPort(Integer v) { srcPort = v; return this; }
+            public Builder dstPort(Integer v) { dstPort = v; return this; }
+            public Builder windowSize(Integer v) { windowSize = v; return this; }
+            public Builder tcpFlags(Set<String> v) { tcpFlags = v; return this; }
+            public Builder dnsQueryName(String v) { dnsQueryName = v; return this; }
+            public Builder icmpType(Integer v) { icmpType = v; return this; }
+            public Builder icmpCode(Integer v) { icmpCode = v; return this; }
+            public Builder payload(byte[] v) { payload = v; return this; }
+            public Builder rawData(byte[] v) { rawData = v; return this; }
+            //Where the payload starts in rawData when it is a slice of the frame, as it is for anything the parser
+            //decoded; then it is stored once, as part of the frame
+            public Builder payloadOffset(int v) { payloadOffset = v; return this; }
+            //Only for payloads cut short after capture (an agent's snap), where the wire length no longer tells
+            public Builder originalPayloadLength(int v) { originalPayloadLength = v; return this; }
+
+            public PacketRow build() { return new PacketRow(this); }
+        }
+
+        private PacketRow(Builder b) {
+            this.timestampNanos = b.timestampNanos;
+            this.iface = b.iface;
+            this.linkType = b.linkType;
+            this.sampleWeight = b.sampleWeight;
+            source = new SimpleStringProperty(b.source);
+            destination = new SimpleStringProperty(b.destination);
+            protocol = new SimpleStringProperty(b.protocol);
+            this.etherType = b.etherType;
+            this.ipProtocol = b.ipProtocol;
+            wireLength = b.wireLength;
+            info = new SimpleStringProperty(b.info);
+            this.isMine = b.mine;
+            this.isBroadcastOrMulticast = b.broadcastOrMulticast;
             
             //metadata for the packet
-            this.srcPort = srcPort;
-            this.dstPort = dstPort;
-            this.windowSize = windowSize;
-            this.tcpFlags = tcpFlags != null ? tcpFlags : Set.of();
-            this.dnsQueryName = dnsQueryName;
-            this.icmpType = icmpType;
-            this.icmpCode = icmpCode;
-            this.payload = payload;
+            this.srcPort = b.srcPort;
+            this.dstPort = b.dstPort;
+            this.windowSize = b.windowSize;
+            this.tcpFlags = b.tcpFlags != null ? b.tcpFlags : Set.of();
+            this.dnsQueryName = b.dnsQueryName;
+            this.icmpType = b.icmpType;
+            this.icmpCode = b.icmpCode;
+            storeBytes(b.payload, b.rawData, b.payloadOffset);
+            originalPayloadLen = b.originalPayloadLength;
+        }
+
+        //The payload is nearly always a slice of the frame, so it usually costs no space of its own
+        private void storeBytes(byte[] payload, byte[] raw, int offset) {
+            FrameArena arena = FrameArena.getDefault();
+            if (raw != null) {
+                frameLen = raw.length;
+                if (arena != null) frameAt = arena.append(raw, 0, raw.length);
+                if (frameAt < 0) rawData = raw;
+            }
+            if (payload != null) {
+                payloadLen = payload.length;
+                if (raw != null && offset >= 0 && offset + payload.length <= raw.length) {
+                    payloadOffset = offset;
+                    if (frameAt >= 0) payloadAt = frameAt + offset;
+                    return;
+                }
+                if (arena != null) payloadAt = arena.append(payload, 0, payload.length);
+                if (payloadAt < 0) this.payload = payload;
+            }
         }
 
         public boolean isMine() { return isMine; }
         public boolean isBroadcastOrMulticast() { return isBroadcastOrMulticast; }
-        public String getTime() { return time.get(); }
+        public String getTime() { return formatTime(timestampNanos); }
+        public long getTimestampNanos() { return timestampNanos; }
+        public String getIface() { return iface; }
+        public int getLinkType() { return linkType; }
+        public int getSampleWeight() { return sampleWeight; }
         public String getSource() { return source.get(); }
         public String getDestination() { return destination.get(); }
         public String getProtocol() { return protocol.get(); }
-        public String getLength() { return length.get(); }
+        public int getWireLength() { return wireLength; }
         public String getInfo() { return info.get(); }
-        public String getFullPacketDump() { return fullPacketDump; }
+        //pcap4j's text dump, decoded from the frame each time it is asked for rather than kept on the heap per row
+        public String getFullPacketDump() {
+            byte[] raw = getRawData();
+            if (raw == null) {
+                return frameLen < 0 ? null : "Frame no longer retained: its space in the frame arena (-Djavalens.arenaMiB) was reused for newer packets.";
+            }
+            try {
+                return PacketFactories.getFactory(Packet.class, DataLinkType.class)
+                    .newInstance(raw, 0, raw.length, DataLinkType.getInstance(linkType)).toString();
+            } catch (RuntimeException e) {
+                return "Could not decode frame: " + e.getMessage();
+            }
+        }
         public Integer getSrcPort() { return srcPort; }
         public Integer getDstPort() { return dstPort; }
         public Integer getWindowSize() { return windowSize; }
         public boolean hasFlag(String flag) { return tcpFlags.contains(flag); }
+
+        //TCP flags packed the same way they sit in the TCP header (FIN = bit 0 ... URG = bit 5)
+        public int getTcpFlagBits() {
+            int bits = 0;
+            if (hasFlag("FIN")) bits |= 0x01;
+            if (hasFlag("SYN")) bits |= 0x02;
+            if (hasFlag("RST")) bits |= 0x04;
+            if (hasFlag("PSH")) bits |= 0x08;
+            if (hasFlag("ACK")) bits |= 0x10;
+            if (hasFlag("URG")) bits |= 0x20;
+            return bits;
+        }
         public String getDnsQueryName() { return dnsQueryName; }
         public Integer getIcmpType() { return icmpType; }
         public Integer getIcmpCode() { return icmpCode; }
-        public byte[] getPayload() { return payload; }
+        //Fresh copies out of the arena; null if there is none, or once the arena has evicted it
+        public byte[] getPayload() {
+            if (payloadAt >= 0) return FrameArena.getDefault().copy(payloadAt, payloadLen);
+            if (payloadOffset >= 0) return Arrays.copyOfRange(rawData, payloadOffset, payloadOffset + payloadLen);
+            return payload;
+        }
+        public byte[] getRawData() {
+            if (frameAt < 0) return rawData;
+            return FrameArena.getDefault().copy(frameAt, frameLen);
+        }
+        //Length without copying the bytes; -1 when the row has no payload
+        public int getPayloadLength() { return payloadLen; }
+        //Where the payload starts in getRawData(), or -1 when it isn't a slice of the frame
+        public int getPayloadOffset() { return payloadOffset; }
+        //Payload length on the wire. Larger than getPayloadLength when a short snaplen cut the frame: the payload
+        //runs to the end of the captured frame, so the bytes that were cut off all belong to it.
+        public int getOriginalPayloadLength() {
+            if (originalPayloadLen >= 0 && payloadLen >= 0) return originalPayloadLen;
+            if (payloadLen < 0 || frameLen < 0) return payloadLen;
+            return payloadLen + Math.max(0, wireLength - frameLen);
+        }
         
+        public int getEtherType() { return etherType; }
+        public int getIpProtocol() { return ipProtocol; }
+        public int getTcpAnalysis() { return tcpAnalysis; }
+
+        //Attach TcpAnalyzer findings to the row and spell them out in the info column so they can be filtered on
+        void annotateTcp(int flags) {
+            if (flags == 0) return;
+            tcpAnalysis |= flags;
+            info.set(info.get() + TcpAnalyzer.describe(flags));
+        }
+
+        //For rows restored from a saved session, whose info column already carries the labels
+        void setTcpAnalysis(int flags) { tcpAnalysis = flags; }
+
+        //[source hi, source lo, destination hi, destination lo], see RowOrder.addressKey. Only touched on the FX thread.
+        long[] getAddressKeys() {
+            if (addressKeys == null) {
+                addressKeys = new long[4];
+                RowOrder.addressKey(getSource(), addressKeys, 0);
+                RowOrder.addressKey(getDestination(), addressKeys, 2);
+            }
+            return addressKeys;
+        }
+
+        public Dissector getDissector() {
+            if (dissector == null) dissector = DissectorRegistry.getDefault().lookup(this);
+            return dissector;
+        }
+
+        //Application-level protocol name, e.g. "DNS" or "HTTP"; falls back to the transport/link protocol
+        public String getApplication() { return getDissector().name(); }
+
+        //Deeper per-packet decode from the dissector; only computed the first time something asks for it
+        public String getSummary() {
+            if (!summarized) {
+                summary = getDissector().summarize(this);
+                summarized = true;
+            }
+            return summary;
+        }
+
+        //Cheapest checks first; the dissector summary is only decoded if nothing else matched
         public boolean matches(String q) {
             String lower = q.toLowerCase();
-            return getSource().toLowerCase().contains(lower)
+            if (getSource().toLowerCase().contains(lower)
                 || getDestination().toLowerCase().contains(lower)
-                || getInfo().toLowerCase().contains(lower);
+                || getInfo().toLowerCase().contains(lower)
+                || getApplication().toLowerCase().contains(lower)) {
+                return true;
+            }
+            String sum = getSummary();
+            return sum != null && sum.toLowerCase().contains(lower);
         }
     }
 
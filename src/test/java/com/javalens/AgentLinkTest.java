@@ -0,0 +1,226 @@
+package com.javalens;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Set;
+import java.util.List;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.io.IOException;
+import java.io.DataOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DeflaterOutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.pcap4j.packet.Packet;
+import org.pcap4j.packet.factory.PacketFactories;
+import org.pcap4j.packet.namednumber.DataLinkType;
+
+import com.javalens.Utils.PacketRow;
+
+public class AgentLinkTest {
+    private static final byte[] CHALLENGE = new byte[AgentLink.CHALLENGE_BYTES];
+
+    private static List<PacketRow> synthetic(int n) {
+        SyntheticTraffic gen = new SyntheticTraffic("eth0", 1e9, 100, SyntheticTraffic.Attack.MIXED, 0.1, 5);
+        PacketParser parser = new PacketParser(Set.of("10.0.0.5"), Set.of());
+        List<PacketRow> rows = new ArrayList<>();
+        while (rows.size() < n) {
+            FrameSource.Frame f = gen.next();
+            if (f == null) continue;
+            Packet p = PacketFactories.getFactory(Packet.class, DataLinkType.class).newInstance(f.data(), 0, f.data().length, DataLinkType.EN10MB);
+            PacketRow r = parser.parsePacket(p, f.timestampNanos(), "eth0", DataLinkType.EN10MB, 1, f.wireLength());
+            //The parser says where the payload sits in the frame, so it travels as a slice of it
+            if (r.getPayloadLength() > 0) {
+                int at = r.getPayloadOffset();
+                assertArrayEquals(r.getPayload(), Arrays.copyOfRange(r.getRawData(), at, at + r.getPayloadLength()));
+            }
+            rows.add(r);
+        }
+        return rows;
+    }
+
+    @Test
+    public void agentStreamsRowsOverLoopback() throws Exception {
+        List<PacketRow> sent = synthetic(3000);
+        BlockingQueue<PacketRow> received = new LinkedBlockingQueue<>();
+        PacketParser central = new PacketParser(Set.of(), Set.of());
+        AgentServer server = new AgentServer(0, "127.0.0.1", "s3cret", central, new TimingStats(), received, (t, m) -> { });
+        server.start();
+
+        BlockingQueue<PacketRow> outbox = new LinkedBlockingQueue<>(sent);
+        CaptureAgent.Sender sender = new CaptureAgent.Sender("sensor1", "localhost", server.getPort(), "s3cret", outbox, null,
+            0, 256, TimeUnit.MILLISECONDS.toNanos(5));
+        Thread t = new Thread(sender);
+        t.start();
+        try {
+            List<PacketRow> got = new ArrayList<>();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+            while (got.size() < sent.size() && System.nanoTime() < deadline) {
+                PacketRow r = received.poll(100, TimeUnit.MILLISECONDS);
+                if (r != null) got.add(r);
+            }
+            assertEquals(sent.size(), got.size());
+
+            for (int i = 0; i < sent.size(); i++) {
+                PacketRow a = sent.get(i), b = got.get(i);
+                assertEquals("sensor1/eth0", b.getIface());
+                assertEquals(a.getTimestampNanos(), b.getTimestampNanos());
+                assertEquals(a.getSource(), b.getSource());
+                assertEquals(a.getDestination(), b.getDestination());
+                assertEquals(a.getInfo(), b.getInfo());
+                assertEquals(a.getWireLength(), b.getWireLength());
+                assertEquals(a.getDstPort(), b.getDstPort());
+                assertEquals(a.getTcpFlagBits(), b.getTcpFlagBits());
+                assertEquals(a.getTcpAnalysis(), b.getTcpAnalysis());
+                assertEquals(a.isMine(), b.isMine());
+                assertArrayEquals(a.getRawData(), b.getRawData());
+                assertArrayEquals(a.getPayload(), b.getPayload());
+            }
+            assertEquals(1, server.getLanes().size());
+            assertEquals(sent.size(), server.getLanes().get(0).getPackets());
+            assertTrue(central.getTopTalkers().total(TopTalkers.Dimension.SOURCE, false) > 0, "central bookkeeping ran on agent rows");
+        } finally {
+            sender.stop();
+            t.join(5_000);
+            server.stop();
+        }
+    }
+
+    @Test
+    public void snapAndStringDictionaryLimits() throws IOException {
+        //More distinct addresses than the dictionary holds, and frames cut to 40 bytes (already cut to 100 of their
+        //1000 wire bytes by the agent's own snaplen)
+        List<PacketRow> rows = new ArrayList<>();
+        byte[] frame = new byte[100];
+        for (int i = 0; i < frame.length; i++) frame[i] = (byte) i;
+        byte[] payload = Arrays.copyOfRange(frame, 60, 100);
+        for (int i = 0; i < 70_000; i++) {
+            rows.add(PacketRow.builder().timestampNanos(1_000L * i).iface("en0")
+                .source("10." + (i >> 16) + "." + (i >> 8 & 255) + "." + (i & 255)).destination("10.0.0.1")
+                .protocol("UDP").etherType(0x0800).ipProtocol(17).wireLength(1000).info("x")
+                .srcPort(5000).dstPort(53).payload(payload).payloadOffset(60).rawData(frame)
+                .build());
+        }
+
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        AgentLink.Encoder enc = new AgentLink.Encoder(wire, "s", 40, "", CHALLENGE);
+        enc.writeBatch(rows.subList(0, 35_000), 1, 2, 3);
+        enc.writeBatch(rows.subList(35_000, rows.size()), 4, 5, 6);
+
+        AgentLink.Decoder dec = new AgentLink.Decoder(new ByteArrayInputStream(wire.toByteArray()), "", CHALLENGE);
+        List<PacketRow> back = new ArrayList<>(dec.readBatch());
+        assertEquals(3, dec.getDropped());
+        back.addAll(dec.readBatch());
+        assertEquals(5, dec.getShed());
+
+        assertEquals(rows.size(), back.size());
+        for (int i = 0; i < rows.size(); i += 997) {
+            assertEquals(rows.get(i).getSource(), back.get(i).getSource());
+            assertEquals(1000, back.get(i).getWireLength());
+            assertEquals(40, back.get(i).getRawData().length);
+            assertEquals(40, back.get(i).getPayload().length); // past the snap, so sent inline and capped
+            assertEquals(940, back.get(i).getOriginalPayloadLength()); // but its length on the wire survives
+        }
+        assertEquals(rows.get(69_999).getSource(), back.get(69_999).getSource());
+    }
+
+    @Test
+    public void bigPingsCutByTheSnapStillTripTheRuleCentrally() throws IOException {
+        //A 1200-byte echo request whose payload starts past the 40-byte snap
+        byte[] frame = new byte[14 + 20 + 8 + 1158];
+        byte[] payload = Arrays.copyOfRange(frame, 42, frame.length);
+        PacketRow ping = PacketRow.builder().timestampNanos(1).iface("en0").source("10.0.0.9").destination("10.0.0.1")
+            .protocol("ICMPv4").etherType(0x0800).ipProtocol(1).wireLength(frame.length).icmpType(8).icmpCode(0)
+            .payload(payload).payloadOffset(42).rawData(frame)
+            .build();
+        assertEquals(PacketInspector.ICMP_BIG_ECHO, PacketInspector.rule(ping));
+
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        new AgentLink.Encoder(wire, "s", 40, "", CHALLENGE).writeBatch(List.of(ping), 1, 0, 0);
+        PacketRow back = new AgentLink.Decoder(new ByteArrayInputStream(wire.toByteArray()), "", CHALLENGE).readBatch().get(0);
+
+        assertEquals(40, back.getPayload().length);
+        assertEquals(1158, back.getOriginalPayloadLength());
+        assertEquals(PacketInspector.ICMP_BIG_ECHO, PacketInspector.rule(back));
+    }
+
+    @Test
+    public void decoderRejectsAStreamThatOverfillsTheDictionary() throws IOException {
+        //Hand-written batches that define a new string in every record, past what any encoder would
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        int batch = 40_000;
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(wire))) {
+            out.writeLong(AgentLink.MAGIC);
+            out.writeInt(AgentLink.VERSION);
+            out.writeUTF("evil");
+            out.write(AgentLink.proof("", CHALLENGE, "evil"));
+            for (int n = 0; n < 2; n++) {
+                putVar(out, batch);
+                for (int i = 0; i < 3; i++) putVar(out, 0);
+                for (int i = 0; i < batch; i++) {
+                    putVar(out, 0);                              // timestamp delta
+                    putVar(out, 2);                              // iface: define
+                    byte[] b = ("if" + (n * batch + i)).getBytes(StandardCharsets.UTF_8);
+                    putVar(out, b.length);
+                    out.write(b);
+                    for (int f = 0; f < 5; f++) putVar(out, 0);  // other strings null
+                    for (int f = 0; f < 12; f++) putVar(out, 0); // numbers
+                    putVar(out, 0);                              // no frame
+                    putVar(out, 0);                              // no payload
+                }
+            }
+        }
+        AgentLink.Decoder dec = new AgentLink.Decoder(new ByteArrayInputStream(wire.toByteArray()), "", CHALLENGE);
+        assertEquals(batch, dec.readBatch().size());
+        IOException e = assertThrows(IOException.class, dec::readBatch);
+        assertTrue(e.getMessage().contains("dictionary"), e.getMessage());
+    }
+
+    @Test
+    public void helloMustAnswerThisConnectionsChallengeWithTheSecret() throws IOException {
+        byte[] challenge = new byte[AgentLink.CHALLENGE_BYTES];
+        challenge[0] = 1;
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        new AgentLink.Encoder(wire, "s", 0, "s3cret", challenge).writeBatch(List.of(), 0, 0, 0);
+        byte[] hello = wire.toByteArray();
+
+        assertEquals("s", new AgentLink.Decoder(new ByteArrayInputStream(hello), "s3cret", challenge).getAgentName());
+        assertThrows(IOException.class, () -> new AgentLink.Decoder(new ByteArrayInputStream(hello), "other", challenge));
+        //A recorded hello replayed on a later connection, which got a different challenge
+        assertThrows(IOException.class, () -> new AgentLink.Decoder(new ByteArrayInputStream(hello), "s3cret", CHALLENGE));
+    }
+
+    @Test
+    public void serverOnlyLeavesLoopbackWithASecret() throws IOException {
+        PacketParser central = new PacketParser(Set.of(), Set.of());
+        AgentServer open = new AgentServer(0, "0.0.0.0", "", central, new TimingStats(), new LinkedBlockingQueue<>(), (t, m) -> { });
+        assertThrows(IOException.class, open::start);
+        assertFalse(open.isListening());
+
+        AgentServer local = new AgentServer(0, "127.0.0.1", "", central, new TimingStats(), new LinkedBlockingQueue<>(), (t, m) -> { });
+        local.start();
+        try {
+            assertTrue(local.isListening());
+        } finally {
+            local.stop();
+        }
+    }
+
+    private static void putVar(DataOutputStream out, long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) (v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+}
@@ -0,0 +1,50 @@
+package com.javalens;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.Set;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import com.javalens.Utils.PacketRow;
+
+public class CaptureEngineTest {
+
+    private static SyntheticTraffic source(String name, long seed) {
+        return new SyntheticTraffic(name, 20_000, 20, SyntheticTraffic.Attack.NONE, 0, seed);
+    }
+
+    private static boolean waitUntilClosed(List<CaptureEngine.Lane> lanes) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            if (lanes.stream().noneMatch(CaptureEngine.Lane::isOpen)) return true;
+            Thread.sleep(5);
+        }
+        return false;
+    }
+
+    @Test
+    public void restartingRightAfterStopDoesNotReviveTheOldLanes() throws InterruptedException {
+        BlockingQueue<PacketRow> out = new LinkedBlockingQueue<>();
+        CaptureEngine engine = new CaptureEngine(new PacketParser(Set.of(), Set.of()), new TimingStats(), out, (t, m) -> { });
+
+        engine.startSources(List.of(source("a", 1), source("b", 2)));
+        List<CaptureEngine.Lane> first = engine.getLanes();
+        Thread.sleep(50);
+        engine.stop();
+        engine.startSources(List.of(source("c", 3)));
+        try {
+            assertTrue(engine.isRunning());
+            assertTrue(waitUntilClosed(first), "the first run's capture threads should exit");
+            assertTrue(engine.getLanes().get(0).isOpen());
+        } finally {
+            engine.stop();
+        }
+        assertFalse(engine.isRunning());
+        assertTrue(waitUntilClosed(engine.getLanes()));
+    }
+}
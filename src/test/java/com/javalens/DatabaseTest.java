@@ -0,0 +1,35 @@
+package com.javalens;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+public class DatabaseTest {
+
+    private static long nanos(String instant) {
+        Instant i = Instant.parse(instant);
+        return i.getEpochSecond() * 1_000_000_000L + i.getNano();
+    }
+
+    @Test
+    public void partitionNamesRoundTripThroughTheirDay() {
+        LocalDate day = LocalDate.of(2024, 3, 7);
+        assertEquals("captured_packets_p20240307", Database.partitionName(day));
+        assertEquals(day, Database.partitionDay(Database.partitionName(day)));
+
+        assertNull(Database.partitionDay("captured_packets_legacy"));
+        assertNull(Database.partitionDay("captured_packets_p2024"));
+        assertNull(Database.partitionDay("incidents"));
+    }
+
+    @Test
+    public void capturesFallOnTheirUtcDay() {
+        assertEquals(LocalDate.of(2024, 3, 7), Database.utcDay(nanos("2024-03-07T00:00:00Z")));
+        assertEquals(LocalDate.of(2024, 3, 7), Database.utcDay(nanos("2024-03-07T23:59:59.999999999Z")));
+        assertEquals(LocalDate.of(2024, 3, 8), Database.utcDay(nanos("2024-03-08T00:00:00Z")));
+        assertEquals(LocalDate.of(1970, 1, 1), Database.utcDay(0));
+    }
+}
@@ -0,0 +1,49 @@
+package com.javalens;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Set;
+import java.nio.charset.StandardCharsets;
+
+import com.javalens.Utils.PacketRow;
+
+public class DissectorRegistryTest {
+
+    private static PacketRow row(String proto, int etherType, int ipProto, Integer sp, Integer dp, byte[] payload) {
+        return PacketRow.builder().iface("en0").source("10.0.0.1").destination("10.0.0.2")
+            .protocol(proto).etherType(etherType).ipProtocol(ipProto).wireLength(60)
+            .srcPort(sp).dstPort(dp).payload(payload)
+            .build();
+    }
+
+    @Test
+    public void dispatchesByPortThenProtocolThenEtherType() {
+        assertEquals("DNS", row("UDP", 0x0800, 17, 53211, 53, null).getApplication());
+        assertEquals("HTTPS", row("TCP", 0x0800, 6, 443, 50123, null).getApplication());
+        assertEquals("TCP", row("TCP", 0x0800, 6, 40000, 40001, null).getApplication());
+        assertEquals("ARP", row("ARP", 0x0806, -1, null, null, null).getApplication());
+        assertEquals("OTHER", row("UNKNOWN", 0x88CC, -1, null, null, null).getApplication());
+    }
+
+    @Test
+    public void portsAreLookedUpPerTransport() {
+        assertEquals("UDP", row("UDP", 0x0800, 17, 51000, 443, null).getApplication());
+        assertEquals("TCP", row("TCP", 0x0800, 6, 51000, 67, null).getApplication());
+        assertEquals("TCP", row("TCP", 0x0800, 6, 51000, 123, null).getApplication());
+        assertEquals("DHCP", row("UDP", 0x0800, 17, 68, 67, null).getApplication());
+        assertEquals("NTP", row("UDP", 0x86DD, 17, 123, 123, null).getApplication());
+        assertEquals("DNS", row("TCP", 0x0800, 6, 51000, 53, null).getApplication());
+    }
+
+    @Test
+    public void summarizesHttpRequestLineOnlyWhenAsked() {
+        byte[] req = "GET /index.html HTTP/1.1\r\nHost: example.com\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+        PacketRow r = row("TCP", 0x0800, 6, 51000, 80, req);
+        assertEquals("GET /index.html HTTP/1.1", r.getSummary());
+        assertEquals(true, r.matches("index.html"));
+
+        assertNull(row("TCP", 0x0800, 6, 51000, 80, new byte[] { 1, 2, 3 }).getSummary());
+    }
+}
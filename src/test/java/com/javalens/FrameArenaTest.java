@@ -0,0 +1,148 @@
+package com.javalens;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Arrays;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.javalens.Utils.PacketRow;
+
+public class FrameArenaTest {
+
+    private static byte[] filled(int len, int value) {
+        byte[] b = new byte[len];
+        Arrays.fill(b, (byte) value);
+        return b;
+    }
+
+    @Test
+    public void oldestRecordsAreEvictedFirst() {
+        FrameArena arena = new FrameArena(4 << 20, 1 << 20); // four 1 MiB slabs
+        long[] at = new long[10_000];
+        for (int i = 0; i < at.length; i++) at[i] = arena.append(filled(1_000, i), 0, 1_000);
+
+        //10 MB written into 4 MiB: roughly the newest 4,000 records survive
+        assertNull(arena.copy(at[0], 1_000));
+        assertNull(arena.copy(at[5_000], 1_000));
+        assertArrayEquals(filled(1_000, 9_999), arena.copy(at[9_999], 1_000));
+        assertArrayEquals(filled(1_000, 7_000), arena.copy(at[7_000], 1_000));
+        assertTrue(arena.getEvictedBytes() > 5_000_000);
+
+        //No record straddles a slab boundary
+        for (long pos : at) assertEquals(pos / (1 << 20), (pos + 999) / (1 << 20));
+        assertEquals(-1, arena.append(new byte[(1 << 20) + 1], 0, (1 << 20) + 1));
+    }
+
+    @Test
+    public void readersNeverSeeTornRecords() throws InterruptedException {
+        FrameArena arena = new FrameArena(256 << 10, 64 << 10); // small, so the writer laps readers constantly
+        AtomicLong latest = new AtomicLong(-1);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 400_000; i++) {
+                long pos = arena.append(filled(500, i), 0, 500);
+                latest.set(pos << 8 | (i & 0xff));
+            }
+            done.set(true);
+        });
+        writer.start();
+        long reads = 0, evicted = 0;
+        while (!done.get()) {
+            long l = latest.get();
+            if (l < 0) continue;
+            Thread.onSpinWait();
+            byte[] b = arena.copy(l >>> 8, 500);
+            reads++;
+            if (b == null) {
+                evicted++;
+                continue;
+            }
+            for (byte x : b) {
+                if (x != (byte) l) failure.compareAndSet(null, "torn record at " + (l >>> 8));
+            }
+        }
+        writer.join();
+        assertNull(failure.get());
+        assertTrue(reads > 0);
+        assertTrue(evicted < reads);
+    }
+
+    @Test
+    public void concurrentWritersEachGetTheirOwnBytes() throws InterruptedException {
+        FrameArena arena = new FrameArena(1 << 20, 64 << 10);
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread[] writers = new Thread[4];
+        for (int w = 0; w < writers.length; w++) {
+            int id = w;
+            writers[w] = new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    int value = id << 6 | (i & 63);
+                    long pos = arena.append(filled(300, value), 0, 300);
+                    byte[] b = arena.copy(pos, 300);
+                    if (b == null) continue; // lapped already
+                    for (byte x : b) {
+                        if (x != (byte) value) failure.compareAndSet(null, "writer " + id + " read someone else's bytes at " + pos);
+                    }
+                }
+            });
+            writers[w].start();
+        }
+        for (Thread t : writers) t.join();
+        assertNull(failure.get());
+        assertTrue(arena.getHead() >= 4L * 50_000 * 300, "every append got space of its own");
+    }
+
+    @Test
+    public void runningOutOfDirectMemoryLeavesFramesOnTheHeap() {
+        int[] allocated = new int[1];
+        FrameArena arena = new FrameArena(4 << 10, 1 << 10, size -> {
+            if (allocated[0] == 2) throw new OutOfMemoryError("Cannot reserve direct buffer memory");
+            allocated[0]++;
+            return ByteBuffer.allocate(size);
+        });
+        long first = arena.append(filled(1_000, 1), 0, 1_000);
+        long second = arena.append(filled(1_000, 2), 0, 1_000);
+        assertEquals(-1, arena.append(filled(1_000, 3), 0, 1_000));
+        assertEquals(-1, arena.append(filled(10, 4), 0, 10), "it doesn't keep retrying the allocation");
+        assertEquals(2, allocated[0]);
+        assertArrayEquals(filled(1_000, 1), arena.copy(first, 1_000));
+        assertArrayEquals(filled(1_000, 2), arena.copy(second, 1_000));
+    }
+
+    @Test
+    public void budgetsAreUsedWholeWhateverTheSlabSize() {
+        FrameArena arena = new FrameArena(100 << 20, 64 << 20, ByteBuffer::allocate);
+        assertEquals(100 << 20, arena.getCapacity());
+        assertEquals(-1, arena.append(new byte[(50 << 20) + 1], 0, (50 << 20) + 1), "two 50 MiB slabs");
+        assertEquals(3 << 20, new FrameArena(3 << 20, 64 << 20, ByteBuffer::allocate).getCapacity());
+    }
+
+    @Test
+    public void rowsKeepPayloadsAsSlicesOfTheFrame() {
+        byte[] frame = new byte[80];
+        for (int i = 0; i < frame.length; i++) frame[i] = (byte) i;
+        byte[] payload = Arrays.copyOfRange(frame, 54, 80);
+        PacketRow r = PacketRow.builder().timestampNanos(1L).iface("en0").source("10.0.0.1").destination("10.0.0.2")
+            .protocol("TCP").etherType(0x0800).ipProtocol(6).wireLength(80).srcPort(1).dstPort(2)
+            .payload(payload).payloadOffset(54).rawData(frame)
+            .build();
+
+        long before = FrameArena.getDefault().getHead();
+        assertEquals(54, r.getPayloadOffset());
+        assertArrayEquals(frame, r.getRawData());
+        assertArrayEquals(payload, r.getPayload());
+        assertEquals(26, r.getPayloadLength());
+        assertEquals(before, FrameArena.getDefault().getHead(), "reads don't write");
+        assertFalse(r.getFullPacketDump().isEmpty());
+    }
+}
@@ -0,0 +1,84 @@
+package com.javalens;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.List;
+
+public class HexViewTest {
+
+    //Ethernet + IPv4 (given IHL nibble) + TCP (data offset 5) + 4 payload bytes
+    private static byte[] tcpFrame(int ihlNibble) {
+        byte[] f = new byte[14 + 20 + 20 + 4];
+        f[12] = 0x08; f[13] = 0x00;
+        f[14] = (byte) (0x40 | ihlNibble);
+        f[14 + 9] = 6;
+        f[34 + 12] = 0x50;
+        return f;
+    }
+
+    private static String layout(List<HexView.Field> fields) {
+        StringBuilder sb = new StringBuilder();
+        for (HexView.Field f : fields) sb.append(f.name()).append('[').append(f.start()).append(',').append(f.end()).append(") ");
+        return sb.toString().trim();
+    }
+
+    @Test
+    public void parsesHexInTheUsualSpellings() {
+        byte[] deadbeef = { (byte) 0xde, (byte) 0xad, (byte) 0xbe, (byte) 0xef };
+        assertArrayEquals(deadbeef, HexView.parseHex("de ad be ef"));
+        assertArrayEquals(deadbeef, HexView.parseHex("DEADBEEF"));
+        assertArrayEquals(deadbeef, HexView.parseHex("0xdeadbeef"));
+
+        assertNull(HexView.parseHex(""));
+        assertNull(HexView.parseHex("abc"));
+        assertNull(HexView.parseHex("zz"));
+    }
+
+    @Test
+    public void findsNeedlesFromAnOffset() {
+        byte[] hay = "abcabc".getBytes();
+        assertEquals(0, HexView.indexOf(hay, "abc".getBytes(), 0));
+        assertEquals(3, HexView.indexOf(hay, "abc".getBytes(), 1));
+        assertEquals(-1, HexView.indexOf(hay, "abc".getBytes(), 4));
+        assertEquals(-1, HexView.indexOf(hay, "abcabcd".getBytes(), 0));
+        assertEquals(0, HexView.indexOf(hay, "a".getBytes(), -5));
+    }
+
+    @Test
+    public void laysOutEthernetIpv4TcpAndPayload() {
+        assertEquals("Ethernet[0,14) IPv4[14,34) TCP[34,54) Payload[54,58)", layout(HexView.fieldsOf(tcpFrame(5))));
+    }
+
+    @Test
+    public void malformedHeaderLengthsAreReadAsTheMinimum() {
+        //IHL 0 and 3 are impossible; the fields must still be ordered and non-empty
+        for (int ihl : new int[] { 0, 3 }) {
+            List<HexView.Field> fields = HexView.fieldsOf(tcpFrame(ihl));
+            assertEquals("Ethernet[0,14) IPv4[14,34) TCP[34,54) Payload[54,58)", layout(fields));
+            for (HexView.Field f : fields) assertTrue(f.start() < f.end(), f.toString());
+        }
+
+        byte[] zeroOffset = tcpFrame(5);
+        zeroOffset[34 + 12] = 0;
+        assertEquals("Ethernet[0,14) IPv4[14,34) TCP[34,54) Payload[54,58)", layout(HexView.fieldsOf(zeroOffset)));
+    }
+
+    @Test
+    public void shortOrUnknownFramesGetWhatCanBeShown() {
+        assertTrue(HexView.fieldsOf(new byte[10]).isEmpty());
+
+        byte[] arp = new byte[42];
+        arp[12] = 0x08; arp[13] = 0x06;
+        assertEquals("Ethernet[0,14) ARP[14,42)", layout(HexView.fieldsOf(arp)));
+
+        byte[] vlan = new byte[18 + 20 + 8];
+        vlan[12] = (byte) 0x81; vlan[13] = 0x00;
+        vlan[16] = 0x08; vlan[17] = 0x00;
+        vlan[18] = 0x45; vlan[18 + 9] = 17;
+        assertEquals("Ethernet[0,18) IPv4[18,38) UDP[38,46)", layout(HexView.fieldsOf(vlan)));
+    }
+}
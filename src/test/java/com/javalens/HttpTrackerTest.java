@@ -0,0 +1,82 @@
+package com.javalens;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.Set;
+import java.nio.charset.StandardCharsets;
+
+import com.javalens.Utils.PacketRow;
+
+public class HttpTrackerTest {
+
+    private static PacketRow row(long ts, String src, int sp, String dst, int dp, String payload) {
+        return PacketRow.builder().timestampNanos(ts).iface("en0").source(src).destination(dst)
+            .protocol("TCP").etherType(0x0800).ipProtocol(6).wireLength(200)
+            .srcPort(sp).dstPort(dp).windowSize(1024).payload(payload.getBytes(StandardCharsets.US_ASCII))
+            .build();
+    }
+
+    @Test
+    public void parsesRequestLineAndHost() {
+        HttpParser.Request req = HttpParser.parseRequest(
+            "GET /api/users?id=7 HTTP/1.1\r\nUser-Agent: x\r\nHost: Example.com:8080\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+        assertEquals("GET", req.method());
+        assertEquals("/api/users", req.path());
+        assertEquals("example.com", req.host());
+
+        assertNull(HttpParser.parseRequest("GETTING started with HTTP".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(404, HttpParser.parseResponse("HTTP/1.1 404 Not Found\r\n".getBytes(StandardCharsets.US_ASCII)).status());
+    }
+
+    @Test
+    public void pairsPipelinedRequestsInOrder() {
+        HttpTracker tracker = new HttpTracker();
+        String get = "GET /a HTTP/1.1\r\nHost: svc\r\n\r\n";
+        String post = "POST /b HTTP/1.1\r\nHost: svc\r\n\r\n";
+        record(tracker, row(0, "10.0.0.1", 50000, "10.0.0.2", 80, get));
+        record(tracker, row(1_000_000, "10.0.0.1", 50000, "10.0.0.2", 80, post));
+        record(tracker, row(5_000_000, "10.0.0.2", 80, "10.0.0.1", 50000, "HTTP/1.1 200 OK\r\n\r\n"));
+        record(tracker, row(21_000_000, "10.0.0.2", 80, "10.0.0.1", 50000, "HTTP/1.1 503 Unavailable\r\n\r\n"));
+
+        List<HttpTracker.Endpoint> eps = tracker.snapshot();
+        assertEquals(2, eps.size());
+        HttpTracker.Endpoint a = eps.stream().filter(e -> e.getKey().path().equals("/a")).findFirst().orElseThrow();
+        HttpTracker.Endpoint b = eps.stream().filter(e -> e.getKey().path().equals("/b")).findFirst().orElseThrow();
+        assertEquals(1, a.getStatusClass(2));
+        assertEquals(1, b.getStatusClass(5));
+        assertEquals(5_000_000, a.getLatency().getMax());
+        assertEquals(20_000_000, b.getLatency().getMax());
+    }
+
+    @Test
+    public void countsEveryExchangeFromConcurrentCaptureThreads() throws InterruptedException {
+        HttpTracker tracker = new HttpTracker();
+        String get = "GET /shared HTTP/1.1\r\nHost: svc\r\n\r\n";
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            String client = "10.0.1." + t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    int port = 40000 + i % 500;
+                    record(tracker, row(i * 1_000L, client, port, "10.0.0.2", 80, get));
+                    record(tracker, row(i * 1_000L + 500, "10.0.0.2", 80, client, port, "HTTP/1.1 200 OK\r\n\r\n"));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+
+        HttpTracker.Endpoint ep = tracker.snapshot().get(0);
+        assertEquals(8_000, ep.getRequests());
+        assertEquals(8_000, ep.getResponses());
+        assertEquals(8_000, ep.getLatency().getCount());
+        assertEquals(0, ep.getTimeouts());
+    }
+
+    private static void record(HttpTracker tracker, PacketRow r) {
+        tracker.record(r, HttpParser.parseRequest(r.getPayload()), HttpParser.parseResponse(r.getPayload()));
+    }
+}
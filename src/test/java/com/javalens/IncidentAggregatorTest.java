@@ -0,0 +1,110 @@
+package com.javalens;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
+
+import com.javalens.Utils.PacketRow;
+import com.javalens.IncidentAggregator.Incident;
+
+public class IncidentAggregatorTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    private static PacketRow syn(long ts, String src, String dst, int dstPort) {
+        return PacketRow.builder().timestampNanos(ts).iface("en0").source(src).destination(dst)
+            .protocol("TCP").etherType(0x0800).ipProtocol(6).wireLength(60).info("TCP")
+            .srcPort(40000).dstPort(dstPort).windowSize(16).tcpFlags(Set.of("SYN"))
+            .build();
+    }
+
+    @Test
+    public void scanBecomesOneIncidentWithSamples() {
+        List<Incident> closed = new ArrayList<>();
+        IncidentAggregator agg = new IncidentAggregator(60 * SECOND, 100, closed::add);
+
+        for (int port = 1; port <= 5000; port++) agg.record(syn(port * 1_000_000L, "10.0.0.9", "10.0.0.1", port), "syn-small-window");
+        assertEquals(1, agg.getOpenCount());
+
+        agg.expire(10 * SECOND);
+        assertTrue(closed.isEmpty(), "still inside the window");
+        agg.expire(70 * SECOND);
+        assertEquals(1, closed.size());
+
+        Incident inc = closed.get(0);
+        assertEquals(5000, inc.getPackets());
+        assertEquals(5000 * 60, inc.getBytes());
+        assertEquals("10.0.0.9", inc.getSource());
+        assertEquals(1_000_000L, inc.getFirstSeen());
+        assertEquals(5_000_000_000L, inc.getLastSeen());
+        assertEquals(IncidentAggregator.SAMPLES, inc.getSamples().size());
+    }
+
+    @Test
+    public void gapStartsANewIncident() {
+        List<Incident> closed = new ArrayList<>();
+        IncidentAggregator agg = new IncidentAggregator(60 * SECOND, 100, closed::add);
+        agg.record(syn(0, "10.0.0.9", "10.0.0.1", 1337), "odd-port");
+        agg.record(syn(100 * SECOND, "10.0.0.9", "10.0.0.1", 1337), "odd-port");
+        assertEquals(1, closed.size());
+        assertEquals(1, agg.getOpenCount());
+    }
+
+    @Test
+    public void expiresOnTheCaptureClockNotTheWallClock() {
+        List<Incident> closed = new ArrayList<>();
+        IncidentAggregator agg = new IncidentAggregator(60 * SECOND, 100, closed::add);
+        agg.expire();
+        assertEquals(Long.MIN_VALUE, agg.captureNow());
+
+        //A replayed capture from years ago: by the wall clock it would be long expired
+        long then = 1_000_000_000L * SECOND;
+        agg.record(syn(then, "10.0.0.9", "10.0.0.1", 1337), "odd-port");
+        long now = agg.captureNow();
+        assertTrue(now >= then && now < then + 10 * SECOND, String.valueOf(now - then));
+        agg.expire();
+        assertTrue(closed.isEmpty());
+        assertEquals(1, agg.getOpenCount());
+    }
+
+    @Test
+    public void rateLimitFoldsExtraSourcesTogether() {
+        List<Incident> closed = new ArrayList<>();
+        IncidentAggregator agg = new IncidentAggregator(60 * SECOND, 10, closed::add);
+
+        //Spoofed flood: every packet from a different source within one second
+        for (int i = 0; i < 1000; i++) agg.record(syn(i * 1_000_000L, "172.16." + (i / 256) + "." + (i % 256), "10.0.0.1", 80), "syn-small-window");
+
+        assertEquals(11, agg.getOpenCount()); // 10 individual incidents plus the aggregated one
+        assertEquals(990, agg.getFolded());
+        agg.flush(2 * SECOND);
+        Incident many = closed.stream().filter(Incident::isAggregated).findFirst().orElseThrow();
+        assertEquals(990, many.getPackets());
+    }
+
+    @Test
+    public void concurrentCaptureThreadsLoseNoPackets() throws InterruptedException {
+        List<Incident> closed = Collections.synchronizedList(new ArrayList<>());
+        IncidentAggregator agg = new IncidentAggregator(60 * SECOND, 50, closed::add);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    agg.record(syn(i * 1_000L, "172.16." + id + "." + (i % 100), "10.0.0.1", 80), "syn-small-window");
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+
+        assertEquals(50 + 1, agg.getOpenCount()); // the rule's budget, then everything else in the aggregated one
+        agg.flush(SECOND);
+        assertEquals(40_000, closed.stream().mapToLong(Incident::getPackets).sum());
+        assertEquals(1, closed.stream().filter(Incident::isAggregated).count());
+    }
+}
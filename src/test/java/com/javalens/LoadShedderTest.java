@@ -0,0 +1,132 @@
+package com.javalens;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.pcap4j.packet.namednumber.DataLinkType;
+
+import com.javalens.Utils.PacketRow;
+
+public class LoadShedderTest {
+
+    //Minimal Ethernet + IPv4 + TCP/UDP header, enough for the raw pre-check
+    private static byte[] frame(int proto, int srcIp, int srcPort, int dstPort, int tcpFlags) {
+        byte[] f = new byte[14 + 20 + 20];
+        f[12] = 0x08; f[13] = 0x00;
+        f[14] = 0x45;
+        f[14 + 9] = (byte) proto;
+        f[14 + 12] = (byte) (srcIp >>> 24); f[14 + 13] = (byte) (srcIp >>> 16);
+        f[14 + 14] = (byte) (srcIp >>> 8);  f[14 + 15] = (byte) srcIp;
+        f[14 + 16] = 10; f[14 + 19] = 1;
+        f[34] = (byte) (srcPort >>> 8); f[35] = (byte) srcPort;
+        f[36] = (byte) (dstPort >>> 8); f[37] = (byte) dstPort;
+        f[34 + 13] = (byte) tcpFlags;
+        return f;
+    }
+
+    //Ethernet + IPv6 (optionally with an 8-byte hop-by-hop header) + TCP/UDP header
+    private static byte[] frame6(int proto, int srcLow, int srcPort, int dstPort, int tcpFlags, boolean hopByHop) {
+        int l4 = 14 + 40 + (hopByHop ? 8 : 0);
+        byte[] f = new byte[l4 + 20];
+        f[12] = (byte) 0x86; f[13] = (byte) 0xDD;
+        f[14] = 0x60;
+        f[14 + 6] = (byte) (hopByHop ? 0 : proto);
+        f[14 + 8] = 0x20; f[14 + 9] = 0x01;
+        f[14 + 22] = (byte) (srcLow >>> 8); f[14 + 23] = (byte) srcLow;
+        f[14 + 24] = 0x20; f[14 + 25] = 0x01; f[14 + 39] = 1;
+        if (hopByHop) f[54] = (byte) proto;
+        f[l4] = (byte) (srcPort >>> 8); f[l4 + 1] = (byte) srcPort;
+        f[l4 + 2] = (byte) (dstPort >>> 8); f[l4 + 3] = (byte) dstPort;
+        f[l4 + 13] = (byte) tcpFlags;
+        return f;
+    }
+
+    private static LoadShedder overloaded() {
+        LoadShedder s = new LoadShedder();
+        s.update(1_000_000_000L, 1_000_000, 0);
+        assertTrue(s.isOverloaded());
+        return s;
+    }
+
+    @Test
+    public void admitsEverythingWhenNotOverloaded() {
+        LoadShedder s = new LoadShedder();
+        assertEquals(1, s.admit(frame(6, 0x0a000002, 51000, 443, 0x10), DataLinkType.EN10MB, 60));
+    }
+
+    @Test
+    public void alwaysKeepsPotentiallySuspiciousTraffic() {
+        LoadShedder s = overloaded();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(1, s.admit(frame(17, 0x0a000000 + i, 40000 + i, 53, 0), DataLinkType.EN10MB, 60));
+            assertEquals(1, s.admit(frame(6, 0x0a000000 + i, 40000 + i, 80, 0x02), DataLinkType.EN10MB, 60));
+        }
+        assertEquals(0, s.getShed());
+    }
+
+    @Test
+    public void judgesBigPingsByTheirLengthOnTheWire() {
+        LoadShedder s = overloaded();
+        //A 1500-byte echo request cut to 54 bytes by the snaplen is still a big ping
+        byte[] ping = frame(1, 0x0a000002, 0, 0, 0);
+        ping[34] = 8;
+        for (int i = 0; i < 100; i++) assertEquals(1, s.admit(ping, DataLinkType.EN10MB, 1514));
+        assertEquals(0, s.getShed());
+
+        PacketRow row = PacketRow.builder().source("10.0.0.2").destination("10.0.0.1").protocol("ICMPV4")
+            .etherType(0x0800).ipProtocol(1).wireLength(1514).icmpType(8).icmpCode(0)
+            .payload(Arrays.copyOfRange(ping, 42, ping.length)).payloadOffset(42).rawData(ping)
+            .build();
+        assertEquals(12, row.getPayloadLength());
+        assertEquals(12 + 1514 - ping.length, row.getOriginalPayloadLength());
+        assertEquals(PacketInspector.ICMP_BIG_ECHO, PacketInspector.rule(row));
+    }
+
+    @Test
+    public void samplesRoutineFlowsAndWeightsSurvivors() {
+        LoadShedder s = overloaded();
+        int kept = 0;
+        for (int i = 0; i < 10_000; i++) {
+            int w = s.admit(frame(6, 0x0a000000 + i, 40000 + (i % 20000), 443, 0x10), DataLinkType.EN10MB, 60);
+            if (w > 0) {
+                assertEquals(s.getSampleRate(), w);
+                kept++;
+            }
+        }
+        //1 in 2 flows, give or take hashing noise
+        assertTrue(kept > 4_000 && kept < 6_000, "kept " + kept);
+        assertEquals(10_000 - kept, s.getShed());
+    }
+
+    @Test
+    public void ipv6GetsTheSamePreCheckAndFlowSampling() {
+        LoadShedder s = overloaded();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(1, s.admit(frame6(17, i, 40000 + i, 53, 0, false), DataLinkType.EN10MB, 90));
+            assertEquals(1, s.admit(frame6(6, i, 40000 + i, 80, 0x02, false), DataLinkType.EN10MB, 90));
+            assertEquals(1, s.admit(frame6(6, i, 40000 + i, 31337, 0x10, true), DataLinkType.EN10MB, 90));
+        }
+        assertEquals(0, s.getShed());
+
+        int kept = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (s.admit(frame6(6, i, 40000 + (i % 20000), 443, 0x10, i % 2 == 0), DataLinkType.EN10MB, 90) > 0) kept++;
+        }
+        assertTrue(kept > 4_000 && kept < 6_000, "kept " + kept);
+    }
+
+    @Test
+    public void walksIpv6ExtensionHeaders() {
+        byte[] f = frame6(6, 1, 1234, 443, 0x10, true);
+        assertEquals(6L << 32 | 62, LoadShedder.ipv6Upper(f, 14));
+
+        //Later fragments and truncated chains have no visible ports
+        f[14 + 6] = 44;
+        f[54] = 6; f[56] = 0x01;
+        assertEquals(-1, LoadShedder.ipv6Upper(f, 14));
+        assertEquals(-1, LoadShedder.ipv6Upper(Arrays.copyOf(frame6(6, 1, 1, 2, 0, true), 55), 14));
+    }
+}
@@ -0,0 +1,92 @@
+package com.javalens;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+import java.util.ArrayList;
+import java.util.Comparator;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.ListChangeListener;
+
+public class MergeSortedListTest {
+
+    //Replays every change event onto a plain list, so the events (not just the final state) are checked
+    private static <E> List<E> mirror(ObservableList<E> view) {
+        List<E> copy = new ArrayList<>(view);
+        view.addListener((ListChangeListener<E>) c -> {
+            while (c.next()) {
+                if (c.wasPermutated()) {
+                    List<E> before = new ArrayList<>(copy.subList(c.getFrom(), c.getTo()));
+                    for (int i = c.getFrom(); i < c.getTo(); i++) copy.set(c.getPermutation(i), before.get(i - c.getFrom()));
+                } else {
+                    for (int i = 0; i < c.getRemovedSize(); i++) copy.remove(c.getFrom());
+                    copy.addAll(c.getFrom(), c.getAddedSubList());
+                }
+            }
+        });
+        return copy;
+    }
+
+    private static List<Integer> expected(List<Integer> source, Comparator<Integer> order) {
+        List<Integer> e = new ArrayList<>(source);
+        if (order != null) e.sort(order); // List.sort is stable, matching the source-index tie break
+        return e;
+    }
+
+    @Test
+    public void liveAppendAndTrimStaysSorted() {
+        Random rnd = new Random(3);
+        ObservableList<Integer> source = FXCollections.observableArrayList();
+        MergeSortedList<Integer> view = new MergeSortedList<>(source);
+        List<Integer> seen = mirror(view);
+        Comparator<Integer> byTens = Comparator.comparingInt(v -> v / 10);
+
+        int next = 0;
+        for (int pulse = 0; pulse < 300; pulse++) {
+            if (pulse == 50) view.setComparator(Comparator.naturalOrder());
+            if (pulse == 120) view.setComparator(Comparator.<Integer>naturalOrder().reversed());
+            if (pulse == 200) view.setComparator(byTens);
+            if (pulse == 260) view.setComparator(null);
+
+            //Mostly increasing values, like capture timestamps, with the odd straggler
+            List<Integer> batch = new ArrayList<>();
+            for (int i = rnd.nextInt(40); i > 0; i--) batch.add(rnd.nextInt(10) == 0 ? next - rnd.nextInt(500) : next++);
+            source.addAll(batch);
+            int excess = source.size() - 1000;
+            if (excess > 0) source.remove(0, excess);
+            if (pulse % 17 == 0 && !source.isEmpty()) source.remove(rnd.nextInt(source.size()));
+
+            List<Integer> want = expected(source, view.getComparator() == null ? null : (Comparator<Integer>) view.getComparator());
+            assertEquals(want, view);
+            assertEquals(want, seen);
+        }
+        for (int v = 0; v < view.size(); v++) assertEquals(v, view.getViewIndex(view.getSourceIndex(v)));
+    }
+
+    @Test
+    public void scatteredChangesThroughAFilter() {
+        Random rnd = new Random(11);
+        ObservableList<Integer> source = FXCollections.observableArrayList();
+        for (int i = 0; i < 200; i++) source.add(rnd.nextInt(1000));
+        var filtered = source.filtered(v -> v % 3 != 0);
+        MergeSortedList<Integer> view = new MergeSortedList<>(filtered);
+        view.setComparator(Comparator.naturalOrder());
+        List<Integer> seen = mirror(view);
+
+        for (int round = 0; round < 200; round++) {
+            switch (rnd.nextInt(4)) {
+                case 0 -> source.add(rnd.nextInt(source.size() + 1), rnd.nextInt(1000));
+                case 1 -> { if (!source.isEmpty()) source.remove(rnd.nextInt(source.size())); }
+                case 2 -> { if (!source.isEmpty()) source.set(rnd.nextInt(source.size()), rnd.nextInt(1000)); }
+                default -> source.setAll(new ArrayList<>(source.subList(0, source.size() / 2)));
+            }
+            if (source.size() < 20) for (int i = 0; i < 50; i++) source.add(rnd.nextInt(1000));
+            assertEquals(expected(filtered, Comparator.naturalOrder()), view);
+            assertEquals(view, seen);
+        }
+    }
+}
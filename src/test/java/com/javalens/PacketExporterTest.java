@@ -0,0 +1,43 @@
+package com.javalens;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.javalens.Utils.PacketRow;
+
+public class PacketExporterTest {
+
+    private static PacketRow row(String info, String dnsName, Integer srcPort) {
+        return PacketRow.builder().timestampNanos(1_700_000_000_123_456_789L).iface("en0")
+            .source("10.0.0.1").destination("8.8.8.8").protocol("UDP").etherType(0x0800).ipProtocol(17)
+            .wireLength(74).sampleWeight(4).info(info).mine(true).srcPort(srcPort).dstPort(53).dnsQueryName(dnsName)
+            .build();
+    }
+
+    @Test
+    public void csvQuotesOnlyFieldsThatNeedIt() {
+        PacketRow r = row("UDP 5000 → 53", null, 5000);
+        assertEquals("1700000000123456789," + r.getTime() + ",en0,10.0.0.1,8.8.8.8,UDP,DNS,5000,53,74,4,UDP 5000 → 53\n",
+            PacketExporter.toCsv(r));
+
+        PacketRow odd = row("say \"hi\", twice\nplease", null, null);
+        assertEquals("1700000000123456789," + odd.getTime() + ",en0,10.0.0.1,8.8.8.8,UDP,UDP,,53,74,4,\"say \"\"hi\"\", twice\nplease\"\n",
+            PacketExporter.toCsv(odd));
+
+        PacketRow cr = row("HTTP/1.1 200 OK\rX", null, null);
+        assertEquals("1700000000123456789," + cr.getTime() + ",en0,10.0.0.1,8.8.8.8,UDP,UDP,,53,74,4,\"HTTP/1.1 200 OK\rX\"\n",
+            PacketExporter.toCsv(cr));
+    }
+
+    @Test
+    public void jsonEscapesStringsAndOmitsMissingFields() {
+        assertEquals("{\"timestamp_ns\":1700000000123456789,\"iface\":\"en0\",\"source\":\"10.0.0.1\",\"destination\":\"8.8.8.8\","
+                + "\"protocol\":\"UDP\",\"application\":\"DNS\",\"src_port\":5000,\"dst_port\":53,\"length\":74,\"sample_weight\":4,"
+                + "\"dns_qname\":\"example.com\",\"info\":\"a\\\"b\\\\c\\n\\u0001\",\"is_mine\":true}\n",
+            PacketExporter.toJson(row("a\"b\\c\n\u0001", "example.com", 5000)));
+
+        String noPort = PacketExporter.toJson(row("x", null, null));
+        assertFalse(noPort.contains("src_port") || noPort.contains("dns_qname"), noPort);
+    }
+}
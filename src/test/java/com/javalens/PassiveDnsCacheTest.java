@@ -0,0 +1,30 @@
+package com.javalens;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class PassiveDnsCacheTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    public void namesExpireAfterTtlPlusGrace() {
+        PassiveDnsCache cache = new PassiveDnsCache();
+        cache.put("93.184.216.34", "example.com", 60, 0);
+
+        assertEquals("example.com", cache.lookup("93.184.216.34", 61 * SECOND));
+        assertEquals("example.com", cache.lookup("93.184.216.34", 600 * SECOND));
+        assertNull(cache.lookup("93.184.216.34", 661 * SECOND));
+        //Rows render in any order: an expired lookup for a late row must not lose the name for earlier rows
+        assertEquals("example.com", cache.lookup("93.184.216.34", 30 * SECOND));
+        assertNull(cache.lookup("10.0.0.1", 0));
+    }
+
+    @Test
+    public void laterAnswerForSameAddressWins() {
+        PassiveDnsCache cache = new PassiveDnsCache();
+        cache.put("1.2.3.4", "a.example", 300, 0);
+        cache.put("1.2.3.4", "b.example", 300, 10 * SECOND);
+        assertEquals("b.example", cache.lookup("1.2.3.4", 20 * SECOND));
+    }
+}
@@ -0,0 +1,103 @@
+package com.javalens;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.List;
+import java.util.Random;
+import java.nio.charset.StandardCharsets;
+
+public class PayloadMatcherTest {
+
+    private static byte[] b(String s) { return s.getBytes(StandardCharsets.UTF_8); }
+
+    @Test
+    public void parsesTextWithHexSegments() {
+        assertArrayEquals(b("GET /admin"), PayloadMatcher.parse("GET |2f|admin"));
+        assertArrayEquals(new byte[] {0x4d, 0x5a, (byte) 0x90, 0x00}, PayloadMatcher.parse("|4d 5a 90 00|"));
+        assertArrayEquals(new byte[] {'a', 0x0d, 0x0a, 'b'}, PayloadMatcher.parse("a|0D0a|b"));
+        assertThrows(IllegalArgumentException.class, () -> PayloadMatcher.parse("|4d 5|"));
+        assertThrows(IllegalArgumentException.class, () -> PayloadMatcher.parse("abc|zz|"));
+        assertThrows(IllegalArgumentException.class, () -> PayloadMatcher.parse("open |4d"));
+        assertThrows(IllegalArgumentException.class, () -> PayloadMatcher.compile(List.of("", "  "), false));
+    }
+
+    @Test
+    public void findsEarliestEndingPattern() {
+        PayloadMatcher m = PayloadMatcher.compile(List.of("he", "she", "his", "hers"), false);
+        //"ushers": "she" and "he" both end at index 3; the shorter one is reported
+        PayloadMatcher.Match hit = m.find(b("ushers"));
+        assertEquals("he", m.getPatterns().get(hit.pattern()));
+        assertEquals(2, hit.offset());
+
+        hit = m.find(b("xxhixhis"));
+        assertEquals("his", m.getPatterns().get(hit.pattern()));
+        assertEquals(5, hit.offset());
+
+        assertNull(m.find(b("nothing to see")));
+        assertNull(m.find(null));
+        //Only the first len bytes count
+        assertNull(m.find(b("xxhis"), 4));
+    }
+
+    @Test
+    public void ignoreCaseFoldsAsciiLettersOnly() {
+        PayloadMatcher exact = PayloadMatcher.compile(List.of("Authorization: Basic"), false);
+        PayloadMatcher folded = PayloadMatcher.compile(List.of("Authorization: Basic"), true);
+        byte[] header = b("GET / HTTP/1.1\r\nAUTHORIZATION: basic Zm9vOmJhcg==\r\n");
+
+        assertNull(exact.find(header));
+        assertEquals(16, folded.find(header).offset());
+
+        PayloadMatcher bin = PayloadMatcher.compile(List.of("|c1|"), true);
+        assertNull(bin.find(new byte[] {(byte) 0xe1}));
+        assertEquals(1, bin.find(new byte[] {0, (byte) 0xc1}).offset());
+    }
+
+    @Test
+    public void agreesWithNaiveSearchOnRandomData() {
+        Random rnd = new Random(7);
+        List<String> pats = List.of("|00 01|", "|01 00 01|", "|02|", "|03 03 03|");
+        PayloadMatcher m = PayloadMatcher.compile(pats, false);
+        byte[][] raw = pats.stream().map(PayloadMatcher::parse).toArray(byte[][]::new);
+
+        for (int round = 0; round < 2_000; round++) {
+            byte[] data = new byte[rnd.nextInt(40)];
+            for (int i = 0; i < data.length; i++) data[i] = (byte) rnd.nextInt(4);
+
+            //Naive: the smallest end position over all patterns, shortest pattern on a tie
+            int bestEnd = Integer.MAX_VALUE, bestLen = 0, bestAt = -1;
+            for (byte[] p : raw) {
+                for (int at = 0; at + p.length <= data.length; at++) {
+                    boolean eq = true;
+                    for (int k = 0; k < p.length && eq; k++) eq = data[at + k] == p[k];
+                    int end = at + p.length - 1;
+                    if (eq && (end < bestEnd || end == bestEnd && p.length < bestLen)) {
+                        bestEnd = end;
+                        bestLen = p.length;
+                        bestAt = at;
+                    }
+                }
+            }
+
+            PayloadMatcher.Match hit = m.find(data);
+            if (bestAt < 0) {
+                assertNull(hit);
+            } else {
+                assertEquals(bestAt, hit.offset());
+                assertEquals(bestLen, raw[hit.pattern()].length);
+            }
+        }
+    }
+
+    @Test
+    public void contextShowsPrintableBytesAroundHit() {
+        byte[] p = b("0123456789abcdefghijklmnopqrstuvwxyz0123456789");
+        p[20] = 0x00;
+        assertEquals("…89abcdefghij.lmnopqrstuvwxyz01234567…", PayloadSearchView.context(p, 20));
+        assertEquals("abc", PayloadSearchView.context(b("abc"), 0));
+    }
+}
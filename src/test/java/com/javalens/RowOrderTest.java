@@ -0,0 +1,48 @@
+package com.javalens;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.stream.Collectors;
+
+import com.javalens.Utils.PacketRow;
+
+public class RowOrderTest {
+
+    private static PacketRow row(long ts, String src, int len, Integer srcPort) {
+        return PacketRow.builder().timestampNanos(ts).iface("en0").source(src).destination("10.0.0.1")
+            .protocol("TCP").etherType(0x0800).ipProtocol(6).wireLength(len).srcPort(srcPort).dstPort(80)
+            .build();
+    }
+
+    @Test
+    public void lengthSortsAsANumber() {
+        assertTrue(RowOrder.LENGTH.compare(row(0, "1.1.1.1", 60, 1), row(0, "1.1.1.1", 1000, 1)) < 0);
+        assertEquals(1514, row(0, "1.1.1.1", 1514, 1).getWireLength());
+    }
+
+    @Test
+    public void addressesSortInBinaryOrder() {
+        List<PacketRow> list = new ArrayList<>(List.of(
+            row(0, "?", 60, null),
+            row(0, "fe80:0:0:0:1:2:3:4%en0", 60, 1),
+            row(0, "10.0.0.1", 60, 1),
+            row(0, "2001:db8:0:0:0:0:0:1", 60, 1),
+            row(0, "9.255.0.1", 60, 1),
+            row(0, "192.168.1.20", 60, 1),
+            row(0, "192.168.1.3", 60, 1)));
+        list.sort(RowOrder.SOURCE);
+        assertEquals(List.of("9.255.0.1", "10.0.0.1", "192.168.1.3", "192.168.1.20",
+                "2001:db8:0:0:0:0:0:1", "fe80:0:0:0:1:2:3:4%en0", "?"),
+            list.stream().map(PacketRow::getSource).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void rowsWithoutPortsSortFirst() {
+        assertTrue(RowOrder.SRC_PORT.compare(row(0, "?", 60, null), row(0, "?", 60, 0)) < 0);
+        assertTrue(RowOrder.SRC_PORT.compare(row(0, "?", 60, 443), row(0, "?", 60, 8080)) < 0);
+    }
+}
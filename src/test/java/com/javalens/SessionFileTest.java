@@ -0,0 +1,91 @@
+package com.javalens;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Set;
+import java.util.List;
+import java.util.ArrayList;
+import java.nio.file.Path;
+import java.nio.file.Files;
+import java.io.IOException;
+
+import org.pcap4j.packet.Packet;
+import org.pcap4j.packet.factory.PacketFactories;
+import org.pcap4j.packet.namednumber.DataLinkType;
+
+import com.javalens.Utils.PacketRow;
+
+public class SessionFileTest {
+
+    @Test
+    public void rowsRoundTripWithRandomAccess(@TempDir Path dir) throws IOException {
+        SyntheticTraffic gen = new SyntheticTraffic("synth", 1e9, 100, SyntheticTraffic.Attack.MIXED, 0.1, 7);
+        PacketParser parser = new PacketParser(Set.of("10.0.0.5"), Set.of());
+        List<PacketRow> saved = new ArrayList<>();
+        while (saved.size() < 3000) {
+            FrameSource.Frame f = gen.next();
+            if (f == null) continue;
+            Packet p = PacketFactories.getFactory(Packet.class, DataLinkType.class).newInstance(f.data(), 0, f.data().length, DataLinkType.EN10MB);
+            saved.add(parser.parsePacket(p, f.timestampNanos(), "synth", DataLinkType.EN10MB, 1, f.wireLength()));
+        }
+
+        Path file = dir.resolve("s.jlsession");
+        try (SessionFile.Writer w = new SessionFile.Writer(file)) {
+            for (PacketRow r : saved) w.append(r);
+        }
+
+        try (SessionFile.Reader in = new SessionFile.Reader(file)) {
+            assertEquals(saved.size(), in.size());
+            //Back to front, so nothing depends on reading in order
+            for (int i = saved.size() - 1; i >= 0; i--) {
+                PacketRow a = saved.get(i), b = in.row(i);
+                assertEquals(a.getTimestampNanos(), in.getTimestampNanos(i));
+                assertEquals(a.getTimestampNanos(), b.getTimestampNanos());
+                assertEquals(a.getSource(), b.getSource());
+                assertEquals(a.getDestination(), b.getDestination());
+                assertEquals(a.getProtocol(), b.getProtocol());
+                assertEquals(a.getInfo(), b.getInfo());
+                assertEquals(a.getWireLength(), b.getWireLength());
+                assertEquals(a.getSrcPort(), b.getSrcPort());
+                assertEquals(a.getWindowSize(), b.getWindowSize());
+                assertEquals(a.getTcpFlagBits(), b.getTcpFlagBits());
+                assertEquals(a.getTcpAnalysis(), b.getTcpAnalysis());
+                assertEquals(a.getDnsQueryName(), b.getDnsQueryName());
+                assertEquals(a.getIcmpType(), b.getIcmpType());
+                assertEquals(a.isMine(), b.isMine());
+                assertArrayEquals(a.getRawData(), b.getRawData());
+                assertArrayEquals(a.getPayload(), b.getPayload());
+                assertEquals(PacketInspector.suspiciousPacket(a), in.isSuspicious(i));
+            }
+        }
+    }
+
+    @Test
+    public void missingFieldsStayMissing(@TempDir Path dir) throws IOException {
+        PacketRow r = PacketRow.builder().timestampNanos(5L).iface("en0").wireLength(60).info("x")
+            .payload(new byte[] {9, 9}).rawData(new byte[] {1, 2, 3})
+            .build();
+        Path file = dir.resolve("one.jlsession");
+        try (SessionFile.Writer w = new SessionFile.Writer(file)) {
+            w.append(r);
+        }
+        try (SessionFile.Reader in = new SessionFile.Reader(file)) {
+            PacketRow b = in.row(0);
+            assertNull(b.getSrcPort());
+            assertNull(b.getDnsQueryName());
+            assertArrayEquals(new byte[] {9, 9}, b.getPayload()); // not inside the frame, so stored inline
+            assertArrayEquals(new byte[] {1, 2, 3}, b.getRawData());
+        }
+    }
+
+    @Test
+    public void rejectsOtherFiles(@TempDir Path dir) throws IOException {
+        Path file = Files.write(dir.resolve("x.jlsession"), new byte[100]);
+        assertThrows(IOException.class, () -> new SessionFile.Reader(file));
+    }
+}
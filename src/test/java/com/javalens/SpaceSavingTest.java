@@ -0,0 +1,78 @@
+package com.javalens;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.ArrayList;
+
+public class SpaceSavingTest {
+
+    @Test
+    public void exactWhileUnderCapacity() {
+        SpaceSaving<String> ss = new SpaceSaving<>(10);
+        for (int i = 0; i < 5; i++) ss.offer("a");
+        ss.offer("b", 3);
+        ss.offer("c");
+
+        List<SpaceSaving.Entry<String>> top = ss.top(2);
+        assertEquals("a", top.get(0).key());
+        assertEquals(5, top.get(0).count());
+        assertEquals(0, top.get(0).error());
+        assertEquals("b", top.get(1).key());
+        assertEquals(9, ss.getTotal());
+    }
+
+    @Test
+    public void heavyHittersSurviveManyDistinctKeys() {
+        SpaceSaving<String> ss = new SpaceSaving<>(50);
+        //100k one-off keys interleaved with two heavy keys
+        for (int i = 0; i < 100_000; i++) {
+            ss.offer("scan-" + i);
+            if (i % 10 == 0) ss.offer("heavy1");
+            if (i % 20 == 0) ss.offer("heavy2");
+        }
+
+        assertEquals(50, ss.size());
+        List<SpaceSaving.Entry<String>> top = ss.top(2);
+        assertEquals("heavy1", top.get(0).key());
+        assertEquals("heavy2", top.get(1).key());
+        //Counts never under-estimate, and the guaranteed part never over-estimates
+        assertTrue(top.get(0).count() >= 10_000 && top.get(0).guaranteed() <= 10_000);
+        assertTrue(top.get(1).count() >= 5_000 && top.get(1).guaranteed() <= 5_000);
+    }
+
+    @Test
+    public void mergedSummariesKeepTheGuarantees() {
+        //Four threads' worth of streams: the heavy key is spread thinly over all of them among one-off keys
+        List<SpaceSaving<String>> parts = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            SpaceSaving<String> ss = new SpaceSaving<>(50);
+            for (int i = 0; i < 25_000; i++) {
+                ss.offer("scan-" + p + "-" + i);
+                if (i % 10 == 0) ss.offer("heavy");
+                if (p == 0 && i % 20 == 0) ss.offer("local");
+            }
+            parts.add(ss);
+        }
+
+        SpaceSaving<String> merged = SpaceSaving.merge(parts, 50);
+        assertEquals(50, merged.size());
+        assertEquals(4 * 25_000 + 10_000 + 1_250, merged.getTotal());
+        List<SpaceSaving.Entry<String>> top = merged.top(2);
+        assertEquals("heavy", top.get(0).key());
+        assertEquals("local", top.get(1).key());
+        assertTrue(top.get(0).count() >= 10_000 && top.get(0).guaranteed() <= 10_000);
+        assertTrue(top.get(1).count() >= 1_250 && top.get(1).guaranteed() <= 1_250);
+
+        //Merging summaries that never filled up is exact
+        SpaceSaving<String> a = new SpaceSaving<>(10), b = new SpaceSaving<>(10);
+        a.offer("x", 3);
+        b.offer("x", 4);
+        b.offer("y");
+        List<SpaceSaving.Entry<String>> exact = SpaceSaving.merge(List.of(a, b), 10).top(2);
+        assertEquals(new SpaceSaving.Entry<>("x", 7, 0), exact.get(0));
+        assertEquals(new SpaceSaving.Entry<>("y", 1, 0), exact.get(1));
+    }
+}
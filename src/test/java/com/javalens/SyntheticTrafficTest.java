@@ -0,0 +1,46 @@
+package com.javalens;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import java.util.Map;
+import java.util.HashMap;
+
+import org.pcap4j.packet.Packet;
+import org.pcap4j.packet.factory.PacketFactories;
+import org.pcap4j.packet.namednumber.DataLinkType;
+
+import com.javalens.Utils.PacketRow;
+
+public class SyntheticTrafficTest {
+
+    @Test
+    public void framesDecodeIntoTheExpectedMix() {
+        SyntheticTraffic gen = new SyntheticTraffic("synth", 1e9, 200, SyntheticTraffic.Attack.MIXED, 0.1, 1);
+        PacketParser parser = new PacketParser(Set.of(), Set.of());
+        Map<String, Integer> protocols = new HashMap<>();
+        int suspicious = 0, http = 0;
+
+        for (int i = 0; i < 5000; i++) {
+            FrameSource.Frame f = gen.next();
+            if (f == null) continue;
+            byte[] raw = f.data();
+            if (raw[12] == 0x08 && raw[13] == 0x00) assertEquals(0, SyntheticTraffic.checksum(raw, 14, 20), "IPv4 header checksum");
+
+            Packet p = PacketFactories.getFactory(Packet.class, DataLinkType.class).newInstance(raw, 0, raw.length, DataLinkType.EN10MB);
+            PacketRow row = parser.parsePacket(p, f.timestampNanos(), "synth", DataLinkType.EN10MB, 1, f.wireLength());
+            protocols.merge(row.getProtocol(), 1, Integer::sum);
+            if (PacketInspector.suspiciousPacket(row)) suspicious++;
+            if (row.getInfo().startsWith("HTTP")) http++;
+        }
+
+        assertTrue(protocols.getOrDefault("TCP", 0) > 1000, protocols.toString());
+        assertTrue(protocols.getOrDefault("UDP", 0) > 300, protocols.toString());
+        assertTrue(protocols.getOrDefault("ARP", 0) > 0, protocols.toString());
+        assertTrue(suspicious > 100, "attack traffic should be flagged, got " + suspicious);
+        assertTrue(http > 0, "plain HTTP flows should be recognised");
+        assertTrue(parser.getDnsCache().size() > 0, "DNS answers should feed the passive cache");
+    }
+}
@@ -0,0 +1,79 @@
+package com.javalens;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Set;
+
+import com.javalens.Utils.PacketRow;
+
+public class TcpAnalyzerTest {
+    private static final String CLIENT = "10.0.0.1", SERVER = "10.0.0.2";
+
+    private static PacketRow seg(long ts, boolean fromClient, Set<String> flags, int window) {
+        return PacketRow.builder().timestampNanos(ts).iface("en0")
+            .source(fromClient ? CLIENT : SERVER).destination(fromClient ? SERVER : CLIENT)
+            .protocol("TCP").etherType(0x0800).ipProtocol(6).wireLength(60)
+            .srcPort(fromClient ? 50000 : 443).dstPort(fromClient ? 443 : 50000).windowSize(window).tcpFlags(flags)
+            .build();
+    }
+
+    @Test
+    public void handshakeAndDataRtt() {
+        TcpAnalyzer tcp = new TcpAnalyzer(Set.of(CLIENT));
+        tcp.analyze(seg(0, true, Set.of("SYN"), 1000), 100, 0, 0);
+        tcp.analyze(seg(10_000_000, false, Set.of("SYN", "ACK"), 1000), 500, 101, 0);
+        tcp.analyze(seg(20_000_000, true, Set.of("ACK"), 1000), 101, 501, 0);
+        //Client sends 100 bytes, server ACKs 4 ms later
+        tcp.analyze(seg(21_000_000, true, Set.of("ACK", "PSH"), 1000), 101, 501, 100);
+        tcp.analyze(seg(25_000_000, false, Set.of("ACK"), 1000), 501, 201, 0);
+
+        TcpAnalyzer.HostHealth h = tcp.snapshot().get(0);
+        assertEquals(SERVER, h.getHost());
+        assertEquals(20_000_000, h.getHandshakeRtt().getMax());
+        assertEquals(4_000_000, h.getDataRtt().getMax());
+        assertEquals(0, h.getRetransmissions());
+    }
+
+    @Test
+    public void flagsRetransmissionDupAckAndZeroWindow() {
+        TcpAnalyzer tcp = new TcpAnalyzer(Set.of(CLIENT));
+        tcp.analyze(seg(0, true, Set.of("ACK"), 1000), 1000, 1, 100);
+        //Same data again 200 ms later: a retransmission, not reordering
+        int flags = tcp.analyze(seg(200_000_000, true, Set.of("ACK"), 1000), 1000, 1, 100);
+        assertEquals(TcpAnalyzer.RETRANSMISSION, flags);
+
+        tcp.analyze(seg(201_000_000, false, Set.of("ACK"), 500), 1, 1000, 0);
+        assertEquals(TcpAnalyzer.DUP_ACK, tcp.analyze(seg(202_000_000, false, Set.of("ACK"), 500), 1, 1000, 0));
+        assertEquals(TcpAnalyzer.ZERO_WINDOW, tcp.analyze(seg(203_000_000, false, Set.of("ACK"), 0), 1, 1100, 0));
+
+        TcpAnalyzer.HostHealth h = tcp.snapshot().get(0);
+        assertEquals(1, h.getRetransmissions());
+        assertEquals(1, h.getDupAcks());
+        assertEquals(1, h.getZeroWindows());
+    }
+
+    @Test
+    public void rollsUpConnectionsFromConcurrentCaptureThreads() throws InterruptedException {
+        TcpAnalyzer tcp = new TcpAnalyzer(Set.of());
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            String client = "10.0.1." + t;
+            threads[t] = new Thread(() -> {
+                for (int port = 40000; port < 41000; port++) {
+                    PacketRow syn = PacketRow.builder().timestampNanos(port).source(client).destination(SERVER)
+                        .protocol("TCP").ipProtocol(6).srcPort(port).dstPort(443).windowSize(1000).tcpFlags(Set.of("SYN"))
+                        .build();
+                    tcp.analyze(syn, 1, 0, 0);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+
+        TcpAnalyzer.HostHealth h = tcp.snapshot().get(0);
+        assertEquals(SERVER, h.getHost());
+        assertEquals(4_000, h.getConnections());
+        assertEquals(4_000, h.getSegments());
+    }
+}
@@ -0,0 +1,69 @@
+package com.javalens;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Set;
+import java.util.Arrays;
+
+import com.javalens.ThroughputSeries.Protocol;
+import com.javalens.ThroughputSeries.Direction;
+
+public class ThroughputSeriesTest {
+
+    @Test
+    public void sumsPerSecondBySeries() {
+        ThroughputSeries ts = new ThroughputSeries(Set.of(), 100);
+        int tcpIn = ThroughputSeries.series(Protocol.TCP, Direction.IN);
+        int udpOut = ThroughputSeries.series(Protocol.UDP, Direction.OUT);
+        ts.add(1_000, tcpIn, 2, 3_000);
+        ts.add(1_000, udpOut, 1, 100);
+        ts.add(1_002, tcpIn, 5, 500);
+        ts.add(999, udpOut, 1, 60); // a little late: the range extends backwards
+
+        assertEquals(999, ts.getFirstSecond());
+        assertEquals(1_002, ts.getLastSecond());
+        assertArrayEquals(new long[] {0, 2, 0, 5}, ts.totals(999, 1_002, ThroughputSeries.mask(Protocol.TCP), false));
+        assertArrayEquals(new long[] {480, 800, 0, 0}, ts.totals(999, 1_002, ThroughputSeries.mask(Direction.OUT), true));
+        assertArrayEquals(new long[] {0, 1, 3, 0, 5, 0}, ts.totals(998, 1_003, -1, false));
+    }
+
+    @Test
+    public void growsThenWrapsAtCapacity() {
+        ThroughputSeries ts = new ThroughputSeries(Set.of(), 5_000); // ring starts at 3600 slots and must grow
+        for (long t = 0; t < 12_000; t++) ts.add(t, 0, t, 0);
+
+        assertEquals(12_000 - 5_000, ts.getFirstSecond());
+        assertEquals(11_999, ts.getLastSecond());
+        long[] y = ts.totals(6_990, 7_010, 1, false);
+        for (int i = 0; i < y.length; i++) assertEquals(6_990 + i < 7_000 ? 0 : 6_990 + i, y[i]);
+
+        //Too old to keep
+        ts.add(10, 0, 1, 0);
+        assertEquals(7_000, ts.getFirstSecond());
+
+        //A jump past a whole ring leaves nothing of the old seconds behind
+        ts.add(100_000, 0, 1, 0);
+        assertEquals(1, Arrays.stream(ts.totals(100_000 - 4_999, 100_000, -1, false)).sum());
+    }
+
+    @Test
+    public void lttbKeepsEndpointsAndPeaks() {
+        long[] y = new long[86_400];
+        for (int i = 0; i < y.length; i++) y[i] = 100 + (i % 7);
+        y[43_210] = 1_000_000; // a one-second burst in a day
+        y[70_000] = 0;         // and a one-second outage
+
+        int[] idx = ThroughputSeries.lttb(y, 400);
+        assertEquals(400, idx.length);
+        assertEquals(0, idx[0]);
+        assertEquals(y.length - 1, idx[idx.length - 1]);
+        for (int i = 1; i < idx.length; i++) assertTrue(idx[i] > idx[i - 1]);
+        assertTrue(Arrays.stream(idx).anyMatch(i -> i == 43_210));
+        assertTrue(Arrays.stream(idx).anyMatch(i -> i == 70_000));
+
+        assertArrayEquals(new int[] {0, 1, 2}, ThroughputSeries.lttb(new long[] {5, 6, 7}, 400));
+    }
+}
@@ -0,0 +1,83 @@
+package com.javalens;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Set;
+
+import com.javalens.Utils.PacketRow;
+
+public class TimingStatsTest {
+
+    private static PacketRow row(long ts) {
+        return PacketRow.builder().timestampNanos(ts).iface("en0").source("10.0.0.1").destination("10.0.0.2")
+            .protocol("UDP").etherType(0x0800).ipProtocol(17).wireLength(60).info("UDP 5000 → 53")
+            .srcPort(5000).dstPort(53)
+            .build();
+    }
+
+    @Test
+    public void evenlySpacedPacketsHaveNoJitter() {
+        TimingStats stats = new TimingStats();
+        for (int i = 0; i < 100; i++) stats.record(row(i * 1_000_000L));
+
+        TimingStats.Series iface = stats.interfaceSnapshot().get(0);
+        assertEquals(100, iface.getPackets());
+        assertEquals(1_000_000.0, iface.getMeanGapNanos(), 0.001);
+        assertEquals(0.0, iface.getJitterNanos(), 0.001);
+        assertEquals(0, iface.getMicrobursts());
+        assertEquals(1000.0, iface.getRatePps(), 0.001);
+    }
+
+    @Test
+    public void reorderedPacketsAreCountedButAddNoGap() {
+        TimingStats stats = new TimingStats();
+        for (int i = 0; i < 10; i++) {
+            stats.record(row(i * 1_000_000L));
+            if (i % 3 == 2) stats.record(row(i * 1_000_000L - 1_500_000L)); // arrives late, stamped earlier
+        }
+
+        TimingStats.Series iface = stats.interfaceSnapshot().get(0);
+        assertEquals(13, iface.getPackets());
+        assertEquals(1_000_000.0, iface.getMeanGapNanos(), 0.001);
+        assertEquals(0.0, iface.getStdDevGapNanos(), 0.001);
+        assertEquals(1000.0, iface.getRatePps(), 0.001);
+    }
+
+    @Test
+    public void denseWindowCountsAsMicroburst() {
+        TimingStats stats = new TimingStats();
+        //200 packets 1 µs apart, then a quiet period
+        for (int i = 0; i < 200; i++) stats.record(row(i * 1_000L));
+        stats.record(row(50_000_000L));
+
+        List<TimingStats.Series> flows = stats.topFlows(10);
+        assertEquals(1, flows.size());
+        assertEquals(1, flows.get(0).getMicrobursts());
+        assertEquals(200, flows.get(0).getPeakPacketsPerWindow());
+    }
+
+    @Test
+    public void countsEveryPacketFromConcurrentCaptureThreads() throws InterruptedException {
+        TimingStats stats = new TimingStats();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    stats.record(PacketRow.builder().timestampNanos(i * 1_000L).iface("en0").source("10.0.0." + id)
+                        .destination("10.0.0.9").protocol("UDP").ipProtocol(17).srcPort(5000 + i % 50).dstPort(53)
+                        .build());
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+
+        assertEquals(40_000, stats.interfaceSnapshot().get(0).getPackets());
+        List<TimingStats.Series> flows = stats.topFlows(1_000);
+        assertEquals(200, flows.size());
+        assertEquals(40_000, flows.stream().mapToLong(TimingStats.Series::getPackets).sum());
+    }
+}